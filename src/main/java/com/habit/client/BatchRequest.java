@@ -0,0 +1,84 @@
+package com.habit.client;
+
+import com.habit.domain.util.Config;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * 複数の参照系APIをサーバの /batch で1回のリクエストにまとめて呼び出す。
+ *
+ * <pre>
+ * Map&lt;String, BatchRequest.Result&gt; results = new BatchRequest()
+ *     .add("teams", "/getJoinedTeamInfo")
+ *     .add("points", "/getSabotagePoints")
+ *     .send(client, sessionId);
+ * </pre>
+ */
+public class BatchRequest {
+  private final JSONArray requests = new JSONArray();
+
+  /**
+   * サブリクエストの結果。body はレスポンス本文（JSONの場合はその文字列表現）。
+   */
+  public record Result(int status, String body) {
+    public boolean isOk() { return status == 200; }
+  }
+
+  /**
+   * GETのサブリクエストを追加する。
+   *
+   * @param id 結果を取り出すためのID
+   * @param path クエリ文字列を含むパス（例: "/getChatLog?teamID=xxx"）
+   */
+  public BatchRequest add(String id, String path) {
+    requests.put(new JSONObject().put("id", id).put("path", path));
+    return this;
+  }
+
+  /**
+   * まとめて送信し、IDごとの結果を返す。
+   *
+   * @param sessionId セッションID（nullの場合は付与しない）
+   */
+  public Map<String, Result> send(HttpClient client, String sessionId)
+      throws IOException, InterruptedException {
+    HttpRequest.Builder builder =
+        HttpCompression.newRequestBuilder()
+            .uri(URI.create(Config.getServerUrl() + "/batch"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(
+                new JSONObject().put("requests", requests).toString()));
+    if (sessionId != null && !sessionId.isEmpty()) {
+      builder.header("SESSION_ID", sessionId);
+    }
+    HttpResponse<String> response =
+        client.send(builder.build(), HttpCompression.ofString());
+    if (response.statusCode() != 200) {
+      throw new IOException("一括リクエストに失敗しました: " +
+                            response.statusCode());
+    }
+    return parse(response.body());
+  }
+
+  static Map<String, Result> parse(String body) {
+    Map<String, Result> results = new LinkedHashMap<>();
+    JSONArray responses = new JSONObject(body).getJSONArray("responses");
+    for (int i = 0; i < responses.length(); i++) {
+      JSONObject item = responses.getJSONObject(i);
+      Object value = item.opt("body");
+      String text = value instanceof String ? (String)value
+                    : value == null || value == JSONObject.NULL
+                        ? ""
+                        : value.toString();
+      results.put(item.getString("id"), new Result(item.getInt("status"), text));
+    }
+    return results;
+  }
+}
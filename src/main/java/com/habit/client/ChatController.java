@@ -251,16 +251,15 @@ public class ChatController {
         String url = chatLogUrl +
                      "?teamID=" + URLEncoder.encode(teamID, "UTF-8") +
                      "&limit=50";
-        HttpRequest request = HttpRequest.newBuilder()
+        HttpRequest request = HttpCompression.newRequestBuilder()
                                   .uri(URI.create(url))
                                   .timeout(java.time.Duration.ofSeconds(3))
                                   .GET()
                                   .build();
-        HttpResponse<String> response =
-            httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        String body = ConditionalGet.getString(httpClient, request);
 
         List<Message> messages = new ArrayList<>();
-        JSONArray arr = new JSONArray(response.body());
+        JSONArray arr = new JSONArray(body);
         for (int i = 0; i < arr.length(); i++) {
           JSONObject obj = arr.getJSONObject(i);
           messages.add(Message.fromJson(obj));
@@ -0,0 +1,70 @@
+package com.habit.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ETag を使った条件付きGETを行うユーティリティ。
+ *
+ * 前回取得したレスポンスの ETag と本文をURLごとに保持し、
+ * 次回のリクエストに If-None-Match を付ける。
+ * サーバが 304 Not Modified を返した場合は保持している本文を返すため、
+ * 呼び出し側は通常のGETと同じように本文を扱える。
+ */
+public final class ConditionalGet {
+  private static final int MAX_ENTRIES = 64;
+
+  private static final Map<URI, Entry> cache =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<URI, Entry> eldest) {
+          return size() > MAX_ENTRIES;
+        }
+      };
+
+  private record Entry(String etag, String body) {}
+
+  private ConditionalGet() {}
+
+  /**
+   * リクエストを送信し、本文を返す。
+   * 内容が前回から変わっていなければ保持している本文を返す。
+   *
+   * @param client HTTPクライアント
+   * @param request GETリクエスト（HttpCompression.newRequestBuilder()で作成）
+   * @return レスポンス本文
+   */
+  public static String getString(HttpClient client, HttpRequest request)
+      throws IOException, InterruptedException {
+    URI uri = request.uri();
+    Entry cached;
+    synchronized (cache) {
+      cached = cache.get(uri);
+    }
+    HttpRequest conditional = request;
+    if (cached != null) {
+      conditional = HttpRequest.newBuilder(request, (name, value) -> true)
+                        .header("If-None-Match", cached.etag())
+                        .build();
+    }
+    HttpResponse<String> response =
+        client.send(conditional, HttpCompression.ofString());
+    if (response.statusCode() == 304 && cached != null) {
+      return cached.body();
+    }
+    String etag = response.headers().firstValue("ETag").orElse(null);
+    synchronized (cache) {
+      if (response.statusCode() == 200 && etag != null) {
+        cache.put(uri, new Entry(etag, response.body()));
+      } else {
+        cache.remove(uri);
+      }
+    }
+    return response.body();
+  }
+}
@@ -7,6 +7,7 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
@@ -28,6 +29,8 @@ import org.slf4j.LoggerFactory;
 public class HomeController {
   private static final Logger logger =
       LoggerFactory.getLogger(HomeController.class);
+  // 画面表示のたびに接続を作り直さないよう、HTTPクライアントは共有する
+  private static final HttpClient httpClient = HttpClient.newHttpClient();
   /* キャラクター画像 */
   @FXML private ImageView characterView;
   /* チームリストビュー */
@@ -54,17 +57,35 @@ public class HomeController {
    */
   @FXML
   public void initialize() {
-    loadJoinedTeams();
-    setupCharacterAnimationAndCheer();
+    // チーム一覧とサボりポイントは /batch で1回のリクエストにまとめて取得する
+    String teamsBody = null;
+    String pointsBody = null;
+    try {
+      Map<String, BatchRequest.Result> results =
+          new BatchRequest()
+              .add("teams", "/getJoinedTeamInfo")
+              .add("points", "/getSabotagePoints")
+              .send(httpClient, LoginController.getSessionId());
+      teamsBody = bodyOf(results.get("teams"));
+      pointsBody = bodyOf(results.get("points"));
+    } catch (Exception ex) {
+      logger.error("ホーム画面の情報取得に失敗しました", ex);
+    }
+    showJoinedTeams(teamsBody);
+    setupCharacterAnimationAndCheer(pointsBody);
     setupButtonActions();
   }
 
+  private static String bodyOf(BatchRequest.Result result) {
+    return result != null && result.isOk() ? result.body() : null;
+  }
+
   /**
    * 参加中のチーム情報をサーバから取得し、ListViewに表示する。
    */
   private void loadJoinedTeams() {
+    String body = null;
     try {
-      HttpClient client = HttpClient.newHttpClient();
       HttpRequest.Builder reqBuilder = HttpRequest.newBuilder()
           .uri(URI.create(Config.getServerUrl() + "/getJoinedTeamInfo"))
           .GET();
@@ -75,9 +96,19 @@ public class HomeController {
       }
 
       HttpRequest request = reqBuilder.build();
-      HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-      String body = response.body();
+      HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+      body = response.body();
+    } catch (Exception ex) {
+      ex.printStackTrace();
+    }
+    showJoinedTeams(body);
+  }
 
+  /**
+   * /getJoinedTeamInfo のレスポンスからチーム一覧をListViewに表示する。
+   */
+  private void showJoinedTeams(String body) {
+    try {
       teamListView.getItems().clear();
       if (body != null && !body.trim().isEmpty()) {
         org.json.JSONObject responseObject = new org.json.JSONObject(body);
@@ -146,29 +177,12 @@ public class HomeController {
 
   /**
    * キャラクターのアニメーションと応援メッセージを設定する。
-   * サーバからサボりポイントを取得し、レベルに応じたアニメーションとメッセージを表示する。
+   * サボりポイント（/getSabotagePoints のレスポンス）から、
+   * レベルに応じたアニメーションとメッセージを表示する。
    */
-  private void setupCharacterAnimationAndCheer() {
+  private void setupCharacterAnimationAndCheer(String body) {
     int level = 0; // 初期値
     try {
-      // HTTPリクエストを送信するためのクライアントオブジェクトを作成。
-      HttpClient client = HttpClient.newHttpClient();
-      // URLを作成
-      HttpRequest.Builder reqBuilder =
-          HttpRequest.newBuilder()
-              .uri(URI.create(Config.getServerUrl() + "/getSabotagePoints"))
-              .GET();
-      // セッションIDをヘッダに付与
-      String sessionId = LoginController.getSessionId();
-      if (sessionId != null && !sessionId.isEmpty()) {
-        reqBuilder.header("SESSION_ID", sessionId);
-      }
-      // リクエストを送信
-      HttpRequest request = reqBuilder.build();
-      // レスポンスを受け取り、ボディを文字列として取得
-      HttpResponse<String> response =
-          client.send(request, HttpResponse.BodyHandlers.ofString());
-      String body = response.body();
       if (body != null && !body.trim().isEmpty()) {
         try {
           int sabotagePoints = Integer.parseInt(body.trim());
@@ -404,7 +418,6 @@ public class HomeController {
   private void deleteTeam(String teamId) {
     new Thread(() -> {
       try {
-        HttpClient client = HttpClient.newHttpClient();
         String deleteUrl = Config.getServerUrl() + "/deleteTeam?team_id=" + java.net.URLEncoder.encode(teamId, "UTF-8");
         HttpRequest.Builder reqBuilder = HttpRequest.newBuilder()
             .uri(URI.create(deleteUrl))
@@ -417,7 +430,7 @@ public class HomeController {
         }
 
         HttpRequest request = reqBuilder.build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
         if (response.statusCode() == 200) {
           Platform.runLater(this::loadJoinedTeams);
         } else {
@@ -0,0 +1,90 @@
+package com.habit.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * サーバとの通信でレスポンス圧縮（gzip / deflate）を利用するためのユーティリティ。
+ *
+ * java.net.http.HttpClient は圧縮されたレスポンスを自動で展開しないため、
+ * リクエストに Accept-Encoding を付け、Content-Encoding に応じて展開する
+ * BodyHandler を提供する。
+ */
+public final class HttpCompression {
+  public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+  private HttpCompression() {}
+
+  /**
+   * 圧縮されたレスポンスを受け付けるリクエストビルダーを返す。
+   */
+  public static HttpRequest.Builder newRequestBuilder() {
+    return HttpRequest.newBuilder().header("Accept-Encoding", ACCEPT_ENCODING);
+  }
+
+  /**
+   * Content-Encoding に応じて展開し、文字列として受け取る BodyHandler。
+   * 圧縮されていないレスポンスはそのまま文字列に変換する。
+   */
+  public static HttpResponse.BodyHandler<String> ofString() {
+    return info -> {
+      String encoding = info.headers()
+                            .firstValue("Content-Encoding")
+                            .orElse("")
+                            .trim()
+                            .toLowerCase(Locale.ROOT);
+      Charset charset = charsetOf(info.headers()
+                                      .firstValue("Content-Type")
+                                      .orElse(""));
+      return HttpResponse.BodySubscribers.mapping(
+          HttpResponse.BodySubscribers.ofByteArray(),
+          bytes -> new String(decode(bytes, encoding), charset));
+    };
+  }
+
+  private static byte[] decode(byte[] bytes, String encoding) {
+    if (bytes.length == 0) {
+      return bytes;
+    }
+    try {
+      switch (encoding) {
+      case "gzip":
+      case "x-gzip":
+        try (InputStream in =
+                 new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+          return in.readAllBytes();
+        }
+      case "deflate":
+        try (InputStream in =
+                 new InflaterInputStream(new ByteArrayInputStream(bytes))) {
+          return in.readAllBytes();
+        }
+      default:
+        return bytes;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("レスポンスの展開に失敗しました", e);
+    }
+  }
+
+  private static Charset charsetOf(String contentType) {
+    int index = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+    if (index >= 0) {
+      try {
+        return Charset.forName(contentType.substring(index + 8).trim());
+      } catch (IllegalArgumentException e) {
+        // 不明な文字コードはUTF-8として扱う
+      }
+    }
+    return StandardCharsets.UTF_8;
+  }
+}
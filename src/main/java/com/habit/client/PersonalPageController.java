@@ -259,13 +259,13 @@ public class PersonalPageController {
             String url = Config.getServerUrl() + "/getAllUserTaskStatus?teamID=" + java.net.URLEncoder.encode(teamID, "UTF-8");
             logger.info("[PersonalPageController] Fetching user tasks from: {}", url);
             
-            java.net.http.HttpRequest request = java.net.http.HttpRequest.newBuilder()
+            java.net.http.HttpRequest request = HttpCompression.newRequestBuilder()
                     .uri(java.net.URI.create(url))
                     .timeout(java.time.Duration.ofSeconds(10))
                     .header("SESSION_ID", sessionId)
                     .GET()
                     .build();
-            java.net.http.HttpResponse<String> response = client.send(request, java.net.http.HttpResponse.BodyHandlers.ofString());
+            java.net.http.HttpResponse<String> response = client.send(request, HttpCompression.ofString());
             String json = response.body();
             logger.info("[PersonalPageController] API response: {}", json);
             
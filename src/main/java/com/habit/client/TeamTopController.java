@@ -57,6 +57,10 @@ public class TeamTopController {
 
   private final String serverUrl = Config.getServerUrl() + "/sendChatMessage";
   private final String chatLogUrl = Config.getServerUrl() + "/getChatLog";
+  private final String dashboardUrl = Config.getServerUrl() + "/teamDashboard";
+
+  // 画面表示のたびに接続を作り直さないよう、HTTPクライアントは共有する
+  private static final HttpClient httpClient = HttpClient.newHttpClient();
 
   /*  遷移時に渡すユーザーIDとチームID, チーム名
    * これらは全てのコントローラが持つようにしてください。
@@ -88,10 +92,7 @@ public class TeamTopController {
     this.teamID = teamID;
     logger.info("teamID set: " + teamID);
     // teamIDがセットされたタイミングでタスク、チャット、サボりランキングを読み込む。
-    loadTeamTasksAndUserTasks();
-    loadChatLog();
-    loadSabotageRanking();
-    loadTaskStatusTable();
+    loadDashboard();
   }
 
   /**
@@ -436,129 +437,46 @@ public class TeamTopController {
   
 
   /**
-   * チームタスク・ユーザタスク取得メソッド
+   * チームトップ画面の表示内容（未完了タスク、チャット、サボりランキング、
+   * 進捗表）を /teamDashboard から一括で取得して表示する。
    * チームIDがセットされたタイミングで呼び出される。
-   * PersonalPageと同じAPIを使用して同じタスクを表示する。
    */
-  private void loadTeamTasksAndUserTasks() {
+  private void loadDashboard() {
     new Thread(() -> {
       try {
         // teamIDがnullの場合は処理をスキップ
         if (teamID == null) {
-          logger.error("teamID is null, skipping loadTeamTasksAndUserTasks");
+          logger.error("teamID is null, skipping loadDashboard");
           return;
         }
         String sessionId = LoginController.getSessionId();
-        HttpClient client = HttpClient.newHttpClient();
-        // 新しいAPIを呼び出す
-        String url = Config.getServerUrl() +
-                     "/getIncompleteUserTaskStatus?teamID=" +
-                     URLEncoder.encode(teamID, "UTF-8");
-        HttpRequest request = HttpRequest.newBuilder()
+        // 進捗表は過去7日＋今日＋将来7日の計15日間を表示するため、
+        // 今日から7日後をdateに設定し、daysを15日間にする
+        String date = java.time.LocalDate.now().plusDays(7).toString();
+        String url = dashboardUrl +
+                     "?teamID=" + URLEncoder.encode(teamID, "UTF-8") +
+                     "&date=" + date + "&days=15&limit=50";
+        HttpRequest.Builder builder = HttpCompression.newRequestBuilder()
                                   .uri(URI.create(url))
                                   .timeout(java.time.Duration.ofSeconds(10))
-                                  .header("SESSION_ID", sessionId)
-                                  .GET()
-                                  .build();
+                                  .GET();
+        if (sessionId != null && !sessionId.isEmpty()) {
+          builder.header("SESSION_ID", sessionId);
+        }
         HttpResponse<String> response =
-            client.send(request, HttpResponse.BodyHandlers.ofString());
-        // レスポンスは
-        // [{"taskId":"...","taskName":"...","dueDate":"...","isDone":false}]
-        // のJSON配列
-        java.util.List<String> taskNames = new java.util.ArrayList<>();
-        String json = response.body();
-        logger.info("[TeamTopController] API response: " + json);
-        if (json != null && json.startsWith("[")) {
-          org.json.JSONArray arr = new org.json.JSONArray(json);
-          for (int i = 0; i < arr.length(); i++) {
-            org.json.JSONObject obj = arr.getJSONObject(i);
-            String taskName = obj.optString("taskName", null);
-            if (taskName != null) {
-              taskNames.add(taskName);
-            }
-          }
+            httpClient.send(builder.build(), HttpCompression.ofString());
+        if (response.statusCode() != 200) {
+          logger.error("[loadDashboard] status={} body={}",
+                       response.statusCode(), response.body());
+          return;
         }
-        // logger.info("[TeamTopController] Total tasks to display: " +
-        // taskNames.size());
-        Platform.runLater(() -> {
-          Callback<ListView<String>, ListCell<String>> cellFactory = p -> {
-            ListCell<String> cell = new ListCell<String>() {
-              @Override
-              public void updateItem(String item, boolean empty) {
-                super.updateItem(item, empty);
-
-                if (item == null) {
-                  setText("");
-                  setCursor(Cursor.DEFAULT);
-                  setOnMouseClicked(null);
-                  return;
-                }
-
-                // logger.info("[TeamTopController] Total tasks to display: " + taskNames.size());
-                Platform.runLater(() -> {
-                    Callback<ListView<String>,ListCell<String>> cellFactory = p ->
-                    {
-                        ListCell<String> cell = new ListCell<String>()
-                        {
-                            @Override
-                            public void updateItem(String item,boolean empty)
-                            {
-                                super.updateItem(item,empty);
-
-                                if(item == null){
-                                    setText("");
-                                    setCursor(Cursor.DEFAULT);
-                                    setOnMouseClicked(null);
-                                    return;
-                                }
-                                setCursor(Cursor.CLOSED_HAND);
-                                setOnMouseClicked(event ->{
-                                    try {
-                                        javafx.fxml.FXMLLoader loader = new javafx.fxml.FXMLLoader(getClass().getResource("/com/habit/client/gui/PersonalPage.fxml"));
-                                        javafx.scene.Parent root = loader.load();
-                                        PersonalPageController controller = loader.getController();
-                                        // 各データを渡す
-                                        controller.setUserId(userId);
-                                        controller.setTeamID(teamID);
-                                        controller.setTeamName(teamName);
-                                        controller.setCreatorId(creatorId);
-                                        controller.setTeam(team);
-                                        // ユーザーのタスク一覧を渡す
-                                        controller.setUserTasks(getUserTasksForPersonalPage());
-                                        javafx.stage.Stage stage = (javafx.stage.Stage) btnToPersonal.getScene().getWindow();
-                                        stage.setScene(new javafx.scene.Scene(root));
-                                        stage.setTitle("個人ページ");
-                                    } catch (Exception ex) {
-                                        ex.printStackTrace();
-                                    }
-                                    });
-                                setText(item);
-                            }
-                        };
-                        int cellSize=80;
-                        cell.setPrefWidth(cellSize+20);
-                        cell.setPrefHeight(cellSize);
-                        return cell;
-                    }; 
-                    todayTaskList.setCellFactory(cellFactory);
-                    todayTaskList.getItems().setAll(taskNames);
-
-                });
-                setText(item);
-                String white = "#FF00FF";
-                setStyle("-fx-background-color: " + white +
-                         ("; -fx-background-radius: 10;-fx-alignment: "
-                          + "center;-fx-background-insets:5 5 5 5;"));
-              }
-            };
-            int cellSize = 80;
-            cell.setPrefWidth(cellSize + 20);
-            cell.setPrefHeight(cellSize);
-            return cell;
-          };
-          todayTaskList.setCellFactory(cellFactory);
-          todayTaskList.getItems().setAll(taskNames);
-        });
+        JSONObject dashboard = new JSONObject(response.body());
+        showTodayTasks(dashboard.getJSONArray("incompleteTasks"));
+        showChatLog(dashboard.getJSONArray("chatLog"));
+        showSabotageRanking(dashboard.getJSONArray("ranking"));
+        showTaskStatusTable(dashboard.getJSONArray("members"),
+                            dashboard.getJSONArray("tasks"),
+                            dashboard.getJSONArray("taskStatuses"));
       } catch (Exception e) {
         e.printStackTrace();
       }
@@ -566,69 +484,102 @@ public class TeamTopController {
   }
 
   /**
-   * ユーザーのタスク一覧を取得するメソッド。
-   * 今日のタスクリストからユーザーのタスクオブジェクトを取得する例。
-   * 必要に応じてキャッシュやフィールドに保持しておくことも可能。
-   * ここでは簡易的に再取得する例を示す。
+   * 本人の未完了タスクを今日のタスクリストに表示する。
+   * PersonalPageと同じタスク（/getIncompleteUserTaskStatus と同じ形式）を表示する。
    *
-   * @return ユーザーのタスク一覧
+   * @param arr [{"taskId":"...","taskName":"...","dueDate":"...","isDone":false}]
+   *            のJSON配列
    */
-  private java.util.List<com.habit.domain.Task> getUserTasksForPersonalPage() {
-    try {
-      // teamIDがnullの場合は空のリストを返す
-      if (teamID == null) {
-        logger.error("teamID is null, returning empty task list");
-        return new java.util.ArrayList<>();
+  private void showTodayTasks(JSONArray arr) {
+    java.util.List<String> taskNames = new java.util.ArrayList<>();
+    for (int i = 0; i < arr.length(); i++) {
+      org.json.JSONObject obj = arr.getJSONObject(i);
+      String taskName = obj.optString("taskName", null);
+      if (taskName != null) {
+        taskNames.add(taskName);
       }
-      String sessionId = LoginController.getSessionId();
-      HttpClient client = HttpClient.newHttpClient();
-      // 新しいAPIを呼び出す
-      String url = Config.getServerUrl() +
-                   "/getIncompleteUserTaskStatus?teamID=" +
-                   URLEncoder.encode(teamID, "UTF-8");
-      HttpRequest request = HttpRequest.newBuilder()
-                                .uri(URI.create(url))
-                                .timeout(java.time.Duration.ofSeconds(10))
-                                .header("SESSION_ID", sessionId)
-                                .GET()
-                                .build();
-      HttpResponse<String> response =
-          client.send(request, HttpResponse.BodyHandlers.ofString());
-      String json = response.body();
-      java.util.List<com.habit.domain.Task> tasks = new java.util.ArrayList<>();
-      if (json != null && json.startsWith("[")) {
-        org.json.JSONArray arr = new org.json.JSONArray(json);
-        for (int i = 0; i < arr.length(); i++) {
-          org.json.JSONObject obj = arr.getJSONObject(i);
-          String taskId = obj.optString("taskId", null);
-          String taskName = obj.optString("taskName", null);
-          String dueDateStr = obj.optString("dueDate", null);
-          java.time.LocalDate dueDate = null;
-          if (dueDateStr != null && !dueDateStr.isEmpty() &&
-              !"null".equals(dueDateStr)) {
-            try {
-              dueDate = java.time.LocalDate.parse(dueDateStr);
-            } catch (Exception ignore) {
+    }
+    // logger.info("[TeamTopController] Total tasks to display: " +
+    // taskNames.size());
+    Platform.runLater(() -> {
+      Callback<ListView<String>, ListCell<String>> cellFactory = p -> {
+        ListCell<String> cell = new ListCell<String>() {
+          @Override
+          public void updateItem(String item, boolean empty) {
+            super.updateItem(item, empty);
+
+            if (item == null) {
+              setText("");
+              setCursor(Cursor.DEFAULT);
+              setOnMouseClicked(null);
+              return;
             }
-          }
 
-          if (taskId != null && taskName != null) {
-            com.habit.domain.Task t =
-                new com.habit.domain.Task(taskId, taskName);
+            // logger.info("[TeamTopController] Total tasks to display: " + taskNames.size());
+            Platform.runLater(() -> {
+              Callback<ListView<String>,ListCell<String>> cellFactory = p ->
+              {
+                ListCell<String> cell = new ListCell<String>()
+                {
+                  @Override
+                  public void updateItem(String item,boolean empty)
+                  {
+                    super.updateItem(item,empty);
+
+                    if(item == null){
+                      setText("");
+                      setCursor(Cursor.DEFAULT);
+                      setOnMouseClicked(null);
+                      return;
+                    }
+                    setCursor(Cursor.CLOSED_HAND);
+                    setOnMouseClicked(event ->{
+                      try {
+                        javafx.fxml.FXMLLoader loader = new javafx.fxml.FXMLLoader(getClass().getResource("/com/habit/client/gui/PersonalPage.fxml"));
+                        javafx.scene.Parent root = loader.load();
+                        PersonalPageController controller = loader.getController();
+                        // 各データを渡す
+                        controller.setUserId(userId);
+                        controller.setTeamID(teamID);
+                        controller.setTeamName(teamName);
+                        controller.setCreatorId(creatorId);
+                        controller.setTeam(team);
+                        // タスク一覧は個人ページ側で取得する
+                        controller.setUserTasks(new java.util.ArrayList<>());
+                        javafx.stage.Stage stage = (javafx.stage.Stage) btnToPersonal.getScene().getWindow();
+                        stage.setScene(new javafx.scene.Scene(root));
+                        stage.setTitle("個人ページ");
+                      } catch (Exception ex) {
+                        ex.printStackTrace();
+                      }
+                    });
+                    setText(item);
+                  }
+                };
+                int cellSize=80;
+                cell.setPrefWidth(cellSize+20);
+                cell.setPrefHeight(cellSize);
+                return cell;
+              }; 
+              todayTaskList.setCellFactory(cellFactory);
+              todayTaskList.getItems().setAll(taskNames);
 
-            // dueDateを設定（setterメソッドを使用）
-            if (dueDate != null) {
-              t.setDueDate(dueDate);
-            }
-            tasks.add(t);
+            });
+            setText(item);
+            String white = "#FF00FF";
+            setStyle("-fx-background-color: " + white +
+                     ("; -fx-background-radius: 10;-fx-alignment: "
+                      + "center;-fx-background-insets:5 5 5 5;"));
           }
-        }
-      }
-      return tasks;
-    } catch (Exception e) {
-      e.printStackTrace();
-      return new java.util.ArrayList<>();
-    }
+        };
+        int cellSize = 80;
+        cell.setPrefWidth(cellSize + 20);
+        cell.setPrefHeight(cellSize);
+        return cell;
+      };
+      todayTaskList.setCellFactory(cellFactory);
+      todayTaskList.getItems().setAll(taskNames);
+    });
   }
 
   /**
@@ -643,300 +594,234 @@ public class TeamTopController {
           logger.error("teamID is null, skipping loadChatLog");
           return;
         }
-        // HTTPリクエストを送信するためのクライアントオブジェクトを作成
-        HttpClient client = HttpClient.newHttpClient();
         // チャットログのURLを作成
         // limitを大きめにして全件取得し、Java側で最新3件を抽出
         String url = chatLogUrl +
                      "?teamID=" + URLEncoder.encode(teamID, "UTF-8") +
                      "&limit=50";
         // リクエストを送信
-        HttpRequest request = HttpRequest.newBuilder()
+        HttpRequest request = HttpCompression.newRequestBuilder()
                                   .uri(URI.create(url))
                                   .timeout(java.time.Duration.ofSeconds(3))
                                   .GET()
                                   .build();
-        // レスポンスを取得
-        HttpResponse<String> response =
-            client.send(request, HttpResponse.BodyHandlers.ofString());
-
-        // レスポンスのボディをJSONとして解析し、メッセージリストを作成
-        List<com.habit.domain.Message> messages = new ArrayList<>();
-        JSONArray arr = new JSONArray(response.body());
-        for (int i = 0; i < arr.length(); i++) {
-          JSONObject obj = arr.getJSONObject(i);
-          messages.add(com.habit.domain.Message.fromJson(obj));
-        }
+        // レスポンスを取得（前回から変化がなければ保持している本文）
+        String body = ConditionalGet.getString(httpClient, request);
+        showChatLog(new JSONArray(body));
+      } catch (Exception e) {
+        e.printStackTrace();
+      }
+    }).start();
+  }
 
+  /**
+   * チャットログの最新3件をチャットリストに表示する。
+   *
+   * @param arr Message#toJson() 形式のメッセージの配列
+   */
+  private void showChatLog(JSONArray arr) {
+    // JSONを解析し、メッセージリストを作成
+    List<com.habit.domain.Message> messages = new ArrayList<>();
+    for (int i = 0; i < arr.length(); i++) {
+      JSONObject obj = arr.getJSONObject(i);
+      messages.add(com.habit.domain.Message.fromJson(obj));
+    }
 
-        // タイムスタンプで降順（新しい順）にソート
-        messages.sort(java.util.Comparator.comparing(
-            com.habit.domain.Message::getTimestamp).reversed());
+    // タイムスタンプで降順（新しい順）にソート
+    messages.sort(java.util.Comparator.comparing(
+        com.habit.domain.Message::getTimestamp).reversed());
 
-        // 最新3件のみ抽出（新しい順）
-        List<com.habit.domain.Message> latestMessages = messages.size() >= 3 ? messages.subList(0, 3) : new ArrayList<>(messages);
+    // 最新3件のみ抽出（新しい順）
+    List<com.habit.domain.Message> latestMessages = messages.size() >= 3 ? messages.subList(0, 3) : new ArrayList<>(messages);
 
-        // 表示時は古い順（下に新しいものが来る）に逆順にする
-        Collections.reverse(latestMessages);
+    // 表示時は古い順（下に新しいものが来る）に逆順にする
+    Collections.reverse(latestMessages);
 
-        // ユーザー名とメッセージ内容のみの表示形式に整形
-        List<String> chatItems = new ArrayList<>();
-        for (var msg : latestMessages) {
-          StringBuilder sb = new StringBuilder();
-          sb.append('[' + msg.getSender().getUsername() + ']');
-          sb.append(": " + msg.getContent());
-          chatItems.add(sb.toString());
-        }
+    // ユーザー名とメッセージ内容のみの表示形式に整形
+    List<String> chatItems = new ArrayList<>();
+    for (var msg : latestMessages) {
+      StringBuilder sb = new StringBuilder();
+      sb.append('[' + msg.getSender().getUsername() + ']');
+      sb.append(": " + msg.getContent());
+      chatItems.add(sb.toString());
+    }
 
-        Platform.runLater(() -> { chatList.getItems().setAll(chatItems); });
-      } catch (Exception e) {
-        e.printStackTrace();
-      }
-    }).start();
+    Platform.runLater(() -> { chatList.getItems().setAll(chatItems); });
   }
 
   /**
    * チームタスク×メンバーの進捗表を作成し表示する
+   *
+   * @param membersArr [{userId, username}] の配列
+   * @param tasksArr [{taskId, taskName, cycleType}] の配列
+   * @param statusArr [{userId, taskId, date, isDone}] の配列
    */
-  private void loadTaskStatusTable() {
-    new Thread(() -> {
-      try {
-        String sessionId = LoginController.getSessionId();
-        HttpClient client = HttpClient.newHttpClient();
-        // チームメンバー一覧取得
-        String membersUrl = Config.getServerUrl() + "/getTeamMembers?teamID=" +
-                            URLEncoder.encode(teamID, "UTF-8");
-        HttpRequest membersReq = HttpRequest.newBuilder()
-                                     .uri(URI.create(membersUrl))
-                                     .timeout(java.time.Duration.ofSeconds(5))
-                                     .header("SESSION_ID", sessionId)
-                                     .GET()
-                                     .build();
-        HttpResponse<String> membersRes =
-            client.send(membersReq, HttpResponse.BodyHandlers.ofString());
-        String membersBody = membersRes.body();
-        JSONArray membersArr;
-        if (membersBody != null && membersBody.trim().startsWith("[")) {
-          membersArr = new JSONArray(membersBody);
-        } else {
-          logger.info("[loadTaskStatusTable] getTeamMembers "
-                      +
-                      "APIレスポンスが配列形式ではありません: " + membersBody);
-          membersArr = new JSONArray();
-        }
-        List<String> memberIds = new ArrayList<>();
-        List<String> memberNames = new ArrayList<>();
-        for (int i = 0; i < membersArr.length(); i++) {
-          JSONObject obj = membersArr.getJSONObject(i);
-          memberIds.add(obj.optString("userId"));
-          memberNames.add(obj.optString("username"));
-        }
-
-        // タスク一覧取得
-        String tasksUrl = Config.getServerUrl() + "/getTeamTasks?teamID=" +
-                          URLEncoder.encode(teamID, "UTF-8");
-        HttpRequest tasksReq = HttpRequest.newBuilder()
-                                   .uri(URI.create(tasksUrl))
-                                   .timeout(java.time.Duration.ofSeconds(5))
-                                   .header("SESSION_ID", sessionId)
-                                   .GET()
-                                   .build();
-        HttpResponse<String> tasksRes =
-            client.send(tasksReq, HttpResponse.BodyHandlers.ofString());
-        String tasksBody = tasksRes.body();
-        JSONArray tasksArr;
-        if (tasksBody != null && tasksBody.trim().startsWith("[")) {
-          tasksArr = new JSONArray(tasksBody);
-        } else {
-          logger.info("[loadTaskStatusTable] getTeamTasks "
-                      + "APIレスポンスが配列形式ではありません: " + tasksBody);
-          tasksArr = new JSONArray();
-        }
-        List<String> taskNames = new ArrayList<>();
-        List<String> taskIds = new ArrayList<>();
-        Map<String, String> taskCycleTypeMap =
-            new HashMap<>();                               // taskId→cycleType
-        Map<String, String> taskNameMap = new HashMap<>(); // taskId -> taskName
-        for (int i = 0; i < tasksArr.length(); i++) {
-          JSONObject obj = tasksArr.getJSONObject(i);
-          String taskId = obj.optString("taskId");
-          String taskName = obj.optString("taskName");
-          String cycleType = obj.optString("cycleType", "");
-          taskIds.add(taskId);
-          taskNames.add(taskName);
-          taskCycleTypeMap.put(taskId, cycleType);
-          taskNameMap.put(taskId, taskName);
-        }
+  private void showTaskStatusTable(JSONArray membersArr, JSONArray tasksArr,
+                                   JSONArray statusArr) {
+    List<String> memberIds = new ArrayList<>();
+    List<String> memberNames = new ArrayList<>();
+    for (int i = 0; i < membersArr.length(); i++) {
+      JSONObject obj = membersArr.getJSONObject(i);
+      memberIds.add(obj.optString("userId"));
+      memberNames.add(obj.optString("username"));
+    }
 
-        // 進捗一覧取得（全メンバー×タスク×過去7日と将来7日）
-        // 今日から7日後をdateに設定し、daysを15日間にすることで、過去7日＋今日＋将来7日の計15日間のデータを取得する
-        String date = java.time.LocalDate.now().plusDays(7).toString();
-        int days = 15;
-        String statusUrl = Config.getServerUrl() +
-                           "/getTeamTaskStatusList?teamID=" +
-                           URLEncoder.encode(teamID, "UTF-8") +
-                           "&date=" + date + "&days=" + days;
-        HttpRequest statusReq = HttpRequest.newBuilder()
-                                    .uri(URI.create(statusUrl))
-                                    .timeout(java.time.Duration.ofSeconds(10))
-                                    .header("SESSION_ID", sessionId)
-                                    .GET()
-                                    .build();
-        HttpResponse<String> statusRes =
-            client.send(statusReq, HttpResponse.BodyHandlers.ofString());
-        String statusBody = statusRes.body();
-        JSONArray statusArr;
-        if (statusBody != null && statusBody.trim().startsWith("[")) {
-          statusArr = new JSONArray(statusBody);
-        } else {
-          logger.info("[loadTaskStatusTable] getTeamTaskStatusList "
-                      + "APIレスポンスが配列形式ではありません: " + statusBody);
-          statusArr = new JSONArray();
-        }
-        // Map<userId+taskId, List<isDone>>
-        Map<String, List<Boolean>> statusMap = new HashMap<>();
-        for (int i = 0; i < statusArr.length(); i++) {
-          JSONObject obj = statusArr.getJSONObject(i);
-          String uid = obj.optString("userId");
-          String tid = obj.optString("taskId");
-          boolean isDone = obj.optBoolean("isDone", false);
-          String key = uid + "_" + tid;
-          statusMap.computeIfAbsent(key, k -> new ArrayList<>()).add(isDone);
-        }
+    List<String> taskNames = new ArrayList<>();
+    List<String> taskIds = new ArrayList<>();
+    Map<String, String> taskCycleTypeMap =
+        new HashMap<>();                               // taskId→cycleType
+    Map<String, String> taskNameMap = new HashMap<>(); // taskId -> taskName
+    for (int i = 0; i < tasksArr.length(); i++) {
+      JSONObject obj = tasksArr.getJSONObject(i);
+      String taskId = obj.optString("taskId");
+      String taskName = obj.optString("taskName");
+      String cycleType = obj.optString("cycleType", "");
+      taskIds.add(taskId);
+      taskNames.add(taskName);
+      taskCycleTypeMap.put(taskId, cycleType);
+      taskNameMap.put(taskId, taskName);
+    }
 
-        // TableViewのカラム生成
-        Platform.runLater(() -> {
-          taskTable.getColumns().clear();
-          taskTable.setFixedCellSize(32); // セルの高さを狭く
-          // 1列目: タスク名
-          TableColumn<ObservableList<Object>, String> taskCol =
-              new TableColumn<>("タスク名");
-          taskCol.setCellValueFactory(
-              data
-              -> new javafx.beans.property.SimpleStringProperty(
-                  (String)data.getValue().get(0)));
-          taskCol.setStyle(
-              "-fx-font-size: 15px; -fx-alignment: center; -fx-padding: 4 0;");
-          taskCol.setPrefWidth(90); // 横幅を半分に
-          taskTable.getColumns().add(taskCol);
-          // 2列目以降: メンバーごと
-          for (int i = 0; i < memberNames.size(); i++) {
-            final int colIdx = i + 1;
-            TableColumn<ObservableList<Object>, Integer> memCol =
-                new TableColumn<>(memberNames.get(i));
-            memCol.setCellValueFactory(data -> {
-              Object v = data.getValue().get(colIdx);
-              return new javafx.beans.property.SimpleIntegerProperty((Integer)v)
-                  .asObject();
-            });
-            memCol.setPrefWidth(45);
-            memCol.setCellFactory(tc -> new TableCell<>() {
-              @Override
-              protected void updateItem(Integer daysDone, boolean empty) {
-                super.updateItem(daysDone, empty);
-                if (empty || daysDone == null) {
-                  setText("");
-                  setStyle("");
-                } else {
-                  // ユーザーIDを取得
-                  int rowIdx = getIndex();
-                  if (rowIdx < 0 || rowIdx >= taskIds.size()) {
-                    setText("");
-                    setStyle("");
-                    return;
-                  }
-                  String tid = taskIds.get(rowIdx);
-                  String cycleType = taskCycleTypeMap.getOrDefault(tid, "");
-                  String key = memberIds.get(colIdx - 1) + "_" + tid;
-                  List<Boolean> doneList =
-                      statusMap.getOrDefault(key, Collections.emptyList());
+    // Map<userId+taskId, List<isDone>>
+    Map<String, List<Boolean>> statusMap = new HashMap<>();
+    for (int i = 0; i < statusArr.length(); i++) {
+      JSONObject obj = statusArr.getJSONObject(i);
+      String uid = obj.optString("userId");
+      String tid = obj.optString("taskId");
+      boolean isDone = obj.optBoolean("isDone", false);
+      String key = uid + "_" + tid;
+      statusMap.computeIfAbsent(key, k -> new ArrayList<>()).add(isDone);
+    }
 
-                  // daysDoneは0または1のみを使用（週次タスク）または実際の達成日数（通常タスク）
-                  if ("weekly".equals(cycleType)) {
-                    boolean anyDone = daysDone > 0;
-                    setText(anyDone ? "✓" : "");
-                    setStyle("-fx-background-color: " +
-                             (anyDone ? "#b2e5b2" : "#ffffff") +
-                             ("; -fx-alignment: center; -fx-font-size: 20px; "
-                              + "-fx-font-weight: bold; -fx-padding: 4 0;"));
-                  } else {
-                    // setText(String.valueOf(daysDone)); // 数字表示を消す
-                    setText("");
-                    String color;
-                    switch (daysDone) {
-                    case 0:
-                      color = "#ffffff";
-                      break;
-                    case 1:
-                      color = "#e0f8e0";
-                      break;
-                    case 2:
-                      color = "#b2e5b2";
-                      break;
-                    case 3:
-                      color = "#7fd87f";
-                      break;
-                    case 4:
-                      color = "#4fc24f";
-                      break;
-                    case 5:
-                      color = "#2e9e2e";
-                      break;
-                    case 6:
-                      color = "#176b17";
-                      break;
-                    case 7:
-                      color = "#0a2d0a";
-                      break;
-                    default:
-                      color = "#ffffff";
-                    }
-                    setStyle("-fx-background-color: " + color +
-                             ("; -fx-alignment: center; -fx-font-size: 15px; "
-                              + "-fx-padding: 4 0; ") +
-                             "-fx-text-fill: " +
-                             (daysDone > 4 ? "white" : "black") + ";");
-                  }
-                }
+    // TableViewのカラム生成
+    Platform.runLater(() -> {
+      taskTable.getColumns().clear();
+      taskTable.setFixedCellSize(32); // セルの高さを狭く
+      // 1列目: タスク名
+      TableColumn<ObservableList<Object>, String> taskCol =
+          new TableColumn<>("タスク名");
+      taskCol.setCellValueFactory(
+          data
+          -> new javafx.beans.property.SimpleStringProperty(
+              (String)data.getValue().get(0)));
+      taskCol.setStyle(
+          "-fx-font-size: 15px; -fx-alignment: center; -fx-padding: 4 0;");
+      taskCol.setPrefWidth(90); // 横幅を半分に
+      taskTable.getColumns().add(taskCol);
+      // 2列目以降: メンバーごと
+      for (int i = 0; i < memberNames.size(); i++) {
+        final int colIdx = i + 1;
+        TableColumn<ObservableList<Object>, Integer> memCol =
+            new TableColumn<>(memberNames.get(i));
+        memCol.setCellValueFactory(data -> {
+          Object v = data.getValue().get(colIdx);
+          return new javafx.beans.property.SimpleIntegerProperty((Integer)v)
+              .asObject();
+        });
+        memCol.setPrefWidth(45);
+        memCol.setCellFactory(tc -> new TableCell<>() {
+          @Override
+          protected void updateItem(Integer daysDone, boolean empty) {
+            super.updateItem(daysDone, empty);
+            if (empty || daysDone == null) {
+              setText("");
+              setStyle("");
+            } else {
+              // ユーザーIDを取得
+              int rowIdx = getIndex();
+              if (rowIdx < 0 || rowIdx >= taskIds.size()) {
+                setText("");
+                setStyle("");
+                return;
               }
-            });
-            memCol.setEditable(false);
-            taskTable.getColumns().add(memCol);
-          }
-          // データ行生成（行＝タスク、列＝[タスク名,
-          // 各メンバーの7日間達成日数]）
-          javafx.collections.ObservableList<ObservableList<Object>> rows =
-              javafx.collections.FXCollections.observableArrayList();
-          for (int t = 0; t < taskIds.size(); t++) {
-            ObservableList<Object> row =
-                javafx.collections.FXCollections.observableArrayList();
-            row.add(taskNames.get(t)); // 1列目: タスク名
-            String tid = taskIds.get(t);
-            for (String uid : memberIds) {
-              String key = uid + "_" + tid;
+              String tid = taskIds.get(rowIdx);
+              String cycleType = taskCycleTypeMap.getOrDefault(tid, "");
+              String key = memberIds.get(colIdx - 1) + "_" + tid;
               List<Boolean> doneList =
                   statusMap.getOrDefault(key, Collections.emptyList());
-              String cycleType = taskCycleTypeMap.getOrDefault(tid, "");
 
+              // daysDoneは0または1のみを使用（週次タスク）または実際の達成日数（通常タスク）
               if ("weekly".equals(cycleType)) {
-                // 週次タスクの場合は、いずれかが達成されているかどうかを1か0で表現
-                boolean anyDone = doneList.stream().anyMatch(b -> b);
-                row.add(anyDone ? 1 : 0);
+                boolean anyDone = daysDone > 0;
+                setText(anyDone ? "✓" : "");
+                setStyle("-fx-background-color: " +
+                         (anyDone ? "#b2e5b2" : "#ffffff") +
+                         ("; -fx-alignment: center; -fx-font-size: 20px; "
+                          + "-fx-font-weight: bold; -fx-padding: 4 0;"));
               } else {
-                // 通常タスクの場合は達成日数をカウント
-                int daysDone = (int)doneList.stream().filter(b -> b).count();
-                row.add(daysDone);
+                // setText(String.valueOf(daysDone)); // 数字表示を消す
+                setText("");
+                String color;
+                switch (daysDone) {
+                case 0:
+                  color = "#ffffff";
+                  break;
+                case 1:
+                  color = "#e0f8e0";
+                  break;
+                case 2:
+                  color = "#b2e5b2";
+                  break;
+                case 3:
+                  color = "#7fd87f";
+                  break;
+                case 4:
+                  color = "#4fc24f";
+                  break;
+                case 5:
+                  color = "#2e9e2e";
+                  break;
+                case 6:
+                  color = "#176b17";
+                  break;
+                case 7:
+                  color = "#0a2d0a";
+                  break;
+                default:
+                  color = "#ffffff";
+                }
+                setStyle("-fx-background-color: " + color +
+                         ("; -fx-alignment: center; -fx-font-size: 15px; "
+                          + "-fx-padding: 4 0; ") +
+                         "-fx-text-fill: " +
+                         (daysDone > 4 ? "white" : "black") + ";");
               }
             }
-            rows.add(row);
           }
-          taskTable.setItems(rows);
-          taskTable.setEditable(false); // 編集不可
         });
-      } catch (Exception e) {
-        e.printStackTrace();
+        memCol.setEditable(false);
+        taskTable.getColumns().add(memCol);
       }
-    }).start();
+      // データ行生成（行＝タスク、列＝[タスク名,
+      // 各メンバーの7日間達成日数]）
+      javafx.collections.ObservableList<ObservableList<Object>> rows =
+          javafx.collections.FXCollections.observableArrayList();
+      for (int t = 0; t < taskIds.size(); t++) {
+        ObservableList<Object> row =
+            javafx.collections.FXCollections.observableArrayList();
+        row.add(taskNames.get(t)); // 1列目: タスク名
+        String tid = taskIds.get(t);
+        for (String uid : memberIds) {
+          String key = uid + "_" + tid;
+          List<Boolean> doneList =
+              statusMap.getOrDefault(key, Collections.emptyList());
+          String cycleType = taskCycleTypeMap.getOrDefault(tid, "");
+
+          if ("weekly".equals(cycleType)) {
+            // 週次タスクの場合は、いずれかが達成されているかどうかを1か0で表現
+            boolean anyDone = doneList.stream().anyMatch(b -> b);
+            row.add(anyDone ? 1 : 0);
+          } else {
+            // 通常タスクの場合は達成日数をカウント
+            int daysDone = (int)doneList.stream().filter(b -> b).count();
+            row.add(daysDone);
+          }
+        }
+        rows.add(row);
+      }
+      taskTable.setItems(rows);
+      taskTable.setEditable(false); // 編集不可
+    });
   }
 
   // サーバーにチャットメッセージを送信(未使用)
@@ -984,71 +869,20 @@ public class TeamTopController {
           return;
         }
 
-        // HTTPリクエストを送信するためのクライアントオブジェクトを作成
-        HttpClient client = HttpClient.newHttpClient();
         // サボりランキングのURLを作成
         String url = Config.getServerUrl() + "/getTeamSabotageRanking?teamID=" +
                      URLEncoder.encode(teamID, "UTF-8");
         // リクエストを送信
-        HttpRequest request = HttpRequest.newBuilder()
+        HttpRequest request = HttpCompression.newRequestBuilder()
                                   .uri(URI.create(url))
                                   .timeout(java.time.Duration.ofSeconds(5))
                                   .GET()
                                   .build();
-        // レスポンスを取得
-        HttpResponse<String> response =
-            client.send(request, HttpResponse.BodyHandlers.ofString());
-
-        // レスポンスのボディをJSONとして解析し、ランキングリストを作成
-        List<String> rankingItems = new ArrayList<>();
-        String json = response.body();
-        if (json != null && json.startsWith("[")) {
-          JSONArray arr = new JSONArray(json);
-          for (int i = 0; i < arr.length(); i++) {
-            JSONObject obj = arr.getJSONObject(i);
-            int rank = obj.optInt("rank", i + 1);
-            String username = obj.optString("username", "Unknown");
-            int sabotagePoints = obj.optInt("sabotagePoints", 0);
-
-            // ランキング表示用の文字列を作成
-            String rankEmoji = getRankEmoji(rank);
-            String rankingText = String.format("%s %d位: %s (%dpt)", rankEmoji,
-                                               rank, username, sabotagePoints);
-            rankingItems.add(rankingText);
-          }
-        }
-
-        Platform.runLater(() -> {
-          sabotageRankingList.getItems().setAll(rankingItems);
-          // ランキングリストのスタイル設定
-          sabotageRankingList.setCellFactory(listView
-                                             -> new ListCell<String>() {
-            @Override
-            protected void updateItem(String item, boolean empty) {
-              super.updateItem(item, empty);
-              if (empty || item == null) {
-                setText(null);
-                setStyle("");
-              } else {
-                setText(item);
-                // 順位に応じて背景色を変更
-                if (item.contains("1位")) {
-                  setStyle("-fx-background-color: #ffecb3; -fx-text-fill: "
-                           + "#e65100; -fx-font-weight: bold;");
-                } else if (item.contains("2位")) {
-                  setStyle("-fx-background-color: #f3e5f5; -fx-text-fill: "
-                           + "#4a148c; -fx-font-weight: bold;");
-                } else if (item.contains("3位")) {
-                  setStyle("-fx-background-color: #e8f5e8; -fx-text-fill: "
-                           + "#1b5e20; -fx-font-weight: bold;");
-                } else {
-                  setStyle(
-                      "-fx-background-color: #fafafa; -fx-text-fill: #424242;");
-                }
-              }
-            }
-          });
-        });
+        // レスポンスを取得（前回から変化がなければ保持している本文）
+        String json = ConditionalGet.getString(httpClient, request);
+        showSabotageRanking(json != null && json.startsWith("[")
+                                ? new JSONArray(json)
+                                : new JSONArray());
       } catch (Exception e) {
         e.printStackTrace();
         Platform.runLater(() -> {
@@ -1059,6 +893,60 @@ public class TeamTopController {
     }).start();
   }
 
+  /**
+   * サボりランキングをリストに表示する。
+   *
+   * @param arr [{rank, userId, username, sabotagePoints}] の配列
+   */
+  private void showSabotageRanking(JSONArray arr) {
+    // JSONを解析し、ランキングリストを作成
+    List<String> rankingItems = new ArrayList<>();
+    for (int i = 0; i < arr.length(); i++) {
+      JSONObject obj = arr.getJSONObject(i);
+      int rank = obj.optInt("rank", i + 1);
+      String username = obj.optString("username", "Unknown");
+      int sabotagePoints = obj.optInt("sabotagePoints", 0);
+
+      // ランキング表示用の文字列を作成
+      String rankEmoji = getRankEmoji(rank);
+      String rankingText = String.format("%s %d位: %s (%dpt)", rankEmoji,
+                                         rank, username, sabotagePoints);
+      rankingItems.add(rankingText);
+    }
+
+    Platform.runLater(() -> {
+      sabotageRankingList.getItems().setAll(rankingItems);
+      // ランキングリストのスタイル設定
+      sabotageRankingList.setCellFactory(listView
+                                         -> new ListCell<String>() {
+        @Override
+        protected void updateItem(String item, boolean empty) {
+          super.updateItem(item, empty);
+          if (empty || item == null) {
+            setText(null);
+            setStyle("");
+          } else {
+            setText(item);
+            // 順位に応じて背景色を変更
+            if (item.contains("1位")) {
+              setStyle("-fx-background-color: #ffecb3; -fx-text-fill: "
+                       + "#e65100; -fx-font-weight: bold;");
+            } else if (item.contains("2位")) {
+              setStyle("-fx-background-color: #f3e5f5; -fx-text-fill: "
+                       + "#4a148c; -fx-font-weight: bold;");
+            } else if (item.contains("3位")) {
+              setStyle("-fx-background-color: #e8f5e8; -fx-text-fill: "
+                       + "#1b5e20; -fx-font-weight: bold;");
+            } else {
+              setStyle(
+                  "-fx-background-color: #fafafa; -fx-text-fill: #424242;");
+            }
+          }
+        }
+      });
+    });
+  }
+
   /**
    * 順位に応じた絵文字を返すヘルパーメソッド
    */
@@ -83,7 +83,15 @@ public class UserTaskStatus {
     public LocalDateTime getCompletionTimestamp() {
         return completionTimestamp;
     }
-    
+
+    // 保存済みの達成日時を復元する（nullでなければ達成済みにする）
+    public void setCompletionTimestamp(LocalDateTime completionTimestamp) {
+        this.completionTimestamp = completionTimestamp;
+        if (completionTimestamp != null) {
+            this.isDone = true;
+        }
+    }
+
     public String getTeamId() {
         return teamId;
     }
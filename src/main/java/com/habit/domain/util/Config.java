@@ -41,4 +41,181 @@ public class Config {
     logger.debug("debug key: {}", debug_key);
     return debug_key.equals("1");
   }
+
+  /**
+   * HTTPリクエストの実行方式を取得する。
+   * virtual / platform / dispatcher のいずれか（既定値は virtual）。
+   */
+  public static String getServerExecutor() {
+    return getString("server.executor", "virtual");
+  }
+
+  /**
+   * platform 方式で使用するスレッドプールのサイズを取得する。
+   */
+  public static int getServerPoolSize() {
+    return getInt("server.executor.poolSize",
+                  Runtime.getRuntime().availableProcessors() * 4);
+  }
+
+  /**
+   * アドミッション制御の同時処理数上限を取得する。
+   *
+   * @param group ルートグループ名（auth / write / read）
+   */
+  public static int getAdmissionMaxInFlight(String group, int defaultValue) {
+    return getInt("admission." + group + ".maxInFlight", defaultValue);
+  }
+
+  /**
+   * アドミッション制御の待ち行列上限を取得する。
+   *
+   * @param group ルートグループ名（auth / write / read）
+   */
+  public static int getAdmissionMaxQueue(String group, int defaultValue) {
+    return getInt("admission." + group + ".maxQueue", defaultValue);
+  }
+
+  /**
+   * 待ち行列で待機できる最大時間（ミリ秒）を取得する。
+   */
+  public static int getAdmissionQueueTimeoutMillis() {
+    return getInt("admission.queueTimeoutMs", 2000);
+  }
+
+  /**
+   * 503応答に付与する Retry-After（秒）を取得する。
+   */
+  public static int getAdmissionRetryAfterSeconds() {
+    return getInt("admission.retryAfterSeconds", 1);
+  }
+
+  /**
+   * レスポンス圧縮（gzip / deflate）を有効にするかどうかを取得する。
+   */
+  public static boolean getCompressionEnabled() {
+    return !"false".equalsIgnoreCase(getString("compression.enabled", "true"));
+  }
+
+  /**
+   * 圧縮を行うレスポンス本文の最小サイズ（バイト）を取得する。
+   */
+  public static int getCompressionMinBytes() {
+    return getInt("compression.minBytes", 1024);
+  }
+
+  /**
+   * /batch で1回に受け付けるサブリクエストの最大数を取得する。
+   */
+  public static int getBatchMaxRequests() {
+    return getInt("batch.maxRequests", 16);
+  }
+
+  /**
+   * /batch のサブリクエスト全体の待ち時間の上限（ミリ秒）を取得する。
+   */
+  public static int getBatchTimeoutMillis() {
+    return getInt("batch.timeoutMs", 10000);
+  }
+
+  /**
+   * リポジトリの実装（ストレージエンジン）を取得する。
+   * sqlite / memory のいずれか（既定値は sqlite）。
+   */
+  public static String getDbEngine() {
+    return getString("db.engine", "sqlite");
+  }
+
+  /**
+   * データベースのJDBC URLを取得する。
+   */
+  public static String getDbUrl() {
+    return getString("db.url", "jdbc:sqlite:habit.db");
+  }
+
+  /**
+   * 接続ごとにキャッシュする準備済み文（PreparedStatement）の数を取得する。
+   */
+  public static int getDbStatementCacheSize() {
+    return getInt("db.statementCacheSize", 64);
+  }
+
+  /**
+   * データベース接続プールの最大接続数を取得する。
+   */
+  public static int getDbPoolMaxSize() {
+    return getInt("db.pool.maxSize", 8);
+  }
+
+  /**
+   * 接続プールが空いていない場合の最大待ち時間（ミリ秒）を取得する。
+   */
+  public static int getDbPoolTimeoutMillis() {
+    return getInt("db.pool.timeoutMs", 5000);
+  }
+
+  /**
+   * 貸し出し時に接続の有効性を確認する間隔（ミリ秒）を取得する。
+   * この時間以上使われていなかった接続だけを確認する。
+   */
+  public static int getDbPoolValidationIntervalMillis() {
+    return getInt("db.pool.validationIntervalMs", 30000);
+  }
+
+  /**
+   * 新しい接続を開いたときに実行するPRAGMAを取得する（";"区切り）。
+   */
+  public static String getDbPragmas() {
+    return getString("db.pragmas",
+                     "journal_mode=WAL;synchronous=NORMAL;busy_timeout=5000");
+  }
+
+  /**
+   * 同時に書き込みがあるとき、コミット前に追加の書き込みを待つ時間（マイクロ秒）を取得する。
+   */
+  public static int getDbWriterFlushLatencyMicros() {
+    return getInt("db.writer.flushLatencyMicros", 1000);
+  }
+
+  /**
+   * 1回のコミットにまとめる書き込みの最大数を取得する。
+   */
+  public static int getDbWriterMaxBatch() {
+    return getInt("db.writer.maxBatch", 128);
+  }
+
+  /**
+   * 達成状況をアーカイブに移すまでの日数を取得する（0以下なら移さない）。
+   */
+  public static int getArchiveHorizonDays() {
+    return getInt("archive.horizonDays", 180);
+  }
+
+  /**
+   * 達成状況のアーカイブを実行する間隔（分）を取得する。
+   */
+  public static int getArchiveIntervalMinutes() {
+    return getInt("archive.intervalMinutes", 1440);
+  }
+
+  private static String getString(String key, String defaultValue) {
+    String value = System.getProperty(key, properties.getProperty(key));
+    if (value == null || value.trim().isEmpty()) {
+      return defaultValue;
+    }
+    return value.trim();
+  }
+
+  private static int getInt(String key, int defaultValue) {
+    String value = getString(key, null);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      logger.warn("Invalid integer for {}: {}", key, value);
+      return defaultValue;
+    }
+  }
 }
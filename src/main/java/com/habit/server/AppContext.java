@@ -0,0 +1,204 @@
+package com.habit.server;
+
+import com.habit.server.repository.ConnectionPool;
+import com.habit.server.repository.EpochDayBackfill;
+import com.habit.server.repository.MessageRepository;
+import com.habit.server.repository.SqliteMessageRepository;
+import com.habit.server.repository.SqliteTaskRepository;
+import com.habit.server.repository.SqliteTeamRepository;
+import com.habit.server.repository.SqliteUserRepository;
+import com.habit.server.repository.SqliteUserTaskStatusRepository;
+import com.habit.server.repository.StatusArchiver;
+import com.habit.server.repository.TaskRepository;
+import com.habit.server.repository.TeamPurge;
+import com.habit.server.repository.TeamRepository;
+import com.habit.server.repository.UserRepository;
+import com.habit.server.repository.UserTaskStatusRepository;
+import com.habit.server.repository.memory.InMemoryMessageRepository;
+import com.habit.server.repository.memory.InMemoryStore;
+import com.habit.server.repository.memory.InMemoryTaskRepository;
+import com.habit.server.repository.memory.InMemoryTeamRepository;
+import com.habit.server.repository.memory.InMemoryUserRepository;
+import com.habit.server.repository.memory.InMemoryUserTaskStatusRepository;
+import com.habit.server.service.AuthService;
+import com.habit.server.service.TaskAutoResetService;
+import com.habit.server.service.TeamTaskService;
+import java.time.Clock;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * サーバー全体で共有するリポジトリとサービスをまとめて生成・保持する。
+ *
+ * 各リポジトリ・サービスはここで1回だけ生成し、コントローラや
+ * スケジューラにはコンストラクタで渡す。ハンドラやサービスの中で
+ * リポジトリを new しないこと（リクエストごとの生成コストがかかり、
+ * 設定したデータベースURLとも食い違うため）。
+ *
+ * リポジトリの実装（ストレージエンジン）は Engine で選ぶ。MEMORY では
+ * データベースを使わないため、接続プールと日付カラムの移行は null になる。
+ */
+public class AppContext implements AutoCloseable {
+  private static final Logger logger =
+      LoggerFactory.getLogger(AppContext.class);
+
+  /** リポジトリの実装 */
+  public enum Engine {
+    /** SQLite（db.url のデータベース） */
+    SQLITE,
+    /** インメモリ（サーバの終了で消える。テスト・ベンチマーク・プロファイル用） */
+    MEMORY;
+
+    /**
+     * 設定値からエンジンを判定する。不明な値の場合はSQLITEを返す。
+     */
+    public static Engine parse(String value) {
+      if (value == null) {
+        return SQLITE;
+      }
+      try {
+        return Engine.valueOf(value.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        logger.warn("不明なストレージエンジンのためSQLITEを使用します: {}", value);
+        return SQLITE;
+      }
+    }
+  }
+
+  private final ConnectionPool connectionPool;
+  private final EpochDayBackfill epochDayBackfill;
+  private final TeamPurge teamPurge;
+  private final Clock clock;
+  private volatile StatusArchiver statusArchiver;
+  private final UserRepository userRepository;
+  private final TaskRepository taskRepository;
+  private final TeamRepository teamRepository;
+  private final UserTaskStatusRepository userTaskStatusRepository;
+  private final MessageRepository messageRepository;
+  private final AuthService authService;
+  private final TeamTaskService teamTaskService;
+  private final TaskAutoResetService taskAutoResetService;
+
+  /**
+   * SQLite のリポジトリで生成する。
+   *
+   * @param databaseUrl データベースのJDBC URL
+   * @param clock タスク自動再設定で使う時計
+   */
+  public AppContext(String databaseUrl, Clock clock) {
+    this(Engine.SQLITE, databaseUrl, clock);
+  }
+
+  /**
+   * @param engine リポジトリの実装
+   * @param databaseUrl データベースのJDBC URL（MEMORY では使わない）
+   * @param clock タスク自動再設定で使う時計
+   */
+  public AppContext(Engine engine, String databaseUrl, Clock clock) {
+    this.clock = clock;
+    if (engine == Engine.MEMORY) {
+      InMemoryStore store = new InMemoryStore();
+      this.connectionPool = null;
+      this.userRepository = new InMemoryUserRepository(store);
+      this.taskRepository = new InMemoryTaskRepository(store);
+      this.teamRepository = new InMemoryTeamRepository(store);
+      this.userTaskStatusRepository =
+          new InMemoryUserTaskStatusRepository(store);
+      this.messageRepository = new InMemoryMessageRepository(store);
+      this.epochDayBackfill = null;
+      this.teamPurge = null;
+    } else {
+      this.connectionPool = ConnectionPool.shared(databaseUrl);
+      this.userRepository = new SqliteUserRepository(connectionPool);
+      this.taskRepository = new SqliteTaskRepository(connectionPool);
+      this.teamRepository = new SqliteTeamRepository(connectionPool);
+      this.userTaskStatusRepository =
+          new SqliteUserTaskStatusRepository(connectionPool);
+      this.messageRepository = new SqliteMessageRepository(connectionPool);
+      // 日付カラムの移行（未移行の行があればバックグラウンドで埋める）
+      this.epochDayBackfill = EpochDayBackfill.start(connectionPool);
+      // 削除したチームの関連データの削除（削除待ちがあれば続きから）
+      this.teamPurge = TeamPurge.start(connectionPool);
+    }
+    this.authService = new AuthService(userRepository);
+    this.teamTaskService = new TeamTaskService(taskRepository, teamRepository,
+                                               userTaskStatusRepository);
+    this.taskAutoResetService = new TaskAutoResetService(
+        taskRepository, userTaskStatusRepository, userRepository,
+        messageRepository, teamRepository, clock);
+  }
+
+  /** 接続プール（MEMORY では null）。 */
+  public ConnectionPool getConnectionPool() { return connectionPool; }
+
+  /** 日付カラムの移行（MEMORY では null）。 */
+  public EpochDayBackfill getEpochDayBackfill() { return epochDayBackfill; }
+
+  /** 削除したチームの関連データの削除（MEMORY では null）。 */
+  public TeamPurge getTeamPurge() { return teamPurge; }
+
+  /**
+   * 古い達成状況のアーカイブを開始する（SQLite のみ。MEMORY では null）。
+   * テストで日付の古いデータを扱えるように、サーバーの起動時だけ呼ぶ。
+   *
+   * @param horizonDays この日数より前の達成状況を移す（0以下なら移さない）
+   * @param intervalMinutes 実行間隔（分）
+   */
+  public synchronized StatusArchiver startStatusArchiver(int horizonDays,
+                                                         int intervalMinutes) {
+    if (connectionPool == null) {
+      return null;
+    }
+    if (statusArchiver != null) {
+      statusArchiver.close();
+    }
+    statusArchiver = StatusArchiver.start(connectionPool, clock, horizonDays,
+                                          intervalMinutes);
+    return statusArchiver;
+  }
+
+  /** 達成状況のアーカイブ（開始していなければ null）。 */
+  public StatusArchiver getStatusArchiver() { return statusArchiver; }
+
+  public UserRepository getUserRepository() { return userRepository; }
+
+  public TaskRepository getTaskRepository() { return taskRepository; }
+
+  public TeamRepository getTeamRepository() { return teamRepository; }
+
+  public UserTaskStatusRepository getUserTaskStatusRepository() {
+    return userTaskStatusRepository;
+  }
+
+  public MessageRepository getMessageRepository() { return messageRepository; }
+
+  public AuthService getAuthService() { return authService; }
+
+  public TeamTaskService getTeamTaskService() { return teamTaskService; }
+
+  public TaskAutoResetService getTaskAutoResetService() {
+    return taskAutoResetService;
+  }
+
+  /**
+   * 日付カラムの移行・チームの関連データの削除・達成状況のアーカイブを
+   * 止め、接続プール（と書き込みキュー）を閉じる。
+   */
+  @Override
+  public void close() {
+    StatusArchiver archiver = statusArchiver;
+    if (archiver != null) {
+      archiver.close();
+    }
+    if (epochDayBackfill != null) {
+      epochDayBackfill.close();
+    }
+    if (teamPurge != null) {
+      teamPurge.close();
+    }
+    if (connectionPool != null) {
+      connectionPool.close();
+    }
+  }
+}
@@ -5,25 +5,40 @@ import com.habit.domain.util.Config;
 // クライアントからのHTTPリクエストを受けて、チームやタスクの情報を管理します
 // サーバはSQLiteを用いてチーム・タスク情報を永続化します
 import com.habit.server.controller.AuthController;
+import com.habit.server.controller.DashboardController;
 import com.habit.server.controller.HelloController;
 import com.habit.server.controller.MessageController;
+import com.habit.server.controller.MetricsController;
+import com.habit.server.controller.ReadinessController;
 import com.habit.server.controller.TaskAutoResetController;
 import com.habit.server.controller.TaskController;
 import com.habit.server.controller.TeamController;
 import com.habit.server.controller.TeamTaskController;
 import com.habit.server.controller.UserController;
 import com.habit.server.controller.UserTaskStatusController;
+import com.habit.server.http.AdmissionControl;
+import com.habit.server.http.BatchHandler;
+import com.habit.server.http.ETags;
+import com.habit.server.http.ResponseCompression;
+import com.habit.server.http.Router;
+import com.habit.server.http.ServerExecutors;
+import com.habit.server.repository.ConnectionPool;
 import com.habit.server.repository.MessageRepository;
+import com.habit.server.repository.StatusArchiver;
 import com.habit.server.repository.TaskRepository;
 import com.habit.server.repository.TeamRepository;
 import com.habit.server.repository.UserRepository;
 import com.habit.server.repository.UserTaskStatusRepository;
 import com.habit.server.scheduler.TaskAutoResetScheduler;
 import com.habit.server.service.AuthService;
+import com.habit.server.service.CatchUpProgress;
 import com.habit.server.service.TaskAutoResetService;
+import com.habit.server.service.TeamTaskService;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import java.net.InetSocketAddress;
 import java.time.Clock;
+import java.util.concurrent.ExecutorService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,194 +55,243 @@ public class HabitServer {
   private static final Logger logger =
       LoggerFactory.getLogger(HabitServer.class);
 
-  private static UserRepository userRepository = new UserRepository();
-  private static TaskRepository taskRepository = new TaskRepository();
-  private static TeamRepository teamRepository = new TeamRepository();
-  private static UserTaskStatusRepository userTaskStatusRepository =
-      new UserTaskStatusRepository();
+  // リポジトリ・サービス（起動時に1回だけ生成し、各コントローラに渡す）
+  private static AppContext context;
 
-  private static TaskController taskController;
-
-  // ユーザ認証用サービス
-  private static AuthService authService = new AuthService(userRepository);
-
-  // チャットサービス用リポジトリ
-  private static MessageRepository messageRepository = new MessageRepository();
-  private static MessageController messageController =
-      new MessageController(messageRepository, userRepository);
-
-  private static UserController userController =
-      new UserController(authService, teamRepository);
-
-  private static UserTaskStatusController userTaskStatusController =
-      new UserTaskStatusController(authService, userTaskStatusRepository);
-
-  // タスク自動再設定関連コンポーネント
-  // スケジューラー: 自動実行を担当
-  private static TaskAutoResetService taskAutoResetService;
+  // タスク自動再設定のスケジューラー: 自動実行を担当
   private static TaskAutoResetScheduler taskAutoResetScheduler;
 
-  // チーム共通タスク管理関連コンポーネント
-  private static TeamTaskController teamTaskController =
-      new TeamTaskController();
-  private static TaskAutoResetController taskAutoResetController;
+  // 過負荷時のリクエスト制限と統計情報
+  private static AdmissionControl admissionControl;
+  private static MetricsController metricsController = new MetricsController();
+  private static Router router;
 
   public static void main(String[] args) throws Exception {
     final boolean is_debug = Config.getIsDebug();
     logger.debug("debug: {}", is_debug);
 
+    // リポジトリ・サービスを生成（実装は db.engine、データベースは db.url で設定）
+    AppContext.Engine engine = AppContext.Engine.parse(Config.getDbEngine());
+    context = new AppContext(engine, Config.getDbUrl(),
+                             Clock.systemDefaultZone());
+    logger.info("ストレージエンジン: {}", engine);
+    ConnectionPool connectionPool = context.getConnectionPool();
+    UserRepository userRepository = context.getUserRepository();
+    TaskRepository taskRepository = context.getTaskRepository();
+    TeamRepository teamRepository = context.getTeamRepository();
+    UserTaskStatusRepository userTaskStatusRepository =
+        context.getUserTaskStatusRepository();
+    MessageRepository messageRepository = context.getMessageRepository();
+    AuthService authService = context.getAuthService();
+    TeamTaskService teamTaskService = context.getTeamTaskService();
+
     // サーバを8080番ポートで起動
     HttpServer server = HttpServer.create(new InetSocketAddress(8080), 0);
 
+    // ルートグループごとのアドミッション制御を初期化
+    admissionControl =
+        new AdmissionControl(Config.getAdmissionQueueTimeoutMillis(),
+                             Config.getAdmissionRetryAfterSeconds())
+            .addGroup(AdmissionControl.AUTH,
+                      Config.getAdmissionMaxInFlight(AdmissionControl.AUTH, 4),
+                      Config.getAdmissionMaxQueue(AdmissionControl.AUTH, 32))
+            .addGroup(AdmissionControl.WRITE,
+                      Config.getAdmissionMaxInFlight(AdmissionControl.WRITE, 8),
+                      Config.getAdmissionMaxQueue(AdmissionControl.WRITE, 64))
+            .addGroup(AdmissionControl.READ,
+                      Config.getAdmissionMaxInFlight(AdmissionControl.READ, 32),
+                      Config.getAdmissionMaxQueue(AdmissionControl.READ, 256));
+    metricsController.register("admission", admissionControl::toJson);
+
+    // JSONレスポンスの圧縮設定
+    ResponseCompression.configure(Config.getCompressionEnabled(),
+                                  Config.getCompressionMinBytes());
+    metricsController.register("compression", ResponseCompression::toJson);
+    metricsController.register("etag", ETags::toJson);
+    if (connectionPool != null) {
+      metricsController.register("dbPool", connectionPool::toJson);
+      metricsController.register("dbWriter",
+                                 () -> connectionPool.writer().toJson());
+      metricsController.register("epochDayBackfill",
+                                 context.getEpochDayBackfill()::toJson);
+      metricsController.register("teamPurge",
+                                 context.getTeamPurge()::toJson);
+      // 古い達成状況のアーカイブ（user_task_statuses の件数も報告する）
+      StatusArchiver statusArchiver = context.startStatusArchiver(
+          Config.getArchiveHorizonDays(), Config.getArchiveIntervalMinutes());
+      metricsController.register("statusArchive", statusArchiver::toJson);
+    }
+
     // === タスク自動再設定機能の開始 ===
-    // Clockを生成（本番環境ではシステムデフォルトの時刻を使用）
-    Clock clock = Clock.systemDefaultZone();
-    // ServiceとSchedulerを初期化
-    taskAutoResetService =
-        new TaskAutoResetService(taskRepository, userTaskStatusRepository,
-                                 userRepository, messageRepository, clock);
+    // Schedulerを初期化（Serviceはシステムデフォルトの時刻で生成済み）
+    TaskAutoResetService taskAutoResetService =
+        context.getTaskAutoResetService();
     taskAutoResetScheduler = new TaskAutoResetScheduler(taskAutoResetService);
-    taskAutoResetController = new TaskAutoResetController(
-        taskAutoResetService, taskAutoResetScheduler);
+    TaskAutoResetController taskAutoResetController =
+        new TaskAutoResetController(taskAutoResetService,
+                                    taskAutoResetScheduler);
 
-    // サーバー起動時に未処理のタスク更新を実行
-    taskAutoResetService.catchUpMissedExecutions();
+    // 未処理のタスク更新（キャッチアップ）は起動後にバックグラウンドで行う。
+    // 完了まではリセット状態に依存するAPIを制限・フラグ付けする
+    CatchUpProgress catchUpProgress = new CatchUpProgress();
+    ReadinessController readiness = new ReadinessController(catchUpProgress);
+    metricsController.register("catchUp", catchUpProgress::toJson);
 
-    // 各APIエンドポイントを登録
-    server.createContext("/hello", new HelloController()); // 動作確認用
+    // 各APIエンドポイントをルータに登録
+    router = new Router();
+    route(Router.ANY, "/hello", new HelloController()); // 動作確認用
 
-    taskController = new TaskController(taskRepository, teamRepository,
-                                        userTaskStatusRepository);
+    TaskController taskController =
+        new TaskController(taskRepository, teamRepository,
+                           userTaskStatusRepository, teamTaskService);
+    MessageController messageController =
+        new MessageController(messageRepository, userRepository);
+    UserController userController =
+        new UserController(authService, teamRepository, userRepository);
+    UserTaskStatusController userTaskStatusController =
+        new UserTaskStatusController(authService, userTaskStatusRepository,
+                                     taskRepository, userRepository);
+    TeamTaskController teamTaskController =
+        new TeamTaskController(teamTaskService);
 
     AuthController authController = new AuthController(authService);
-    server.createContext("/login",
-                         authController.getLoginHandler()); // ログイン
-    server.createContext("/register",
-                         authController.getRegisterHandler()); // 新規登録
+    route("POST", "/login", authController.getLoginHandler()); // ログイン
+    route("POST", "/register", authController.getRegisterHandler()); // 新規登録
     TeamController teamController =
-        new TeamController(authService, userRepository, taskRepository);
-    server.createContext("/createTeam",
-                         teamController.getCreateTeamHandler()); // チーム作成
-    server.createContext("/joinTeam",
-                         teamController.getJoinTeamHandler()); // チーム参加
-    server.createContext(
-        "/publicTeams",
-        teamController.getPublicTeamsHandler()); // 公開チーム一覧
-    server.createContext(
-        "/findTeamByPasscode",
-        teamController.getFindTeamByPasscodeHandler()); // 合言葉検索
-    server.createContext(
-        "/getTeamIdByPasscode",
-        teamController
-            .getGetTeamIdByPasscodeHandler()); // 合言葉からチームID取得
-    server.createContext(
-        "/sendChatMessage",
-        messageController.getSendChatMessageHandler()); // チャット送信
-    server.createContext(
-        "/getChatLog",
-        messageController.getGetChatLogHandler()); // チャット履歴取得
-    server.createContext("/deleteChatMessage",
-        messageController.getDeleteChatMessageHandler()); // チャット削除
-    server.createContext(
-        "/getJoinedTeamInfo",
-        userController.getGetJoinedTeamInfoHandler()); // 参加チーム取得
-    server.createContext(
-        "/getSabotagePoints",
-        userController.getSabotagePointsHandler()); // サボりポイント取得
-    server.createContext(
-        "/updateSabotagePoints",
-        userController
-            .getUpdateSabotagePointsHandler()); // サボりポイント更新（テスト用）
-    server.createContext(
-        "/getUserTaskIds",
-        userTaskStatusController
-            .getGetUserTaskIdsHandler()); // UserTaskStatusからTaskId取得
-    server.createContext(
-        "/getTeamName", teamController.getGetTeamNameHandler()); // チーム名取得
+        new TeamController(authService, userRepository, taskRepository,
+                           teamRepository, teamTaskService);
+    route("POST", "/createTeam", teamController.getCreateTeamHandler()); // チーム作成
+    route("GET", "/joinTeam", teamController.getJoinTeamHandler()); // チーム参加
+    route("GET", "/publicTeams",
+          teamController.getPublicTeamsHandler()); // 公開チーム一覧
+    route("GET", "/findTeamByPasscode",
+          teamController.getFindTeamByPasscodeHandler()); // 合言葉検索
+    route("GET", "/getTeamIdByPasscode",
+          teamController.getGetTeamIdByPasscodeHandler()); // 合言葉からチームID取得
+    route("POST", "/sendChatMessage",
+          messageController.getSendChatMessageHandler()); // チャット送信
+    route("GET", "/getChatLog",
+          messageController.getGetChatLogHandler()); // チャット履歴取得
+    route("DELETE", "/deleteChatMessage",
+          messageController.getDeleteChatMessageHandler()); // チャット削除
+    route("GET", "/getJoinedTeamInfo",
+          userController.getGetJoinedTeamInfoHandler()); // 参加チーム取得
+    route("GET", "/getSabotagePoints",
+          readiness.flagUntilReady(
+              userController.getSabotagePointsHandler())); // サボりポイント取得
+    route("POST", "/updateSabotagePoints",
+          userController.getUpdateSabotagePointsHandler()); // サボりポイント更新（テスト用）
+    route("GET", "/getUserTaskIds",
+          userTaskStatusController.getGetUserTaskIdsHandler()); // UserTaskStatusからTaskId取得
+    route("GET", "/getTeamName",
+          teamController.getGetTeamNameHandler()); // チーム名取得
     // タスクID→タスク名マップ取得API
-    server.createContext("/getUserTeamTasks",
-                         taskController.getUserTeamTasksHandler(
-                             authService)); // チーム内で自分に紐づくタスク取得
-    server.createContext("/getTaskIdNameMap",
-                         taskController.getTaskIdNameMapHandler());
+    route("GET", "/getUserTeamTasks",
+          taskController.getUserTeamTasksHandler(authService)); // チーム内で自分に紐づくタスク取得
+    route("GET", "/getTaskIdNameMap", taskController.getTaskIdNameMapHandler());
     // ユーザーの未完了タスク一覧取得API
-    server.createContext(
-        "/getUserIncompleteTasks",
-        userTaskStatusController.getUserIncompleteTasksHandler(authService));
+    route("GET", "/getUserIncompleteTasks",
+          readiness.flagUntilReady(
+              userTaskStatusController.getUserIncompleteTasksHandler(
+                  authService)));
     // ユーザーの未完了タスク(isDone=false, dueDate > now)一覧取得API
-    server.createContext(
-        "/getIncompleteUserTaskStatus",
-        userTaskStatusController.getIncompleteUserTaskStatusHandler(
-            authService));
+    route("GET", "/getIncompleteUserTaskStatus",
+          readiness.flagUntilReady(
+              userTaskStatusController.getIncompleteUserTaskStatusHandler(
+                  authService)));
     // ユーザーの全タスクステータス（最新のみ）取得API
-    server.createContext(
-        "/getAllUserTaskStatus",
-        userTaskStatusController.getAllUserTaskStatusHandler(
-            authService));
+    route("GET", "/getAllUserTaskStatus",
+          readiness.flagUntilReady(
+              userTaskStatusController.getAllUserTaskStatusHandler(
+                  authService)));
     // チーム全員分のタスク進捗一覧API
-    server.createContext(
-        "/getTeamTaskStatusList",
-        userTaskStatusController.getGetTeamTaskStatusListHandler());
+    route("GET", "/getTeamTaskStatusList",
+          readiness.flagUntilReady(
+              userTaskStatusController.getGetTeamTaskStatusListHandler()));
     // ユーザー・チーム・日付ごとの全UserTaskStatus（taskId, isDone）を返すAPI
-    server.createContext(
-        "/getUserTaskStatusList",
-        userTaskStatusController.getGetUserTaskStatusListHandler());
+    route("GET", "/getUserTaskStatusList",
+          readiness.flagUntilReady(
+              userTaskStatusController.getGetUserTaskStatusListHandler()));
     // ユーザーのタスク完了API
-    server.createContext("/completeUserTask",
-                         userTaskStatusController.getCompleteUserTaskHandler());
+    route("POST", "/completeUserTask",
+          readiness.requireReady(
+              userTaskStatusController.getCompleteUserTaskHandler()));
     // タスク保存API
-    server.createContext("/saveTask", taskController.getSaveTaskHandler());
+    route("POST", "/saveTask", taskController.getSaveTaskHandler());
 
     if (is_debug) {
       // UserTaskStatus保存API
       // タスク自動再設定手動実行API
-      server.createContext(
-          "/manualTaskReset",
-          taskAutoResetController.getManualResetHandler()); // 全チーム手動実行
-      server.createContext(
-          "/manualTaskResetTeam",
-          taskAutoResetController
-              .getManualResetTeamHandler()); // 特定チーム手動実行
-
-      server.createContext(
-          "/debugScheduledReset",
-          taskAutoResetController
-              .getDebugScheduledResetHandler()); // デバッグ用スケジュール実行
-      server.createContext(
-          "/debugSabotageReport",
-          taskAutoResetController
-              .getDebugSabotageReportHandler()); // デバッグ用サボり報告（今日まで）
+      route(Router.ANY, "/manualTaskReset",
+            readiness.requireReady(
+                taskAutoResetController.getManualResetHandler())); // 全チーム手動実行
+      route(Router.ANY, "/manualTaskResetTeam",
+            readiness.requireReady(
+                taskAutoResetController.getManualResetTeamHandler())); // 特定チーム手動実行
+
+      route(Router.ANY, "/debugScheduledReset",
+            readiness.requireReady(
+                taskAutoResetController.getDebugScheduledResetHandler())); // デバッグ用スケジュール実行
+      route(Router.ANY, "/debugSabotageReport",
+            readiness.requireReady(
+                taskAutoResetController.getDebugSabotageReportHandler())); // デバッグ用サボり報告（今日まで）
     }
 
-    server.createContext(
-        "/saveUserTaskStatus",
-        userTaskStatusController.getSaveUserTaskStatusHandler());
-    server.createContext(
-        "/getTeamMembers",
-        teamController.getGetTeamMembersHandler()); // チームメンバー一覧
-    server.createContext(
-        "/getTeamTasks",
-        teamController.getGetTeamTasksHandler()); // チームタスク一覧
-    server.createContext(
-        "/getTeamSabotageRanking",
-        teamController
-            .getGetTeamSabotageRankingHandler()); // チーム内サボりランキング
-    server.createContext("/deleteTeam", teamController.getDeleteTeamHandler()); // チーム削除
+    route("POST", "/saveUserTaskStatus",
+          readiness.requireReady(
+              userTaskStatusController.getSaveUserTaskStatusHandler()));
+    route("GET", "/getTeamMembers",
+          teamController.getGetTeamMembersHandler()); // チームメンバー一覧
+    route("GET", "/getTeamTasks",
+          teamController.getGetTeamTasksHandler()); // チームタスク一覧
+    route("GET", "/getTeamSabotageRanking",
+          readiness.flagUntilReady(
+              teamController.getGetTeamSabotageRankingHandler())); // チーム内サボりランキング
+    route("DELETE", "/deleteTeam", teamController.getDeleteTeamHandler()); // チーム削除
+
+    // チームトップ画面の一括取得API
+    DashboardController dashboardController = new DashboardController(
+        authService, taskRepository, teamRepository, userRepository,
+        userTaskStatusRepository, messageRepository);
+    route("GET", "/teamDashboard",
+          readiness.flagUntilReady(
+              dashboardController.getTeamDashboardHandler()));
 
     // チーム共通タスク管理API
-    server.createContext(
-        "/getTeamTaskCompletionRate",
-        teamTaskController
-            .getTeamTaskCompletionRateHandler()); // チーム共通タスクの完了率取得
-    server.createContext(
-        "/getUserTeamTaskStatuses",
-        teamTaskController
-            .getUserTeamTasksHandler()); // ユーザーのチーム共通タスク一覧取得
-
-    server.createContext("/deleteTask", teamTaskController.deleteTaskHandler());
-
-    server.setExecutor(null);
+    route("GET", "/getTeamTaskCompletionRate",
+          readiness.flagUntilReady(
+              teamTaskController.getTeamTaskCompletionRateHandler())); // チーム共通タスクの完了率取得
+    route("GET", "/getUserTeamTaskStatuses",
+          readiness.flagUntilReady(
+              teamTaskController.getUserTeamTasksHandler())); // ユーザーのチーム共通タスク一覧取得
+
+    route("POST", "/deleteTask", teamTaskController.deleteTaskHandler());
+
+    // 参照系APIの一括実行（サブリクエストごとにアドミッション制御が
+    // 適用されるため、/batch 自体は対象外）
+    BatchHandler batchHandler = new BatchHandler(
+        router, Config.getBatchMaxRequests(), Config.getBatchTimeoutMillis());
+    router.post("/batch", batchHandler);
+    metricsController.register("batch", batchHandler::toJson);
+
+    // 統計情報・準備状態API（過負荷時にも確認できるようアドミッション制御の対象外）
+    router.get("/metrics", metricsController.getMetricsHandler());
+    router.get("/ready", readiness.getReadyHandler());
+    metricsController.register("routes", router::toJson);
+    server.createContext("/", router);
+
+    // リクエスト実行方式を設定（既定は仮想スレッド）
+    ServerExecutors.Mode executorMode =
+        ServerExecutors.Mode.parse(Config.getServerExecutor());
+    ExecutorService requestExecutor =
+        ServerExecutors.create(executorMode, Config.getServerPoolSize());
+    server.setExecutor(requestExecutor);
     server.start();
+    logger.info("リクエスト実行方式: {}", executorMode);
+
+    // サーバー停止期間中の未処理のタスク更新をバックグラウンドで実行
+    Thread.ofPlatform().daemon().name("task-catch-up").start(
+        () -> taskAutoResetService.catchUpMissedExecutions(catchUpProgress));
 
     // 自動実行スケジューラーを開始
     try {
@@ -247,6 +311,10 @@ public class HabitServer {
       taskAutoResetScheduler.stop();
       // HTTPサーバーを停止
       server.stop(0);
+      if (requestExecutor != null) {
+        requestExecutor.shutdown();
+      }
+      context.close();
     }));
 
     logger.info("サーバが起動しました: {}", Config.getServerUrl());
@@ -259,4 +327,11 @@ public class HabitServer {
           "デバッグAPI: /debugScheduledReset?delay=秒数, /debugSabotageReport");
     }
   }
+
+  /**
+   * ルートを登録し、ルートグループのアドミッション制御を適用する。
+   */
+  private static void route(String method, String path, HttpHandler handler) {
+    router.add(method, path, admissionControl.wrap(path, handler));
+  }
 }
@@ -1,5 +1,6 @@
 package com.habit.server.controller;
 
+import com.habit.server.http.Params;
 import com.habit.server.service.AuthService;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -41,25 +42,10 @@ public class AuthController {
         os.close();
         return;
       }
-      byte[] bodyBytes = exchange.getRequestBody().readAllBytes();
-      String bodyStr =
-          (bodyBytes != null)
-              ? new String(bodyBytes, java.nio.charset.StandardCharsets.UTF_8)
-              : "";
+      Params params = Params.ofBody(exchange);
       String response;
-      String username = null, password = null;
-      if (bodyStr != null && !bodyStr.isEmpty()) {
-        String[] params = bodyStr.split("&");
-        for (String param : params) {
-          String[] kv = param.split("=", 2);
-          if (kv.length < 2)
-            continue;
-          if (kv[0].equals("username"))
-            username = java.net.URLDecoder.decode(kv[1], "UTF-8");
-          if (kv[0].equals("password"))
-            password = java.net.URLDecoder.decode(kv[1], "UTF-8");
-        }
-      }
+      String username = params.get("username");
+      String password = params.get("password");
       if (username != null && password != null) {
         String sessionId =
             authService.loginAndCreateSession(username, password);
@@ -99,25 +85,10 @@ public class AuthController {
         os.close();
         return;
       }
-      byte[] bodyBytes = exchange.getRequestBody().readAllBytes();
-      String bodyStr =
-          (bodyBytes != null)
-              ? new String(bodyBytes, java.nio.charset.StandardCharsets.UTF_8)
-              : "";
+      Params params = Params.ofBody(exchange);
       String response;
-      String username = null, password = null;
-      if (bodyStr != null && !bodyStr.isEmpty()) {
-        String[] params = bodyStr.split("&");
-        for (String param : params) {
-          String[] kv = param.split("=", 2);
-          if (kv.length < 2)
-            continue;
-          if (kv[0].equals("username"))
-            username = java.net.URLDecoder.decode(kv[1], "UTF-8");
-          if (kv[0].equals("password"))
-            password = java.net.URLDecoder.decode(kv[1], "UTF-8");
-        }
-      }
+      String username = params.get("username");
+      String password = params.get("password");
       if (username != null && password != null) {
         String sessionId =
             authService.registerAndCreateSession(username, password);
@@ -0,0 +1,238 @@
+package com.habit.server.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.habit.domain.Message;
+import com.habit.domain.MessageType;
+import com.habit.domain.Task;
+import com.habit.domain.User;
+import com.habit.domain.UserTaskStatus;
+import com.habit.server.http.JsonResponse;
+import com.habit.server.http.Params;
+import com.habit.server.repository.MessageRepository;
+import com.habit.server.repository.TaskRepository;
+import com.habit.server.repository.TeamRepository;
+import com.habit.server.repository.UserRepository;
+import com.habit.server.repository.UserTaskStatusRepository;
+import com.habit.server.service.AuthService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * チームトップ画面に必要な情報をまとめて返すAPIのコントローラ。
+ *
+ * 従来はタスク一覧・メンバー一覧・未完了タスク・チャット履歴・進捗表・
+ * サボりランキングを個別のAPIで取得していたが、これらを1回のリクエストで返す。
+ * チームのタスクとメンバー（ユーザー情報）は一度だけ読み込み、各項目で共有する。
+ *
+ * 【レスポンス】
+ * {
+ *   "teamID": "...",
+ *   "tasks": [{taskId, taskName, cycleType}],            // /getTeamTasks と同じ
+ *   "members": [{userId, username}],                     // /getTeamMembers と同じ
+ *   "ranking": [{rank, userId, username, sabotagePoints}], // /getTeamSabotageRanking と同じ
+ *   "chatLog": [Message#toJson() 形式],                   // /getChatLog と同じ
+ *   "incompleteTasks": [{taskId, taskName, dueDate, isDone}], // /getIncompleteUserTaskStatus と同じ
+ *   "taskStatuses": [{userId, taskId, date, isDone}]     // /getTeamTaskStatusList と同じ
+ * }
+ * incompleteTasks と taskStatuses は SESSION_ID が有効な場合のみ値が入る。
+ */
+public class DashboardController {
+  private static final Logger logger =
+      LoggerFactory.getLogger(DashboardController.class);
+  private static final int RANKING_SIZE = 5;
+
+  private final AuthService authService;
+  private final TaskRepository taskRepository;
+  private final TeamRepository teamRepository;
+  private final UserRepository userRepository;
+  private final UserTaskStatusRepository userTaskStatusRepository;
+  private final MessageRepository messageRepository;
+
+  public DashboardController(AuthService authService,
+                             TaskRepository taskRepository,
+                             TeamRepository teamRepository,
+                             UserRepository userRepository,
+                             UserTaskStatusRepository userTaskStatusRepository,
+                             MessageRepository messageRepository) {
+    this.authService = authService;
+    this.taskRepository = taskRepository;
+    this.teamRepository = teamRepository;
+    this.userRepository = userRepository;
+    this.userTaskStatusRepository = userTaskStatusRepository;
+    this.messageRepository = messageRepository;
+  }
+
+  public HttpHandler getTeamDashboardHandler() {
+    return new TeamDashboardHandler();
+  }
+
+  // --- チームトップ画面の一括取得API ---
+  // GET /teamDashboard?teamID=<ID>&date=<YYYY-MM-DD>&days=<N>&limit=<N>
+  class TeamDashboardHandler implements HttpHandler {
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+      Params params = Params.ofQuery(exchange);
+      String teamID = params.get("teamID");
+      if (teamID == null || teamID.isEmpty()) {
+        JsonResponse.sendError(exchange, 400, "teamIDが指定されていません");
+        return;
+      }
+      LocalDate date = params.getDate("date", LocalDate.now());
+      int days = Math.max(1, params.getInt("days", 1));
+      int limit = params.getInt("limit", 50);
+      String sessionId = exchange.getRequestHeaders().getFirst("SESSION_ID");
+
+      Dashboard dashboard;
+      try {
+        User user =
+            sessionId != null ? authService.getUserBySession(sessionId) : null;
+        dashboard = load(teamID, user, date, days, limit);
+      } catch (Exception e) {
+        logger.error("ダッシュボード取得エラー: teamID={}", teamID, e);
+        JsonResponse.sendError(exchange, 500, e.getClass().getSimpleName() +
+                                                  ": " + e.getMessage());
+        return;
+      }
+      JsonResponse.send(exchange, 200, dashboard::writeTo);
+    }
+  }
+
+  /**
+   * チームの情報をまとめて読み込む。
+   */
+  Dashboard load(String teamID, User user, LocalDate date, int days,
+                 int limit) {
+    Dashboard d = new Dashboard(teamID);
+
+    // タスク（一覧・未完了タスクで共有）
+    d.tasks = taskRepository.findTeamTasksByTeamID(teamID);
+    Map<String, Task> taskMap = new HashMap<>();
+    for (Task task : d.tasks) {
+      taskMap.put(task.getTaskId(), task);
+    }
+    d.taskMap = taskMap;
+
+    // メンバー（一覧・ランキング・チャットの送信者で共有）
+    Map<String, User> users = new HashMap<>();
+    for (String memberId : teamRepository.findMemberIdsByTeamId(teamID)) {
+      User member = userRepository.findById(memberId);
+      if (member != null) {
+        users.put(memberId, member);
+        d.members.add(member);
+      }
+    }
+    d.ranking = new ArrayList<>(d.members);
+    d.ranking.sort((a, b)
+                       -> Integer.compare(b.getSabotagePoints(),
+                                          a.getSabotagePoints()));
+    if (d.ranking.size() > RANKING_SIZE) {
+      d.ranking = d.ranking.subList(0, RANKING_SIZE);
+    }
+
+    // チャット履歴（送信者はメンバーの情報を再利用）
+    for (var entry : messageRepository.findMessagesByteamID(teamID, limit)) {
+      User sender =
+          users.computeIfAbsent(entry.senderId, userRepository::findById);
+      if (sender == null) {
+        // システムメッセージ用の代替ユーザー
+        sender = new User(entry.senderId, "System", "");
+      }
+      Message msg = new Message(entry.id, sender, entry.teamId, entry.content,
+                                MessageType.NORMAL);
+      msg.setTimeStamp(entry.time);
+      d.chatLog.add(msg);
+    }
+
+    // 本人の未完了タスクとチームの進捗表（ログイン時のみ）
+    if (user != null) {
+      d.incompleteTasks = UserTaskStatusController.filterIncomplete(
+          userTaskStatusRepository.findByUserIdAndTeamId(user.getUserId(),
+                                                         teamID),
+          taskMap);
+      d.taskStatuses = userTaskStatusRepository.findByTeamIdAndDateRange(
+          teamID, date.minusDays(days - 1), date);
+    }
+    return d;
+  }
+
+  /**
+   * 読み込んだダッシュボードの内容。
+   */
+  static class Dashboard {
+    final String teamID;
+    List<Task> tasks = List.of();
+    final List<User> members = new ArrayList<>();
+    List<User> ranking = List.of();
+    final List<Message> chatLog = new ArrayList<>();
+    List<UserTaskStatus> incompleteTasks = List.of();
+    Map<String, Task> taskMap = Map.of();
+    List<UserTaskStatus> taskStatuses = List.of();
+
+    Dashboard(String teamID) { this.teamID = teamID; }
+
+    void writeTo(JsonGenerator json) throws IOException {
+      json.writeStartObject();
+      json.writeStringField("teamID", teamID);
+
+      json.writeArrayFieldStart("tasks");
+      for (Task t : tasks) {
+        json.writeStartObject();
+        json.writeStringField("taskId", t.getTaskId());
+        json.writeStringField("taskName", t.getTaskName());
+        json.writeStringField("cycleType", t.getCycleType());
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+
+      json.writeArrayFieldStart("members");
+      for (User member : members) {
+        json.writeStartObject();
+        json.writeStringField("userId", member.getUserId());
+        json.writeStringField("username", member.getUsername());
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+
+      json.writeArrayFieldStart("ranking");
+      for (int i = 0; i < ranking.size(); i++) {
+        User member = ranking.get(i);
+        json.writeStartObject();
+        json.writeNumberField("rank", i + 1);
+        json.writeStringField("userId", member.getUserId());
+        json.writeStringField("username", member.getUsername());
+        json.writeNumberField("sabotagePoints", member.getSabotagePoints());
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+
+      json.writeArrayFieldStart("chatLog");
+      for (Message msg : chatLog) {
+        MessageController.writeMessage(json, msg);
+      }
+      json.writeEndArray();
+
+      json.writeArrayFieldStart("incompleteTasks");
+      for (UserTaskStatus s : incompleteTasks) {
+        UserTaskStatusController.writeTaskStatus(json, s,
+                                                 taskMap.get(s.getTaskId()));
+      }
+      json.writeEndArray();
+
+      json.writeArrayFieldStart("taskStatuses");
+      for (UserTaskStatus s : taskStatuses) {
+        UserTaskStatusController.writeMemberTaskStatus(json, s);
+      }
+      json.writeEndArray();
+
+      json.writeEndObject();
+    }
+  }
+}
@@ -3,14 +3,19 @@ package com.habit.server.controller;
 import com.habit.domain.Message;
 import com.habit.domain.MessageType;
 import com.habit.domain.User;
+import com.habit.server.http.ETags;
+import com.habit.server.http.JsonResponse;
+import com.habit.server.http.Params;
 import com.habit.server.repository.MessageRepository;
+import com.habit.server.repository.TeamVersions;
 import com.habit.server.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
-import org.json.JSONArray;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,28 +45,20 @@ public class MessageController {
   private class GetChatLogHandler implements HttpHandler {
     @Override
     public void handle(HttpExchange exchange) throws IOException {
+      JsonResponse.Body body = JsonResponse.EMPTY_ARRAY;
       try {
-        String query = exchange.getRequestURI().getQuery();
-        String teamID = null;
-        int limit = 50;
-        if (query != null) {
-          String[] params = query.split("&");
-          for (String param : params) {
-            if (param.startsWith("teamID="))
-              teamID = java.net.URLDecoder.decode(param.substring(7), "UTF-8");
-            if (param.startsWith("limit=")) {
-              try {
-                limit = Integer.parseInt(param.substring(6));
-              } catch (Exception ignored) {
-              }
-            }
-          }
+        Params params = Params.ofQuery(exchange);
+        String teamID = params.get("teamID");
+        int limit = params.getInt("limit", 50);
+        if (teamID != null &&
+            ETags.notModified(exchange, TeamVersions.etag(
+                                            TeamVersions.Kind.CHAT, teamID))) {
+          return;
         }
-        JSONArray responseArray = new JSONArray();
+        List<Message> messages = new ArrayList<>();
         if (teamID != null) {
-          List<MessageRepository.MessageEntry> messages =
-              messageRepository.findMessagesByteamID(teamID, limit);
-          for (var entry : messages) {
+          for (var entry :
+               messageRepository.findMessagesByteamID(teamID, limit)) {
             User sender = userRepository.findById(entry.senderId);
             // senderがnullの場合（例：システムユーザー）のための代替処理
             if (sender == null) {
@@ -71,28 +68,49 @@ public class MessageController {
             Message msg = new Message(entry.id, sender, entry.teamId,
                                       entry.content, MessageType.NORMAL);
             msg.setTimeStamp(entry.time);
-            responseArray.put(msg.toJson());
+            messages.add(msg);
           }
         }
-
-        String responseStr = responseArray.toString();
-        exchange.getResponseHeaders().set("Content-Type",
-                                          "application/json; charset=UTF-8");
-        exchange.sendResponseHeaders(200, responseStr.getBytes().length);
-        OutputStream os = exchange.getResponseBody();
-        os.write(responseStr.getBytes());
-        os.close();
+        body = json -> {
+          json.writeStartArray();
+          for (Message msg : messages) {
+            writeMessage(json, msg);
+          }
+          json.writeEndArray();
+        };
       } catch (Exception e) {
         e.printStackTrace();
-        String err = "[]";
-        exchange.getResponseHeaders().set("Content-Type",
-                                          "application/json; charset=UTF-8");
-        exchange.sendResponseHeaders(200, err.getBytes().length);
-        OutputStream os = exchange.getResponseBody();
-        os.write(err.getBytes());
-        os.close();
       }
+      JsonResponse.send(exchange, 200, body);
+    }
+  }
+
+  /**
+   * Message#toJson() と同じ形式でメッセージを書き込む。
+   * 送信者のパスワードハッシュはクライアントに送らない。
+   */
+  static void writeMessage(JsonGenerator json, Message msg)
+      throws IOException {
+    User sender = msg.getSender();
+    json.writeStartObject();
+    json.writeStringField("messageId", msg.getMessageId());
+    json.writeObjectFieldStart("sender");
+    json.writeStringField("userId", sender.getUserId());
+    json.writeStringField("username", sender.getUsername());
+    json.writeStringField("hashedPassword", "");
+    json.writeNumberField("sabotagePoints", sender.getSabotagePoints());
+    json.writeArrayFieldStart("joinedTeamIds");
+    for (String teamId : sender.getJoinedTeamIds()) {
+      json.writeString(teamId);
     }
+    json.writeEndArray();
+    json.writeEndObject();
+    json.writeStringField("teamID", msg.getTeamID());
+    json.writeStringField("content", msg.getContent());
+    json.writeStringField("timestamp", msg.getTimestamp().toString());
+    json.writeStringField(
+        "type", msg.getType() != null ? msg.getType().name() : "NORMAL");
+    json.writeEndObject();
   }
 
   private class SendChatMessageHandler implements HttpHandler {
@@ -110,34 +128,12 @@ public class MessageController {
         respond(exchange, 405, "POSTメソッドのみ対応");
         return;
       }
-      byte[] bodyBytes = exchange.getRequestBody().readAllBytes();
-      String bodyStr =
-          (bodyBytes != null)
-              ? new String(bodyBytes, java.nio.charset.StandardCharsets.UTF_8)
-              : "";
-      String response;
-      String teamID = null, content = null, senderId = null;
+      Params params = Params.ofBody(exchange);
+      String teamID = params.get("teamID");
+      String senderId = params.get("senderId");
+      String content = params.get("content");
       User sender = null;
 
-      if (bodyStr != null && !bodyStr.isEmpty()) {
-        String[] params = bodyStr.split("&");
-        for (String param : params) {
-          String[] kv = param.split("=", 2);
-          if (kv.length < 2)
-            continue;
-          switch (kv[0]) {
-          case "teamID":
-            teamID = java.net.URLDecoder.decode(kv[1], "UTF-8");
-            break;
-          case "senderId":
-            senderId = java.net.URLDecoder.decode(kv[1], "UTF-8");
-            break;
-          case "content":
-            content = java.net.URLDecoder.decode(kv[1], "UTF-8");
-            break;
-          }
-        }
-      }
       if (teamID == null || senderId == null || content == null) {
         respond(exchange, 400, "パラメータが不正です");
         return;
@@ -190,17 +186,7 @@ public class MessageController {
         return;
       }
 
-      String query = exchange.getRequestURI().getQuery();
-      String messageId = null;
-      if (query != null) {
-        String[] params = query.split("&");
-        for (String param : params) {
-          if (param.startsWith("message_id=")) {
-            messageId = java.net.URLDecoder.decode(param.substring(11), "UTF-8");
-            break;
-          }
-        }
-      }
+      String messageId = Params.ofQuery(exchange).get("message_id");
 
       if (messageId == null) {
         respond(exchange, 400, "パラメータが不正です");
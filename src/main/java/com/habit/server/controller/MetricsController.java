@@ -0,0 +1,62 @@
+package com.habit.server.controller;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * サーバ内部の統計情報を返すコントローラ。
+ *
+ * 【エンドポイント】GET /metrics
+ * 【戻り値】登録された各セクションの統計をまとめたJSON
+ */
+public class MetricsController {
+  private static final Logger logger =
+      LoggerFactory.getLogger(MetricsController.class);
+  private final Map<String, Supplier<Object>> sections = new LinkedHashMap<>();
+
+  /**
+   * 統計セクションを登録する。
+   *
+   * @param name セクション名（JSONのキー）
+   * @param supplier 呼び出し時点の統計を返す関数
+   */
+  public synchronized void register(String name, Supplier<Object> supplier) {
+    sections.put(name, supplier);
+  }
+
+  public HttpHandler getMetricsHandler() { return new MetricsHandler(); }
+
+  private synchronized JSONObject snapshot() {
+    JSONObject json = new JSONObject();
+    for (Map.Entry<String, Supplier<Object>> e : sections.entrySet()) {
+      try {
+        json.put(e.getKey(), e.getValue().get());
+      } catch (Exception ex) {
+        logger.error("統計情報の取得に失敗しました: {}", e.getKey(), ex);
+      }
+    }
+    return json;
+  }
+
+  // --- 統計情報取得API ---
+  private class MetricsHandler implements HttpHandler {
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+      String response = snapshot().toString();
+      exchange.getResponseHeaders().set("Content-Type",
+                                        "application/json; charset=UTF-8");
+      exchange.sendResponseHeaders(200, response.getBytes("UTF-8").length);
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(response.getBytes("UTF-8"));
+      }
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.habit.server.controller;
+
+import com.habit.server.http.JsonResponse;
+import com.habit.server.service.CatchUpProgress;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * サーバーの準備状態（起動時キャッチアップの進捗）を扱うコントローラ。
+ *
+ * 【提供API】
+ * - GET /ready : 準備完了なら200、キャッチアップ中なら503（Retry-After付き）。
+ *   いずれも本文は CatchUpProgress#toJson() の内容。
+ *
+ * また、リセット状態に依存するAPI向けに次のラッパーを提供する。
+ * - requireReady : キャッチアップ中は503を返す（タスク完了などの書き込み系）
+ * - flagUntilReady : キャッチアップ中はレスポンスに X-Catch-Up ヘッダーを付ける
+ *   （進捗表示などの参照系。古い日付分が未更新の可能性があることを示す）
+ */
+public class ReadinessController {
+  static final String CATCH_UP_HEADER = "X-Catch-Up";
+  private static final int RETRY_AFTER_SECONDS = 5;
+
+  private final CatchUpProgress progress;
+
+  public ReadinessController(CatchUpProgress progress) {
+    this.progress = progress;
+  }
+
+  public HttpHandler getReadyHandler() {
+    return exchange -> {
+      int status = progress.isReady() ? 200 : 503;
+      exchange.getResponseHeaders().set("Cache-Control", "no-store");
+      if (status == 503) {
+        exchange.getResponseHeaders().set(
+            "Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+      }
+      String body = progress.toJson().toString();
+      JsonResponse.send(exchange, status, json -> json.writeRawValue(body));
+    };
+  }
+
+  /**
+   * キャッチアップが完了するまで503を返すハンドラーで包む。
+   */
+  public HttpHandler requireReady(HttpHandler handler) {
+    return exchange -> {
+      if (!progress.isReady()) {
+        exchange.getResponseHeaders().set(
+            "Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+        JsonResponse.sendError(exchange, 503,
+                               "起動時のタスク更新中です。しばらくお待ちください");
+        return;
+      }
+      handler.handle(exchange);
+    };
+  }
+
+  /**
+   * キャッチアップが完了するまで X-Catch-Up ヘッダーを付けるハンドラーで包む。
+   */
+  public HttpHandler flagUntilReady(HttpHandler handler) {
+    return exchange -> {
+      if (!progress.isReady()) {
+        exchange.getResponseHeaders().set(CATCH_UP_HEADER,
+                                          progress.getState().name());
+      }
+      handler.handle(exchange);
+    };
+  }
+}
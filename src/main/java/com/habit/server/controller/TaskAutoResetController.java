@@ -1,6 +1,7 @@
 package com.habit.server.controller;
 
 import com.habit.server.service.TaskAutoResetService;
+import com.habit.server.http.Params;
 import com.habit.server.scheduler.TaskAutoResetScheduler;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -132,12 +133,7 @@ public class TaskAutoResetController {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
             // クエリパラメータからteamIdを取得
-            String query = exchange.getRequestURI().getQuery();
-            String teamId = null;
-            
-            if (query != null && query.startsWith("teamId=")) {
-                teamId = java.net.URLDecoder.decode(query.substring(7), "UTF-8");
-            }
+            String teamId = Params.ofQuery(exchange).get("teamId");
             
             String response;
             
@@ -181,16 +177,8 @@ public class TaskAutoResetController {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
             // クエリパラメータからdelayを取得
-            String query = exchange.getRequestURI().getQuery();
-            int delay = 10; // デフォルト10秒
-            
-            if (query != null && query.startsWith("delay=")) {
-                try {
-                    delay = Integer.parseInt(query.substring(6));
-                } catch (NumberFormatException e) {
-                    delay = 10; // パース失敗時はデフォルト値
-                }
-            }
+            // パース失敗時はデフォルト10秒
+            int delay = Params.ofQuery(exchange).getInt("delay", 10);
             
             String response;
             
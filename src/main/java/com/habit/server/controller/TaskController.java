@@ -1,11 +1,12 @@
 package com.habit.server.controller;
 
+import com.habit.server.http.JsonResponse;
+import com.habit.server.http.Params;
 import com.habit.server.repository.TaskRepository;
 import com.habit.server.repository.UserTaskStatusRepository;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
-import java.io.OutputStream;
 
 /**
  * タスク関連APIのコントローラ
@@ -18,12 +19,12 @@ public class TaskController {
 
   public TaskController(TaskRepository taskRepository,
                         com.habit.server.repository.TeamRepository teamRepository,
-                        UserTaskStatusRepository utsRepository) {
+                        UserTaskStatusRepository utsRepository,
+                        com.habit.server.service.TeamTaskService teamTaskService) {
     this.taskRepository = taskRepository;
     this.teamRepository = teamRepository;
     this.utsRepository = utsRepository;
-    this.teamTaskService = new com.habit.server.service.TeamTaskService(
-        taskRepository, teamRepository, utsRepository);
+    this.teamTaskService = teamTaskService;
   }
 
   // ------------------------------------------------------------------------------
@@ -47,39 +48,19 @@ public class TaskController {
   class GetTaskIdNameMapHandler implements HttpHandler {
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-      String query = exchange.getRequestURI().getQuery();
-      String teamID = null;
-      if (query != null && query.startsWith("id=")) {
-        teamID = java.net.URLDecoder.decode(query.substring(3), "UTF-8");
-      }
-      String response;
-      if (teamID == null || teamID.isEmpty()) {
-        response = "{}";
-      } else {
-        var repo = TaskController.this.taskRepository;
-        java.util.List<com.habit.domain.Task> tasks =
-            repo.findTeamTasksByTeamID(teamID);
-        StringBuilder sb = new StringBuilder("{");
-        for (int i = 0; i < tasks.size(); i++) {
-          var t = tasks.get(i);
-          sb.append("\"")
-              .append(t.getTaskId().replace("\"", "\\\""))
-              .append("\":");
-          sb.append("\"")
-              .append(t.getTaskName().replace("\"", "\\\""))
-              .append("\"");
-          if (i < tasks.size() - 1)
-            sb.append(",");
+      String teamID = Params.ofQuery(exchange).get("id");
+      java.util.List<com.habit.domain.Task> tasks =
+          (teamID == null || teamID.isEmpty())
+              ? java.util.List.of()
+              : TaskController.this.taskRepository.findTeamTasksByTeamID(
+                    teamID);
+      JsonResponse.send(exchange, 200, json -> {
+        json.writeStartObject();
+        for (var t : tasks) {
+          json.writeStringField(t.getTaskId(), t.getTaskName());
         }
-        sb.append("}");
-        response = sb.toString();
-      }
-      exchange.getResponseHeaders().set("Content-Type",
-                                        "application/json; charset=UTF-8");
-      exchange.sendResponseHeaders(200, response.getBytes("UTF-8").length);
-      OutputStream os = exchange.getResponseBody();
-      os.write(response.getBytes("UTF-8"));
-      os.close();
+        json.writeEndObject();
+      });
     }
   }
 
@@ -99,12 +80,8 @@ public class TaskController {
       if (headers.containsKey("SESSION_ID")) {
         sessionId = headers.getFirst("SESSION_ID");
       }
-      String query = exchange.getRequestURI().getQuery();
-      String teamID = null;
-      if (query != null && query.startsWith("teamID=")) {
-        teamID = java.net.URLDecoder.decode(query.substring(7), "UTF-8");
-      }
-      String response = "[]";
+      String teamID = Params.ofQuery(exchange).get("teamID");
+      JsonResponse.Body body = JsonResponse.EMPTY_ARRAY;
       if (sessionId != null && teamID != null) {
         var user = authService.getUserBySession(sessionId);
         if (user != null) {
@@ -122,33 +99,20 @@ public class TaskController {
               filtered.add(t);
             }
           }
-          StringBuilder sb = new StringBuilder("[");
-          for (int i = 0; i < filtered.size(); i++) {
-            com.habit.domain.Task t = filtered.get(i);
-            sb.append("{");
-            sb.append("\"taskId\":\"")
-                .append(t.getTaskId().replace("\"", "\\\""))
-                .append("\",");
-            sb.append("\"taskName\":\"")
-                .append(t.getTaskName().replace("\"", "\\\""))
-                .append("\",");
-            sb.append("\"cycleType\":\"")
-                .append(t.getCycleType().replace("\"", "\\\""))
-                .append("\"");
-            sb.append("}");
-            if (i < filtered.size() - 1)
-              sb.append(",");
-          }
-          sb.append("]");
-          response = sb.toString();
+          body = json -> {
+            json.writeStartArray();
+            for (com.habit.domain.Task t : filtered) {
+              json.writeStartObject();
+              json.writeStringField("taskId", t.getTaskId());
+              json.writeStringField("taskName", t.getTaskName());
+              json.writeStringField("cycleType", t.getCycleType());
+              json.writeEndObject();
+            }
+            json.writeEndArray();
+          };
         }
       }
-      exchange.getResponseHeaders().set("Content-Type",
-                                        "application/json; charset=UTF-8");
-      exchange.sendResponseHeaders(200, response.getBytes("UTF-8").length);
-      java.io.OutputStream os = exchange.getResponseBody();
-      os.write(response.getBytes("UTF-8"));
-      os.close();
+      JsonResponse.send(exchange, 200, body);
     }
   }
 
@@ -165,29 +129,17 @@ public class TaskController {
         }
         return;
       }
-      byte[] bodyBytes = exchange.getRequestBody().readAllBytes();
-      String bodyStr = (bodyBytes != null) ? new String(bodyBytes, java.nio.charset.StandardCharsets.UTF_8) : "";
       String response;
       int statusCode = 200;
       try {
         // key=value&...形式で受信
-        String[] params = bodyStr.split("&");
-        java.util.Map<String, String> map = new java.util.HashMap<>();
-        for (String param : params) {
-          String[] kv = param.split("=", 2);
-          if (kv.length < 2)
-            continue;
-          map.put(kv[0], java.net.URLDecoder.decode(kv[1], "UTF-8"));
-        }
-        String taskId = map.get("taskId");
-        String taskName = map.get("taskName");
-        String description = map.getOrDefault("description", "");
-        String dueDateStr = map.get("dueDate");
-        java.time.LocalDate dueDate = dueDateStr != null && !dueDateStr.isEmpty()
-            ? java.time.LocalDate.parse(dueDateStr)
-            : null;
-        String cycleType = map.getOrDefault("cycleType", "daily");
-        String teamID = map.get("teamID");
+        Params params = Params.ofBody(exchange);
+        String taskId = params.get("taskId");
+        String taskName = params.get("taskName");
+        String description = params.get("description", "");
+        java.time.LocalDate dueDate = params.getDate("dueDate", null);
+        String cycleType = params.get("cycleType", "daily");
+        String teamID = params.get("teamID");
 
         // --- タスク名重複チェック ---
         if (teamID != null && !teamID.isEmpty() && taskName != null && !taskName.isEmpty()) {
@@ -221,7 +173,7 @@ public class TaskController {
           task = new com.habit.domain.Task(
               taskId, taskName, description, teamID, dueDate, cycleType);
           // 従来通りの保存
-          new com.habit.server.repository.TaskRepository().saveTask(task, teamID);
+          taskRepository.saveTask(task, teamID);
         }
         response = "タスク保存成功";
       } catch (Exception ex) {
@@ -1,10 +1,16 @@
 package com.habit.server.controller;
 
 import com.habit.domain.Team;
+import com.habit.domain.User;
+import com.habit.server.http.ETags;
+import com.habit.server.http.JsonResponse;
+import com.habit.server.http.Params;
 import com.habit.server.repository.TaskRepository;
 import com.habit.server.repository.TeamRepository;
+import com.habit.server.repository.TeamVersions;
 import com.habit.server.repository.UserRepository;
 import com.habit.server.service.AuthService;
+import com.habit.server.service.TeamTaskService;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
@@ -23,19 +29,18 @@ public class TeamController {
   private final AuthService authService;
   private final UserRepository userRepository;
   private final TaskRepository taskRepository;
-  private final com.habit.server.repository.TeamRepository teamRepository;
-  private final com.habit.server.repository.UserTaskStatusRepository userTaskStatusRepository;
-  private final com.habit.server.service.TeamTaskService teamTaskService;
+  private final TeamRepository teamRepository;
+  private final TeamTaskService teamTaskService;
 
   public TeamController(AuthService authService, UserRepository userRepository,
-                        TaskRepository taskRepository) {
+                        TaskRepository taskRepository,
+                        TeamRepository teamRepository,
+                        TeamTaskService teamTaskService) {
     this.authService = authService;
     this.userRepository = userRepository;
     this.taskRepository = taskRepository;
-    this.teamRepository = new com.habit.server.repository.TeamRepository();
-    this.userTaskStatusRepository = new com.habit.server.repository.UserTaskStatusRepository();
-    this.teamTaskService = new com.habit.server.service.TeamTaskService(
-        taskRepository, teamRepository, userTaskStatusRepository);
+    this.teamRepository = teamRepository;
+    this.teamTaskService = teamTaskService;
   }
 
   public HttpHandler getCreateTeamHandler() { return new CreateTeamHandler(); }
@@ -85,13 +90,9 @@ public class TeamController {
         os.close();
         return;
       }
-      byte[] bodyBytes = exchange.getRequestBody().readAllBytes();
-      String bodyStr =
-          (bodyBytes != null)
-              ? new String(bodyBytes, java.nio.charset.StandardCharsets.UTF_8)
-              : "";
+      Params params = Params.ofBody(exchange);
       String response;
-      if (bodyStr == null || bodyStr.trim().isEmpty()) {
+      if (params.isEmpty()) {
         response = "リクエストボディが空です";
         exchange.sendResponseHeaders(400, response.getBytes().length);
         OutputStream os = exchange.getResponseBody();
@@ -100,35 +101,15 @@ public class TeamController {
         return;
       }
       try {
-        String[] params = bodyStr.split("&");
         String teamID = UUID.randomUUID().toString();
-        String teamName = "", passcode = "", editPerm = "";
-        int maxMembers = 5;
+        String teamName = params.get("teamName", "");
+        String passcode = params.get("passcode", "");
+        String editPerm = params.get("editPermission", "");
+        int maxMembers = params.getInt("maxMembers", 5);
         List<String> members = new ArrayList<>();
-        for (String param : params) {
-          String[] kv = param.split("=", 2);
-          if (kv.length < 2)
-            continue;
-          switch (kv[0]) {
-          case "teamName":
-            teamName = java.net.URLDecoder.decode(kv[1], "UTF-8");
-            break;
-          case "passcode":
-            passcode = java.net.URLDecoder.decode(kv[1], "UTF-8");
-            break;
-          case "maxMembers":
-            maxMembers = Integer.parseInt(kv[1]);
-            break;
-          case "editPermission":
-            editPerm = java.net.URLDecoder.decode(kv[1], "UTF-8");
-            break;
-          case "members":
-            for (String m : kv[1].split(","))
-              if (!m.isEmpty())
-                members.add(m);
-            break;
-          }
-        }
+        for (String m : params.get("members", "").split(","))
+          if (!m.isEmpty())
+            members.add(m);
         String creatorUserId = null;
         var headers = exchange.getRequestHeaders();
         if (headers.containsKey("SESSION_ID")) {
@@ -140,17 +121,11 @@ public class TeamController {
         }
         if (creatorUserId == null) {
           // クエリパラメータからもSESSION_IDを探す
-          String query = exchange.getRequestURI().getQuery();
-          if (query != null && query.contains("SESSION_ID=")) {
-            for (String param : query.split("&")) {
-              if (param.startsWith("SESSION_ID=")) {
-                String sessionId = param.substring("SESSION_ID=".length());
-                var user = authService.getUserBySession(sessionId);
-                if (user != null) {
-                  creatorUserId = user.getUserId();
-                }
-                break;
-              }
+          String sessionId = Params.ofQuery(exchange).get("SESSION_ID");
+          if (sessionId != null) {
+            var user = authService.getUserBySession(sessionId);
+            if (user != null) {
+              creatorUserId = user.getUserId();
             }
           }
         }
@@ -179,32 +154,11 @@ public class TeamController {
 
         Team team = new Team(teamID, teamName, creatorUserId, editPerm);
         team.setteamName(teamName);
-        TeamRepository repo = new TeamRepository();
-        repo.save(team, passcode, maxMembers, editPerm,
+        teamRepository.save(team, passcode, maxMembers, editPerm,
                   members);
 
-        String sessionId = null;
-        if (headers.containsKey("SESSION_ID")) {
-          sessionId = headers.getFirst("SESSION_ID");
-        }
-        if (sessionId == null) {
-          String query = exchange.getRequestURI().getQuery();
-          if (query != null && query.contains("SESSION_ID=")) {
-            for (String param : query.split("&")) {
-              if (param.startsWith("SESSION_ID=")) {
-                sessionId = param.substring("SESSION_ID=".length());
-                break;
-              }
-            }
-          }
-        }
-        if (sessionId != null) {
-          var user = authService.getUserBySession(sessionId);
-          if (user != null) {
-            user.addJoinedTeamId(teamID);
-            userRepository.save(user);
-          }
-        }
+        // 作成者は save で team_members に登録される（参加チームは
+        // team_members だけで管理するため、ユーザー側の保存は不要）
         // JSONレスポンスでチームIDを返す
         response =
             "{\"message\":\"チーム作成成功\",\"teamId\":\"" + teamID + "\"}";
@@ -223,15 +177,7 @@ public class TeamController {
     @Override
     public void handle(HttpExchange exchange) throws IOException {
       String response;
-      String query = exchange.getRequestURI().getQuery();
-      String teamName = null;
-      if (query != null) {
-        String[] params = query.split("&");
-        for (String param : params) {
-          if (param.startsWith("teamName="))
-            teamName = java.net.URLDecoder.decode(param.substring(9), "UTF-8");
-        }
-      }
+      String teamName = Params.ofQuery(exchange).get("teamName");
       String sessionId = null;
       var headers = exchange.getRequestHeaders();
       if (headers.containsKey("SESSION_ID")) {
@@ -245,15 +191,12 @@ public class TeamController {
           response = "ユーザが見つかりません";
         } else {
           String memberId = user.getUserId();
-          TeamRepository repo = new TeamRepository();
-          int resultCode = repo.addMemberByTeamName(teamName, memberId);
+          int resultCode = teamRepository.addMemberByTeamName(teamName, memberId);
           switch (resultCode) {
             case 1:
-              String teamID = repo.findTeamIdByName(teamName);
+              String teamID = teamRepository.findTeamIdByName(teamName);
               if (teamID != null) {
-                user.addJoinedTeamId(teamID);
-                userRepository.save(user);
-                
+                // 参加は addMemberByTeamName で team_members に登録済み
                 // 新メンバーに既存のチーム共通タスクを自動紐づけ
                 try {
                   teamTaskService.createUserTaskStatusForNewMember(teamID, memberId);
@@ -289,8 +232,7 @@ public class TeamController {
     public void handle(HttpExchange exchange) throws IOException {
       String response;
       try {
-        TeamRepository repo = new TeamRepository();
-        List<String> teamNames = repo.findAllPublicTeamNames();
+        List<String> teamNames = teamRepository.findAllPublicTeamNames();
         response = String.join("\n", teamNames);
       } catch (Exception ex) {
         response = "エラー: " + ex.getMessage();
@@ -307,16 +249,11 @@ public class TeamController {
     @Override
     public void handle(HttpExchange exchange) throws IOException {
       String response;
-      String query = exchange.getRequestURI().getQuery();
-      String passcode = null;
-      if (query != null && query.startsWith("passcode=")) {
-        passcode = java.net.URLDecoder.decode(query.substring(9), "UTF-8");
-      }
+      String passcode = Params.ofQuery(exchange).get("passcode");
       if (passcode == null || passcode.isEmpty()) {
         response = "合言葉が指定されていません";
       } else {
-        TeamRepository repo = new TeamRepository();
-        String teamName = repo.findTeamNameByPasscode(passcode);
+        String teamName = teamRepository.findTeamNameByPasscode(passcode);
         if (teamName != null) {
           response = teamName;
         } else {
@@ -333,17 +270,12 @@ public class TeamController {
   class GetTeamNameHandler implements HttpHandler {
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-      String query = exchange.getRequestURI().getQuery();
-      String teamID = null;
-      if (query != null && query.startsWith("teamID=")) {
-        teamID = java.net.URLDecoder.decode(query.substring(7), "UTF-8");
-      }
+      String teamID = Params.ofQuery(exchange).get("teamID");
       String response;
       if (teamID == null || teamID.isEmpty()) {
         response = "";
       } else {
-        TeamRepository repo = new TeamRepository();
-        String name = repo.findTeamNameById(teamID);
+        String name = teamRepository.findTeamNameById(teamID);
         response = (name != null) ? name : "";
       }
       exchange.getResponseHeaders().set("Content-Type",
@@ -359,39 +291,32 @@ public class TeamController {
   class GetTeamMembersHandler implements HttpHandler {
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-      String query = exchange.getRequestURI().getQuery();
-      String teamID = null;
-      if (query != null && query.contains("teamID=")) {
-        for (String param : query.split("&")) {
-          if (param.startsWith("teamID=")) {
-            teamID = java.net.URLDecoder.decode(param.substring(7), "UTF-8");
-            break;
-          }
-        }
+      String teamID = Params.ofQuery(exchange).get("teamID");
+      if (teamID != null && !teamID.isEmpty() &&
+          ETags.notModified(exchange, TeamVersions.etag(
+                                          TeamVersions.Kind.MEMBERS, teamID))) {
+        return;
       }
-      String response;
-      if (teamID == null || teamID.isEmpty()) {
-        response = "[]";
-      } else {
-        TeamRepository repo = new TeamRepository();
-        List<String> userIds = repo.findMemberIdsByTeamId(teamID);
-        List<String> userJsons = new ArrayList<>();
+      List<User> members = new ArrayList<>();
+      if (teamID != null && !teamID.isEmpty()) {
+        List<String> userIds = teamRepository.findMemberIdsByTeamId(teamID);
         for (String uid : userIds) {
           var user = userRepository.findById(uid);
           if (user != null) {
-            String username = user.getUsername();
-            userJsons.add(String.format(
-                "{\"userId\":\"%s\",\"username\":\"%s\"}", uid, username));
+            members.add(user);
           }
         }
-        response = "[" + String.join(",", userJsons) + "]";
       }
-      exchange.getResponseHeaders().set("Content-Type",
-                                        "application/json; charset=UTF-8");
-      exchange.sendResponseHeaders(200, response.getBytes("UTF-8").length);
-      OutputStream os = exchange.getResponseBody();
-      os.write(response.getBytes("UTF-8"));
-      os.close();
+      JsonResponse.send(exchange, 200, json -> {
+        json.writeStartArray();
+        for (User user : members) {
+          json.writeStartObject();
+          json.writeStringField("userId", user.getUserId());
+          json.writeStringField("username", user.getUsername());
+          json.writeEndObject();
+        }
+        json.writeEndArray();
+      });
     }
   }
 
@@ -399,55 +324,39 @@ public class TeamController {
   class GetTeamTasksHandler implements HttpHandler {
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-      String query = exchange.getRequestURI().getQuery();
-      String teamID = null;
-      if (query != null && query.contains("teamID=")) {
-        for (String param : query.split("&")) {
-          if (param.startsWith("teamID=")) {
-            teamID = java.net.URLDecoder.decode(param.substring(7), "UTF-8");
-            break;
-          }
-        }
+      String teamID = Params.ofQuery(exchange).get("teamID");
+      if (teamID != null && !teamID.isEmpty() &&
+          ETags.notModified(exchange, TeamVersions.etag(
+                                          TeamVersions.Kind.TASKS, teamID))) {
+        return;
       }
-      String response;
-      if (teamID == null || teamID.isEmpty()) {
-        response = "[]";
-      } else {
-        List<com.habit.domain.Task> tasks =
-            taskRepository.findTeamTasksByTeamID(teamID);
-        List<String> taskJsons = new ArrayList<>();
+      List<com.habit.domain.Task> tasks =
+          (teamID == null || teamID.isEmpty())
+              ? List.of()
+              : taskRepository.findTeamTasksByTeamID(teamID);
+      JsonResponse.send(exchange, 200, json -> {
+        json.writeStartArray();
         for (var t : tasks) {
-          String tid = t.getTaskId();
-          String tname = t.getTaskName();
-          String cycleType = t.getCycleType();
-          taskJsons.add(String.format("{\"taskId\":\"%s\",\"taskName\":\"%s\",\"cycleType\":\"%s\"}",
-                                      tid, tname, cycleType));
+          json.writeStartObject();
+          json.writeStringField("taskId", t.getTaskId());
+          json.writeStringField("taskName", t.getTaskName());
+          json.writeStringField("cycleType", t.getCycleType());
+          json.writeEndObject();
         }
-        response = "[" + String.join(",", taskJsons) + "]";
-      }
-      exchange.getResponseHeaders().set("Content-Type",
-                                        "application/json; charset=UTF-8");
-      exchange.sendResponseHeaders(200, response.getBytes("UTF-8").length);
-      OutputStream os = exchange.getResponseBody();
-      os.write(response.getBytes("UTF-8"));
-      os.close();
+        json.writeEndArray();
+      });
     }
   }
   // --- パスコードからチームID取得API ---
   class GetTeamIdByPasscodeHandler implements HttpHandler {
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-      String query = exchange.getRequestURI().getQuery();
-      String passcode = null;
-      if (query != null && query.startsWith("passcode=")) {
-        passcode = java.net.URLDecoder.decode(query.substring(9), "UTF-8");
-      }
+      String passcode = Params.ofQuery(exchange).get("passcode");
       String response;
       if (passcode == null || passcode.isEmpty()) {
         response = "";
       } else {
-        TeamRepository repo = new TeamRepository();
-        String teamId = repo.findTeamIdByPasscode(passcode);
+        String teamId = teamRepository.findTeamIdByPasscode(passcode);
         response = (teamId != null) ? teamId : "";
       }
       exchange.getResponseHeaders().set("Content-Type",
@@ -464,26 +373,17 @@ public class TeamController {
   class GetTeamSabotageRankingHandler implements HttpHandler {
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-      String query = exchange.getRequestURI().getQuery();
-      String teamID = null;
-      if (query != null && query.contains("teamID=")) {
-        for (String param : query.split("&")) {
-          if (param.startsWith("teamID=")) {
-            teamID = java.net.URLDecoder.decode(param.substring(7), "UTF-8");
-            break;
-          }
-        }
+      String teamID = Params.ofQuery(exchange).get("teamID");
+      if (teamID != null && !teamID.isEmpty() &&
+          ETags.notModified(exchange, TeamVersions.etag(
+                                          TeamVersions.Kind.MEMBERS, teamID))) {
+        return;
       }
-      String response;
-      if (teamID == null || teamID.isEmpty()) {
-        response = "[]";
-      } else {
-        TeamRepository repo = new TeamRepository();
-        List<String> userIds = repo.findMemberIdsByTeamId(teamID);
-        List<String> rankingJsons = new ArrayList<>();
+      // ユーザーIDとサボりポイントのペアを作成
+      List<UserSabotageInfo> userInfos = new ArrayList<>();
+      if (teamID != null && !teamID.isEmpty()) {
+        List<String> userIds = teamRepository.findMemberIdsByTeamId(teamID);
         
-        // ユーザーIDとサボりポイントのペアを作成
-        List<UserSabotageInfo> userInfos = new ArrayList<>();
         for (String uid : userIds) {
           var user = userRepository.findById(uid);
           if (user != null) {
@@ -493,25 +393,23 @@ public class TeamController {
         
         // サボりポイントの降順でソート
         userInfos.sort((a, b) -> Integer.compare(b.sabotagePoints, a.sabotagePoints));
-        
-        // 上位5名まで取得
-        int count = Math.min(5, userInfos.size());
+      }
+      
+      // 上位5名まで取得
+      int count = Math.min(5, userInfos.size());
+      JsonResponse.send(exchange, 200, json -> {
+        json.writeStartArray();
         for (int i = 0; i < count; i++) {
           UserSabotageInfo info = userInfos.get(i);
-          String rankingJson = String.format(
-            "{\"rank\":%d,\"userId\":\"%s\",\"username\":\"%s\",\"sabotagePoints\":%d}",
-            i + 1, info.userId, info.username, info.sabotagePoints
-          );
-          rankingJsons.add(rankingJson);
+          json.writeStartObject();
+          json.writeNumberField("rank", i + 1);
+          json.writeStringField("userId", info.userId);
+          json.writeStringField("username", info.username);
+          json.writeNumberField("sabotagePoints", info.sabotagePoints);
+          json.writeEndObject();
         }
-        
-        response = "[" + String.join(",", rankingJsons) + "]";
-      }
-      exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
-      exchange.sendResponseHeaders(200, response.getBytes("UTF-8").length);
-      OutputStream os = exchange.getResponseBody();
-      os.write(response.getBytes("UTF-8"));
-      os.close();
+        json.writeEndArray();
+      });
     }
   }
 
@@ -541,16 +439,7 @@ public class TeamController {
         return;
       }
 
-      String query = exchange.getRequestURI().getQuery();
-      String teamId = null;
-      if (query != null) {
-        for (String param : query.split("&")) {
-          if (param.startsWith("team_id=")) {
-            teamId = java.net.URLDecoder.decode(param.substring(8), "UTF-8");
-            break;
-          }
-        }
-      }
+      String teamId = Params.ofQuery(exchange).get("team_id");
 
       if (teamId == null) {
         String response = "パラメータが不正です";
@@ -601,7 +490,9 @@ public class TeamController {
       }
 
       try {
-        teamRepository.delete(teamId);
+        // チームはすぐに見えなくなり、タスク・達成状況・チャットは
+        // バックグラウンドで少しずつ削除される
+        teamRepository.deleteInBackground(teamId);
         String response = "チームを削除しました";
         exchange.sendResponseHeaders(200, response.getBytes().length);
         try (OutputStream os = exchange.getResponseBody()) {
@@ -1,9 +1,8 @@
 package com.habit.server.controller;
 
+import com.habit.server.http.JsonResponse;
+import com.habit.server.http.Params;
 import com.habit.server.service.TeamTaskService;
-import com.habit.server.repository.TaskRepository;
-import com.habit.server.repository.TeamRepository;
-import com.habit.server.repository.UserTaskStatusRepository;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
@@ -20,11 +19,8 @@ public class TeamTaskController {
     private static final Logger logger = LoggerFactory.getLogger(TeamTaskController.class);
     private final TeamTaskService teamTaskService;
 
-    public TeamTaskController() {
-        TaskRepository taskRepository = new TaskRepository();
-        TeamRepository teamRepository = new TeamRepository();
-        UserTaskStatusRepository userTaskStatusRepository = new UserTaskStatusRepository();
-        this.teamTaskService = new TeamTaskService(taskRepository, teamRepository, userTaskStatusRepository);
+    public TeamTaskController(TeamTaskService teamTaskService) {
+        this.teamTaskService = teamTaskService;
     }
 
     public HttpHandler getTeamTaskCompletionRateHandler() {
@@ -45,33 +41,10 @@ public class TeamTaskController {
     class TeamTaskCompletionRateHandler implements HttpHandler {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
-            String query = exchange.getRequestURI().getQuery();
-            String teamId = null;
-            String taskId = null;
-            String dateStr = null;
-
-            if (query != null) {
-                String[] params = query.split("&");
-                for (String param : params) {
-                    String[] kv = param.split("=", 2);
-                    if (kv.length < 2) continue;
-                    try {
-                        switch (kv[0]) {
-                            case "teamId":
-                                teamId = java.net.URLDecoder.decode(kv[1], "UTF-8");
-                                break;
-                            case "taskId":
-                                taskId = java.net.URLDecoder.decode(kv[1], "UTF-8");
-                                break;
-                            case "date":
-                                dateStr = java.net.URLDecoder.decode(kv[1], "UTF-8");
-                                break;
-                        }
-                    } catch (Exception e) {
-                        logger.error("パラメータ解析エラー: {}", e.getMessage(), e);
-                    }
-                }
-            }
+            Params params = Params.ofQuery(exchange);
+            String teamId = params.get("teamId");
+            String taskId = params.get("taskId");
+            String dateStr = params.get("date");
 
             String response;
             try {
@@ -100,63 +73,36 @@ public class TeamTaskController {
     class GetUserTeamTasksHandler implements HttpHandler {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
-            String query = exchange.getRequestURI().getQuery();
-            String userId = null;
-            String dateStr = null;
-
-            if (query != null) {
-                String[] params = query.split("&");
-                for (String param : params) {
-                    String[] kv = param.split("=", 2);
-                    if (kv.length < 2) continue;
-                    try {
-                        switch (kv[0]) {
-                            case "userId":
-                                userId = java.net.URLDecoder.decode(kv[1], "UTF-8");
-                                break;
-                            case "date":
-                                dateStr = java.net.URLDecoder.decode(kv[1], "UTF-8");
-                                break;
-                        }
-                    } catch (Exception e) {
-                        logger.error("パラメータ解析エラー: {}", e.getMessage(), e);
-                    }
-                }
-            }
+            Params params = Params.ofQuery(exchange);
+            String userId = params.get("userId");
+            String dateStr = params.get("date");
 
-            String response;
+            if (userId == null) {
+                JsonResponse.sendError(exchange, 200, "userIdが必要です");
+                return;
+            }
+            List<com.habit.domain.UserTaskStatus> teamTasks;
             try {
-                if (userId == null) {
-                    response = "{\"error\":\"userIdが必要です\"}";
-                } else {
-                    LocalDate date = (dateStr != null) ? LocalDate.parse(dateStr) : LocalDate.now();
-                    List<com.habit.domain.UserTaskStatus> teamTasks = 
-                        teamTaskService.getUserTeamTaskStatuses(userId, date);
-                    
-                    StringBuilder sb = new StringBuilder("[");
-                    for (int i = 0; i < teamTasks.size(); i++) {
-                        com.habit.domain.UserTaskStatus status = teamTasks.get(i);
-                        sb.append("{");
-                        sb.append("\"userId\":\"").append(status.getUserId()).append("\",");
-                        sb.append("\"taskId\":\"").append(status.getTaskId()).append("\",");
-                        sb.append("\"teamId\":\"").append(status.getTeamId()).append("\",");
-                        sb.append("\"date\":\"").append(status.getDate().toString()).append("\",");
-                        sb.append("\"isDone\":").append(status.isDone());
-                        sb.append("}");
-                        if (i < teamTasks.size() - 1) sb.append(",");
-                    }
-                    sb.append("]");
-                    response = sb.toString();
-                }
+                LocalDate date = (dateStr != null) ? LocalDate.parse(dateStr) : LocalDate.now();
+                teamTasks = teamTaskService.getUserTeamTaskStatuses(userId, date);
             } catch (Exception e) {
-                response = "{\"error\":\"" + e.getMessage() + "\"}";
+                JsonResponse.sendError(exchange, 200, e.getMessage());
+                return;
             }
 
-            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
-            exchange.sendResponseHeaders(200, response.getBytes("UTF-8").length);
-            OutputStream os = exchange.getResponseBody();
-            os.write(response.getBytes("UTF-8"));
-            os.close();
+            JsonResponse.send(exchange, 200, json -> {
+                json.writeStartArray();
+                for (com.habit.domain.UserTaskStatus status : teamTasks) {
+                    json.writeStartObject();
+                    json.writeStringField("userId", status.getUserId());
+                    json.writeStringField("taskId", status.getTaskId());
+                    json.writeStringField("teamId", status.getTeamId());
+                    json.writeStringField("date", status.getDate().toString());
+                    json.writeBooleanField("isDone", status.isDone());
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+            });
         }
     }
 
@@ -1,23 +1,26 @@
 package com.habit.server.controller;
 
 import com.habit.domain.User;
+import com.habit.server.http.Params;
 import com.habit.server.repository.TeamRepository;
+import com.habit.server.repository.UserRepository;
 import com.habit.server.service.AuthService;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.ArrayList;
-import java.util.List;
 
 public class UserController {
   private final AuthService authService;
   private final TeamRepository teamRepository;
+  private final UserRepository userRepository;
 
   public UserController(AuthService authService,
-                        TeamRepository teamRepository) {
+                        TeamRepository teamRepository,
+                        UserRepository userRepository) {
     this.authService = authService;
     this.teamRepository = teamRepository;
+    this.userRepository = userRepository;
   }
 
   public HttpHandler getGetJoinedTeamInfoHandler() {
@@ -74,17 +77,15 @@ public class UserController {
         User user = authService.getUserBySession(sessionId);
         if (user != null) {
           currentUserId = user.getUserId();
-          List<String> teamIds = user.getJoinedTeamIds();
-          for (String id : teamIds) {
-            com.habit.domain.Team team = teamRepository.findById(id);
-            if (team != null) {
-              org.json.JSONObject teamJson = new org.json.JSONObject();
-              teamJson.put("teamId", team.getTeamID());
-              teamJson.put("teamName", team.getteamName());
-              teamJson.put("creatorId", team.getCreatorId());
-              teamJson.put("editPermission", team.getEditPermission()); // ★ 不足していた行を追加
-              responseArray.put(teamJson);
-            }
+          // team_members から参加チームを1回のクエリで取得する
+          for (com.habit.domain.Team team :
+               teamRepository.findJoinedTeams(currentUserId)) {
+            org.json.JSONObject teamJson = new org.json.JSONObject();
+            teamJson.put("teamId", team.getTeamID());
+            teamJson.put("teamName", team.getteamName());
+            teamJson.put("creatorId", team.getCreatorId());
+            teamJson.put("editPermission", team.getEditPermission());
+            responseArray.put(teamJson);
           }
         }
       }
@@ -113,32 +114,19 @@ public class UserController {
         return;
       }
       
-      byte[] bodyBytes = exchange.getRequestBody().readAllBytes();
-      String bodyStr = (bodyBytes != null) ? new String(bodyBytes, java.nio.charset.StandardCharsets.UTF_8) : "";
       String response;
       
       try {
-        String[] params = bodyStr.split("&");
-        String userId = null;
-        int newPoints = -1;
-        
-        for (String param : params) {
-          String[] kv = param.split("=", 2);
-          if (kv.length < 2) continue;
-          if (kv[0].equals("userId")) {
-            userId = java.net.URLDecoder.decode(kv[1], "UTF-8");
-          } else if (kv[0].equals("sabotagePoints")) {
-            newPoints = Integer.parseInt(kv[1]);
-          }
-        }
+        Params params = Params.ofBody(exchange);
+        String userId = params.get("userId");
+        int newPoints = params.getInt("sabotagePoints", -1);
         
         if (userId != null && newPoints >= 0) {
-          com.habit.server.repository.UserRepository userRepo = new com.habit.server.repository.UserRepository();
-          User user = userRepo.findById(userId);
+          User user = userRepository.findById(userId);
           if (user != null) {
             int oldPoints = user.getSabotagePoints();
             user.setSabotagePoints(Math.max(0, Math.min(9, newPoints))); // 0-9の範囲に制限
-            userRepo.save(user);
+            userRepository.save(user);
             response = "サボりポイント更新成功: " + user.getUsername() + " " + oldPoints + "pt → " + user.getSabotagePoints() + "pt";
           } else {
             response = "ユーザーが見つかりません";
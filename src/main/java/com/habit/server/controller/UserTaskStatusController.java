@@ -1,7 +1,12 @@
 package com.habit.server.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import com.habit.server.http.JsonResponse;
+import com.habit.server.http.Params;
+import com.habit.server.repository.TaskRepository;
+import com.habit.server.repository.UserRepository;
 import com.habit.server.repository.UserTaskStatusRepository;
 import com.habit.server.service.AuthService;
 import com.habit.domain.UserTaskStatus;
@@ -20,10 +25,15 @@ public class UserTaskStatusController {
     private static final Logger logger = LoggerFactory.getLogger(UserTaskStatusController.class);
     private final AuthService authService;
     private final UserTaskStatusRepository userTaskStatusRepository;
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
   
-    public UserTaskStatusController(AuthService authService, UserTaskStatusRepository userTaskStatusRepository) {
+    public UserTaskStatusController(AuthService authService, UserTaskStatusRepository userTaskStatusRepository,
+                                    TaskRepository taskRepository, UserRepository userRepository) {
         this.authService = authService;
         this.userTaskStatusRepository = userTaskStatusRepository;
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
     }
 
     public HttpHandler getCompleteUserTaskHandler() {
@@ -70,6 +80,58 @@ public class UserTaskStatusController {
         }
     }
 
+    /**
+     * タスクステータスとタスク情報を1件のJSONオブジェクトとして書き込む。
+     */
+    static void writeTaskStatus(JsonGenerator json, UserTaskStatus status,
+                                com.habit.domain.Task task) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("taskId", status.getTaskId());
+        json.writeStringField("taskName", task.getTaskName());
+        json.writeStringField("dueDate", task.getDueDate().toString());
+        json.writeBooleanField("isDone", status.isDone());
+        json.writeEndObject();
+    }
+
+    /**
+     * チームメンバーのタスク状態を {userId, taskId, date, isDone} の形式で書き込む。
+     */
+    static void writeMemberTaskStatus(JsonGenerator json, UserTaskStatus status)
+        throws IOException {
+        json.writeStartObject();
+        json.writeStringField("userId", status.getUserId());
+        json.writeStringField("taskId", status.getTaskId());
+        json.writeStringField("date", status.getDate().toString());
+        json.writeBooleanField("isDone", status.isDone());
+        json.writeEndObject();
+    }
+
+    /**
+     * 未完了かつ期限が今日以降のタスク状態を、タスクごとに1件ずつ抽出する。
+     *
+     * @param statuses ユーザーのタスク状態一覧
+     * @param taskMap チームのタスク（taskId→Task）
+     */
+    static java.util.List<UserTaskStatus> filterIncomplete(
+        java.util.List<UserTaskStatus> statuses,
+        java.util.Map<String, com.habit.domain.Task> taskMap) {
+        java.util.List<UserTaskStatus> incompleteStatuses = new java.util.ArrayList<>();
+        java.util.Set<String> addedTaskIds = new java.util.HashSet<>();
+        java.time.LocalDate yesterday = java.time.LocalDate.now().minusDays(1);
+        for (UserTaskStatus status : statuses) {
+            com.habit.domain.Task correspondingTask = taskMap.get(status.getTaskId());
+            if (correspondingTask != null) {
+                java.time.LocalDate dueDate = correspondingTask.getDueDate();
+                if (!status.isDone() && dueDate != null && dueDate.isAfter(yesterday)) {
+                    if (addedTaskIds.add(status.getTaskId())) {
+                        incompleteStatuses.add(status);
+                    }
+                }
+            }
+        }
+        return incompleteStatuses;
+    }
+
     // --- ユーザーの未完了タスク(isDone=false, dueDate > now)一覧取得API ---
     public HttpHandler getIncompleteUserTaskStatusHandler(com.habit.server.service.AuthService authService) {
         return new GetIncompleteUserTaskStatusHandler(authService);
@@ -80,7 +142,7 @@ public class UserTaskStatusController {
         return new GetAllUserTaskStatusHandler(authService);
     }
 
-    public static class GetAllUserTaskStatusHandler implements com.sun.net.httpserver.HttpHandler {
+    public class GetAllUserTaskStatusHandler implements com.sun.net.httpserver.HttpHandler {
         private final com.habit.server.service.AuthService authService;
 
         public GetAllUserTaskStatusHandler(com.habit.server.service.AuthService authService) {
@@ -89,32 +151,22 @@ public class UserTaskStatusController {
 
         @Override
         public void handle(com.sun.net.httpserver.HttpExchange exchange) throws java.io.IOException {
-            java.io.OutputStream os = null;
             try {
                 String sessionId = null;
                 var headers = exchange.getRequestHeaders();
                 if (headers.containsKey("SESSION_ID")) {
                     sessionId = headers.getFirst("SESSION_ID");
                 }
-                String query = exchange.getRequestURI().getQuery();
-                String teamID = null;
-                if (query != null) {
-                    String[] params = query.split("&");
-                    for (String param : params) {
-                        if (param.startsWith("teamID=")) teamID = java.net.URLDecoder.decode(param.substring(7), "UTF-8");
-                    }
-                }
+                String teamID = Params.ofQuery(exchange).get("teamID");
                 
-                String response = "[]";
+                JsonResponse.Body body = JsonResponse.EMPTY_ARRAY;
                 if (sessionId != null && teamID != null) {
                     var user = authService.getUserBySession(sessionId);
                     if (user != null) {
                         String userId = user.getUserId();
-                        com.habit.server.repository.UserTaskStatusRepository utsRepo = new com.habit.server.repository.UserTaskStatusRepository();
-                        com.habit.server.repository.TaskRepository taskRepo = new com.habit.server.repository.TaskRepository();
                         
-                        java.util.List<com.habit.domain.UserTaskStatus> allUserTaskStatuses = utsRepo.findByUserIdAndTeamId(userId, teamID);
-                        java.util.List<com.habit.domain.Task> allTeamTasks = taskRepo.findTeamTasksByTeamID(teamID);
+                        java.util.List<com.habit.domain.UserTaskStatus> allUserTaskStatuses = userTaskStatusRepository.findByUserIdAndTeamId(userId, teamID);
+                        java.util.List<com.habit.domain.Task> allTeamTasks = taskRepository.findTeamTasksByTeamID(teamID);
                         java.util.Map<String, com.habit.domain.Task> taskMap = new java.util.HashMap<>();
                         for(com.habit.domain.Task task : allTeamTasks) {
                             taskMap.put(task.getTaskId(), task);
@@ -133,47 +185,29 @@ public class UserTaskStatusController {
                             }
                         }
                         
-                        StringBuilder sb = new StringBuilder("[");
-                        int i = 0;
-                        for (com.habit.domain.UserTaskStatus s : latestStatuses.values()) {
-                            com.habit.domain.Task t = taskMap.get(s.getTaskId());
-                            if (t != null) { //念のため
-                                sb.append("{");
-                                sb.append("\"taskId\":\"").append(s.getTaskId().replace("\"", "\\")).append("\",");
-                                sb.append("\"taskName\":\"").append(t.getTaskName().replace("\"", "\\")).append("\",");
-                                sb.append("\"dueDate\":\"").append(t.getDueDate().toString().replace("\"", "\\")).append("\",");
-                                sb.append("\"isDone\":").append(s.isDone());
-                                sb.append("}");
-                                if (i < latestStatuses.size() - 1) sb.append(",");
+                        body = json -> {
+                            json.writeStartArray();
+                            for (com.habit.domain.UserTaskStatus s : latestStatuses.values()) {
+                                com.habit.domain.Task t = taskMap.get(s.getTaskId());
+                                if (t != null) { //念のため
+                                    writeTaskStatus(json, s, t);
+                                }
                             }
-                            i++;
-                        }
-                        sb.append("]");
-                        response = sb.toString();
+                            json.writeEndArray();
+                        };
 
-                        logger.info("[UserTaskStatusController] Responding with all latest tasks: {}", response);
+                        logger.info("[UserTaskStatusController] Responding with all latest tasks: {} 件", latestStatuses.size());
                     }
                 }
-                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
-                exchange.sendResponseHeaders(200, response.getBytes("UTF-8").length);
-                os = exchange.getResponseBody();
-                os.write(response.getBytes("UTF-8"));
+                JsonResponse.send(exchange, 200, body);
             } catch (Exception e) {
                 e.printStackTrace();
-                String errJson = "{\"error\":\"" + e.getClass().getSimpleName() + ": " + e.getMessage() + "\"}";
-                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
-                exchange.sendResponseHeaders(500, errJson.getBytes("UTF-8").length);
-                os = exchange.getResponseBody();
-                os.write(errJson.getBytes("UTF-8"));
-            } finally {
-                if (os != null) {
-                    try { os.close(); } catch (Exception ignore) {}
-                }
+                JsonResponse.sendError(exchange, 500, e.getClass().getSimpleName() + ": " + e.getMessage());
             }
         }
     }
 
-    public static class GetIncompleteUserTaskStatusHandler implements com.sun.net.httpserver.HttpHandler {
+    public class GetIncompleteUserTaskStatusHandler implements com.sun.net.httpserver.HttpHandler {
         private final com.habit.server.service.AuthService authService;
 
         public GetIncompleteUserTaskStatusHandler(com.habit.server.service.AuthService authService) {
@@ -182,84 +216,44 @@ public class UserTaskStatusController {
 
         @Override
         public void handle(com.sun.net.httpserver.HttpExchange exchange) throws java.io.IOException {
-            java.io.OutputStream os = null;
             try {
                 String sessionId = null;
                 var headers = exchange.getRequestHeaders();
                 if (headers.containsKey("SESSION_ID")) {
                     sessionId = headers.getFirst("SESSION_ID");
                 }
-                String query = exchange.getRequestURI().getQuery();
-                String teamID = null;
-                if (query != null) {
-                    String[] params = query.split("&");
-                    for (String param : params) {
-                        if (param.startsWith("teamID=")) teamID = java.net.URLDecoder.decode(param.substring(7), "UTF-8");
-                    }
-                }
+                String teamID = Params.ofQuery(exchange).get("teamID");
                 
-                String response = "[]";
+                JsonResponse.Body body = JsonResponse.EMPTY_ARRAY;
                 if (sessionId != null && teamID != null) {
                     var user = authService.getUserBySession(sessionId);
                     if (user != null) {
                         String userId = user.getUserId();
-                        com.habit.server.repository.UserTaskStatusRepository utsRepo = new com.habit.server.repository.UserTaskStatusRepository();
-                        com.habit.server.repository.TaskRepository taskRepo = new com.habit.server.repository.TaskRepository();
                         
-                        java.util.List<com.habit.domain.UserTaskStatus> allUserTaskStatuses = utsRepo.findByUserIdAndTeamId(userId, teamID);
-                        java.util.List<com.habit.domain.Task> allTeamTasks = taskRepo.findTeamTasksByTeamID(teamID);
+                        java.util.List<com.habit.domain.UserTaskStatus> allUserTaskStatuses = userTaskStatusRepository.findByUserIdAndTeamId(userId, teamID);
+                        java.util.List<com.habit.domain.Task> allTeamTasks = taskRepository.findTeamTasksByTeamID(teamID);
                         java.util.Map<String, com.habit.domain.Task> taskMap = new java.util.HashMap<>();
                         for(com.habit.domain.Task task : allTeamTasks) {
                             taskMap.put(task.getTaskId(), task);
                         }
 
-                        java.util.List<com.habit.domain.UserTaskStatus> incompleteStatuses = new java.util.ArrayList<>();
-                        java.util.Set<String> addedTaskIds = new java.util.HashSet<>();
-                        for (com.habit.domain.UserTaskStatus status : allUserTaskStatuses) {
-                            com.habit.domain.Task correspondingTask = taskMap.get(status.getTaskId());
-                            if (correspondingTask != null) {
-                                java.time.LocalDate dueDate = correspondingTask.getDueDate();
-                                if (!status.isDone() && dueDate != null && dueDate.isAfter(java.time.LocalDate.now().minusDays(1))) {
-                                    if (addedTaskIds.add(status.getTaskId())) {
-                                        incompleteStatuses.add(status);
-                                    }
-                                }
-                            }
-                        }
+                        java.util.List<com.habit.domain.UserTaskStatus> incompleteStatuses = filterIncomplete(allUserTaskStatuses, taskMap);
                         
-                        StringBuilder sb = new StringBuilder("[");
-                        for (int i = 0; i < incompleteStatuses.size(); i++) {
-                            com.habit.domain.UserTaskStatus s = incompleteStatuses.get(i);
-                            com.habit.domain.Task t = taskMap.get(s.getTaskId());
-                            sb.append("{");
-                            sb.append("\"taskId\":\"").append(s.getTaskId().replace("\"", "\\")).append("\",");
-                            sb.append("\"taskName\":\"").append(t.getTaskName().replace("\"", "\\")).append("\",");
-                            sb.append("\"dueDate\":\"").append(t.getDueDate().toString().replace("\"", "\\")).append("\",");
-                            sb.append("\"isDone\":").append(s.isDone());
-                            sb.append("}");
-                            if (i < incompleteStatuses.size() - 1) sb.append(",");
-                        }
-                        sb.append("]");
-                        response = sb.toString();
+                        body = json -> {
+                            json.writeStartArray();
+                            for (com.habit.domain.UserTaskStatus s : incompleteStatuses) {
+                                writeTaskStatus(json, s, taskMap.get(s.getTaskId()));
+                            }
+                            json.writeEndArray();
+                        };
 
-                        logger.info("[UserTaskStatusController] Responding with incomplete tasks: {}", response);
+                        logger.info("[UserTaskStatusController] Responding with incomplete tasks: {} 件", incompleteStatuses.size());
                     }
                 }
-                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
-                exchange.sendResponseHeaders(200, response.getBytes("UTF-8").length);
-                os = exchange.getResponseBody();
-                os.write(response.getBytes("UTF-8"));
+                JsonResponse.send(exchange, 200, body);
             } catch (Exception e) {
                 e.printStackTrace();
-                String errJson = "{\"error\":\"" + e.getClass().getSimpleName() + ": " + e.getMessage() + "\"}";
-                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
-                exchange.sendResponseHeaders(500, errJson.getBytes("UTF-8").length);
-                os = exchange.getResponseBody();
-                os.write(errJson.getBytes("UTF-8"));
-            } finally {
-                if (os != null) {
-                    try { os.close(); } catch (Exception ignore) {}
-                }
+                JsonResponse.sendError(exchange, 500, e.getClass().getSimpleName() + ": " + e.getMessage());
             }
         }
     }
@@ -268,7 +262,7 @@ public class UserTaskStatusController {
         return new GetUserIncompleteTasksHandler(authService);
     }
 
-    public static class GetUserIncompleteTasksHandler implements com.sun.net.httpserver.HttpHandler {
+    public class GetUserIncompleteTasksHandler implements com.sun.net.httpserver.HttpHandler {
         private final com.habit.server.service.AuthService authService;
 
         public GetUserIncompleteTasksHandler(com.habit.server.service.AuthService authService) {
@@ -278,46 +272,36 @@ public class UserTaskStatusController {
         @Override
         public void handle(com.sun.net.httpserver.HttpExchange exchange) throws java.io.IOException {
             logger.info("[UserTaskStatusController] getUserIncompleteTasks API called");
-            java.io.OutputStream os = null;
             try {
                 String sessionId = null;
                 var headers = exchange.getRequestHeaders();
                 if (headers.containsKey("SESSION_ID")) {
                     sessionId = headers.getFirst("SESSION_ID");
                 }
-                String query = exchange.getRequestURI().getQuery();
-                String teamID = null;
-                String dateStr = null;
-                if (query != null) {
-                    String[] params = query.split("&");
-                    for (String param : params) {
-                        if (param.startsWith("teamID=")) teamID = java.net.URLDecoder.decode(param.substring(7), "UTF-8");
-                        if (param.startsWith("date=")) dateStr = java.net.URLDecoder.decode(param.substring(5), "UTF-8");
-                    }
-                }
+                Params params = Params.ofQuery(exchange);
+                String teamID = params.get("teamID");
+                String dateStr = params.get("date");
                 logger.info("[UserTaskStatusController] sessionId: {}", sessionId);
                 logger.info("[UserTaskStatusController] teamID: {}", teamID);
                 logger.info("[UserTaskStatusController] dateStr: {}", dateStr);
-                String response = "[]";
+                JsonResponse.Body body = JsonResponse.EMPTY_ARRAY;
                 if (sessionId != null && teamID != null && dateStr != null) {
                     var user = authService.getUserBySession(sessionId);
                     if (user != null) {
                         String userId = user.getUserId();
                         logger.info("[UserTaskStatusController] userId: {}", userId);
-                        com.habit.server.repository.UserTaskStatusRepository utsRepo = new com.habit.server.repository.UserTaskStatusRepository();
-                        com.habit.server.repository.TaskRepository taskRepo = new com.habit.server.repository.TaskRepository();
                         java.time.LocalDate date = java.time.LocalDate.parse(dateStr);
                         logger.info("[UserTaskStatusController] Parsed date: {}", date);
-                        java.util.List<com.habit.domain.Task> teamTasks = taskRepo.findTeamTasksByTeamID(teamID);
+                        java.util.List<com.habit.domain.Task> teamTasks = taskRepository.findTeamTasksByTeamID(teamID);
                         logger.info("[UserTaskStatusController] Team tasks count: {}", teamTasks.size());
                         java.util.List<com.habit.domain.Task> filtered = new java.util.ArrayList<>();
                         
                         // 当日と翌日の両方のUserTaskStatusを取得（再設定されたタスクを含む）
                         java.time.LocalDate tomorrow = date.plusDays(1);
                         java.util.List<com.habit.domain.UserTaskStatus> statusListToday =
-                            utsRepo.findByUserIdAndTeamIdAndDate(userId, teamID, date);
+                            userTaskStatusRepository.findByUserIdAndTeamIdAndDate(userId, teamID, date);
                         java.util.List<com.habit.domain.UserTaskStatus> statusListTomorrow =
-                            utsRepo.findByUserIdAndTeamIdAndDate(userId, teamID, tomorrow);
+                            userTaskStatusRepository.findByUserIdAndTeamIdAndDate(userId, teamID, tomorrow);
                         
                         java.util.List<com.habit.domain.UserTaskStatus> statusList = new java.util.ArrayList<>();
                         statusList.addAll(statusListToday);
@@ -332,7 +316,7 @@ public class UserTaskStatusController {
                         }
                         
                         // ユーザーが担当するタスクIDセットを取得
-                        java.util.Set<String> userTaskIds = new java.util.HashSet<>(utsRepo.findTaskIdsByUserIdAndTeamId(userId, teamID));
+                        java.util.Set<String> userTaskIds = new java.util.HashSet<>(userTaskStatusRepository.findTaskIdsByUserIdAndTeamId(userId, teamID));
                         logger.info("[UserTaskStatusController] User task IDs: {}", userTaskIds);
                         
                         // 未完了タスクをフィルタリング
@@ -346,49 +330,24 @@ public class UserTaskStatusController {
                         }
                         
                         logger.info("[UserTaskStatusController] Final filtered tasks count: {}", filtered.size());
-                        StringBuilder sb = new StringBuilder("[");
-                        for (int i = 0; i < filtered.size(); i++) {
-                            com.habit.domain.Task t = filtered.get(i);
-                            sb.append("{");
-                            sb.append("\"taskId\":\"").append(t.getTaskId().replace("\"", "\\\"")).append("\",");
-                            sb.append("\"taskName\":\"").append(t.getTaskName().replace("\"", "\\\"")).append("\",");
-                            String dueDate = "";
-                            try {
-                                java.lang.reflect.Method m = t.getClass().getMethod("getDueDate");
-                                Object val = m.invoke(t);
-                                if (val != null) dueDate = val.toString();
-                            } catch (Exception ignore) {}
-                            sb.append("\"dueDate\":\"").append(dueDate.replace("\"", "\\\"")).append("\",");
-                            String cycleType = "";
-                            try {
-                                java.lang.reflect.Method m = t.getClass().getMethod("getCycleType");
-                                Object val = m.invoke(t);
-                                if (val != null) cycleType = val.toString();
-                            } catch (Exception ignore) {}
-                            sb.append("\"cycleType\":\"").append(cycleType.replace("\"", "\\\"")).append("\"");
-                            sb.append("}");
-                            if (i < filtered.size() - 1) sb.append(",");
-                        }
-                        sb.append("]");
-                        response = sb.toString();
+                        body = json -> {
+                            json.writeStartArray();
+                            for (com.habit.domain.Task t : filtered) {
+                                json.writeStartObject();
+                                json.writeStringField("taskId", t.getTaskId());
+                                json.writeStringField("taskName", t.getTaskName());
+                                json.writeStringField("dueDate", t.getDueDate() != null ? t.getDueDate().toString() : "");
+                                json.writeStringField("cycleType", t.getCycleType() != null ? t.getCycleType() : "");
+                                json.writeEndObject();
+                            }
+                            json.writeEndArray();
+                        };
                     }
                 }
-                logger.info("[UserTaskStatusController] Responding with: {}", response);
-                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
-                exchange.sendResponseHeaders(200, response.getBytes("UTF-8").length);
-                os = exchange.getResponseBody();
-                os.write(response.getBytes("UTF-8"));
+                JsonResponse.send(exchange, 200, body);
             } catch (Exception e) {
                 e.printStackTrace();
-                String errJson = "{\"error\":\"" + e.getClass().getSimpleName() + ": " + e.getMessage() + "\"}";
-                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
-                exchange.sendResponseHeaders(500, errJson.getBytes("UTF-8").length);
-                os = exchange.getResponseBody();
-                os.write(errJson.getBytes("UTF-8"));
-            } finally {
-                if (os != null) {
-                    try { os.close(); } catch (Exception ignore) {}
-                }
+                JsonResponse.sendError(exchange, 500, e.getClass().getSimpleName() + ": " + e.getMessage());
             }
         }
     }
@@ -404,23 +363,15 @@ public class UserTaskStatusController {
                 }
                 return;
             }
-            byte[] bodyBytes = exchange.getRequestBody().readAllBytes();
-            String bodyStr = (bodyBytes != null) ? new String(bodyBytes, java.nio.charset.StandardCharsets.UTF_8) : "";
             String response;
             try {
-                String[] params = bodyStr.split("&");
-                java.util.Map<String, String> map = new java.util.HashMap<>();
-                for (String param : params) {
-                    String[] kv = param.split("=", 2);
-                    if (kv.length < 2) continue;
-                    map.put(kv[0], java.net.URLDecoder.decode(kv[1], "UTF-8"));
-                }
-                String userId = map.get("userId");
-                String taskId = map.get("taskId");
-                java.time.LocalDate date = java.time.LocalDate.parse(map.get("date"));
-                boolean isDone = Boolean.parseBoolean(map.getOrDefault("isDone", "false"));
+                Params params = Params.ofBody(exchange);
+                String userId = params.get("userId");
+                String taskId = params.get("taskId");
+                java.time.LocalDate date = java.time.LocalDate.parse(params.get("date"));
+                boolean isDone = Boolean.parseBoolean(params.get("isDone", "false"));
                 com.habit.domain.UserTaskStatus status = new com.habit.domain.UserTaskStatus(userId, taskId, date, isDone);
-                new com.habit.server.repository.UserTaskStatusRepository().save(status);
+                userTaskStatusRepository.save(status);
                 response = "UserTaskStatus保存成功";
             } catch (Exception ex) {
                 response = "UserTaskStatus保存失敗: " + ex.getMessage();
@@ -443,7 +394,7 @@ public class UserTaskStatusController {
      * 4. タスク完了後、即座にタスク再設定処理を実行
      * 5. レスポンスとして完了メッセージを返却
      */
-    public static class CompleteUserTaskHandler implements com.sun.net.httpserver.HttpHandler {
+    public class CompleteUserTaskHandler implements com.sun.net.httpserver.HttpHandler {
         @Override
         public void handle(com.sun.net.httpserver.HttpExchange exchange) throws java.io.IOException {
             java.io.OutputStream os = null;
@@ -457,29 +408,16 @@ public class UserTaskStatusController {
                     return;
                 }
                 // リクエストボディの解析
-                byte[] bodyBytes = exchange.getRequestBody().readAllBytes();
-                String bodyStr = (bodyBytes != null) ? new String(bodyBytes, java.nio.charset.StandardCharsets.UTF_8) : "";
-                final String[] userId = {null};
-                final String[] taskId = {null};
-                String dateStr = null;
-                if (bodyStr != null && !bodyStr.isEmpty()) {
-                    String[] params = bodyStr.split("&");
-                    for (String param : params) {
-                        String[] kv = param.split("=", 2);
-                        if (kv.length < 2) continue;
-                        if (kv[0].equals("userId")) userId[0] = java.net.URLDecoder.decode(kv[1], "UTF-8");
-                        if (kv[0].equals("taskId")) taskId[0] = java.net.URLDecoder.decode(kv[1], "UTF-8");
-                        if (kv[0].equals("date")) dateStr = java.net.URLDecoder.decode(kv[1], "UTF-8");
-                    }
-                }
+                Params params = Params.ofBody(exchange);
+                final String[] userId = {params.get("userId")};
+                final String[] taskId = {params.get("taskId")};
+                String dateStr = params.get("date");
                 String response;
                 if (userId[0] != null && taskId[0] != null && dateStr != null) {
                     java.time.LocalDate date = java.time.LocalDate.parse(dateStr);
-                    UserTaskStatusRepository repo = new UserTaskStatusRepository();
-                    com.habit.server.repository.TaskRepository taskRepo = new com.habit.server.repository.TaskRepository();
                     
                     // 既存のステータスがなければエラーを返す
-                    java.util.Optional<com.habit.domain.UserTaskStatus> optStatus = repo.findUpcomingIncompleteByUserIdAndTaskId(userId[0], taskId[0]);
+                    java.util.Optional<com.habit.domain.UserTaskStatus> optStatus = userTaskStatusRepository.findUpcomingIncompleteByUserIdAndTaskId(userId[0], taskId[0]);
                     if (optStatus.isEmpty()) {
                         response = "エラー: 該当のタスクステータスが見つかりません。";
                         exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
@@ -491,16 +429,12 @@ public class UserTaskStatusController {
                     com.habit.domain.UserTaskStatus status = optStatus.get();
                     // タスク完了ステータスを更新(保存)
                     status.setDone(true);
-                    repo.save(status);
+                    userTaskStatusRepository.save(status);
                     
                     // タスク完了時にサボりポイントを即座に減らす
                     try {
-                        com.habit.server.repository.UserRepository userRepo = new com.habit.server.repository.UserRepository();
-                        com.habit.domain.User user = userRepo.findById(userId[0]);
-                        if (user != null) {
-                            user.addSabotagePoints(-1);
-                            userRepo.save(user);
-                            logger.info("タスク完了によりサボりポイント更新: {} {}pt", user.getUsername(), user.getSabotagePoints());
+                        if (userRepository.incrementSabotagePoints(java.util.Map.of(userId[0], -1)) > 0) {
+                            logger.info("タスク完了によりサボりポイント更新: {} -1pt", userId[0]);
                         }
                     } catch (Exception e) {
                         logger.error("サボりポイント更新エラー: {}", e.getMessage(), e);
@@ -530,60 +464,39 @@ public class UserTaskStatusController {
     class GetUserTaskStatusListHandler implements com.sun.net.httpserver.HttpHandler {
         @Override
         public void handle(com.sun.net.httpserver.HttpExchange exchange) throws java.io.IOException {
-            java.io.OutputStream os = null;
             try {
                 String sessionId = null;
                 var headers = exchange.getRequestHeaders();
                 if (headers.containsKey("SESSION_ID")) {
                     sessionId = headers.getFirst("SESSION_ID");
                 }
-                String query = exchange.getRequestURI().getQuery();
-                String teamID = null;
-                String dateStr = null;
-                if (query != null) {
-                    String[] params = query.split("&");
-                    for (String param : params) {
-                        if (param.startsWith("teamID=")) teamID = java.net.URLDecoder.decode(param.substring(7), "UTF-8");
-                        if (param.startsWith("date=")) dateStr = java.net.URLDecoder.decode(param.substring(5), "UTF-8");
-                    }
-                }
-                String response = "[]";
+                Params params = Params.ofQuery(exchange);
+                String teamID = params.get("teamID");
+                String dateStr = params.get("date");
+                JsonResponse.Body body = JsonResponse.EMPTY_ARRAY;
                 if (sessionId != null && teamID != null && dateStr != null) {
                     var user = authService.getUserBySession(sessionId);
                     if (user != null) {
                         String userId = user.getUserId();
-                        UserTaskStatusRepository utsRepo = new UserTaskStatusRepository();
                         java.time.LocalDate date = java.time.LocalDate.parse(dateStr);
-                        java.util.List<com.habit.domain.UserTaskStatus> statusList = utsRepo.findByUserIdAndTeamIdAndDate(userId, teamID, date);
-                        StringBuilder sb = new StringBuilder("[");
-                        for (int i = 0; i < statusList.size(); i++) {
-                            com.habit.domain.UserTaskStatus s = statusList.get(i);
-                            sb.append("{");
-                            sb.append("\"userId\":\"").append(s.getUserId().replace("\"", "\\\"")).append("\",");
-                            sb.append("\"taskId\":\"").append(s.getTaskId().replace("\"", "\\\"")).append("\",");
-                            sb.append("\"isDone\":").append(s.isDone());
-                            sb.append("}");
-                            if (i < statusList.size() - 1) sb.append(",");
-                        }
-                        sb.append("]");
-                        response = sb.toString();
+                        java.util.List<com.habit.domain.UserTaskStatus> statusList = userTaskStatusRepository.findByUserIdAndTeamIdAndDate(userId, teamID, date);
+                        body = json -> {
+                            json.writeStartArray();
+                            for (com.habit.domain.UserTaskStatus s : statusList) {
+                                json.writeStartObject();
+                                json.writeStringField("userId", s.getUserId());
+                                json.writeStringField("taskId", s.getTaskId());
+                                json.writeBooleanField("isDone", s.isDone());
+                                json.writeEndObject();
+                            }
+                            json.writeEndArray();
+                        };
                     }
                 }
-                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
-                exchange.sendResponseHeaders(200, response.getBytes("UTF-8").length);
-                os = exchange.getResponseBody();
-                os.write(response.getBytes("UTF-8"));
+                JsonResponse.send(exchange, 200, body);
             } catch (Exception e) {
                 e.printStackTrace();
-                String errJson = "{\"error\":\"" + e.getClass().getSimpleName() + ": " + e.getMessage() + "\"}";
-                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
-                exchange.sendResponseHeaders(500, errJson.getBytes("UTF-8").length);
-                os = exchange.getResponseBody();
-                os.write(errJson.getBytes("UTF-8"));
-            } finally {
-                if (os != null) {
-                    try { os.close(); } catch (Exception ignore) {}
-                }
+                JsonResponse.sendError(exchange, 500, e.getClass().getSimpleName() + ": " + e.getMessage());
             }
         }
     }
@@ -595,63 +508,36 @@ public class UserTaskStatusController {
     class GetTeamTaskStatusListHandler implements com.sun.net.httpserver.HttpHandler {
         @Override
         public void handle(com.sun.net.httpserver.HttpExchange exchange) throws java.io.IOException {
-            java.io.OutputStream os = null;
             try {
                 String sessionId = null;
                 var headers = exchange.getRequestHeaders();
                 if (headers.containsKey("SESSION_ID")) {
                     sessionId = headers.getFirst("SESSION_ID");
                 }
-                String query = exchange.getRequestURI().getQuery();
-                String teamID = null;
-                String dateStr = null;
-                int days = 1;
-                if (query != null) {
-                    String[] params = query.split("&");
-                    for (String param : params) {
-                        if (param.startsWith("teamID=")) teamID = java.net.URLDecoder.decode(param.substring(7), "UTF-8");
-                        if (param.startsWith("date=")) dateStr = java.net.URLDecoder.decode(param.substring(5), "UTF-8");
-                        if (param.startsWith("days=")) days = Integer.parseInt(param.substring(5));
-                    }
-                }
-                String response = "[]";
+                Params params = Params.ofQuery(exchange);
+                String teamID = params.get("teamID");
+                String dateStr = params.get("date");
+                int days = Math.max(1, params.getInt("days", 1));
+                JsonResponse.Body body = JsonResponse.EMPTY_ARRAY;
                 if (sessionId != null && teamID != null && dateStr != null) {
                     var user = authService.getUserBySession(sessionId);
                     if (user != null) {
-                        UserTaskStatusRepository utsRepo = new UserTaskStatusRepository();
                         java.time.LocalDate date = java.time.LocalDate.parse(dateStr);
                         java.time.LocalDate from = date.minusDays(days - 1);
-                        java.util.List<com.habit.domain.UserTaskStatus> statusList = utsRepo.findByTeamIdAndDateRange(teamID, from, date);
-                        StringBuilder sb = new StringBuilder("[");
-                        for (int i = 0; i < statusList.size(); i++) {
-                            com.habit.domain.UserTaskStatus s = statusList.get(i);
-                            sb.append("{");
-                            sb.append("\"userId\":\"").append(s.getUserId().replace("\"", "\\\"")).append("\",");
-                            sb.append("\"taskId\":\"").append(s.getTaskId().replace("\"", "\\\"")).append("\",");
-                            sb.append("\"date\":\"").append(s.getDate().toString()).append("\",");
-                            sb.append("\"isDone\":").append(s.isDone());
-                            sb.append("}");
-                            if (i < statusList.size() - 1) sb.append(",");
-                        }
-                        sb.append("]");
-                        response = sb.toString();
+                        java.util.List<com.habit.domain.UserTaskStatus> statusList = userTaskStatusRepository.findByTeamIdAndDateRange(teamID, from, date);
+                        body = json -> {
+                            json.writeStartArray();
+                            for (com.habit.domain.UserTaskStatus s : statusList) {
+                                writeMemberTaskStatus(json, s);
+                            }
+                            json.writeEndArray();
+                        };
                     }
                 }
-                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
-                exchange.sendResponseHeaders(200, response.getBytes("UTF-8").length);
-                os = exchange.getResponseBody();
-                os.write(response.getBytes("UTF-8"));
+                JsonResponse.send(exchange, 200, body);
             } catch (Exception e) {
                 e.printStackTrace();
-                String errJson = "{\"error\":\"" + e.getClass().getSimpleName() + ": " + e.getMessage() + "\"}";
-                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
-                exchange.sendResponseHeaders(500, errJson.getBytes("UTF-8").length);
-                os = exchange.getResponseBody();
-                os.write(errJson.getBytes("UTF-8"));
-            } finally {
-                if (os != null) {
-                    try { os.close(); } catch (Exception ignore) {}
-                }
+                JsonResponse.sendError(exchange, 500, e.getClass().getSimpleName() + ": " + e.getMessage());
             }
         }
     }
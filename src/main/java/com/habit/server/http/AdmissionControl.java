@@ -0,0 +1,199 @@
+package com.habit.server.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ルートグループごとの同時実行数制限（アドミッション制御）。
+ *
+ * 各グループは同時処理数の上限と待ち行列の上限を持ち、
+ * 上限を超えたリクエストは待たせずに 503 と Retry-After で即座に拒否する。
+ * これにより、受け付けたリクエストのレイテンシを一定範囲に保つ。
+ *
+ * 【グループ】
+ * - auth  : /login, /register（BCryptによるCPU負荷が高い）
+ * - write : データを更新するAPI
+ * - read  : その他の参照系API
+ */
+public class AdmissionControl {
+  private static final Logger logger =
+      LoggerFactory.getLogger(AdmissionControl.class);
+
+  public static final String AUTH = "auth";
+  public static final String WRITE = "write";
+  public static final String READ = "read";
+
+  private static final Set<String> AUTH_PATHS = Set.of("/login", "/register");
+
+  private static final Set<String> WRITE_PATHS = Set.of(
+      "/createTeam", "/joinTeam", "/saveTask", "/saveUserTaskStatus",
+      "/completeUserTask", "/sendChatMessage", "/deleteChatMessage",
+      "/deleteTeam", "/deleteTask", "/updateSabotagePoints", "/manualTaskReset",
+      "/manualTaskResetTeam", "/debugScheduledReset", "/debugSabotageReport");
+
+  private final Map<String, Group> groups = new LinkedHashMap<>();
+  private final long queueTimeoutMillis;
+  private final int retryAfterSeconds;
+
+  public AdmissionControl(long queueTimeoutMillis, int retryAfterSeconds) {
+    this.queueTimeoutMillis = queueTimeoutMillis;
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  /**
+   * グループを追加する。
+   *
+   * @param name グループ名
+   * @param maxInFlight 同時に処理できるリクエスト数
+   * @param maxQueue 処理待ちで待機できるリクエスト数
+   */
+  public AdmissionControl addGroup(String name, int maxInFlight,
+                                   int maxQueue) {
+    groups.put(name, new Group(name, maxInFlight, maxQueue));
+    return this;
+  }
+
+  /**
+   * パスが属するグループ名を返す。
+   */
+  public static String groupOf(String path) {
+    if (AUTH_PATHS.contains(path)) {
+      return AUTH;
+    }
+    if (WRITE_PATHS.contains(path)) {
+      return WRITE;
+    }
+    return READ;
+  }
+
+  /**
+   * 指定パスのハンドラーをアドミッション制御付きのハンドラーで包む。
+   */
+  public HttpHandler wrap(String path, HttpHandler handler) {
+    Group group = groups.get(groupOf(path));
+    if (group == null) {
+      group = groups.get(READ);
+    }
+    return new AdmissionHandler(group, handler);
+  }
+
+  /**
+   * 各グループの統計情報をJSONで返す。
+   */
+  public JSONObject toJson() {
+    JSONObject json = new JSONObject();
+    for (Group group : groups.values()) {
+      json.put(group.name, group.toJson());
+    }
+    return json;
+  }
+
+  /**
+   * 1つのルートグループの状態。
+   */
+  static final class Group {
+    final String name;
+    final int maxInFlight;
+    final int maxQueue;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAccumulator maxQueuedSeen =
+        new LongAccumulator(Math::max, 0);
+
+    Group(String name, int maxInFlight, int maxQueue) {
+      this.name = name;
+      this.maxInFlight = Math.max(1, maxInFlight);
+      this.maxQueue = Math.max(0, maxQueue);
+      this.permits = new Semaphore(this.maxInFlight, true);
+    }
+
+    boolean tryEnter(long timeoutMillis) {
+      if (!permits.tryAcquire()) {
+        int depth = queued.incrementAndGet();
+        try {
+          if (depth > maxQueue) {
+            rejected.increment();
+            return false;
+          }
+          maxQueuedSeen.accumulate(depth);
+          if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            rejected.increment();
+            return false;
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          rejected.increment();
+          return false;
+        } finally {
+          queued.decrementAndGet();
+        }
+      }
+      inFlight.incrementAndGet();
+      admitted.increment();
+      return true;
+    }
+
+    void exit() {
+      inFlight.decrementAndGet();
+      permits.release();
+    }
+
+    JSONObject toJson() {
+      JSONObject json = new JSONObject();
+      json.put("maxInFlight", maxInFlight);
+      json.put("maxQueue", maxQueue);
+      json.put("inFlight", inFlight.get());
+      json.put("queueDepth", queued.get());
+      json.put("maxQueueDepth", maxQueuedSeen.get());
+      json.put("admitted", admitted.sum());
+      json.put("rejected", rejected.sum());
+      return json;
+    }
+  }
+
+  /**
+   * ハンドラーの前段で同時実行数を制限するハンドラー。
+   */
+  private class AdmissionHandler implements HttpHandler {
+    private final Group group;
+    private final HttpHandler next;
+
+    AdmissionHandler(Group group, HttpHandler next) {
+      this.group = group;
+      this.next = next;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+      if (!group.tryEnter(queueTimeoutMillis)) {
+        logger.warn("過負荷のためリクエストを拒否しました: group={}, path={}",
+                    group.name, exchange.getRequestURI().getPath());
+        exchange.getResponseHeaders().set("Retry-After",
+                                          String.valueOf(retryAfterSeconds));
+        exchange.sendResponseHeaders(503, -1);
+        exchange.close();
+        return;
+      }
+      try {
+        next.handle(exchange);
+      } finally {
+        group.exit();
+      }
+    }
+  }
+}
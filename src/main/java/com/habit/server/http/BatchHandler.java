@@ -0,0 +1,341 @@
+package com.habit.server.http;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpPrincipal;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 複数の参照系APIを1回のリクエストでまとめて呼び出す /batch のハンドラー。
+ *
+ * サブリクエストは仮想スレッドで並行に実行し、既存のルータ（各APIの
+ * ハンドラー）へそのまま渡す。そのためアドミッション制御やルートごとの
+ * 統計もサブリクエスト単位で適用される。/batch 自体はアドミッション制御の
+ * 対象にしないこと（サブリクエストの枠待ちでデッドロックしないようにするため）。
+ *
+ * 【リクエスト】POST /batch
+ * {"requests": [{"id": "teams", "path": "/getJoinedTeamInfo"}, ...]}
+ * サブリクエストはGETのみで、参照系（AdmissionControl.groupOf が read）の
+ * パスに限る。GETで登録された更新系のAPI（/joinTeam など）は、同じ一括
+ * リクエストの参照と順序が決まらないまま並行に実行されるため受け付けない。
+ * SESSION_ID などのヘッダーは /batch のものを引き継ぐ。
+ *
+ * 【レスポンス】
+ * {"responses": [{"id": "teams", "status": 200, "body": ...}, ...]}
+ * body はJSONのレスポンスならJSONのまま、それ以外は文字列として埋め込む。
+ * 順序はリクエストと同じ。
+ */
+public class BatchHandler implements HttpHandler {
+  private static final Logger logger =
+      LoggerFactory.getLogger(BatchHandler.class);
+
+  // サブリクエストに引き継がないヘッダー（本文・圧縮・条件付きGETに関するもの）
+  private static final Set<String> DROPPED_HEADERS =
+      Set.of("Content-length", "Content-type", "Transfer-encoding",
+             "Accept-encoding", "If-none-match");
+
+  private final HttpHandler target;
+  private final int maxRequests;
+  private final long timeoutMillis;
+  private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+      Thread.ofVirtual().name("batch-", 0).factory());
+
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder subRequests = new LongAdder();
+  private final LongAdder timeouts = new LongAdder();
+
+  /**
+   * @param target サブリクエストを処理するハンドラー（通常はルータ）
+   * @param maxRequests 1回に受け付けるサブリクエストの最大数
+   * @param timeoutMillis サブリクエスト全体の待ち時間の上限
+   */
+  public BatchHandler(HttpHandler target, int maxRequests,
+                      long timeoutMillis) {
+    this.target = target;
+    this.maxRequests = maxRequests;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  @Override
+  public void handle(HttpExchange exchange) throws IOException {
+    JSONArray requests;
+    try (InputStream in = exchange.getRequestBody()) {
+      String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+      requests = new JSONObject(text).getJSONArray("requests");
+    } catch (JSONException e) {
+      JsonResponse.sendError(exchange, 400, "リクエストの形式が不正です");
+      return;
+    }
+    if (requests.length() > maxRequests) {
+      JsonResponse.sendError(exchange, 400,
+                             "サブリクエストは" + maxRequests + "件までです");
+      return;
+    }
+    batches.increment();
+    subRequests.add(requests.length());
+
+    // すべてのサブリクエストを並行に開始してから、順に結果を待つ
+    List<String> ids = new ArrayList<>();
+    List<Future<Result>> futures = new ArrayList<>();
+    for (int i = 0; i < requests.length(); i++) {
+      JSONObject request = requests.optJSONObject(i);
+      String id = request != null ? request.optString("id", String.valueOf(i))
+                                  : String.valueOf(i);
+      ids.add(id);
+      futures.add(executor.submit(() -> run(exchange, request)));
+    }
+    long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+    List<Result> results = new ArrayList<>();
+    for (Future<Result> future : futures) {
+      results.add(await(future, deadline));
+    }
+
+    JsonResponse.send(exchange, 200, json -> {
+      json.writeStartObject();
+      json.writeArrayFieldStart("responses");
+      for (int i = 0; i < results.size(); i++) {
+        Result result = results.get(i);
+        json.writeStartObject();
+        json.writeStringField("id", ids.get(i));
+        json.writeNumberField("status", result.status);
+        json.writeFieldName("body");
+        if (result.isJson()) {
+          json.writeRawValue(result.body);
+        } else {
+          json.writeString(result.body);
+        }
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+      json.writeEndObject();
+    });
+  }
+
+  private Result await(Future<Result> future, long deadline) {
+    try {
+      long remaining = Math.max(0, deadline - System.nanoTime());
+      return future.get(remaining, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      timeouts.increment();
+      future.cancel(true);
+      return Result.error(504, "タイムアウトしました");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return Result.error(503, "中断されました");
+    } catch (ExecutionException e) {
+      logger.error("サブリクエストの実行に失敗しました", e.getCause());
+      return Result.error(500, "サーバ内部エラー");
+    }
+  }
+
+  // サブリクエストを1件実行する
+  private Result run(HttpExchange parent, JSONObject request)
+      throws IOException {
+    if (request == null) {
+      return Result.error(400, "サブリクエストの形式が不正です");
+    }
+    String method = request.optString("method", "GET");
+    String path = request.optString("path", "");
+    if (!"GET".equalsIgnoreCase(method)) {
+      return Result.error(405, "GETのみ対応しています");
+    }
+    URI uri;
+    try {
+      uri = new URI(path);
+    } catch (Exception e) {
+      return Result.error(400, "パスが不正です: " + path);
+    }
+    if (!path.startsWith("/") || uri.getRawPath().equals("/batch")) {
+      return Result.error(400, "パスが不正です: " + path);
+    }
+    if (!AdmissionControl.READ.equals(
+            AdmissionControl.groupOf(uri.getRawPath()))) {
+      return Result.error(405, "参照系のAPIのみ対応しています: " + path);
+    }
+    SubExchange sub = new SubExchange(parent, uri);
+    try {
+      target.handle(sub);
+    } catch (RuntimeException e) {
+      logger.error("サブリクエストの処理に失敗しました: {}", path, e);
+      if (sub.status == 0) {
+        return Result.error(500, "サーバ内部エラー");
+      }
+    }
+    return new Result(sub.status == 0 ? 500 : sub.status,
+                      sub.getResponseHeaders().getFirst("Content-Type"),
+                      sub.body.toString(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * 一括リクエストの統計情報をJSONで返す。
+   */
+  public JSONObject toJson() {
+    JSONObject json = new JSONObject();
+    json.put("maxRequests", maxRequests);
+    json.put("batches", batches.sum());
+    json.put("subRequests", subRequests.sum());
+    json.put("timeouts", timeouts.sum());
+    return json;
+  }
+
+  private static final class Result {
+    final int status;
+    final String contentType;
+    final String body;
+
+    Result(int status, String contentType, String body) {
+      this.status = status;
+      this.contentType = contentType;
+      this.body = body;
+    }
+
+    static Result error(int status, String message) {
+      return new Result(status, "application/json",
+                        new JSONObject().put("error", message).toString());
+    }
+
+    boolean isJson() {
+      return contentType != null &&
+          contentType.startsWith("application/json") && !body.isEmpty();
+    }
+  }
+
+  /**
+   * サブリクエスト用のHttpExchange。
+   * レスポンスはソケットではなくメモリ上のバッファに書き込む。
+   */
+  private static final class SubExchange extends HttpExchange {
+    private final HttpExchange parent;
+    private final URI uri;
+    private final Headers requestHeaders = new Headers();
+    private final Headers responseHeaders = new Headers();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private InputStream requestBody = InputStream.nullInputStream();
+    final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private OutputStream responseBody = body;
+    int status;
+
+    SubExchange(HttpExchange parent, URI uri) {
+      this.parent = parent;
+      this.uri = uri;
+      parent.getRequestHeaders().forEach((name, values) -> {
+        if (!DROPPED_HEADERS.contains(name)) {
+          requestHeaders.put(name, new ArrayList<>(values));
+        }
+      });
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+      return requestHeaders;
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+      return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+      return uri;
+    }
+
+    @Override
+    public String getRequestMethod() {
+      return "GET";
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+      return parent.getHttpContext();
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public InputStream getRequestBody() {
+      return requestBody;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+      return responseBody;
+    }
+
+    @Override
+    public void sendResponseHeaders(int rCode, long responseLength) {
+      status = rCode;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+      return parent.getRemoteAddress();
+    }
+
+    @Override
+    public int getResponseCode() {
+      return status == 0 ? -1 : status;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+      return parent.getLocalAddress();
+    }
+
+    @Override
+    public String getProtocol() {
+      return parent.getProtocol();
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+      return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+      attributes.put(name, value);
+    }
+
+    @Override
+    public void setStreams(InputStream i, OutputStream o) {
+      if (i != null) {
+        requestBody = i;
+      }
+      if (o != null) {
+        responseBody = o;
+      }
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+      return parent.getPrincipal();
+    }
+  }
+}
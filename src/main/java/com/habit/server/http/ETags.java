@@ -0,0 +1,75 @@
+package com.habit.server.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONObject;
+
+/**
+ * ETag / If-None-Match による条件付きGETを扱うクラス。
+ *
+ * ハンドラーは本文を組み立てる前に notModified() を呼び、
+ * true が返った場合は 304（本文なし）が送信済みなので何もせずに戻る。
+ */
+public final class ETags {
+  private static final LongAdder notModified = new LongAdder();
+  private static final LongAdder modified = new LongAdder();
+
+  private ETags() {}
+
+  /**
+   * ETag ヘッダーを設定し、If-None-Match と一致すれば 304 を送信する。
+   *
+   * @param exchange HTTPエクスチェンジ
+   * @param etag 現在の内容を表す ETag（引用符を含む）
+   * @return 304 を送信した場合は true
+   */
+  public static boolean notModified(HttpExchange exchange, String etag)
+      throws IOException {
+    exchange.getResponseHeaders().set("ETag", etag);
+    // キャッシュしてよいが、使う前に必ず再検証させる
+    exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+    if (!matches(exchange.getRequestHeaders().getFirst("If-None-Match"),
+                 etag)) {
+      modified.increment();
+      return false;
+    }
+    notModified.increment();
+    exchange.sendResponseHeaders(304, -1);
+    exchange.close();
+    return true;
+  }
+
+  /**
+   * If-None-Match の値が ETag と一致するか（弱い比較）。
+   * 値はカンマ区切りの一覧、または "*" を受け付ける。
+   */
+  static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+      return false;
+    }
+    String opaque = opaque(etag);
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.equals("*") || opaque(tag).equals(opaque)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // 弱い比較のため W/ を取り除く
+  private static String opaque(String tag) {
+    return tag.startsWith("W/") ? tag.substring(2) : tag;
+  }
+
+  /**
+   * 条件付きGETの統計情報をJSONで返す。
+   */
+  public static JSONObject toJson() {
+    JSONObject json = new JSONObject();
+    json.put("notModified", notModified.sum());
+    json.put("modified", modified.sum());
+    return json;
+  }
+}
@@ -0,0 +1,71 @@
+package com.habit.server.http;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+
+/**
+ * JSONレスポンスをレスポンス本文へ直接書き出すクラス。
+ *
+ * 文字列を組み立ててから getBytes() で変換するのではなく、
+ * Jackson の JsonGenerator でレスポンス本文へ逐次書き込む。
+ * 本文が大きい場合は chunked 転送となり、クライアントが対応していれば
+ * ResponseCompression により gzip / deflate で圧縮される。
+ * 文字列のエスケープは JsonGenerator が行う。
+ *
+ * JsonFactory はスレッドセーフなので全リクエストで共有し、
+ * 生成器の内部バッファは Jackson のバッファ再利用機構に任せる。
+ *
+ * ヘッダー送信後に発生した例外はステータスコードに反映できないため、
+ * 書き込む内容はsend()を呼ぶ前に取得しておくこと。
+ */
+public final class JsonResponse {
+  private static final JsonFactory FACTORY = new JsonFactory();
+
+  /**
+   * JsonGenerator へ本文を書き込む処理。
+   */
+  @FunctionalInterface
+  public interface Body {
+    void writeTo(JsonGenerator json) throws IOException;
+  }
+
+  /** 空配列 [] を書き込む */
+  public static final Body EMPTY_ARRAY = json -> {
+    json.writeStartArray();
+    json.writeEndArray();
+  };
+
+  private JsonResponse() {}
+
+  /**
+   * JSONレスポンスを送信する。
+   *
+   * @param exchange HTTPエクスチェンジ
+   * @param status ステータスコード
+   * @param body 本文を書き込む処理
+   */
+  public static void send(HttpExchange exchange, int status, Body body)
+      throws IOException {
+    exchange.getResponseHeaders().set("Content-Type",
+                                      "application/json; charset=UTF-8");
+    try (JsonGenerator json = FACTORY.createGenerator(
+             ResponseCompression.open(exchange, status), JsonEncoding.UTF8)) {
+      body.writeTo(json);
+    }
+  }
+
+  /**
+   * エラーレスポンス {"error": message} を送信する。
+   */
+  public static void sendError(HttpExchange exchange, int status,
+                               String message) throws IOException {
+    send(exchange, status, json -> {
+      json.writeStartObject();
+      json.writeStringField("error", message);
+      json.writeEndObject();
+    });
+  }
+}
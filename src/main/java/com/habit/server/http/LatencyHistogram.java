@@ -0,0 +1,81 @@
+package com.habit.server.http;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONObject;
+
+/**
+ * 処理時間を記録するロックフリーなヒストグラム。
+ *
+ * マイクロ秒単位の処理時間を2のべき乗ごとのバケットに数え上げる。
+ * パーセンタイルはバケットの上限値で近似する（誤差は最大2倍）。
+ */
+public final class LatencyHistogram {
+  // 2^0us 〜 2^31us（約36分）までのバケット
+  private static final int BUCKETS = 32;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalMicros = new LongAdder();
+  private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * 処理時間を記録する。
+   *
+   * @param nanos 処理時間（ナノ秒）
+   */
+  public void record(long nanos) {
+    long micros = Math.max(0, nanos / 1000);
+    int index = 64 - Long.numberOfLeadingZeros(micros);
+    buckets[Math.min(index, BUCKETS - 1)].increment();
+    count.increment();
+    totalMicros.add(micros);
+    maxMicros.accumulate(micros);
+  }
+
+  public long count() { return count.sum(); }
+
+  /**
+   * 指定したパーセンタイルの処理時間（マイクロ秒）を返す。
+   *
+   * @param percentile 0〜100
+   */
+  public long percentileMicros(double percentile) {
+    long total = count.sum();
+    if (total == 0) {
+      return 0;
+    }
+    long threshold = (long)Math.ceil(total * percentile / 100.0);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += buckets[i].sum();
+      if (seen >= threshold) {
+        return Math.min(1L << i, maxMicros.get());
+      }
+    }
+    return maxMicros.get();
+  }
+
+  /**
+   * 統計情報をミリ秒単位のJSONで返す。
+   */
+  public JSONObject toJson() {
+    long total = count.sum();
+    JSONObject json = new JSONObject();
+    json.put("count", total);
+    json.put("meanMs", total == 0 ? 0.0 : toMillis(totalMicros.sum() / total));
+    json.put("p50Ms", toMillis(percentileMicros(50)));
+    json.put("p90Ms", toMillis(percentileMicros(90)));
+    json.put("p99Ms", toMillis(percentileMicros(99)));
+    json.put("maxMs", toMillis(maxMicros.get()));
+    return json;
+  }
+
+  private static double toMillis(long micros) { return micros / 1000.0; }
+}
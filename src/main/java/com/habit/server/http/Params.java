@@ -0,0 +1,141 @@
+package com.habit.server.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * クエリ文字列・フォーム本文（application/x-www-form-urlencoded）の
+ * パラメータを読み取るクラス。
+ *
+ * 受け取った文字列を分割せずにそのまま保持し、ハンドラーが要求した
+ * キーだけをその場で検索・デコードする。デコードが不要な値は
+ * 部分文字列を返すだけで、配列や中間文字列は生成しない。
+ *
+ * 同じキーが複数ある場合は最初の値を使用する。
+ * "key" のように "=" を含まない項目は存在しないものとして扱う。
+ */
+public final class Params {
+  private static final Params EMPTY = new Params("");
+
+  private final String raw;
+
+  private Params(String raw) { this.raw = raw; }
+
+  /**
+   * エンコード済みの文字列から生成する。
+   *
+   * @param raw "a=1&b=2" 形式の文字列（nullの場合は空）
+   */
+  public static Params of(String raw) {
+    return (raw == null || raw.isEmpty()) ? EMPTY : new Params(raw);
+  }
+
+  /**
+   * リクエストURIのクエリ文字列から生成する。
+   *
+   * デコード済みの getQuery() ではなく getRawQuery() を使うため、
+   * 値に含まれる "&" や "+" も正しく扱える。
+   */
+  public static Params ofQuery(HttpExchange exchange) {
+    return of(exchange.getRequestURI().getRawQuery());
+  }
+
+  /**
+   * リクエスト本文（フォーム形式）を読み込んで生成する。
+   */
+  public static Params ofBody(HttpExchange exchange) throws IOException {
+    byte[] body = exchange.getRequestBody().readAllBytes();
+    return of(new String(body, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * パラメータの値を返す。
+   *
+   * @return デコード済みの値（存在しない場合はnull）
+   */
+  public String get(String key) {
+    int length = raw.length();
+    int keyLength = key.length();
+    int start = 0;
+    while (start < length) {
+      int end = raw.indexOf('&', start);
+      if (end < 0) {
+        end = length;
+      }
+      if (end - start > keyLength && raw.charAt(start + keyLength) == '=' &&
+          raw.regionMatches(start, key, 0, keyLength)) {
+        return decode(start + keyLength + 1, end);
+      }
+      start = end + 1;
+    }
+    return null;
+  }
+
+  /**
+   * パラメータの値を返す。存在しない場合は既定値を返す。
+   */
+  public String get(String key, String defaultValue) {
+    String value = get(key);
+    return value != null ? value : defaultValue;
+  }
+
+  /**
+   * パラメータが指定されているかどうか。
+   */
+  public boolean has(String key) { return get(key) != null; }
+
+  /**
+   * 元の文字列が空（空白のみを含む）かどうか。
+   */
+  public boolean isEmpty() { return raw.isBlank(); }
+
+  /**
+   * 整数値を返す。存在しない・数値でない場合は既定値を返す。
+   */
+  public int getInt(String key, int defaultValue) {
+    String value = get(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  /**
+   * 日付（YYYY-MM-DD）を返す。存在しない・形式が不正な場合は既定値を返す。
+   */
+  public LocalDate getDate(String key, LocalDate defaultValue) {
+    String value = get(key);
+    if (value == null || value.isEmpty()) {
+      return defaultValue;
+    }
+    try {
+      return LocalDate.parse(value.trim());
+    } catch (DateTimeParseException e) {
+      return defaultValue;
+    }
+  }
+
+  private String decode(int from, int to) {
+    for (int i = from; i < to; i++) {
+      char c = raw.charAt(i);
+      if (c == '%' || c == '+') {
+        try {
+          return URLDecoder.decode(raw.substring(from, to),
+                                   StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+          // 不正なエスケープはそのままの文字列として扱う
+          return raw.substring(from, to);
+        }
+      }
+    }
+    return raw.substring(from, to);
+  }
+}
@@ -0,0 +1,245 @@
+package com.habit.server.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import org.json.JSONObject;
+
+/**
+ * Accept-Encoding に応じてレスポンス本文を gzip / deflate で圧縮するクラス。
+ *
+ * 本文は最初の minBytes バイトまでバッファし、それを超えた時点で
+ * ヘッダーを送信して圧縮ストリームへ切り替える（以降は逐次書き込み）。
+ * minBytes に満たない小さな本文は圧縮せず Content-Length 付きで送る。
+ */
+public final class ResponseCompression {
+  public static final String GZIP = "gzip";
+  public static final String DEFLATE = "deflate";
+
+  private static volatile boolean enabled = true;
+  private static volatile int minBytes = 1024;
+
+  private static final LongAdder compressedResponses = new LongAdder();
+  private static final LongAdder uncompressedResponses = new LongAdder();
+  private static final LongAdder rawBytes = new LongAdder();
+  private static final LongAdder wireBytes = new LongAdder();
+
+  private ResponseCompression() {}
+
+  /**
+   * 圧縮の有無と、圧縮を行う最小サイズを設定する。
+   */
+  public static void configure(boolean enabled, int minBytes) {
+    ResponseCompression.enabled = enabled;
+    ResponseCompression.minBytes = Math.max(0, minBytes);
+  }
+
+  /**
+   * Accept-Encoding ヘッダーから使用するエンコーディングを選ぶ。
+   * 品質値（q）の最も高いものを選び、同じ場合は gzip を優先する。
+   * "*" は明示されていないエンコーディングにだけ適用し、"gzip;q=0" のような
+   * 明示的な拒否は "*" より優先する。
+   *
+   * @return GZIP / DEFLATE（圧縮しない場合はnull）
+   */
+  public static String negotiate(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return null;
+    }
+    // 明示されていないエンコーディングは -1
+    double gzip = -1;
+    double deflate = -1;
+    double any = -1;
+    for (String part : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+      String[] tokens = part.trim().split(";");
+      String coding = tokens[0].trim();
+      double q = quality(tokens);
+      if (coding.equals(GZIP) || coding.equals("x-gzip")) {
+        gzip = Math.max(gzip, q);
+      } else if (coding.equals(DEFLATE)) {
+        deflate = Math.max(deflate, q);
+      } else if (coding.equals("*")) {
+        any = Math.max(any, q);
+      }
+    }
+    if (gzip < 0) {
+      gzip = any;
+    }
+    if (deflate < 0) {
+      deflate = any;
+    }
+    if (gzip <= 0 && deflate <= 0) {
+      return null;
+    }
+    return gzip >= deflate ? GZIP : DEFLATE;
+  }
+
+  // "gzip;q=0.5" の品質値（指定がない・解析できない場合は1）
+  private static double quality(String[] tokens) {
+    for (int i = 1; i < tokens.length; i++) {
+      String token = tokens[i].trim();
+      if (token.startsWith("q=")) {
+        try {
+          return Math.max(0, Double.parseDouble(token.substring(2)));
+        } catch (NumberFormatException e) {
+          return 1;
+        }
+      }
+    }
+    return 1;
+  }
+
+  /**
+   * レスポンス本文の出力ストリームを開く。
+   * ヘッダーは本文のサイズが確定するか閾値を超えた時点で送信される。
+   * 呼び出し側は必ず close() すること。
+   *
+   * @param exchange HTTPエクスチェンジ
+   * @param status ステータスコード
+   */
+  public static OutputStream open(HttpExchange exchange, int status) {
+    String encoding = enabled ? negotiate(exchange.getRequestHeaders().getFirst(
+                                    "Accept-Encoding"))
+                              : null;
+    if (enabled) {
+      exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+    }
+    return new DeferredStream(exchange, status, encoding, minBytes);
+  }
+
+  /**
+   * 圧縮の統計情報をJSONで返す。
+   */
+  public static JSONObject toJson() {
+    JSONObject json = new JSONObject();
+    json.put("enabled", enabled);
+    json.put("minBytes", minBytes);
+    json.put("compressedResponses", compressedResponses.sum());
+    json.put("uncompressedResponses", uncompressedResponses.sum());
+    json.put("rawBytes", rawBytes.sum());
+    json.put("wireBytes", wireBytes.sum());
+    return json;
+  }
+
+  /**
+   * 閾値まではバッファし、超えたら圧縮ストリームへ切り替える出力ストリーム。
+   */
+  private static final class DeferredStream extends OutputStream {
+    private final HttpExchange exchange;
+    private final int status;
+    private final String encoding;
+    private final int threshold;
+    private ByteArrayOutputStream buffer;
+    private OutputStream out;
+    private CountingStream wire;
+    private long raw;
+    private boolean closed;
+
+    DeferredStream(HttpExchange exchange, int status, String encoding,
+                   int threshold) {
+      this.exchange = exchange;
+      this.status = status;
+      this.encoding = encoding;
+      this.threshold = threshold;
+      this.buffer = new ByteArrayOutputStream(Math.min(threshold, 8192) + 1);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte)b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      raw += len;
+      if (out != null) {
+        out.write(b, off, len);
+        return;
+      }
+      buffer.write(b, off, len);
+      if (buffer.size() > threshold) {
+        start();
+      }
+    }
+
+    // ヘッダーを送信し、以降の書き込み先を切り替える
+    private void start() throws IOException {
+      wire = new CountingStream(exchange.getResponseBody());
+      if (encoding != null) {
+        exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        exchange.sendResponseHeaders(status, 0);
+        out = encoding.equals(GZIP) ? new GZIPOutputStream(wire, 8192)
+                                    : new DeflaterOutputStream(wire);
+        compressedResponses.increment();
+      } else {
+        exchange.sendResponseHeaders(status, 0);
+        out = wire;
+        uncompressedResponses.increment();
+      }
+      buffer.writeTo(out);
+      buffer = null;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (out != null) {
+        out.flush();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (out == null) {
+        // 閾値未満: 圧縮せずにサイズ確定で送信
+        int size = buffer.size();
+        exchange.sendResponseHeaders(status, size == 0 ? -1 : size);
+        wire = new CountingStream(exchange.getResponseBody());
+        out = wire;
+        buffer.writeTo(out);
+        buffer = null;
+        uncompressedResponses.increment();
+      }
+      out.close();
+      rawBytes.add(raw);
+      wireBytes.add(wire.count);
+    }
+  }
+
+  private static final class CountingStream extends OutputStream {
+    private final OutputStream delegate;
+    long count;
+
+    CountingStream(OutputStream delegate) { this.delegate = delegate; }
+
+    @Override
+    public void write(int b) throws IOException {
+      delegate.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      delegate.write(b, off, len);
+      count += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+  }
+}
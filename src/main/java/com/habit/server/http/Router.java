@@ -0,0 +1,252 @@
+package com.habit.server.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * パスのトライ木でリクエストを振り分けるルータ。
+ *
+ * HttpServer には "/" のコンテキストとして1つだけ登録し、
+ * ルートの検索・HTTPメソッドの確認・パスパラメータの抽出と、
+ * ルートごとの処理時間の計測をまとめて行う。
+ *
+ * 【パスの書式】
+ * - "/getChatLog"          : 固定パス
+ * - "/teams/{teamId}/tasks" : {name} の部分はパスパラメータ
+ */
+public class Router implements HttpHandler {
+  private static final Logger logger = LoggerFactory.getLogger(Router.class);
+
+  /** すべてのHTTPメソッドを受け付けるルート */
+  public static final String ANY = "*";
+
+  private static final String PATH_PARAMS_ATTRIBUTE = "router.pathParams";
+
+  private final Node root = new Node();
+  private final Map<String, Route> routes = new LinkedHashMap<>();
+
+  /**
+   * ルートを登録する。
+   *
+   * @param method HTTPメソッド（ANYの場合はメソッドを問わない）
+   * @param pattern パス（{name} でパスパラメータを指定）
+   * @param handler ハンドラー
+   */
+  public synchronized Router add(String method, String pattern,
+                                 HttpHandler handler) {
+    Node node = root;
+    List<String> paramNames = new ArrayList<>();
+    for (String segment : split(pattern)) {
+      if (segment.startsWith("{") && segment.endsWith("}")) {
+        paramNames.add(segment.substring(1, segment.length() - 1));
+        if (node.paramChild == null) {
+          node.paramChild = new Node();
+        }
+        node = node.paramChild;
+      } else {
+        node = node.children.computeIfAbsent(segment, k -> new Node());
+      }
+    }
+    if (node.routes.containsKey(method)) {
+      throw new IllegalStateException("ルートが重複しています: " + method +
+                                      " " + pattern);
+    }
+    Route route = new Route(method, pattern, paramNames, handler);
+    node.routes.put(method, route);
+    routes.put(route.name, route);
+    return this;
+  }
+
+  public Router get(String pattern, HttpHandler handler) {
+    return add("GET", pattern, handler);
+  }
+
+  public Router post(String pattern, HttpHandler handler) {
+    return add("POST", pattern, handler);
+  }
+
+  public Router delete(String pattern, HttpHandler handler) {
+    return add("DELETE", pattern, handler);
+  }
+
+  public Router any(String pattern, HttpHandler handler) {
+    return add(ANY, pattern, handler);
+  }
+
+  /**
+   * ハンドラー内でパスパラメータを取得する。
+   *
+   * @return パラメータの値（存在しない場合はnull）
+   */
+  @SuppressWarnings("unchecked")
+  public static String pathParam(HttpExchange exchange, String name) {
+    Object params = exchange.getAttribute(PATH_PARAMS_ATTRIBUTE);
+    if (params == null) {
+      return null;
+    }
+    return ((Map<String, String>)params).get(name);
+  }
+
+  @Override
+  public void handle(HttpExchange exchange) throws IOException {
+    String path = exchange.getRequestURI().getPath();
+    Match match = find(exchange.getRequestMethod(), path);
+    if (match == null) {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+      return;
+    }
+    if (match.route == null) {
+      exchange.getResponseHeaders().set("Allow", match.allow);
+      exchange.sendResponseHeaders(405, -1);
+      exchange.close();
+      return;
+    }
+    if (!match.params.isEmpty()) {
+      exchange.setAttribute(PATH_PARAMS_ATTRIBUTE, match.params);
+    }
+    Route route = match.route;
+    long start = System.nanoTime();
+    try {
+      route.handler.handle(exchange);
+    } catch (IOException | RuntimeException e) {
+      route.errors.increment();
+      logger.error("リクエスト処理中にエラーが発生しました: {} {}",
+                   exchange.getRequestMethod(), path, e);
+      throw e;
+    } finally {
+      route.latency.record(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * メソッドとパスに一致するルートを検索する。
+   *
+   * @return 一致結果（パスに一致するルートが無い場合はnull、
+   *         パスは一致するがメソッドが異なる場合はrouteがnull）
+   */
+  Match find(String method, String path) {
+    Map<String, String> params = Collections.emptyMap();
+    List<String> values = new ArrayList<>(0);
+    // 固定パスを優先し、見つからない場合のみパラメータ側をたどる
+    Node node = walk(root, path, 0, values);
+    if (node == null || node.routes.isEmpty()) {
+      return null;
+    }
+    Route route = node.routes.get(method);
+    if (route == null) {
+      route = node.routes.get(ANY);
+    }
+    if (route == null) {
+      return new Match(null, params, String.join(", ", node.routes.keySet()));
+    }
+    if (!values.isEmpty()) {
+      params = new HashMap<>(values.size() * 2);
+      for (int i = 0; i < values.size(); i++) {
+        params.put(route.paramNames.get(i), values.get(i));
+      }
+    }
+    return new Match(route, params, null);
+  }
+
+  private static Node walk(Node node, String path, int from,
+                           List<String> values) {
+    while (from < path.length() && path.charAt(from) == '/') {
+      from++;
+    }
+    if (from >= path.length()) {
+      return node;
+    }
+    int end = path.indexOf('/', from);
+    if (end < 0) {
+      end = path.length();
+    }
+    String segment = path.substring(from, end);
+    Node child = node.children.get(segment);
+    if (child != null) {
+      Node found = walk(child, path, end, values);
+      if (found != null && !found.routes.isEmpty()) {
+        return found;
+      }
+    }
+    if (node.paramChild != null) {
+      values.add(segment);
+      Node found = walk(node.paramChild, path, end, values);
+      if (found != null && !found.routes.isEmpty()) {
+        return found;
+      }
+      values.remove(values.size() - 1);
+    }
+    return null;
+  }
+
+  private static List<String> split(String pattern) {
+    List<String> segments = new ArrayList<>();
+    for (String segment : pattern.split("/")) {
+      if (!segment.isEmpty()) {
+        segments.add(segment);
+      }
+    }
+    return segments;
+  }
+
+  /**
+   * ルートごとの処理時間の統計をJSONで返す。
+   */
+  public synchronized JSONObject toJson() {
+    JSONObject json = new JSONObject();
+    for (Route route : routes.values()) {
+      if (route.latency.count() == 0) {
+        continue;
+      }
+      JSONObject stats = route.latency.toJson();
+      stats.put("errors", route.errors.sum());
+      json.put(route.name, stats);
+    }
+    return json;
+  }
+
+  private static final class Node {
+    final Map<String, Node> children = new HashMap<>();
+    Node paramChild;
+    final Map<String, Route> routes = new LinkedHashMap<>(2);
+  }
+
+  static final class Route {
+    final String name;
+    final List<String> paramNames;
+    final HttpHandler handler;
+    final LatencyHistogram latency = new LatencyHistogram();
+    final LongAdder errors = new LongAdder();
+
+    Route(String method, String pattern, List<String> paramNames,
+          HttpHandler handler) {
+      this.name = ANY.equals(method) ? pattern : method + " " + pattern;
+      this.paramNames = paramNames;
+      this.handler = handler;
+    }
+  }
+
+  static final class Match {
+    final Route route;
+    final Map<String, String> params;
+    final String allow;
+
+    Match(Route route, Map<String, String> params, String allow) {
+      this.route = route;
+      this.params = params;
+      this.allow = allow;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.habit.server.http;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HttpServer に設定するリクエスト実行用Executorを生成するクラス。
+ *
+ * 【実行方式】
+ * - VIRTUAL    : 1リクエストごとに仮想スレッドで実行（既定）
+ * - PLATFORM   : 固定サイズのプラットフォームスレッドプールで実行
+ * - DISPATCHER : HttpServerのディスパッチャスレッドで直接実行（従来動作）
+ */
+public final class ServerExecutors {
+  private static final Logger logger =
+      LoggerFactory.getLogger(ServerExecutors.class);
+
+  public enum Mode {
+    VIRTUAL,
+    PLATFORM,
+    DISPATCHER;
+
+    /**
+     * 設定値から実行方式を判定する。不明な値の場合はVIRTUALを返す。
+     */
+    public static Mode parse(String value) {
+      if (value == null) {
+        return VIRTUAL;
+      }
+      try {
+        return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        logger.warn("不明な実行方式のためVIRTUALを使用します: {}", value);
+        return VIRTUAL;
+      }
+    }
+  }
+
+  private ServerExecutors() {}
+
+  /**
+   * 実行方式に応じたExecutorを生成する。
+   *
+   * @param mode 実行方式
+   * @param poolSize PLATFORM方式のスレッド数
+   * @return Executor（DISPATCHER方式の場合はnull）
+   */
+  public static ExecutorService create(Mode mode, int poolSize) {
+    switch (mode) {
+    case VIRTUAL:
+      return Executors.newThreadPerTaskExecutor(
+          Thread.ofVirtual().name("http-vt-", 0).factory());
+    case PLATFORM:
+      return Executors.newFixedThreadPool(Math.max(1, poolSize),
+                                          namedFactory("http-worker-"));
+    case DISPATCHER:
+    default:
+      return null;
+    }
+  }
+
+  private static ThreadFactory namedFactory(String prefix) {
+    AtomicInteger counter = new AtomicInteger();
+    return r -> {
+      Thread t = new Thread(r, prefix + counter.getAndIncrement());
+      t.setDaemon(true);
+      return t;
+    };
+  }
+}
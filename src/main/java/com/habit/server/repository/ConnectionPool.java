@@ -0,0 +1,398 @@
+package com.habit.server.repository;
+
+import com.habit.domain.util.Config;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SQLiteへのJDBC接続を使い回す、上限付きのコネクションプール。
+ *
+ * 各リポジトリはクエリごとに DriverManager.getConnection でファイルを
+ * 開き直していたが、このプールから接続を借りて close() で返却する。
+ * 借りた接続の close() は物理的な切断ではなくプールへの返却になる。
+ *
+ * - 同時に貸し出す接続数は maxSize まで。空きがなければ timeoutMillis まで待つ
+ * - 新しい接続を開いたときに設定のPRAGMA（busy_timeout など）を実行する
+ * - validationIntervalMillis 以上使われていなかった接続は貸し出し前に確認する
+ * - データベースファイルを削除・置き換えた場合は reset() で接続を開き直す
+ * - 返却時に未確定のトランザクションはロールバックし、autoCommit を戻す
+ * - 接続ごとに準備済み文をキャッシュする（StatementCache）
+ *
+ * 同じURLのリポジトリは shared(url) で同じプールを共有する。
+ * 書き込みは write() で書き込みキュー（WriteQueue）を経由して行う。
+ * 書き込みキューは専用の接続（openDedicated()）を使い、maxSize には数えない。
+ */
+public class ConnectionPool implements AutoCloseable {
+  private static final Logger logger =
+      LoggerFactory.getLogger(ConnectionPool.class);
+  private static final Map<String, ConnectionPool> SHARED =
+      new ConcurrentHashMap<>();
+
+  private final String url;
+  private final int maxSize;
+  private final long timeoutMillis;
+  private final long validationIntervalMillis;
+  private final String[] pragmas;
+  private final int statementCacheSize;
+
+  private final Semaphore permits;
+  private final ConcurrentLinkedDeque<Idle> idle =
+      new ConcurrentLinkedDeque<>();
+  // reset() のたびに増える世代番号
+  private final AtomicInteger generation = new AtomicInteger();
+  private volatile boolean closed;
+  private volatile WriteQueue writer;
+
+  private final AtomicInteger active = new AtomicInteger();
+  private final LongAdder borrows = new LongAdder();
+  private final LongAdder created = new LongAdder();
+  private final LongAdder discarded = new LongAdder();
+  private final LongAdder waits = new LongAdder();
+  private final LongAdder timeouts = new LongAdder();
+  private final LongAdder waitNanos = new LongAdder();
+  private final LongAccumulator maxWaitNanos =
+      new LongAccumulator(Math::max, 0);
+  private final StatementCache.Stats statementStats =
+      new StatementCache.Stats();
+
+  // 物理接続と、その準備済み文のキャッシュ・世代・最後に返却された時刻
+  private record Idle(Connection connection, StatementCache statements,
+                      int generation, long returnedAt) {}
+
+  /**
+   * URLごとに共有されるプールを返す（設定は application.properties から読む）。
+   */
+  public static ConnectionPool shared(String url) {
+    return SHARED.computeIfAbsent(
+        url,
+        u
+        -> new ConnectionPool(u, Config.getDbPoolMaxSize(),
+                              Config.getDbPoolTimeoutMillis(),
+                              Config.getDbPoolValidationIntervalMillis(),
+                              Config.getDbPragmas(),
+                              Config.getDbStatementCacheSize()));
+  }
+
+  /**
+   * @param url JDBC URL（jdbc:sqlite:ファイル名）
+   * @param maxSize 同時に貸し出す接続数の上限
+   * @param timeoutMillis 空きを待つ時間の上限
+   * @param validationIntervalMillis 接続の有効性を確認する間隔
+   * @param pragmas 接続時に実行するPRAGMA（";"区切り、例: "busy_timeout=5000"）
+   */
+  public ConnectionPool(String url, int maxSize, long timeoutMillis,
+                        long validationIntervalMillis, String pragmas) {
+    this(url, maxSize, timeoutMillis, validationIntervalMillis, pragmas,
+         Config.getDbStatementCacheSize());
+  }
+
+  /**
+   * @param statementCacheSize 接続ごとにキャッシュする準備済み文の数（0で無効）
+   */
+  public ConnectionPool(String url, int maxSize, long timeoutMillis,
+                        long validationIntervalMillis, String pragmas,
+                        int statementCacheSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+    this.url = Objects.requireNonNull(url);
+    this.maxSize = maxSize;
+    this.timeoutMillis = timeoutMillis;
+    this.validationIntervalMillis = validationIntervalMillis;
+    this.pragmas = pragmas == null || pragmas.isBlank()
+                       ? new String[0]
+                       : pragmas.trim().split("\\s*;\\s*");
+    this.statementCacheSize = Math.max(0, statementCacheSize);
+    this.permits = new Semaphore(maxSize, true);
+  }
+
+  public String getUrl() { return url; }
+
+  /**
+   * データベースファイルの世代番号を返す。reset() のたびに増える。
+   */
+  public int generation() {
+    return generation.get();
+  }
+
+  /**
+   * データベースファイルを削除・置き換えた後に呼ぶ（テストでファイルを
+   * 作り直す場合など）。待機中の接続を破棄して世代番号を増やす。
+   * 貸し出し中の接続は返却時に破棄し、書き込みキューの接続とスキーマの
+   * 作成（SchemaMigrations.ensure）も新しいファイルに対してやり直す。
+   *
+   * 借りるたびにファイルを確認すると、クエリごとにシステムコールが
+   * 増えるため、置き換えは呼び出し側から知らせる。
+   */
+  public void reset() {
+    logger.info("データベースファイルを開き直します: {}", url);
+    generation.incrementAndGet();
+    Idle entry;
+    while ((entry = idle.pollFirst()) != null) {
+      discard(entry.connection());
+    }
+  }
+
+  /**
+   * このプールのデータベースへの書き込みキューを返す（初回呼び出し時に開始する）。
+   */
+  public WriteQueue writer() {
+    WriteQueue w = writer;
+    if (w == null) {
+      synchronized (this) {
+        w = writer;
+        if (w == null) {
+          w = new WriteQueue(this, Config.getDbWriterFlushLatencyMicros(),
+                             Config.getDbWriterMaxBatch());
+          writer = w;
+        }
+      }
+    }
+    return w;
+  }
+
+  /**
+   * 書き込みキュー経由で書き込みを実行し、コミットされるまで待つ。
+   */
+  public <T> T write(WriteQueue.Work<T> work) throws SQLException {
+    return writer().execute(work);
+  }
+
+  /**
+   * 接続を借りる。使い終わったら close() で返却すること。
+   *
+   * @throws SQLTimeoutException 待ち時間内に空きができなかった場合
+   */
+  public Connection getConnection() throws SQLException {
+    if (closed) {
+      throw new SQLException("接続プールは閉じられています: " + url);
+    }
+    if (!permits.tryAcquire()) {
+      waits.increment();
+      long start = System.nanoTime();
+      boolean acquired;
+      try {
+        acquired = permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SQLException("接続の取得中に割り込まれました", e);
+      } finally {
+        long waited = System.nanoTime() - start;
+        waitNanos.add(waited);
+        maxWaitNanos.accumulate(waited);
+      }
+      if (!acquired) {
+        timeouts.increment();
+        throw new SQLTimeoutException("接続プールに空きがありません（" +
+                                      timeoutMillis + "ms待機）: " + url);
+      }
+    }
+    try {
+      Idle physical = takeIdle();
+      if (physical == null) {
+        physical = open();
+      }
+      active.incrementAndGet();
+      borrows.increment();
+      return lease(physical, this::release);
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * 書き込みキュー専用の接続を開く。maxSize の上限には数えないため、
+   * 読み込みで接続がすべて貸し出されていても書き込みは待たされない。
+   * 準備済み文はプールの接続と同じようにキャッシュし、close() で切断する。
+   */
+  Connection openDedicated() throws SQLException {
+    if (closed) {
+      throw new SQLException("接続プールは閉じられています: " + url);
+    }
+    return lease(open(), entry -> discard(entry.connection()));
+  }
+
+  // 待機中の接続から使えるものを取り出す
+  private Idle takeIdle() {
+    Idle entry;
+    while ((entry = idle.pollFirst()) != null) {
+      Connection conn = entry.connection();
+      try {
+        if (conn.isClosed()) {
+          discard(conn);
+          continue;
+        }
+        if (System.currentTimeMillis() - entry.returnedAt() >=
+                validationIntervalMillis &&
+            !conn.isValid(1)) {
+          logger.warn("無効な接続を破棄しました: {}", url);
+          discard(conn);
+          continue;
+        }
+        return entry;
+      } catch (SQLException e) {
+        discard(conn);
+      }
+    }
+    return null;
+  }
+
+  private Idle open() throws SQLException {
+    Connection conn = DriverManager.getConnection(url);
+    try (Statement stmt = conn.createStatement()) {
+      for (String pragma : pragmas) {
+        stmt.execute("PRAGMA " + pragma);
+      }
+    } catch (SQLException e) {
+      conn.close();
+      throw e;
+    }
+    created.increment();
+    return new Idle(conn,
+                    new StatementCache(conn, statementCacheSize, statementStats),
+                    generation.get(), 0);
+  }
+
+  // 返却された接続を待機列に戻す
+  private void release(Idle entry) {
+    Connection conn = entry.connection();
+    active.decrementAndGet();
+    try {
+      if (closed || entry.generation() != generation.get() ||
+          conn.isClosed()) {
+        discard(conn);
+        return;
+      }
+      entry.statements().releaseAll();
+      if (!conn.getAutoCommit()) {
+        conn.rollback();
+        conn.setAutoCommit(true);
+      }
+      conn.clearWarnings();
+      idle.offerFirst(new Idle(conn, entry.statements(), entry.generation(),
+                               System.currentTimeMillis()));
+    } catch (SQLException e) {
+      discard(conn);
+    } finally {
+      permits.release();
+    }
+  }
+
+  private void discard(Connection conn) {
+    discarded.increment();
+    try {
+      conn.close();
+    } catch (SQLException e) {
+      logger.debug("接続の切断に失敗しました: {}", e.getMessage());
+    }
+  }
+
+  // close() で onClose（通常はプールへの返却）が呼ばれるよう、物理接続を包んだプロキシを返す
+  private Connection lease(Idle entry, Consumer<Idle> onClose) {
+    Connection physical = entry.connection();
+    InvocationHandler handler = new InvocationHandler() {
+      private boolean returned;
+
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args)
+          throws Throwable {
+        switch (method.getName()) {
+        case "close":
+          if (!returned) {
+            returned = true;
+            onClose.accept(entry);
+          }
+          return null;
+        case "isClosed":
+          return returned || physical.isClosed();
+        case "prepareStatement":
+          if (args.length == 1 && !returned) {
+            return entry.statements().prepare((Connection)proxy,
+                                              (String)args[0]);
+          }
+          break;
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "Pooled[" + physical + "]";
+        default:
+          break;
+        }
+        if (returned) {
+          throw new SQLException("返却済みの接続は使用できません");
+        }
+        try {
+          return method.invoke(physical, args);
+        } catch (InvocationTargetException e) {
+          throw e.getCause();
+        }
+      }
+    };
+    return (Connection)Proxy.newProxyInstance(
+        Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+        handler);
+  }
+
+  /**
+   * プールを閉じ、待機中の接続を切断する。貸し出し中の接続は返却時に切断する。
+   */
+  @Override
+  public void close() {
+    WriteQueue w = writer;
+    if (w != null) {
+      w.close();
+    }
+    closed = true;
+    SHARED.remove(url, this);
+    Idle entry;
+    while ((entry = idle.pollFirst()) != null) {
+      discard(entry.connection());
+    }
+  }
+
+  /**
+   * プールの統計情報をJSONで返す。
+   */
+  public JSONObject toJson() {
+    JSONObject json = new JSONObject();
+    long waitCount = waits.sum();
+    json.put("url", url);
+    json.put("maxSize", maxSize);
+    json.put("active", active.get());
+    json.put("idle", idle.size());
+    json.put("borrows", borrows.sum());
+    json.put("created", created.sum());
+    json.put("discarded", discarded.sum());
+    json.put("waits", waitCount);
+    json.put("timeouts", timeouts.sum());
+    json.put("waitMsTotal", waitNanos.sum() / 1_000_000.0);
+    json.put("waitMsMax", maxWaitNanos.get() / 1_000_000.0);
+    json.put("waitMsAvg",
+             waitCount == 0 ? 0.0 : waitNanos.sum() / 1_000_000.0 / waitCount);
+    json.put("statementCache", statementStats.toJson(statementCacheSize));
+    return json;
+  }
+}
@@ -0,0 +1,359 @@
+package com.habit.server.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * user_task_statuses の日付を整数のカラムへ移すオンラインマイグレーション。
+ *
+ * date / completionTimestamp は TEXT のため、範囲検索は文字列の比較になり、
+ * 行を読むたびに LocalDate.parse が必要だった。スキーマの v5 で整数の
+ * day（LocalDate.toEpochDay()）と completedAt（エポックミリ秒）を追加し、
+ * 既存の行はサーバーの起動後にバックグラウンドで少しずつ埋める。
+ *
+ * - 新しい行は保存時に TEXT と整数の両方のカラムに書き込む
+ * - 埋め終わるまでは日付の検索は TEXT の date で行い、行の読み込みは
+ *   day が NULL なら date を解析する（UserTaskStatusRows を参照）
+ * - date を解析できない行は day を埋められないため、隔離用のテーブル
+ *   （QUARANTINE_TABLE）へ移して user_task_statuses から削除する
+ * - day が NULL の行がなくなったら日付の検索を day のインデックスに切り替え、
+ *   使わなくなった TEXT の日付のインデックスを削除する。同じ書き込みで
+ *   完了を epoch_day_backfill テーブルに記録し、次回以降の起動では
+ *   移行を再開しない
+ * - 主キー (userId, taskId, date) は TEXT のまま残す
+ *
+ * 各チャンクは書き込みキューの1件の書き込みとして実行するため、移行中も
+ * 通常の書き込みは待たされない。
+ */
+public final class EpochDayBackfill implements AutoCloseable {
+  private static final Logger logger =
+      LoggerFactory.getLogger(EpochDayBackfill.class);
+
+  private static final int CHUNK_SIZE = 500;
+
+  /** 移行後に使わなくなる TEXT の日付のインデックス。 */
+  static final List<String> TEXT_DATE_INDEXES =
+      List.of("idx_uts_task_date", "idx_uts_team_date", "idx_uts_user_date",
+              "idx_uts_user_team_date");
+
+  /** date を解析できなかった行の移し先（手作業での確認用）。 */
+  static final String QUARANTINE_TABLE = "user_task_statuses_unparseable";
+
+  // プールごとの移行状態（リポジトリの検索が参照する）
+  private static final Map<ConnectionPool, EpochDayBackfill> BACKFILLS =
+      new ConcurrentHashMap<>();
+
+  private final ConnectionPool pool;
+  private final CountDownLatch finished = new CountDownLatch(1);
+  private final LongAdder filled = new LongAdder();
+  private final LongAdder quarantined = new LongAdder();
+  private volatile boolean complete;
+  private volatile boolean closed;
+  private volatile Thread thread;
+
+  private EpochDayBackfill(ConnectionPool pool) { this.pool = pool; }
+
+  // v5: 整数の日付カラムと、それを使うインデックスを追加する
+  static Void addColumns(Connection conn) throws SQLException {
+    SchemaMigrations.addMissingColumns(conn, "user_task_statuses",
+                                       "day INTEGER", "completedAt INTEGER");
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE INDEX IF NOT EXISTS idx_uts_task_day "
+                   + "ON user_task_statuses (taskId, day)");
+      stmt.execute("CREATE INDEX IF NOT EXISTS idx_uts_team_day "
+                   + "ON user_task_statuses (teamId, day)");
+      stmt.execute("CREATE INDEX IF NOT EXISTS idx_uts_user_day "
+                   + "ON user_task_statuses (userId, day)");
+      stmt.execute("CREATE INDEX IF NOT EXISTS idx_uts_user_team_day "
+                   + "ON user_task_statuses (userId, teamId, day)");
+      // 未移行の行だけを含む部分インデックス（起動時の確認用）
+      stmt.execute("CREATE INDEX IF NOT EXISTS idx_uts_day_missing "
+                   + "ON user_task_statuses (day) WHERE day IS NULL");
+    }
+    return null;
+  }
+
+  // v11: 移行の完了の記録と、解析できない行の隔離用のテーブル
+  static Void createTables(Connection conn) throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE IF NOT EXISTS epoch_day_backfill ("
+                   + "id INTEGER PRIMARY KEY CHECK (id = 1),"
+                   + "completedAt TEXT DEFAULT CURRENT_TIMESTAMP)");
+      stmt.execute("CREATE TABLE IF NOT EXISTS " + QUARANTINE_TABLE + " ("
+                   + "userId TEXT,"
+                   + "taskId TEXT,"
+                   + "teamId TEXT,"
+                   + "date TEXT,"
+                   + "isDone INTEGER,"
+                   + "completionTimestamp TEXT,"
+                   + "quarantinedAt TEXT DEFAULT CURRENT_TIMESTAMP)");
+    }
+    return null;
+  }
+
+  /**
+   * プールのデータベースの移行を開始する。完了が記録されていればその場で
+   * 完了し、未移行の行がなければ完了を記録する。未移行の行があれば
+   * バックグラウンドのスレッドで埋める。
+   *
+   * TEXT の日付のインデックスがすでにない（v11 より前のバージョンで
+   * 移行を終えた）データベースでは、残りの行の隔離を待たずに day で検索する。
+   */
+  public static EpochDayBackfill start(ConnectionPool pool) {
+    SchemaMigrations.ensure(pool);
+    EpochDayBackfill backfill = new EpochDayBackfill(pool);
+    EpochDayBackfill previous = BACKFILLS.put(pool, backfill);
+    if (previous != null) {
+      previous.close();
+    }
+    try {
+      if (backfill.isRecorded()) {
+        backfill.markComplete();
+        return backfill;
+      }
+      if (!backfill.hasTextDateIndexes()) {
+        backfill.complete = true;
+      }
+      if (!backfill.hasMissingRows() && backfill.finish()) {
+        return backfill;
+      }
+    } catch (SQLException e) {
+      logger.error("日付カラムの移行状態を確認できませんでした", e);
+      return backfill;
+    }
+    Thread t = new Thread(backfill::run, "epoch-day-backfill");
+    t.setDaemon(true);
+    backfill.thread = t;
+    t.start();
+    return backfill;
+  }
+
+  /**
+   * 日付の検索に整数の day カラムを使えるかどうか。
+   * 移行を開始していないプールでは false（TEXT の date で検索する）。
+   */
+  static boolean isComplete(ConnectionPool pool) {
+    EpochDayBackfill backfill = BACKFILLS.get(pool);
+    return backfill != null && backfill.complete;
+  }
+
+  public boolean isComplete() { return complete; }
+
+  /**
+   * 移行の完了を待つ。
+   *
+   * @return 時間内に完了した場合 true
+   */
+  public boolean awaitCompletion(long timeoutMillis)
+      throws InterruptedException {
+    return finished.await(timeoutMillis, TimeUnit.MILLISECONDS) && complete;
+  }
+
+  private boolean isRecorded() throws SQLException {
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(
+             "SELECT 1 FROM epoch_day_backfill WHERE id = 1")) {
+      return rs.next();
+    }
+  }
+
+  private boolean hasTextDateIndexes() throws SQLException {
+    try (Connection conn = pool.getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(
+             "SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = ?")) {
+      for (String index : TEXT_DATE_INDEXES) {
+        pstmt.setString(1, index);
+        try (ResultSet rs = pstmt.executeQuery()) {
+          if (rs.next()) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  }
+
+  private boolean hasMissingRows() throws SQLException {
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(
+             "SELECT 1 FROM user_task_statuses WHERE day IS NULL LIMIT 1")) {
+      return rs.next();
+    }
+  }
+
+  private void run() {
+    long start = System.nanoTime();
+    try {
+      // 最後まで埋めても day が NULL の行が残っていれば（移行中に古い
+      // バージョンのサーバーが書き込んだ場合など）最初からやり直す
+      do {
+        long cursor = 0;
+        while (!closed && cursor >= 0) {
+          long from = cursor;
+          cursor = pool.write(conn -> fillChunk(conn, from));
+        }
+      } while (!closed && !finish());
+      if (!closed) {
+        logger.info("日付カラムの移行が完了しました: {}件（{}ms、隔離した行 {}件）",
+                    filled.sum(), (System.nanoTime() - start) / 1_000_000,
+                    quarantined.sum());
+      }
+    } catch (SQLException | RuntimeException e) {
+      if (!closed) {
+        logger.error("日付カラムの移行に失敗しました（TEXTの日付で検索を続けます）",
+                     e);
+      }
+    } finally {
+      finished.countDown();
+    }
+  }
+
+  // rowid が from より大きい未移行の行を最大 CHUNK_SIZE 件埋め（解析
+  // できない行は隔離し）、最後に処理した rowid を返す（残りがなければ -1）
+  private long fillChunk(Connection conn, long from) throws SQLException {
+    long last = -1;
+    try (PreparedStatement select = conn.prepareStatement(
+             "SELECT rowid, date, completionTimestamp FROM user_task_statuses "
+             + "WHERE rowid > ? AND day IS NULL ORDER BY rowid LIMIT ?");
+         PreparedStatement update = conn.prepareStatement(
+             "UPDATE user_task_statuses SET day = ?, completedAt = ? "
+             + "WHERE rowid = ?");
+         PreparedStatement quarantine = conn.prepareStatement(
+             "INSERT INTO " + QUARANTINE_TABLE + " (userId, taskId, teamId, "
+             + "date, isDone, completionTimestamp) SELECT userId, taskId, "
+             + "teamId, date, isDone, completionTimestamp "
+             + "FROM user_task_statuses WHERE rowid = ?");
+         PreparedStatement delete = conn.prepareStatement(
+             "DELETE FROM user_task_statuses WHERE rowid = ?")) {
+      select.setLong(1, from);
+      select.setInt(2, CHUNK_SIZE);
+      try (ResultSet rs = select.executeQuery()) {
+        while (rs.next()) {
+          last = rs.getLong(1);
+          String text = rs.getString(2);
+          LocalDate date = parseDate(text);
+          if (date == null) {
+            // day を埋められない行は検索から漏れるため、隔離して削除する
+            logger.warn("日付を解析できない達成状況の行を {} へ移しました: "
+                        + "rowid={}, date={}", QUARANTINE_TABLE, last, text);
+            quarantine.setLong(1, last);
+            quarantine.addBatch();
+            delete.setLong(1, last);
+            delete.addBatch();
+            quarantined.increment();
+            continue;
+          }
+          update.setLong(1, date.toEpochDay());
+          Long completedAt = parseTimestamp(rs.getString(3));
+          if (completedAt != null) {
+            update.setLong(2, completedAt);
+          } else {
+            update.setNull(2, Types.BIGINT);
+          }
+          update.setLong(3, last);
+          update.addBatch();
+          filled.increment();
+        }
+      }
+      update.executeBatch();
+      quarantine.executeBatch();
+      delete.executeBatch();
+    }
+    return last;
+  }
+
+  private static LocalDate parseDate(String text) {
+    if (text == null) {
+      return null;
+    }
+    try {
+      return LocalDate.parse(text);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  private static Long parseTimestamp(String text) {
+    if (text == null) {
+      return null;
+    }
+    try {
+      return UserTaskStatusRows.toEpochMilli(LocalDateTime.parse(text));
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  // day が NULL の行が残っていなければ、TEXT の日付のインデックスを削除して
+  // 完了を記録し、日付の検索を day に切り替える（残っていれば false）
+  private boolean finish() throws SQLException {
+    boolean done = pool.write(conn -> {
+      try (Statement stmt = conn.createStatement()) {
+        try (ResultSet rs = stmt.executeQuery(
+                 "SELECT 1 FROM user_task_statuses WHERE day IS NULL LIMIT 1")) {
+          if (rs.next()) {
+            return false;
+          }
+        }
+        for (String index : TEXT_DATE_INDEXES) {
+          stmt.execute("DROP INDEX IF EXISTS " + index);
+        }
+        stmt.execute("INSERT OR IGNORE INTO epoch_day_backfill (id) VALUES (1)");
+      }
+      return true;
+    });
+    if (done) {
+      markComplete();
+    }
+    return done;
+  }
+
+  private void markComplete() {
+    complete = true;
+    finished.countDown();
+  }
+
+  public JSONObject toJson() {
+    JSONObject json = new JSONObject();
+    json.put("complete", complete);
+    json.put("filled", filled.sum());
+    json.put("quarantined", quarantined.sum());
+    return json;
+  }
+
+  /**
+   * バックグラウンドの移行を止める（未移行の行は次回の起動時に続きから埋める）。
+   */
+  @Override
+  public void close() {
+    closed = true;
+    BACKFILLS.remove(pool, this);
+    Thread t = thread;
+    if (t != null) {
+      t.interrupt();
+      try {
+        t.join(1000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
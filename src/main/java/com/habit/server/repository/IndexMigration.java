@@ -0,0 +1,55 @@
+package com.habit.server.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * 各リポジトリの検索で使うセカンダリインデックスを作成するマイグレーション。
+ *
+ * SchemaMigrations の手順（v3）として、テーブル作成後に1回だけ実行される。
+ * インデックスは IF NOT EXISTS で作成するので、既存DBに対して実行してもよい。
+ *
+ * - user_task_statuses: 主キー (userId, taskId, date) で userId 始まりの検索を
+ *   まかない、taskId・teamId・userId+日付範囲の検索用に複合インデックスを張る
+ * - tasks: teamID での検索と、JOIN で使う taskId を含む複合インデックス
+ * - team_members: チーム→メンバー、メンバー→チームの両方向のカバリングインデックス
+ * - messages: チームごとのチャットログを時刻順に読むためのインデックス
+ * - teams: パスコード・チーム名からの検索を表を読まずに済ませるカバリングインデックス
+ */
+final class IndexMigration {
+  static final List<String> STATEMENTS = List.of(
+      "CREATE INDEX IF NOT EXISTS idx_uts_task_date "
+          + "ON user_task_statuses (taskId, date)",
+      "CREATE INDEX IF NOT EXISTS idx_uts_team_date "
+          + "ON user_task_statuses (teamId, date)",
+      "CREATE INDEX IF NOT EXISTS idx_uts_user_date "
+          + "ON user_task_statuses (userId, date)",
+      "CREATE INDEX IF NOT EXISTS idx_tasks_team "
+          + "ON tasks (teamID, taskId)",
+      "CREATE INDEX IF NOT EXISTS idx_team_members_team "
+          + "ON team_members (teamID, memberId)",
+      "CREATE INDEX IF NOT EXISTS idx_team_members_member "
+          + "ON team_members (memberId, teamID)",
+      "CREATE INDEX IF NOT EXISTS idx_messages_team_time "
+          + "ON messages (team_id, timestamp)",
+      "CREATE INDEX IF NOT EXISTS idx_teams_passcode "
+          + "ON teams (passcode, id, teamName)",
+      "CREATE INDEX IF NOT EXISTS idx_teams_name "
+          + "ON teams (teamName, id, maxMembers)");
+
+  private IndexMigration() {}
+
+  /**
+   * 不足しているインデックスを作成する。
+   */
+  static Void apply(Connection conn) throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      for (String sql : STATEMENTS) {
+        stmt.execute(sql);
+      }
+    }
+    return null;
+  }
+}
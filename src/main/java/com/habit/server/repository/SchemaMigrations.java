@@ -0,0 +1,343 @@
+package com.habit.server.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * バージョン付きのスキーママイグレーション。
+ *
+ * 以前は各リポジトリのコンストラクタが CREATE TABLE IF NOT EXISTS と
+ * PRAGMA table_info によるカラム確認を毎回実行していたが、スキーマの変更は
+ * ここに番号付きの手順として並べ、未適用のものだけを1回ずつ適用する。
+ * 適用済みのバージョンは schema_version テーブルに記録する。
+ *
+ * - 各手順は書き込みキュー上の1トランザクションで実行し、成功したら記録する
+ * - 手順は既存DB（schema_version がない状態）に対しても安全に再実行できること
+ * - 新しい変更は末尾に次の番号で追加する（適用済みの手順は書き換えない）
+ *
+ * リポジトリのコンストラクタは ensure() を呼ぶが、プールごとに1回しか
+ * マイグレーションを実行しないため、2回目以降の生成ではDBにアクセスしない
+ * （ConnectionPool.reset() でデータベースファイルを開き直した場合のみ再実行する）。
+ */
+public final class SchemaMigrations {
+  private static final Logger logger =
+      LoggerFactory.getLogger(SchemaMigrations.class);
+
+  /** 1つのスキーマ変更手順。 */
+  record Migration(int version, String description,
+                   WriteQueue.Work<Void> work) {}
+
+  static final List<Migration> MIGRATIONS = List.of(
+      new Migration(1, "create tables", SchemaMigrations::createTables),
+      new Migration(2, "add columns missing from legacy databases",
+                    SchemaMigrations::addLegacyColumns),
+      new Migration(3, "add secondary indexes", IndexMigration::apply),
+      new Migration(4, "backfill user_task_statuses.teamId",
+                    SchemaMigrations::backfillStatusTeamIds),
+      new Migration(5, "add epoch-day columns to user_task_statuses",
+                    EpochDayBackfill::addColumns),
+      new Migration(6, "move users.joinedTeamIds into team_members",
+                    SchemaMigrations::moveJoinedTeamIds),
+      new Migration(7, "add primary key (teamID, memberId) to team_members",
+                    SchemaMigrations::addTeamMembersPrimaryKey),
+      new Migration(8, "create team_deletions", TeamPurge::createTable),
+      new Migration(9, "create user_task_statuses_archive",
+                    StatusArchiver::createTable),
+      new Migration(10, "add user index to user_task_statuses_archive",
+                    StatusArchiver::addUserIndex),
+      new Migration(11, "create epoch_day_backfill and the quarantine table",
+                    EpochDayBackfill::createTables));
+
+  // マイグレーション済みのプールと、そのときのデータベースファイルの世代
+  private static final Map<ConnectionPool, Integer> MIGRATED =
+      new ConcurrentHashMap<>();
+
+  private SchemaMigrations() {}
+
+  /**
+   * プールのデータベースがまだマイグレーションされていなければ実行する。
+   *
+   * @throws IllegalStateException マイグレーションに失敗した場合
+   */
+  public static void ensure(ConnectionPool pool) {
+    if (isMigrated(pool)) {
+      return;
+    }
+    synchronized (SchemaMigrations.class) {
+      if (isMigrated(pool)) {
+        return;
+      }
+      try {
+        migrate(pool);
+      } catch (SQLException e) {
+        throw new IllegalStateException(
+            "スキーマのマイグレーションに失敗しました: " + pool.getUrl(), e);
+      }
+      MIGRATED.put(pool, pool.generation());
+    }
+  }
+
+  private static boolean isMigrated(ConnectionPool pool) {
+    Integer generation = MIGRATED.get(pool);
+    return generation != null && generation == pool.generation();
+  }
+
+  /**
+   * 未適用のマイグレーションを順に適用する。
+   *
+   * @return 適用した手順の数
+   */
+  public static int migrate(ConnectionPool pool) throws SQLException {
+    pool.write(conn -> {
+      try (Statement stmt = conn.createStatement()) {
+        stmt.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                     + "version INTEGER PRIMARY KEY,"
+                     + "description TEXT,"
+                     + "appliedAt TEXT DEFAULT CURRENT_TIMESTAMP)");
+      }
+      return null;
+    });
+    int current = currentVersion(pool);
+    int applied = 0;
+    for (Migration migration : MIGRATIONS) {
+      if (migration.version() <= current) {
+        continue;
+      }
+      long start = System.nanoTime();
+      pool.write(conn -> {
+        migration.work().run(conn);
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                 "INSERT INTO schema_version (version, description) "
+                 + "VALUES (?, ?)")) {
+          pstmt.setInt(1, migration.version());
+          pstmt.setString(2, migration.description());
+          pstmt.executeUpdate();
+        }
+        return null;
+      });
+      logger.info("スキーマを更新しました: v{} {}（{}ms）", migration.version(),
+                  migration.description(),
+                  (System.nanoTime() - start) / 1_000_000);
+      applied++;
+    }
+    return applied;
+  }
+
+  /**
+   * 適用済みの最新バージョンを返す（未適用なら0）。
+   */
+  public static int currentVersion(ConnectionPool pool) throws SQLException {
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs =
+             stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+      return rs.next() ? rs.getInt(1) : 0;
+    }
+  }
+
+  /** 最新のスキーマバージョン。 */
+  public static int latestVersion() {
+    return MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+  }
+
+  // v1: 全テーブルを作成
+  private static Void createTables(Connection conn) throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE IF NOT EXISTS users ("
+                   + "userId TEXT PRIMARY KEY,"
+                   + "username TEXT UNIQUE,"
+                   + "hashedPassword TEXT,"
+                   + "sabotagePoints INTEGER,"
+                   + "joinedTeamIds TEXT," // v6 以降は未使用（team_members を参照）
+                   + "profileIconPath TEXT,"
+                   + "bio TEXT)");
+      stmt.execute("CREATE TABLE IF NOT EXISTS tasks ("
+                   + "taskId TEXT PRIMARY KEY,"
+                   + "taskName TEXT,"
+                   + "description TEXT,"
+                   + "teamID TEXT,"
+                   + "dueDate TEXT,"
+                   + "cycleType TEXT)");
+      // ユーザーごとのタスク達成状況
+      stmt.execute("CREATE TABLE IF NOT EXISTS user_task_statuses ("
+                   + "userId TEXT,"
+                   + "taskId TEXT,"
+                   + "teamId TEXT,"
+                   + "date TEXT,"
+                   + "isDone INTEGER,"
+                   + "completionTimestamp TEXT,"
+                   + "PRIMARY KEY(userId, taskId, date))");
+      stmt.execute("CREATE TABLE IF NOT EXISTS teams ("
+                   + "id TEXT PRIMARY KEY,"
+                   + "teamName TEXT,"
+                   + "passcode TEXT,"
+                   + "maxMembers INTEGER,"
+                   + "editPermission TEXT,"
+                   + "creatorId TEXT)");
+      stmt.execute("CREATE TABLE IF NOT EXISTS team_members ("
+                   + "teamID TEXT,"
+                   + "memberId TEXT)");
+      stmt.execute("CREATE TABLE IF NOT EXISTS messages ("
+                   + "message_id TEXT PRIMARY KEY,"
+                   + "sender_id TEXT NOT NULL,"
+                   + "team_id TEXT NOT NULL,"
+                   + "content TEXT NOT NULL,"
+                   + "timestamp DATETIME DEFAULT CURRENT_TIMESTAMP)");
+    }
+    return null;
+  }
+
+  // v2: 古いバージョンで作成されたテーブルに不足しているカラムを追加
+  private static Void addLegacyColumns(Connection conn) throws SQLException {
+    addMissingColumns(conn, "tasks", "taskId TEXT", "dueDate TEXT",
+                      "cycleType TEXT");
+    if (columns(conn, "tasks").contains("task") &&
+        !columns(conn, "tasks").contains("taskname")) {
+      // SQLiteは直接カラム名変更できないため、手動で対応が必要
+      logger.warn("注意: tasksテーブルのカラム 'task' を 'taskName' にリネームしてください。");
+    }
+    addMissingColumns(conn, "teams", "teamName TEXT", "passcode TEXT",
+                      "maxMembers INTEGER", "editPermission TEXT",
+                      "creatorId TEXT");
+    addMissingColumns(conn, "user_task_statuses", "teamId TEXT");
+    return null;
+  }
+
+  // v4: teamId のない達成状況の行に、タスクの teamID を設定する
+  // （チームでの検索を tasks との JOIN なしで行えるようにするため）
+  private static Void backfillStatusTeamIds(Connection conn)
+      throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      int updated = stmt.executeUpdate(
+          "UPDATE user_task_statuses SET teamId = "
+          + "(SELECT t.teamID FROM tasks t "
+          + "WHERE t.taskId = user_task_statuses.taskId) "
+          + "WHERE teamId IS NULL AND EXISTS (SELECT 1 FROM tasks t "
+          + "WHERE t.taskId = user_task_statuses.taskId "
+          + "AND t.teamID IS NOT NULL)");
+      if (updated > 0) {
+        logger.info("user_task_statuses の teamId を{}件補完しました", updated);
+      }
+      stmt.execute("CREATE INDEX IF NOT EXISTS idx_uts_user_team_date "
+                   + "ON user_task_statuses (userId, teamId, date)");
+    }
+    return null;
+  }
+
+  // v6: カンマ区切りの users.joinedTeamIds を team_members に移す。
+  // 参加チームは team_members だけで管理し、joinedTeamIds は NULL にする
+  // （存在しないチームのIDは移さない）
+  private static Void moveJoinedTeamIds(Connection conn) throws SQLException {
+    int moved = 0;
+    try (Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(
+             "SELECT userId, joinedTeamIds FROM users "
+             + "WHERE joinedTeamIds IS NOT NULL AND joinedTeamIds <> ''");
+         PreparedStatement insert = conn.prepareStatement(
+             "INSERT INTO team_members (teamID, memberId) SELECT ?, ? "
+             + "WHERE EXISTS (SELECT 1 FROM teams WHERE id = ?) "
+             + "AND NOT EXISTS (SELECT 1 FROM team_members "
+             + "WHERE teamID = ? AND memberId = ?)")) {
+      while (rs.next()) {
+        String userId = rs.getString(1);
+        for (String teamId : rs.getString(2).split(",")) {
+          if (teamId.isEmpty()) {
+            continue;
+          }
+          insert.setString(1, teamId);
+          insert.setString(2, userId);
+          insert.setString(3, teamId);
+          insert.setString(4, teamId);
+          insert.setString(5, userId);
+          moved += insert.executeUpdate();
+        }
+      }
+    }
+    try (Statement stmt = conn.createStatement()) {
+      // 作成者も必ずメンバーとして持つ（参加チームの検索を team_members
+      // だけで行うため）
+      moved += stmt.executeUpdate(
+          "INSERT INTO team_members (teamID, memberId) "
+          + "SELECT id, creatorId FROM teams t "
+          + "WHERE creatorId IS NOT NULL AND creatorId <> '' "
+          + "AND NOT EXISTS (SELECT 1 FROM team_members m "
+          + "WHERE m.teamID = t.id AND m.memberId = t.creatorId)");
+      stmt.executeUpdate("UPDATE users SET joinedTeamIds = NULL "
+                         + "WHERE joinedTeamIds IS NOT NULL");
+    }
+    if (moved > 0) {
+      logger.info("参加チームを team_members に{}件移しました", moved);
+    }
+    return null;
+  }
+
+  // v7: team_members を (teamID, memberId) の主キー付きで作り直す。
+  // 重複した参加は最初の1件（rowid が最小のもの）だけを残し、rowid を
+  // そのまま移して参加した順を保つ。主キーの自動インデックスが
+  // チーム→メンバーの検索を兼ねるため idx_team_members_team は作らない
+  private static Void addTeamMembersPrimaryKey(Connection conn)
+      throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("ALTER TABLE team_members RENAME TO team_members_old");
+      stmt.execute("CREATE TABLE team_members ("
+                   + "teamID TEXT NOT NULL,"
+                   + "memberId TEXT NOT NULL,"
+                   + "PRIMARY KEY(teamID, memberId))");
+      int kept = stmt.executeUpdate(
+          "INSERT INTO team_members (rowid, teamID, memberId) "
+          + "SELECT MIN(rowid), teamID, memberId FROM team_members_old "
+          + "WHERE teamID IS NOT NULL AND memberId IS NOT NULL "
+          + "GROUP BY teamID, memberId");
+      int total;
+      try (ResultSet rs = stmt.executeQuery(
+               "SELECT COUNT(*) FROM team_members_old")) {
+        total = rs.next() ? rs.getInt(1) : 0;
+      }
+      stmt.execute("DROP TABLE team_members_old");
+      stmt.execute("CREATE INDEX IF NOT EXISTS idx_team_members_member "
+                   + "ON team_members (memberId, teamID)");
+      if (total > kept) {
+        logger.info("team_members の重複・不正な行を{}件削除しました",
+                    total - kept);
+      }
+    }
+    return null;
+  }
+
+  static void addMissingColumns(Connection conn, String table,
+                                String... definitions)
+      throws SQLException {
+    Set<String> existing = columns(conn, table);
+    try (Statement stmt = conn.createStatement()) {
+      for (String definition : definitions) {
+        String name = definition.substring(0, definition.indexOf(' '));
+        if (!existing.contains(name.toLowerCase())) {
+          stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + definition);
+        }
+      }
+    }
+  }
+
+  // テーブルのカラム名（小文字）
+  private static Set<String> columns(Connection conn, String table)
+      throws SQLException {
+    Set<String> names = new HashSet<>();
+    try (Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+      while (rs.next()) {
+        names.add(rs.getString("name").toLowerCase());
+      }
+    }
+    return names;
+  }
+}
@@ -0,0 +1,111 @@
+package com.habit.server.repository;
+
+import com.habit.domain.Message;
+import com.habit.domain.util.Config;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class SqliteMessageRepository implements MessageRepository {
+  private static final Logger logger = LoggerFactory.getLogger(SqliteMessageRepository.class);
+
+  private final ConnectionPool pool;
+
+  public SqliteMessageRepository() { this(Config.getDbUrl()); }
+
+  public SqliteMessageRepository(String databaseUrl) {
+    this(ConnectionPool.shared(databaseUrl));
+  }
+
+  public SqliteMessageRepository(ConnectionPool pool) {
+    this.pool = pool;
+    // テーブルは初回のみ SchemaMigrations で作成する
+    SchemaMigrations.ensure(pool);
+  }
+
+  @Override
+  public void save(Message message) {
+    String sql = "INSERT INTO messages (message_id, sender_id, team_id, "
+                 + "content, timestamp) VALUES (?, ?, ?, ?, ?)";
+    try {
+      pool.write(conn -> {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+          pstmt.setString(
+              1,
+              java.util.UUID.randomUUID().toString()); // メッセージIDをUUIDで生成
+          pstmt.setString(2, message.getSender().getUserId());
+          pstmt.setString(3, message.getTeamID());
+          pstmt.setString(4, message.getContent());
+          pstmt.setTimestamp(5, Timestamp.valueOf(message.getTimestamp()));
+          return pstmt.executeUpdate();
+        }
+      });
+      TeamVersions.bump(TeamVersions.Kind.CHAT, message.getTeamID());
+    } catch (SQLException e) {
+      logger.error("Error saving message: {}", e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public List<MessageEntry> findMessagesByteamID(String teamID, int limit) {
+    List<MessageEntry> messages = new ArrayList<>();
+    String sql =
+        "SELECT message_id, sender_id, team_id, content, timestamp FROM "
+        + "messages WHERE team_id = ? ORDER BY timestamp LIMIT ?";
+    try (Connection conn = pool.getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setString(1, teamID);
+      pstmt.setInt(2, limit);
+      ResultSet rs = pstmt.executeQuery();
+      while (rs.next()) {
+
+        Timestamp ts = rs.getTimestamp("timestamp");
+        LocalDateTime time = ts.toLocalDateTime();
+
+        // MessageTypeはNORMAL固定でインスタンス化
+        MessageEntry entries = new MessageEntry(
+            rs.getString("message_id"), rs.getString("sender_id"),
+            rs.getString("team_id"), rs.getString("content"), time);
+        messages.add(entries);
+      }
+    } catch (SQLException e) {
+      logger.error("Error finding messages by team ID: {}", e.getMessage(), e);
+    }
+    return messages;
+  }
+
+  /**
+   * 削除メソッド。
+   */
+  @Override
+  public void delete(String messageId) {
+    String teamSql = "SELECT team_id FROM messages WHERE message_id = ?";
+    String sql = "DELETE FROM messages WHERE message_id = ?";
+    try {
+      // バージョン更新のため、削除前に所属チームを取得する（未削除ならnull）
+      String teamId = pool.write(conn -> {
+        String found = null;
+        try (PreparedStatement teamStmt = conn.prepareStatement(teamSql)) {
+          teamStmt.setString(1, messageId);
+          try (ResultSet rs = teamStmt.executeQuery()) {
+            if (rs.next()) {
+              found = rs.getString("team_id");
+            }
+          }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+          pstmt.setString(1, messageId);
+          return pstmt.executeUpdate() > 0 ? found : null;
+        }
+      });
+      if (teamId != null) {
+        TeamVersions.bump(TeamVersions.Kind.CHAT, teamId);
+      }
+    } catch (SQLException e) {
+      logger.error("Error deleting message: {}", e.getMessage(), e);
+    }
+  }
+}
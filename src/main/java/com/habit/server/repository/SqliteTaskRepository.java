@@ -0,0 +1,269 @@
+package com.habit.server.repository;
+
+import com.habit.domain.Task;
+import com.habit.domain.UserTaskStatus;
+import com.habit.domain.util.Config;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.List;
+
+public class SqliteTaskRepository implements TaskRepository {
+  private static final UserTaskStatusRows.DateQuery STATUSES_FOR_PERIOD =
+      UserTaskStatusRows.DateQuery.of(
+          "SELECT " + UserTaskStatusRows.COLUMNS + " FROM user_task_statuses "
+          + "WHERE userId = ? AND {date} BETWEEN ? AND ?");
+
+  private final ConnectionPool pool;
+  
+  public SqliteTaskRepository() {
+    this(Config.getDbUrl());
+  }
+
+  public SqliteTaskRepository(String databaseUrl) {
+    this(ConnectionPool.shared(databaseUrl));
+  }
+
+  public SqliteTaskRepository(ConnectionPool pool) {
+    this.pool = pool;
+    // テーブルは初回のみ SchemaMigrations で作成する
+    SchemaMigrations.ensure(pool);
+  }
+
+  @Override
+  public UserTaskStatus findUserTaskStatus(String userId, String taskId,
+                                           LocalDate date) {
+    try (Connection conn = pool.getConnection()) {
+      String sql = "SELECT " + UserTaskStatusRows.COLUMNS
+                   + " FROM user_task_statuses WHERE userId = ? AND "
+                   + "taskId = ? AND date = ?";
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, userId);
+        pstmt.setString(2, taskId);
+        pstmt.setString(3, date.toString());
+        ResultSet rs = pstmt.executeQuery();
+        if (rs.next()) {
+          return UserTaskStatusRows.map(rs);
+        }
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
+
+  @Override
+  public void saveUserTaskStatus(UserTaskStatus status) {
+    try {
+      String sql = "INSERT OR REPLACE" + UserTaskStatusRows.INSERT;
+      pool.write(conn -> {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+          UserTaskStatusRows.bindInsert(pstmt, status);
+          return pstmt.executeUpdate();
+        }
+      });
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Override
+  public List<UserTaskStatus> findUserTaskStatusesForPeriod(String userId,
+                                                            LocalDate startDate,
+                                                            LocalDate endDate) {
+    List<UserTaskStatus> list = new java.util.ArrayList<>();
+    boolean epochDays = EpochDayBackfill.isComplete(pool);
+    try (Connection conn = pool.getConnection()) {
+      String sql = STATUSES_FOR_PERIOD.sql(epochDays);
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, userId);
+        UserTaskStatusRows.bindDate(pstmt, 2, startDate, epochDays);
+        UserTaskStatusRows.bindDate(pstmt, 3, endDate, epochDays);
+        ResultSet rs = pstmt.executeQuery();
+        while (rs.next()) {
+          list.add(UserTaskStatusRows.map(rs));
+        }
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return list;
+  }
+
+  @Override
+  public List<Task> findTeamTasksByTeamID(String teamID) {
+    List<Task> list = new java.util.ArrayList<>();
+    try (Connection conn = pool.getConnection()) {
+      String sql = "SELECT * FROM tasks WHERE teamID = ?";
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, teamID);
+        ResultSet rs = pstmt.executeQuery();
+        while (rs.next()) {
+          Task task = new Task(
+              rs.getString("taskId"), rs.getString("taskName"),
+              rs.getString("description"),
+              rs.getString("teamID"),
+              rs.getString("dueDate") != null
+                  ? java.time.LocalDate.parse(rs.getString("dueDate"))
+                  : null,
+              rs.getString("cycleType"));
+          
+          list.add(task);
+        }
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return list;
+  }
+
+
+  // タスク保存
+  @Override
+  public void saveTask(Task task, String teamID) {
+    try {
+      String sql = "INSERT OR REPLACE INTO tasks (taskId, taskName, description, teamID, dueDate, cycleType) VALUES  (?, ?, ?, ?, ?, ?)";
+      pool.write(conn -> {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+          pstmt.setString(1, task.getTaskId());
+          pstmt.setString(2, task.getTaskName());
+          pstmt.setString(3, task.getDescription());
+          pstmt.setString(4, teamID);
+          pstmt.setString(5, task.getDueDate() != null ? task.getDueDate().toString() : null);
+          pstmt.setString(6, task.getCycleType());
+          return pstmt.executeUpdate();
+        }
+      });
+      TeamVersions.bump(TeamVersions.Kind.TASKS, teamID);
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+  }
+
+  // Task保存（簡単版）
+  @Override
+  public Task save(Task task) {
+    try {
+      String sql = "INSERT OR REPLACE INTO tasks (taskId, taskName, description, teamID, dueDate, cycleType) VALUES  (?, ?, ?, ?, ?, ?)";
+      pool.write(conn -> {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+          pstmt.setString(1, task.getTaskId());
+          pstmt.setString(2, task.getTaskName());
+          pstmt.setString(3, task.getDescription());
+          pstmt.setString(4, task.getTeamId());
+          pstmt.setString(5, task.getDueDate() != null ? task.getDueDate().toString() : null);
+          pstmt.setString(6, task.getCycleType());
+          return pstmt.executeUpdate();
+        }
+      });
+      TeamVersions.bump(TeamVersions.Kind.TASKS, task.getTeamId());
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return task;
+  }
+
+  // チームIDでタスク一覧を取得
+  @Override
+  public List<Task> findByTeamId(String teamId) {
+    List<Task> list = new java.util.ArrayList<>();
+    try (Connection conn = pool.getConnection()) {
+      String sql = "SELECT * FROM tasks WHERE teamID = ?";
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, teamId);
+        ResultSet rs = pstmt.executeQuery();
+        while (rs.next()) {
+          Task task = new Task(
+              rs.getString("taskId"), rs.getString("taskName"),
+              rs.getString("description"), 
+              rs.getString("teamID"),
+              rs.getString("cycleType"));
+          
+          // dueDateがある場合は設定
+          if (rs.getString("dueDate") != null) {
+            task.setDueDate(java.time.LocalDate.parse(rs.getString("dueDate")));
+          }
+          
+          list.add(task);
+        }
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return list;
+  }
+
+  /*
+   * タスクIDでタスクを取得
+   */
+  @Override
+  public Task findById(String taskId) {
+    try (Connection conn = pool.getConnection()) {
+      String sql = "SELECT * FROM tasks WHERE taskId = ?";
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, taskId);
+        ResultSet rs = pstmt.executeQuery();
+        if (rs.next()) {
+          Task task = new Task(
+              rs.getString("taskId"), rs.getString("taskName"),
+              rs.getString("description"), 
+              rs.getString("teamID"),
+              rs.getString("dueDate") != null
+                  ? java.time.LocalDate.parse(rs.getString("dueDate"))
+                  : null,
+              rs.getString("cycleType"));
+          return task;
+        }
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
+
+  /**
+   * タスクIDでタスクを削除する
+   * @param taskId
+   */
+  @Override
+  public void deleteById(String taskId) {
+    try {
+        // 書き込みキューの1件として実行するため、関連レコードとまとめて
+        // 削除される（途中で失敗した場合はすべて取り消される）
+        String teamId = pool.write(conn -> {
+            // バージョン更新のため、削除前に所属チームを取得する
+            String found = null;
+            String teamSql = "SELECT teamID FROM tasks WHERE taskId = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(teamSql)) {
+                pstmt.setString(1, taskId);
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    found = rs.getString("teamID");
+                }
+            }
+
+            // user_task_statusesテーブルから関連レコードを削除
+            String delUserTaskStatusSql = "DELETE FROM user_task_statuses WHERE taskId = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(delUserTaskStatusSql)) {
+                pstmt.setString(1, taskId);
+                pstmt.executeUpdate();
+            }
+            String delArchiveSql = "DELETE FROM user_task_statuses_archive WHERE taskId = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(delArchiveSql)) {
+                pstmt.setString(1, taskId);
+                pstmt.executeUpdate();
+            }
+
+            // tasksテーブルからタスクを削除
+            String delTaskSql = "DELETE FROM tasks WHERE taskId = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(delTaskSql)) {
+                pstmt.setString(1, taskId);
+                pstmt.executeUpdate();
+            }
+            return found;
+        });
+        TeamVersions.bump(TeamVersions.Kind.TASKS, teamId);
+    } catch (SQLException e) {
+        e.printStackTrace();
+    }
+  }
+}
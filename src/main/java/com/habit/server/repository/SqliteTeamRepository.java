@@ -0,0 +1,435 @@
+package com.habit.server.repository;
+
+import com.habit.domain.Team;
+import com.habit.domain.util.Config;
+import java.sql.*;
+import java.util.List;
+
+public class SqliteTeamRepository implements TeamRepository {
+  private final ConnectionPool pool;
+
+  public SqliteTeamRepository() { this(Config.getDbUrl()); }
+
+  public SqliteTeamRepository(String DB_URL) {
+    this(ConnectionPool.shared(DB_URL));
+  }
+
+  public SqliteTeamRepository(ConnectionPool pool) {
+    this.pool = pool;
+    // テーブルは初回のみ SchemaMigrations で作成する
+    SchemaMigrations.ensure(pool);
+  }
+
+  // teamNameからteamIDを取得
+  @Override
+  public String findTeamIdByName(String teamName) {
+    try (Connection conn = pool.getConnection()) {
+      String sql = "SELECT id FROM teams WHERE teamName = ?";
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, teamName);
+        ResultSet rs = pstmt.executeQuery();
+        if (rs.next()) {
+          return rs.getString("id");
+        }
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
+
+  // 公開チーム名一覧(公開非公開の区別を廃止)
+  @Override
+  public List<String> findAllPublicTeamNames() {
+    List<String> names = new java.util.ArrayList<>();
+    try (Connection conn = pool.getConnection()) {
+      String sql = "SELECT teamName FROM teams";
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        ResultSet rs = pstmt.executeQuery();
+        while (rs.next()) {
+          names.add(rs.getString("teamName"));
+        }
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return names;
+  }
+
+  // 合言葉でチーム名を検索
+  @Override
+  public String findTeamNameByPasscode(String passcode) {
+    try (Connection conn = pool.getConnection()) {
+      String sql = "SELECT teamName FROM teams WHERE passcode = ?";
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, passcode);
+        ResultSet rs = pstmt.executeQuery();
+        if (rs.next()) {
+          return rs.getString("teamName");
+        }
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
+
+  // 合言葉でチームIDを検索
+  @Override
+  public String findTeamIdByPasscode(String passcode) {
+    try (Connection conn = pool.getConnection()) {
+      String sql = "SELECT id FROM teams WHERE passcode = ?";
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, passcode);
+        ResultSet rs = pstmt.executeQuery();
+        if (rs.next()) {
+          return rs.getString("id");
+        }
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
+
+  // teamIDからチーム名を取得
+  @Override
+  public String findTeamNameById(String teamID) {
+    try (Connection conn = pool.getConnection()) {
+      String sql = "SELECT teamName FROM teams WHERE id = ?";
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, teamID);
+        ResultSet rs = pstmt.executeQuery();
+        if (rs.next()) {
+          return rs.getString("teamName");
+        }
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
+
+  // メンバー追加の結果（-1: チームなし, 0: 上限到達, 1: 参加成功, 2: 既にメンバー）
+  private record JoinResult(int code, String teamID) {}
+
+  // 人数が上限未満のときだけ追加する。既にメンバーなら主キー
+  // (teamID, memberId) の重複として無視される
+  private static final String JOIN_SQL =
+      "INSERT OR IGNORE INTO team_members (teamID, memberId) "
+      + "SELECT id, ? FROM teams WHERE id = ? AND "
+      + "(SELECT COUNT(*) FROM team_members WHERE teamID = teams.id) "
+      + "< maxMembers";
+
+  // チーム名でメンバー追加
+  @Override
+  public int addMemberByTeamName(String teamName, String memberId) {
+    try {
+      // 人数の確認と追加は1つの INSERT 文で行う（書き込みキューの1件として
+      // 実行するため、同時に参加しても上限や重複の判定がずれない）
+      JoinResult result = pool.write(conn -> {
+        // まずteamID取得
+        String sql = "SELECT id FROM teams WHERE teamName = ?";
+        String teamID = null;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+          pstmt.setString(1, teamName);
+          ResultSet rs = pstmt.executeQuery();
+          if (rs.next()) {
+            teamID = rs.getString("id");
+          }
+        }
+        if (teamID == null)
+          return new JoinResult(-1, null); // チームが存在しない
+
+        try (PreparedStatement pstmt = conn.prepareStatement(JOIN_SQL)) {
+          pstmt.setString(1, memberId);
+          pstmt.setString(2, teamID);
+          if (pstmt.executeUpdate() > 0)
+            return new JoinResult(1, teamID); // 参加成功
+        }
+
+        // 追加されなかった理由（既にメンバーか、上限到達か）を確認
+        String checkSql =
+            "SELECT 1 FROM team_members WHERE teamID = ? AND memberId = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(checkSql)) {
+          pstmt.setString(1, teamID);
+          pstmt.setString(2, memberId);
+          ResultSet rs = pstmt.executeQuery();
+          if (rs.next())
+            return new JoinResult(2, teamID); // 既にメンバー
+        }
+        return new JoinResult(0, teamID); // 上限到達
+      });
+      if (result.code() == 1) {
+        TeamVersions.bump(TeamVersions.Kind.MEMBERS, result.teamID());
+      }
+      return result.code();
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return -1; // エラー
+  }
+
+  // 新しいsave: 追加情報も保存
+  @Override
+  public void save(Team team, String passcode, int maxMembers, String editPerm,
+                   List<String> members) {
+    try {
+      pool.write(conn -> {
+        String sql = "INSERT OR REPLACE INTO teams (id, teamName, passcode, "
+                     + "maxMembers, editPermission, creatorId) "
+                     + "VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+          pstmt.setString(1, team.getTeamID());
+          pstmt.setString(2, team.getteamName());
+          pstmt.setString(3, passcode);
+          pstmt.setInt(4, maxMembers);
+          pstmt.setString(5, editPerm);
+          pstmt.setString(6, team.getCreatorId());
+          pstmt.executeUpdate();
+        }
+        // メンバー保存
+        String delSql = "DELETE FROM team_members WHERE teamID = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(delSql)) {
+          pstmt.setString(1, team.getTeamID());
+          pstmt.executeUpdate();
+        }
+        // creatorIdも必ずメンバーに含める
+        String creatorId = team.getCreatorId();
+        List<String> allMembers = new java.util.ArrayList<>();
+        if (creatorId != null && !creatorId.isEmpty()) {
+          allMembers.add(creatorId);
+        }
+        for (String member : members) {
+          if (member != null && !member.isEmpty() &&
+              !allMembers.contains(member)) {
+            allMembers.add(member);
+          }
+        }
+        String insSql =
+            "INSERT INTO team_members (teamID, memberId) VALUES (?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(insSql)) {
+          for (String member : allMembers) {
+            pstmt.setString(1, team.getTeamID());
+            pstmt.setString(2, member);
+            pstmt.executeUpdate();
+          }
+        }
+        return null;
+      });
+      TeamVersions.bump(TeamVersions.Kind.MEMBERS, team.getTeamID());
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+ }
+    
+    /**
+     * 全チームID一覧を取得（タスク自動再設定用）
+     *
+     * @return 全チームのID一覧
+     *
+     * 【用途】
+     * TaskAutoResetServiceから呼び出され、
+     * 全チームのタスクを自動再設定する際に使用される
+     *
+     * 【取得対象】
+     * teamsテーブルの全レコードのidカラム
+     */
+    @Override
+    public List<String> findAllTeamIds() {
+        List<String> teamIds = new java.util.ArrayList<>();
+        try (Connection conn = pool.getConnection()) {
+            String sql = "SELECT id FROM teams";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    teamIds.add(rs.getString("id"));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return teamIds;
+    }
+
+  // 指定チームIDの全メンバーID一覧を返す
+  @Override
+  public List<String> findMemberIdsByTeamId(String teamId) {
+    try (Connection conn = pool.getConnection()) {
+      return findMemberIdsByTeamId(conn, teamId);
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return new java.util.ArrayList<>();
+  }
+
+  // 借りている接続をそのまま使う版（接続を二重に借りないようにするため）
+  private List<String> findMemberIdsByTeamId(Connection conn, String teamId)
+      throws SQLException {
+    List<String> memberIds = new java.util.ArrayList<>();
+    // team_membersから取得
+    String sql = "SELECT memberId FROM team_members WHERE teamID = ?";
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setString(1, teamId);
+      ResultSet rs = pstmt.executeQuery();
+      while (rs.next()) {
+        memberIds.add(rs.getString("memberId"));
+      }
+    }
+    // teamsテーブルのcreatorIdも追加（重複しない場合のみ）
+    String creatorSql = "SELECT creatorId FROM teams WHERE id = ?";
+    try (PreparedStatement pstmt = conn.prepareStatement(creatorSql)) {
+      pstmt.setString(1, teamId);
+      ResultSet rs = pstmt.executeQuery();
+      if (rs.next()) {
+        String creatorId = rs.getString("creatorId");
+        if (creatorId != null && !creatorId.isEmpty() &&
+            !memberIds.contains(creatorId)) {
+          memberIds.add(0, creatorId); // 先頭に追加（任意）
+        }
+      }
+    }
+    return memberIds;
+  }
+
+  // チームIDでチーム情報を取得
+  @Override
+  public Team findById(String teamId) {
+    try (Connection conn = pool.getConnection()) {
+      String sql = "SELECT * FROM teams WHERE id = ?";
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, teamId);
+        ResultSet rs = pstmt.executeQuery();
+        if (rs.next()) {
+          Team team = new Team(
+            rs.getString("id"),
+            rs.getString("teamName"),
+            rs.getString("creatorId"),
+            rs.getString("editPermission")
+          );
+          
+          // メンバー一覧を取得して設定
+          List<String> memberIds = findMemberIdsByTeamId(conn, teamId);
+          for (String memberId : memberIds) {
+            team.addMember(memberId);
+          }
+          
+          return team;
+        }
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
+
+  /**
+   * ユーザーが参加しているチームを参加した順に返す（/getJoinedTeamInfo 用）。
+   * team_members と teams を1回のクエリで引く。メンバー一覧は含まない。
+   */
+  @Override
+  public List<Team> findJoinedTeams(String userId) {
+    List<Team> teams = new java.util.ArrayList<>();
+    String sql = "SELECT t.id, t.teamName, t.creatorId, t.editPermission "
+                 + "FROM team_members m JOIN teams t ON t.id = m.teamID "
+                 + "WHERE m.memberId = ? ORDER BY m.rowid";
+    try (Connection conn = pool.getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setString(1, userId);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          teams.add(new Team(rs.getString(1), rs.getString(2),
+                             rs.getString(3), rs.getString(4)));
+        }
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return teams;
+  }
+
+  /*
+   * 指定されたチームIDのチームを削除する。
+   * 関連するデータも全て削除される。
+   */
+  @Override
+  public void delete(String teamId) {
+    try {
+        // 書き込みキューの1件として実行するため、関連データとまとめて
+        // 削除される（途中で失敗した場合はすべて取り消される）
+        pool.write(conn -> {
+            // 関連データの削除
+            // user_task_status
+            String delUserTaskStatusSql = "DELETE FROM user_task_statuses WHERE teamId = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(delUserTaskStatusSql)) {
+                pstmt.setString(1, teamId);
+                pstmt.executeUpdate();
+            }
+            String delArchiveSql = "DELETE FROM user_task_statuses_archive WHERE teamId = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(delArchiveSql)) {
+                pstmt.setString(1, teamId);
+                pstmt.executeUpdate();
+            }
+
+            // tasks
+            String delTasksSql = "DELETE FROM tasks WHERE teamID = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(delTasksSql)) {
+                pstmt.setString(1, teamId);
+                pstmt.executeUpdate();
+            }
+
+            // messages
+            String delMessagesSql = "DELETE FROM messages WHERE team_id = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(delMessagesSql)) {
+                pstmt.setString(1, teamId);
+                pstmt.executeUpdate();
+            }
+
+            // team_members
+            String delMembersSql = "DELETE FROM team_members WHERE teamID = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(delMembersSql)) {
+                pstmt.setString(1, teamId);
+                pstmt.executeUpdate();
+            }
+
+            // teams
+            String delTeamSql = "DELETE FROM teams WHERE id = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(delTeamSql)) {
+                pstmt.setString(1, teamId);
+                return pstmt.executeUpdate();
+            }
+        });
+        TeamVersions.bumpAll(teamId);
+    } catch (SQLException e) {
+        e.printStackTrace();
+    }
+  }
+
+  /**
+   * チームとメンバー構成を削除し、関連データの削除を TeamPurge に任せる。
+   * 削除待ちの記録はチームの削除と同じ書き込みで行う。
+   */
+  @Override
+  public void deleteInBackground(String teamId) {
+    try {
+      pool.write(conn -> {
+        String delMembersSql = "DELETE FROM team_members WHERE teamID = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(delMembersSql)) {
+          pstmt.setString(1, teamId);
+          pstmt.executeUpdate();
+        }
+        String delTeamSql = "DELETE FROM teams WHERE id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(delTeamSql)) {
+          pstmt.setString(1, teamId);
+          pstmt.executeUpdate();
+        }
+        TeamPurge.enqueue(conn, teamId);
+        return null;
+      });
+      TeamVersions.bumpAll(teamId);
+      TeamPurge.wake(pool);
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+  }
+}
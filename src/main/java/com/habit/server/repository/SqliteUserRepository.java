@@ -0,0 +1,186 @@
+package com.habit.server.repository;
+
+import com.habit.domain.User;
+import com.habit.domain.util.Config;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UserRepository の SQLite 実装（users テーブル）。
+ *
+ * 参加チームは team_members（チームID・メンバーIDの対応）だけで管理する。
+ * 読み込み時は idx_team_members_member で参加チームを引き、保存時は
+ * User の参加チームのうち未登録のものを team_members に追加する。
+ */
+public class SqliteUserRepository implements UserRepository {
+  // 参加した順（team_members への追加順）に返す
+  private static final String JOINED_TEAM_IDS =
+      "SELECT teamID FROM team_members WHERE memberId = ? ORDER BY rowid";
+  // 既に参加している場合は主キー (teamID, memberId) の重複として無視される
+  private static final String INSERT_MEMBERSHIP =
+      "INSERT OR IGNORE INTO team_members (teamID, memberId) VALUES (?, ?)";
+  // User.addSabotagePoints と同じく 0〜50 に丸める
+  private static final String INCREMENT_SABOTAGE_POINTS =
+      "UPDATE users SET sabotagePoints = "
+      + "MIN(50, MAX(0, COALESCE(sabotagePoints, 0) + ?)) WHERE userId = ?";
+
+  private final ConnectionPool pool;
+
+  public SqliteUserRepository() { this(Config.getDbUrl()); }
+
+  public SqliteUserRepository(String databaseUrl) {
+    this(ConnectionPool.shared(databaseUrl));
+  }
+
+  public SqliteUserRepository(ConnectionPool pool) {
+    this.pool = pool;
+    // テーブルは初回のみ SchemaMigrations で作成する
+    SchemaMigrations.ensure(pool);
+  }
+
+  @Override
+  public User findById(String userId) {
+    try (Connection conn = pool.getConnection()) {
+      String sql = "SELECT * FROM users WHERE userId = ?";
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, userId);
+        ResultSet rs = pstmt.executeQuery();
+        if (rs.next()) {
+          return mapRowToUser(conn, rs);
+        }
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
+
+  @Override
+  public User findByUsername(String username) {
+    try (Connection conn = pool.getConnection()) {
+      String sql = "SELECT * FROM users WHERE username = ?";
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, username);
+        ResultSet rs = pstmt.executeQuery();
+        if (rs.next()) {
+          return mapRowToUser(conn, rs);
+        }
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
+
+  /**
+   * ユーザーを保存する。参加チームは team_members に未登録のものだけを
+   * 追加する（既存の参加は削除しない）。
+   */
+  @Override
+  public void save(User user) {
+    try {
+      String sql = "INSERT OR REPLACE INTO users (userId, username, "
+                   + "hashedPassword, sabotagePoints, joinedTeamIds, "
+                   + "profileIconPath, bio) VALUES (?, ?, ?, ?, ?, ?, ?)";
+      List<String> added = pool.write(conn -> {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+          pstmt.setString(1, user.getUserId());
+          pstmt.setString(2, user.getUsername());
+          pstmt.setString(3, user.getPassword());
+          pstmt.setInt(4, user.getSabotagePoints());
+          pstmt.setString(5, null); // joinedTeamIds未使用（team_membersで管理）
+          pstmt.setString(6, null); // profileIconPath未使用
+          pstmt.setString(7, null); // bio未使用
+          pstmt.executeUpdate();
+        }
+        List<String> teamIds = new ArrayList<>();
+        try (PreparedStatement pstmt =
+                 conn.prepareStatement(INSERT_MEMBERSHIP)) {
+          for (String teamId : user.getJoinedTeamIds()) {
+            pstmt.setString(1, teamId);
+            pstmt.setString(2, user.getUserId());
+            if (pstmt.executeUpdate() > 0) {
+              teamIds.add(teamId);
+            }
+          }
+        }
+        return teamIds;
+      });
+      TeamVersions.bumpUsers();
+      for (String teamId : added) {
+        TeamVersions.bump(TeamVersions.Kind.MEMBERS, teamId);
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Override
+  public void updateSabotagePoints(String userId, int points) {
+    try {
+      String sql = "UPDATE users SET sabotagePoints = ? WHERE userId = ?";
+      pool.write(conn -> {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+          pstmt.setInt(1, points);
+          pstmt.setString(2, userId);
+          return pstmt.executeUpdate();
+        }
+      });
+      TeamVersions.bumpUsers();
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * サボりポイントを加算する。1つの UPDATE 文を全ユーザー分バッチ実行し、
+   * 書き込みキューの1回の書き込み（1トランザクション）で反映する。
+   */
+  @Override
+  public int incrementSabotagePoints(Map<String, Integer> deltas) {
+    if (deltas.isEmpty()) {
+      return 0;
+    }
+    try {
+      int updated = pool.write(conn -> {
+        try (PreparedStatement pstmt =
+                 conn.prepareStatement(INCREMENT_SABOTAGE_POINTS)) {
+          for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+            pstmt.setInt(1, delta.getValue());
+            pstmt.setString(2, delta.getKey());
+            pstmt.addBatch();
+          }
+          int count = 0;
+          for (int result : pstmt.executeBatch()) {
+            count += Math.max(result, 0);
+          }
+          return count;
+        }
+      });
+      TeamVersions.bumpUsers();
+      return updated;
+    } catch (SQLException e) {
+      e.printStackTrace();
+      return 0;
+    }
+  }
+
+  private User mapRowToUser(Connection conn, ResultSet rs)
+      throws SQLException {
+    User user = new User(rs.getString("userId"), rs.getString("username"),
+                         rs.getString("hashedPassword"));
+    user.setSabotagePoints(rs.getInt("sabotagePoints"));
+    // 参加チームを team_members から復元
+    try (PreparedStatement pstmt = conn.prepareStatement(JOINED_TEAM_IDS)) {
+      pstmt.setString(1, user.getUserId());
+      try (ResultSet teams = pstmt.executeQuery()) {
+        while (teams.next()) {
+          user.addJoinedTeamId(teams.getString(1));
+        }
+      }
+    }
+    return user;
+  }
+}
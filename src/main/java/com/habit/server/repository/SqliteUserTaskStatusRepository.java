@@ -0,0 +1,411 @@
+package com.habit.server.repository;
+
+import com.habit.domain.UserTaskStatus;
+import com.habit.domain.util.Config;
+import com.habit.server.repository.UserTaskStatusRows.DateQuery;
+import java.util.*;
+import java.time.LocalDate;
+import java.sql.*;
+
+/**
+ * UserTaskStatusRepository の SQLite 実装（user_task_statuses テーブル）
+ */
+public class SqliteUserTaskStatusRepository implements UserTaskStatusRepository {
+    private static final String SELECT = "SELECT " + UserTaskStatusRows.COLUMNS + " FROM user_task_statuses ";
+
+    // 日付で絞り込む検索（{date} は日付カラムの移行が済むまで TEXT の date、
+    // 済んだら整数の day になる。EpochDayBackfill を参照）
+    private static final DateQuery BY_TASK_AND_DATE =
+        DateQuery.of(SELECT + "WHERE taskId = ? AND {date} = ?");
+    private static final DateQuery BY_USER_TEAM_AND_DATE =
+        DateQuery.of(SELECT + "WHERE userId = ? AND teamId = ? AND {date} = ?");
+    private static final DateQuery BY_TEAM_AND_DATE =
+        DateQuery.of(SELECT + "WHERE teamId = ? AND {date} = ?");
+    private static final DateQuery BY_TEAM_AND_DATE_RANGE =
+        DateQuery.of(SELECT + "WHERE teamId = ? AND {date} >= ? AND {date} <= ?");
+    private static final DateQuery BY_USER_AND_DATE_WITH_TEAM =
+        DateQuery.of(SELECT + "WHERE userId = ? AND {date} = ? AND teamId IS NOT NULL");
+
+    private final ConnectionPool pool;
+
+    public SqliteUserTaskStatusRepository() {
+        this(Config.getDbUrl());
+    }
+
+    public SqliteUserTaskStatusRepository(String dbUrl) {
+        this(ConnectionPool.shared(dbUrl));
+    }
+
+    public SqliteUserTaskStatusRepository(ConnectionPool pool) {
+        this.pool = pool;
+        // テーブルは初回のみ SchemaMigrations で作成する
+        SchemaMigrations.ensure(pool);
+    }
+
+    // ユーザIDで検索
+    @Override
+    public List<UserTaskStatus> findByUserId(String userId) {
+        List<UserTaskStatus> result = new ArrayList<>();
+        try (Connection conn = pool.getConnection()) {
+            String sql = SELECT + "WHERE userId = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, userId);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    UserTaskStatus status = UserTaskStatusRows.map(rs);
+                    result.add(status);
+                }
+            }
+            // 保存期間を過ぎてアーカイブに移した行も含める
+            StatusArchiver.addArchived(pool, conn, result, "userId = ?", userId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+    // ユーザID・チームIDで検索
+    @Override
+    public List<UserTaskStatus> findByUserIdAndTeamId(String userId, String teamId) {
+        List<UserTaskStatus> result = new ArrayList<>();
+        try (Connection conn = pool.getConnection()) {
+            String sql = SELECT + "WHERE userId = ? AND teamId = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, userId);
+                pstmt.setString(2, teamId);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    UserTaskStatus status = UserTaskStatusRows.map(rs);
+                    result.add(status);
+                }
+            }
+            StatusArchiver.addArchived(pool, conn, result, "userId = ? AND teamId = ?", userId, teamId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    // userIdとteamIdで、そのユーザーが担当するチーム内タスクID一覧を取得
+    @Override
+    public List<String> findTaskIdsByUserIdAndTeamId(String userId, String teamId) {
+        List<String> result = new ArrayList<>();
+        try (Connection conn = pool.getConnection()) {
+            String sql = "SELECT taskId FROM user_task_statuses WHERE userId = ? AND teamId = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, userId);
+                pstmt.setString(2, teamId);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    result.add(rs.getString("taskId"));
+                }
+            }
+            StatusArchiver.addArchivedTaskIds(pool, conn, userId, teamId, result);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    // タスクIDで検索
+    @Override
+    public List<UserTaskStatus> findByTaskId(String taskId) {
+        List<UserTaskStatus> result = new ArrayList<>();
+        try (Connection conn = pool.getConnection()) {
+            String sql = SELECT + "WHERE taskId = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, taskId);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    UserTaskStatus status = UserTaskStatusRows.map(rs);
+                    result.add(status);
+                }
+            }
+            StatusArchiver.addArchived(pool, conn, result, "taskId = ?", taskId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    // ユーザID・タスクIDで検索
+    @Override
+    public Optional<UserTaskStatus> findByUserIdAndTaskId(String userId, String taskId) {
+        try (Connection conn = pool.getConnection()) {
+            String sql = SELECT + "WHERE userId = ? AND taskId = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, userId);
+                pstmt.setString(2, taskId);
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    return Optional.of(UserTaskStatusRows.map(rs));
+                }
+            }
+            // user_task_statuses になければアーカイブから探す
+            List<UserTaskStatus> archived = new ArrayList<>();
+            StatusArchiver.addArchived(pool, conn, archived, "userId = ? AND taskId = ?", userId, taskId);
+            if (!archived.isEmpty()) {
+                return Optional.of(archived.get(0));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Optional.empty();
+    }
+
+    // タスクID・日付で検索
+    @Override
+    public List<UserTaskStatus> findByTaskIdAndDate(String taskId, LocalDate date) {
+        List<UserTaskStatus> result = new ArrayList<>();
+        boolean epochDays = EpochDayBackfill.isComplete(pool);
+        try (Connection conn = pool.getConnection()) {
+            String sql = BY_TASK_AND_DATE.sql(epochDays);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, taskId);
+                UserTaskStatusRows.bindDate(pstmt, 2, date, epochDays);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    result.add(UserTaskStatusRows.map(rs));
+                }
+            }
+            if (StatusArchiver.isArchived(pool, conn, date)) {
+                StatusArchiver.addArchived(pool, conn, result, "taskId = ? AND day = ?", taskId, date.toEpochDay());
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+
+    // ユーザID・タスクID・日付で検索
+    @Override
+    public Optional<UserTaskStatus> findByUserIdAndTaskIdAndDate(String userId, String taskId, LocalDate date) {
+        try (Connection conn = pool.getConnection()) {
+            String sql = SELECT + "WHERE userId = ? AND taskId = ? AND date = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, userId);
+                pstmt.setString(2, taskId);
+                pstmt.setString(3, date.toString());
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    return Optional.of(UserTaskStatusRows.map(rs));
+                }
+            }
+            if (StatusArchiver.isArchived(pool, conn, date)) {
+                List<UserTaskStatus> archived = new ArrayList<>();
+                StatusArchiver.addArchived(pool, conn, archived, "userId = ? AND taskId = ? AND day = ?", userId, taskId, date.toEpochDay());
+                if (!archived.isEmpty()) {
+                    return Optional.of(archived.get(0));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Optional.empty();
+    }
+
+    // ユーザー・チーム・日付で一括取得
+    @Override
+    public List<UserTaskStatus> findByUserIdAndTeamIdAndDate(String userId, String teamId, LocalDate date) {
+        List<UserTaskStatus> result = new ArrayList<>();
+        boolean epochDays = EpochDayBackfill.isComplete(pool);
+        try (Connection conn = pool.getConnection()) {
+            String sql = BY_USER_TEAM_AND_DATE.sql(epochDays);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, userId);
+                pstmt.setString(2, teamId);
+                UserTaskStatusRows.bindDate(pstmt, 3, date, epochDays);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    UserTaskStatus status = UserTaskStatusRows.map(rs);
+                    result.add(status);
+                }
+            }
+            if (StatusArchiver.isArchived(pool, conn, date)) {
+                StatusArchiver.addArchived(pool, conn, result, "userId = ? AND teamId = ? AND day = ?", userId, teamId, date.toEpochDay());
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    // チームID・日付で全メンバー分の進捗を取得
+    @Override
+    public List<UserTaskStatus> findByTeamIdAndDate(String teamId, LocalDate date) {
+        List<UserTaskStatus> result = new ArrayList<>();
+        boolean epochDays = EpochDayBackfill.isComplete(pool);
+        try (Connection conn = pool.getConnection()) {
+            String sql = BY_TEAM_AND_DATE.sql(epochDays);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, teamId);
+                UserTaskStatusRows.bindDate(pstmt, 2, date, epochDays);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    UserTaskStatus status = UserTaskStatusRows.map(rs);
+                    result.add(status);
+                }
+            }
+            if (StatusArchiver.isArchived(pool, conn, date)) {
+                StatusArchiver.addArchived(pool, conn, result, "teamId = ? AND day = ?", teamId, date.toEpochDay());
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    // チームID・日付範囲で全メンバー分の進捗を取得
+    @Override
+    public List<UserTaskStatus> findByTeamIdAndDateRange(String teamId, LocalDate from, LocalDate to) {
+        List<UserTaskStatus> result = new ArrayList<>();
+        boolean epochDays = EpochDayBackfill.isComplete(pool);
+        try (Connection conn = pool.getConnection()) {
+            String sql = BY_TEAM_AND_DATE_RANGE.sql(epochDays);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, teamId);
+                UserTaskStatusRows.bindDate(pstmt, 2, from, epochDays);
+                UserTaskStatusRows.bindDate(pstmt, 3, to, epochDays);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    UserTaskStatus status = UserTaskStatusRows.map(rs);
+                    result.add(status);
+                }
+            }
+            // 保存期間を過ぎてアーカイブに移した行も含める
+            StatusArchiver.addArchived(pool, conn, teamId, from, to, result);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    // 保存・更新
+    @Override
+    public void save(UserTaskStatus status) {
+        try {
+            String sql = "INSERT OR REPLACE" + UserTaskStatusRows.INSERT;
+            pool.write(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    UserTaskStatusRows.bindInsert(pstmt, status);
+                    return pstmt.executeUpdate();
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 複数のUserTaskStatusを1回の書き込み（1トランザクション・JDBCバッチ）で
+     * 保存・更新する。既存の行は save() と同じく置き換える。
+     *
+     * @return 書き込んだ件数
+     */
+    @Override
+    public int saveAll(Collection<UserTaskStatus> statuses) {
+        return writeBatch("INSERT OR REPLACE", statuses);
+    }
+
+    /**
+     * まだ存在しない（userId, taskId, date が一致する行がない）UserTaskStatusだけを
+     * 1回の書き込み（1トランザクション・JDBCバッチ）で追加する。
+     * 既存の行（達成状況）は変更しない。
+     *
+     * @return 新しく追加した件数
+     */
+    @Override
+    public int insertMissing(Collection<UserTaskStatus> statuses) {
+        return writeBatch("INSERT OR IGNORE", statuses);
+    }
+
+    private int writeBatch(String insert, Collection<UserTaskStatus> statuses) {
+        if (statuses.isEmpty()) {
+            return 0;
+        }
+        String sql = insert + UserTaskStatusRows.INSERT;
+        try {
+            return pool.write(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (UserTaskStatus status : statuses) {
+                        UserTaskStatusRows.bindInsert(pstmt, status);
+                        pstmt.addBatch();
+                    }
+                    int written = 0;
+                    for (int count : pstmt.executeBatch()) {
+                        written += Math.max(count, 0);
+                    }
+                    return written;
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    // 全件取得
+    @Override
+    public List<UserTaskStatus> findAll() {
+        List<UserTaskStatus> result = new ArrayList<>();
+        try (Connection conn = pool.getConnection()) {
+            String sql = SELECT;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    UserTaskStatus status = UserTaskStatusRows.map(rs);
+                    result.add(status);
+                }
+            }
+            StatusArchiver.addArchived(pool, conn, result, "1 = 1");
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    // ユーザID・タスクIDで、本日以降の未完了のUserTaskStatusを検索し、最も日付が近いものを返す
+    @Override
+    public Optional<UserTaskStatus> findUpcomingIncompleteByUserIdAndTaskId(String userId, String taskId) {
+        try (Connection conn = pool.getConnection()) {
+            String sql = SELECT + "WHERE userId = ? AND taskId = ? AND date >= ? AND isDone = 0 ORDER BY date ASC LIMIT 1";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, userId);
+                pstmt.setString(2, taskId);
+                pstmt.setString(3, LocalDate.now().toString());
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    return Optional.of(UserTaskStatusRows.map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Optional.empty();
+    }
+
+    // teamIdがnullでないユーザーのタスク状況を取得（チーム共通タスクのみ）
+    @Override
+    public List<UserTaskStatus> findByUserIdAndDateAndTeamIdNotNull(String userId, LocalDate date) {
+        List<UserTaskStatus> result = new ArrayList<>();
+        boolean epochDays = EpochDayBackfill.isComplete(pool);
+        try (Connection conn = pool.getConnection()) {
+            String sql = BY_USER_AND_DATE_WITH_TEAM.sql(epochDays);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, userId);
+                UserTaskStatusRows.bindDate(pstmt, 2, date, epochDays);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    UserTaskStatus status = UserTaskStatusRows.map(rs);
+                    result.add(status);
+                }
+            }
+            if (StatusArchiver.isArchived(pool, conn, date)) {
+                StatusArchiver.addArchived(pool, conn, result, "userId = ? AND day = ? AND teamId IS NOT NULL", userId, date.toEpochDay());
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+}
\ No newline at end of file
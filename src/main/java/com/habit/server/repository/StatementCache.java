@@ -0,0 +1,206 @@
+package com.habit.server.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 1つの物理接続に紐づく、SQL文字列をキーにしたPreparedStatementのLRUキャッシュ。
+ *
+ * プールの接続で prepareStatement(sql) を呼ぶと、同じSQLの準備済み文を
+ * 再利用する（SQLの解析・実行計画の作成を省略する）。返される文の close() は
+ * 物理的なクローズではなく、結果セットを閉じてパラメータを消去し、
+ * キャッシュに戻す。
+ *
+ * - 同じSQLの文が使用中の場合は、キャッシュしない文を新しく準備して返す
+ * - maxSize を超えたら最も長く使われていない文を閉じる
+ * - 接続は同時に1スレッドしか使わないため、キャッシュ自体は同期しない
+ */
+final class StatementCache {
+  private static final Logger logger =
+      LoggerFactory.getLogger(StatementCache.class);
+
+  /** プール全体で共有する統計情報。 */
+  static final class Stats {
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder evictions = new LongAdder();
+
+    JSONObject toJson(int maxSize) {
+      JSONObject json = new JSONObject();
+      long hitCount = hits.sum();
+      long total = hitCount + misses.sum();
+      json.put("maxSize", maxSize);
+      json.put("hits", hitCount);
+      json.put("misses", misses.sum());
+      json.put("evictions", evictions.sum());
+      json.put("hitRate", total == 0 ? 0.0 : (double)hitCount / total);
+      return json;
+    }
+  }
+
+  private final Connection physical;
+  private final int maxSize;
+  private final Stats stats;
+  // アクセス順（先頭が最も長く使われていない文）
+  private final LinkedHashMap<String, Entry> entries =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  StatementCache(Connection physical, int maxSize, Stats stats) {
+    this.physical = physical;
+    this.maxSize = maxSize;
+    this.stats = stats;
+  }
+
+  /**
+   * SQLに対応する準備済み文を返す。
+   *
+   * @param owner 文の getConnection() で返す接続（プールの貸し出し接続）
+   */
+  PreparedStatement prepare(Connection owner, String sql) throws SQLException {
+    Entry entry = entries.get(sql);
+    if (entry != null && !entry.inUse) {
+      stats.hits.increment();
+      entry.inUse = true;
+      return entry.proxy;
+    }
+    stats.misses.increment();
+    if (entry != null || maxSize <= 0) {
+      // 同じSQLの文を入れ子で使っている場合などはキャッシュしない
+      return physical.prepareStatement(sql);
+    }
+    entry = new Entry(owner, physical.prepareStatement(sql));
+    entry.inUse = true;
+    entries.put(sql, entry);
+    evictIfNeeded();
+    return entry.proxy;
+  }
+
+  /**
+   * 接続の返却時に呼ぶ。閉じ忘れた文をキャッシュに戻す。
+   */
+  void releaseAll() {
+    List<Entry> leaked = new ArrayList<>();
+    for (Entry entry : entries.values()) {
+      if (entry.inUse) {
+        leaked.add(entry);
+      }
+    }
+    for (Entry entry : leaked) {
+      entry.release();
+    }
+  }
+
+  int size() { return entries.size(); }
+
+  private void evictIfNeeded() {
+    Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+    while (entries.size() > maxSize && it.hasNext()) {
+      Entry eldest = it.next().getValue();
+      it.remove();
+      stats.evictions.increment();
+      if (eldest.inUse) {
+        // 使用中の文は返却時に閉じる
+        eldest.evicted = true;
+      } else {
+        eldest.closePhysical();
+      }
+    }
+  }
+
+  private final class Entry implements InvocationHandler {
+    final PreparedStatement statement;
+    final PreparedStatement proxy;
+    final Connection owner;
+    ResultSet resultSet;
+    boolean inUse;
+    boolean evicted;
+
+    Entry(Connection owner, PreparedStatement statement) {
+      this.owner = owner;
+      this.statement = statement;
+      this.proxy = (PreparedStatement)Proxy.newProxyInstance(
+          PreparedStatement.class.getClassLoader(),
+          new Class<?>[] {PreparedStatement.class}, this);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args)
+        throws Throwable {
+      switch (method.getName()) {
+      case "close":
+        if (inUse) {
+          release();
+        }
+        return null;
+      case "isClosed":
+        return !inUse || statement.isClosed();
+      case "getConnection":
+        return owner;
+      case "equals":
+        return proxy == args[0];
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "toString":
+        return "Cached[" + statement + "]";
+      default:
+        if (!inUse) {
+          throw new SQLException("クローズ済みの文は使用できません");
+        }
+        try {
+          Object result = method.invoke(statement, args);
+          if (result instanceof ResultSet rs) {
+            resultSet = rs;
+          }
+          return result;
+        } catch (InvocationTargetException e) {
+          throw e.getCause();
+        }
+      }
+    }
+
+    // 結果セットを閉じ（SQLiteの文をリセットし）、パラメータを消去する
+    void release() {
+      inUse = false;
+      try {
+        if (resultSet != null) {
+          resultSet.close();
+          resultSet = null;
+        }
+        statement.clearParameters();
+        statement.clearBatch();
+      } catch (SQLException e) {
+        logger.debug("キャッシュした文のリセットに失敗しました: {}",
+                     e.getMessage());
+        evicted = true;
+        entries.values().remove(this);
+      }
+      if (evicted) {
+        closePhysical();
+      }
+    }
+
+    void closePhysical() {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        logger.debug("キャッシュした文のクローズに失敗しました: {}",
+                     e.getMessage());
+      }
+    }
+  }
+}
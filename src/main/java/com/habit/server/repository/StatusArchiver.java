@@ -0,0 +1,410 @@
+package com.habit.server.repository;
+
+import com.habit.domain.UserTaskStatus;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 古い達成状況を user_task_statuses からアーカイブのテーブルへ移す。
+ *
+ * タスク自動再設定はメンバー×タスク×日ごとに行を作り続けるため、
+ * user_task_statuses は使うほど大きくなる。保存期間（horizonDays）より前の
+ * 行は、バックグラウンドで user_task_statuses_archive に移す。
+ *
+ * - アーカイブは整数の日付（day・completedAt）だけを持つ WITHOUT ROWID の
+ *   テーブルで、TEXT の date / completionTimestamp は持たない
+ * - 移動は rowid の範囲ごとに書き込みキューの1件の書き込みとして実行する
+ *   （移動中も通常の書き込みは長く待たされない）
+ * - SqliteUserTaskStatusRepository の検索は、アーカイブの行も合わせて返す
+ *   （addArchived）。日付を指定する検索は、その日付がアーカイブ済みの場合
+ *   だけアーカイブを読む。アーカイブが空なら追加の検索はしない
+ * - 日付カラムの移行（EpochDayBackfill）が終わるまでは移さない
+ */
+public final class StatusArchiver implements AutoCloseable {
+  private static final Logger logger =
+      LoggerFactory.getLogger(StatusArchiver.class);
+
+  static final String TABLE = "user_task_statuses_archive";
+
+  // 1回の書き込みで確認する rowid の幅
+  static final int WINDOW = 2000;
+
+  private static final String MOVE_WHERE =
+      " FROM user_task_statuses WHERE rowid > ? AND rowid <= ? AND day < ? "
+      + "AND userId IS NOT NULL AND taskId IS NOT NULL";
+  private static final String COPY =
+      "INSERT OR REPLACE INTO " + TABLE
+      + " (taskId, userId, teamId, day, isDone, completedAt) "
+      + "SELECT taskId, userId, teamId, day, isDone, completedAt" + MOVE_WHERE;
+  private static final String DELETE = "DELETE" + MOVE_WHERE;
+  private static final String SELECT =
+      "SELECT userId, taskId, teamId, day, isDone, completedAt FROM " + TABLE
+      + " WHERE ";
+  static final String TEAM_AND_DAY_RANGE = "teamId = ? AND day >= ? AND day <= ?";
+  static final String BY_TEAM_AND_DAY_RANGE = SELECT + TEAM_AND_DAY_RANGE;
+
+  // プールごとの、アーカイブに移した可能性のある日付の上限（エポック日、
+  // この日を含まない）。データベースファイルの世代ごとに持つ
+  private record Watermark(int generation, long before) {}
+
+  private static final Map<ConnectionPool, Watermark> WATERMARKS =
+      new ConcurrentHashMap<>();
+
+  private final ConnectionPool pool;
+  private final Clock clock;
+  private final int horizonDays;
+  private final long intervalMillis;
+  private final LongAdder passes = new LongAdder();
+  private final LongAdder archived = new LongAdder();
+  private volatile long hotRows = -1;
+  private volatile long archiveRows = -1;
+  private volatile long lastPassMillis;
+  private volatile boolean closed;
+  private volatile Thread thread;
+
+  private StatusArchiver(ConnectionPool pool, Clock clock, int horizonDays,
+                         long intervalMillis) {
+    this.pool = pool;
+    this.clock = clock;
+    this.horizonDays = horizonDays;
+    this.intervalMillis = intervalMillis;
+  }
+
+  // v9: アーカイブのテーブル。タスクでの削除は主キー、チーム・日付範囲での
+  // 検索はインデックスを使う
+  static Void createTable(Connection conn) throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                   + "taskId TEXT NOT NULL,"
+                   + "userId TEXT NOT NULL,"
+                   + "teamId TEXT,"
+                   + "day INTEGER NOT NULL,"
+                   + "isDone INTEGER,"
+                   + "completedAt INTEGER,"
+                   + "PRIMARY KEY(taskId, userId, day)) WITHOUT ROWID");
+      stmt.execute("CREATE INDEX IF NOT EXISTS idx_uts_archive_team_day "
+                   + "ON " + TABLE + " (teamId, day)");
+    }
+    return null;
+  }
+
+  // v10: ユーザーでの検索（findByUserId・findByUserIdAndTeamId）用のインデックス
+  static Void addUserIndex(Connection conn) throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE INDEX IF NOT EXISTS idx_uts_archive_user_team "
+                   + "ON " + TABLE + " (userId, teamId)");
+    }
+    return null;
+  }
+
+  /**
+   * アーカイブを開始する。intervalMinutes ごとに、今日から horizonDays 日より
+   * 前の行を移す。horizonDays が0以下なら移さない（件数の報告だけ行う）。
+   */
+  public static StatusArchiver start(ConnectionPool pool, Clock clock,
+                                     int horizonDays, int intervalMinutes) {
+    SchemaMigrations.ensure(pool);
+    StatusArchiver archiver = new StatusArchiver(
+        pool, clock, horizonDays,
+        TimeUnit.MINUTES.toMillis(Math.max(1, intervalMinutes)));
+    Thread t = new Thread(archiver::run, "status-archiver");
+    t.setDaemon(true);
+    archiver.thread = t;
+    t.start();
+    return archiver;
+  }
+
+  /** 今日から horizonDays 日前（この日より前の行を移す）。 */
+  public LocalDate cutoff() {
+    return LocalDate.now(clock).minusDays(horizonDays);
+  }
+
+  private void run() {
+    while (!closed) {
+      long wait = intervalMillis;
+      try {
+        if (horizonDays <= 0) {
+          countRows();
+        } else if (EpochDayBackfill.isComplete(pool)) {
+          archiveBefore(cutoff());
+        } else {
+          // 日付カラムの移行が終わってから移す
+          wait = Math.min(wait, 10_000);
+        }
+      } catch (SQLException | RuntimeException e) {
+        if (!closed) {
+          logger.error("達成状況のアーカイブに失敗しました", e);
+        }
+      }
+      try {
+        Thread.sleep(wait);
+      } catch (InterruptedException e) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * day が before より前の行をアーカイブに移す。
+   *
+   * @return 移した行数
+   */
+  public synchronized long archiveBefore(LocalDate before) throws SQLException {
+    long start = System.nanoTime();
+    long cutoffDay = before.toEpochDay();
+    long maxRowid;
+    try (Connection conn = pool.getConnection()) {
+      // 移している間の検索がアーカイブも読むように、先に上限を上げる
+      raiseWatermark(conn, cutoffDay);
+      try (Statement stmt = conn.createStatement();
+           ResultSet rs = stmt.executeQuery(
+               "SELECT MAX(rowid) FROM user_task_statuses")) {
+        maxRowid = rs.next() ? rs.getLong(1) : 0;
+      }
+    }
+    long moved = 0;
+    for (long from = 0; from < maxRowid && !closed; from += WINDOW) {
+      long lower = from;
+      moved += pool.write(conn -> moveWindow(conn, lower, lower + WINDOW,
+                                             cutoffDay));
+    }
+    archived.add(moved);
+    passes.increment();
+    lastPassMillis = (System.nanoTime() - start) / 1_000_000;
+    countRows();
+    if (moved > 0) {
+      logger.info("{}より前の達成状況を{}件アーカイブしました（{}ms、残り{}件）",
+                  before, moved, lastPassMillis, hotRows);
+    }
+    return moved;
+  }
+
+  // rowid が (from, to] の範囲で day が cutoffDay より前の行を移す
+  private static int moveWindow(Connection conn, long from, long to,
+                                long cutoffDay) throws SQLException {
+    try (PreparedStatement copy = conn.prepareStatement(COPY)) {
+      bindWindow(copy, from, to, cutoffDay);
+      copy.executeUpdate();
+    }
+    try (PreparedStatement delete = conn.prepareStatement(DELETE)) {
+      bindWindow(delete, from, to, cutoffDay);
+      return delete.executeUpdate();
+    }
+  }
+
+  private static void bindWindow(PreparedStatement pstmt, long from, long to,
+                                 long cutoffDay) throws SQLException {
+    pstmt.setLong(1, from);
+    pstmt.setLong(2, to);
+    pstmt.setLong(3, cutoffDay);
+  }
+
+  // user_task_statuses とアーカイブの行数を数え直す
+  private void countRows() throws SQLException {
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement()) {
+      try (ResultSet rs =
+               stmt.executeQuery("SELECT COUNT(*) FROM user_task_statuses")) {
+        hotRows = rs.next() ? rs.getLong(1) : 0;
+      }
+      try (ResultSet rs =
+               stmt.executeQuery("SELECT COUNT(*) FROM " + TABLE)) {
+        archiveRows = rs.next() ? rs.getLong(1) : 0;
+      }
+    }
+  }
+
+  private void raiseWatermark(Connection conn, long cutoffDay)
+      throws SQLException {
+    long current = archivedBefore(pool, conn);
+    if (cutoffDay > current) {
+      WATERMARKS.put(pool, new Watermark(pool.generation(), cutoffDay));
+    }
+  }
+
+  /**
+   * アーカイブに移した可能性のある日付の上限（エポック日、この日を含まない）。
+   * プールで初めて呼ばれたときはアーカイブの最新の日付から求める。
+   */
+  static long archivedBefore(ConnectionPool pool, Connection conn)
+      throws SQLException {
+    Watermark watermark = WATERMARKS.get(pool);
+    if (watermark != null && watermark.generation() == pool.generation()) {
+      return watermark.before();
+    }
+    long before = Long.MIN_VALUE;
+    try (Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT MAX(day) FROM " + TABLE)) {
+      if (rs.next()) {
+        long max = rs.getLong(1);
+        if (!rs.wasNull()) {
+          before = max + 1;
+        }
+      }
+    }
+    WATERMARKS.put(pool, new Watermark(pool.generation(), before));
+    return before;
+  }
+
+  /**
+   * date がアーカイブに移した可能性のある日付かどうか。
+   */
+  static boolean isArchived(ConnectionPool pool, Connection conn,
+                            LocalDate date) throws SQLException {
+    return date.toEpochDay() < archivedBefore(pool, conn);
+  }
+
+  /**
+   * チーム・日付範囲の検索結果に、アーカイブに移した行を加える。
+   * 範囲がアーカイブ済みの日付にかからなければアーカイブは読まない。
+   */
+  static void addArchived(ConnectionPool pool, Connection conn, String teamId,
+                          LocalDate from, LocalDate to,
+                          List<UserTaskStatus> result) throws SQLException {
+    long before = archivedBefore(pool, conn);
+    long first = from.toEpochDay();
+    if (first >= before) {
+      return;
+    }
+    addArchived(pool, conn, result, TEAM_AND_DAY_RANGE, teamId, first,
+                Math.min(to.toEpochDay(), before - 1));
+  }
+
+  /**
+   * 検索結果に、同じ条件に合うアーカイブの行を加える。アーカイブが空なら
+   * 読まない。移動中の行が両方に見える場合は user_task_statuses の行を使う
+   * （user_task_statuses を先に読んでおくこと）。
+   *
+   * @param where アーカイブに対する条件（例: "userId = ? AND teamId = ?"）
+   * @param params 条件に渡す値（String または Long）
+   */
+  static void addArchived(ConnectionPool pool, Connection conn,
+                          List<UserTaskStatus> result, String where,
+                          Object... params) throws SQLException {
+    if (archivedBefore(pool, conn) == Long.MIN_VALUE) {
+      return;
+    }
+    List<UserTaskStatus> archivedRows = new ArrayList<>();
+    try (PreparedStatement pstmt = conn.prepareStatement(SELECT + where)) {
+      for (int i = 0; i < params.length; i++) {
+        pstmt.setObject(i + 1, params[i]);
+      }
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          archivedRows.add(map(rs));
+        }
+      }
+    }
+    if (archivedRows.isEmpty()) {
+      return;
+    }
+    Set<String> hotKeys = new HashSet<>();
+    for (UserTaskStatus status : result) {
+      hotKeys.add(key(status));
+    }
+    List<UserTaskStatus> merged = new ArrayList<>(archivedRows.size() +
+                                                  result.size());
+    for (UserTaskStatus status : archivedRows) {
+      if (!hotKeys.contains(key(status))) {
+        merged.add(status);
+      }
+    }
+    merged.addAll(result);
+    result.clear();
+    result.addAll(merged);
+  }
+
+  /**
+   * ユーザー・チームのタスクID一覧に、アーカイブにだけ残っているタスクIDを加える。
+   */
+  static void addArchivedTaskIds(ConnectionPool pool, Connection conn,
+                                 String userId, String teamId,
+                                 List<String> result) throws SQLException {
+    if (archivedBefore(pool, conn) == Long.MIN_VALUE) {
+      return;
+    }
+    Set<String> known = new HashSet<>(result);
+    try (PreparedStatement pstmt = conn.prepareStatement(
+             "SELECT DISTINCT taskId FROM " + TABLE
+             + " WHERE userId = ? AND teamId = ?")) {
+      pstmt.setString(1, userId);
+      pstmt.setString(2, teamId);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          String taskId = rs.getString(1);
+          if (known.add(taskId)) {
+            result.add(taskId);
+          }
+        }
+      }
+    }
+  }
+
+  private static String key(UserTaskStatus status) {
+    return status.getUserId() + '\u0000' + status.getTaskId() + '\u0000' +
+        status.getDate();
+  }
+
+  // SELECT の行を UserTaskStatus に変換する
+  private static UserTaskStatus map(ResultSet rs) throws SQLException {
+    String teamId = rs.getString(3);
+    LocalDate date = LocalDate.ofEpochDay(rs.getLong(4));
+    boolean isDone = rs.getInt(5) == 1;
+    UserTaskStatus status =
+        teamId != null
+            ? new UserTaskStatus(rs.getString(1), rs.getString(2), teamId,
+                                 date, isDone)
+            : new UserTaskStatus(rs.getString(1), rs.getString(2), date,
+                                 isDone);
+    long completedAt = rs.getLong(6);
+    if (!rs.wasNull()) {
+      status.setCompletionTimestamp(
+          UserTaskStatusRows.fromEpochMilli(completedAt));
+    }
+    return status;
+  }
+
+  public JSONObject toJson() {
+    JSONObject json = new JSONObject();
+    json.put("horizonDays", horizonDays);
+    json.put("passes", passes.sum());
+    json.put("archived", archived.sum());
+    json.put("lastPassMillis", lastPassMillis);
+    json.put("hotRows", hotRows);
+    json.put("archiveRows", archiveRows);
+    return json;
+  }
+
+  /**
+   * バックグラウンドのアーカイブを止める（残りは次回の起動後に移す）。
+   */
+  @Override
+  public void close() {
+    closed = true;
+    Thread t = thread;
+    if (t != null) {
+      t.interrupt();
+      try {
+        t.join(1000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
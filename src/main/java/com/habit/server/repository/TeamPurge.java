@@ -0,0 +1,253 @@
+package com.habit.server.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 削除したチームの関連データ（達成状況とそのアーカイブ・タスク・チャット）を
+ * バックグラウンドで少しずつ削除する。
+ *
+ * 長く使われたチームは達成状況やチャットの行が多く、1つのトランザクションで
+ * まとめて削除すると、その間ほかの書き込みが書き込みキューで待たされる。
+ * SqliteTeamRepository.deleteInBackground() はチームとメンバー構成だけを
+ * すぐに削除し、削除待ちのチームIDを team_deletions テーブルに記録する。
+ * 関連データはここで CHUNK_SIZE 行ずつ削除する。
+ *
+ * - 各チャンクは書き込みキューの1件の書き込みとして実行するため、削除中も
+ *   通常の書き込みは長く待たされない
+ * - 削除待ちは team_deletions に残るため、途中でサーバーが止まっても
+ *   次回の起動時に続きから削除する
+ * - すべて削除したら team_deletions の行を削除する
+ */
+public final class TeamPurge implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(TeamPurge.class);
+
+  static final int CHUNK_SIZE = 500;
+
+  // チームの関連データを最大 CHUNK_SIZE 行削除する文。
+  // TeamRepository.delete と同じく達成状況から順に削除する
+  static final List<String> CHUNK_DELETES =
+      List.of(chunkDelete("user_task_statuses", "rowid", "teamId"),
+              // アーカイブは WITHOUT ROWID のため主キーで指定する
+              chunkDelete(StatusArchiver.TABLE, "(taskId, userId, day)",
+                          "teamId"),
+              chunkDelete("tasks", "rowid", "teamID"),
+              chunkDelete("messages", "rowid", "team_id"));
+
+  // プールごとの削除スレッド（リポジトリが起こす）
+  private static final Map<ConnectionPool, TeamPurge> PURGES =
+      new ConcurrentHashMap<>();
+
+  private final ConnectionPool pool;
+  private final Semaphore wakeUp = new Semaphore(0);
+  private final LongAdder teams = new LongAdder();
+  private final LongAdder rows = new LongAdder();
+  private final LongAdder chunks = new LongAdder();
+  private volatile boolean closed;
+  private volatile Thread thread;
+
+  private TeamPurge(ConnectionPool pool) { this.pool = pool; }
+
+  // v8: 削除待ちのチームを記録するテーブル
+  static Void createTable(Connection conn) throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE IF NOT EXISTS team_deletions ("
+                   + "teamId TEXT PRIMARY KEY,"
+                   + "requestedAt TEXT DEFAULT CURRENT_TIMESTAMP)");
+    }
+    return null;
+  }
+
+  /**
+   * プールのデータベースの削除スレッドを開始する。削除待ちのチームが
+   * 残っていれば続きから削除する。
+   */
+  public static TeamPurge start(ConnectionPool pool) {
+    SchemaMigrations.ensure(pool);
+    TeamPurge purge = new TeamPurge(pool);
+    TeamPurge previous = PURGES.put(pool, purge);
+    if (previous != null) {
+      previous.close();
+    }
+    Thread t = new Thread(purge::run, "team-purge");
+    t.setDaemon(true);
+    purge.thread = t;
+    t.start();
+    return purge;
+  }
+
+  /**
+   * 削除待ちのチームを記録する（チームの削除と同じ書き込みの中で呼ぶ）。
+   */
+  static void enqueue(Connection conn, String teamId) throws SQLException {
+    try (PreparedStatement pstmt = conn.prepareStatement(
+             "INSERT OR IGNORE INTO team_deletions (teamId) VALUES (?)")) {
+      pstmt.setString(1, teamId);
+      pstmt.executeUpdate();
+    }
+  }
+
+  /**
+   * 削除スレッドを起こす。スレッドを開始していないプールでは、
+   * 呼び出したスレッドで削除待ちをすべて削除する（チャンクごとに
+   * 書き込むのは同じ）。
+   */
+  static void wake(ConnectionPool pool) throws SQLException {
+    TeamPurge purge = PURGES.get(pool);
+    if (purge != null) {
+      purge.wakeUp.release();
+    } else {
+      new TeamPurge(pool).purgeAll();
+    }
+  }
+
+  /**
+   * 削除待ちがなくなるまで待つ（テスト用）。
+   *
+   * @return 時間内に削除し終えた場合 true
+   */
+  public boolean awaitIdle(long timeoutMillis)
+      throws InterruptedException, SQLException {
+    long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+    while (pendingCount() > 0) {
+      if (System.nanoTime() > deadline) {
+        return false;
+      }
+      Thread.sleep(10);
+    }
+    return true;
+  }
+
+  private int pendingCount() throws SQLException {
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs =
+             stmt.executeQuery("SELECT COUNT(*) FROM team_deletions")) {
+      return rs.next() ? rs.getInt(1) : 0;
+    }
+  }
+
+  private void run() {
+    while (!closed) {
+      try {
+        purgeAll();
+        wakeUp.tryAcquire(1, TimeUnit.MINUTES);
+        wakeUp.drainPermits();
+      } catch (InterruptedException e) {
+        break;
+      } catch (SQLException | RuntimeException e) {
+        if (!closed) {
+          // 削除待ちは残っているため、次に起こされたときに再試行する
+          logger.error("削除したチームの関連データの削除に失敗しました", e);
+          try {
+            wakeUp.tryAcquire(1, TimeUnit.MINUTES);
+          } catch (InterruptedException interrupted) {
+            break;
+          }
+        }
+      }
+    }
+  }
+
+  // 削除待ちのチームを記録順にすべて削除する
+  private void purgeAll() throws SQLException {
+    String teamId;
+    while (!closed && (teamId = nextPending()) != null) {
+      long start = System.nanoTime();
+      long deleted = purge(teamId);
+      if (closed) {
+        return;
+      }
+      String id = teamId;
+      pool.write(conn -> {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                 "DELETE FROM team_deletions WHERE teamId = ?")) {
+          pstmt.setString(1, id);
+          return pstmt.executeUpdate();
+        }
+      });
+      teams.increment();
+      logger.info("削除したチームの関連データを削除しました: チーム={}, {}件（{}ms）",
+                  teamId, deleted, (System.nanoTime() - start) / 1_000_000);
+    }
+  }
+
+  private String nextPending() throws SQLException {
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(
+             "SELECT teamId FROM team_deletions ORDER BY rowid LIMIT 1")) {
+      return rs.next() ? rs.getString(1) : null;
+    }
+  }
+
+  // チームの関連データを CHUNK_SIZE 行ずつ削除し、削除した行数を返す
+  private long purge(String teamId) throws SQLException {
+    long deleted = 0;
+    for (String sql : CHUNK_DELETES) {
+      int count;
+      do {
+        if (closed) {
+          return deleted;
+        }
+        count = pool.write(conn -> {
+          try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, teamId);
+            return pstmt.executeUpdate();
+          }
+        });
+        deleted += count;
+        rows.add(count);
+        chunks.increment();
+      } while (count == CHUNK_SIZE);
+    }
+    return deleted;
+  }
+
+  private static String chunkDelete(String table, String key,
+                                    String teamColumn) {
+    String columns = key.startsWith("(") ? key.substring(1, key.length() - 1)
+                                         : key;
+    return "DELETE FROM " + table + " WHERE " + key + " IN (SELECT "
+        + columns + " FROM " + table + " WHERE " + teamColumn + " = ? LIMIT "
+        + CHUNK_SIZE + ")";
+  }
+
+  public JSONObject toJson() {
+    JSONObject json = new JSONObject();
+    json.put("teams", teams.sum());
+    json.put("rows", rows.sum());
+    json.put("chunks", chunks.sum());
+    return json;
+  }
+
+  /**
+   * 削除スレッドを止める（削除待ちは次回の起動時に続きから削除する）。
+   */
+  @Override
+  public void close() {
+    closed = true;
+    PURGES.remove(pool, this);
+    Thread t = thread;
+    if (t != null) {
+      t.interrupt();
+      try {
+        t.join(1000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.habit.server.repository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * チームごとのデータ更新回数（バージョン）を保持するクラス。
+ *
+ * 各リポジトリが書き込みのたびにカウンタを進め、読み取りAPIは
+ * そのバージョンから ETag を作る。内容を読み直さずに
+ * 「前回から変わっていない」ことを判定するためのもの。
+ *
+ * カウンタはメモリ上にのみ保持するため、サーバ起動ごとに
+ * 異なる値（EPOCH）を ETag に含め、再起動前の ETag とは一致させない。
+ */
+public final class TeamVersions {
+  /** バージョンを管理するデータの種類 */
+  public enum Kind {
+    /** チームタスク一覧 */
+    TASKS,
+    /** メンバー構成（ランキングも含む） */
+    MEMBERS,
+    /** チャット */
+    CHAT
+  }
+
+  private static final String EPOCH =
+      Long.toString(System.currentTimeMillis(), 36);
+  private static final int KINDS = Kind.values().length;
+
+  private static final ConcurrentHashMap<String, AtomicLongArray> versions =
+      new ConcurrentHashMap<>();
+  // ユーザー情報（ユーザー名・サボりポイント）の更新回数。
+  // メンバー一覧・ランキング・チャットはユーザー情報を含むため、
+  // これらの ETag にはこの値も含める。
+  private static final AtomicLong users = new AtomicLong();
+
+  private TeamVersions() {}
+
+  /**
+   * 指定チームの指定データのバージョンを進める。
+   */
+  public static void bump(Kind kind, String teamId) {
+    if (teamId != null) {
+      counters(teamId).incrementAndGet(kind.ordinal());
+    }
+  }
+
+  /**
+   * 指定チームの全データのバージョンを進める（チーム削除時など）。
+   */
+  public static void bumpAll(String teamId) {
+    for (Kind kind : Kind.values()) {
+      bump(kind, teamId);
+    }
+  }
+
+  /**
+   * ユーザー情報のバージョンを進める。
+   */
+  public static void bumpUsers() { users.incrementAndGet(); }
+
+  /**
+   * 指定チームの指定データの現在のバージョン。
+   */
+  public static long get(Kind kind, String teamId) {
+    AtomicLongArray counters = versions.get(teamId);
+    return counters == null ? 0 : counters.get(kind.ordinal());
+  }
+
+  /**
+   * 現在のバージョンを表す弱い ETag（W/"..."）を返す。
+   * 圧縮の有無で本文のバイト列は変わるため、弱い ETag とする。
+   */
+  public static String etag(Kind kind, String teamId) {
+    StringBuilder sb = new StringBuilder("W/\"");
+    sb.append(EPOCH).append('-').append(kind.name().charAt(0));
+    sb.append(get(kind, teamId));
+    if (kind != Kind.TASKS) {
+      sb.append('.').append(users.get());
+    }
+    return sb.append('"').toString();
+  }
+
+  private static AtomicLongArray counters(String teamId) {
+    return versions.computeIfAbsent(teamId, id -> new AtomicLongArray(KINDS));
+  }
+}
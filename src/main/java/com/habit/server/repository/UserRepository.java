@@ -1,111 +1,37 @@
 package com.habit.server.repository;
 
 import com.habit.domain.User;
-import java.sql.*;
-
-public class UserRepository {
-  private final String databaseUrl;
-
-  public UserRepository() { this("jdbc:sqlite:habit.db"); }
-
-  public UserRepository(String databaseUrl) {
-    this.databaseUrl = databaseUrl;
-
-    // usersテーブルがなければ作成
-    try (Connection conn = DriverManager.getConnection(databaseUrl);
-         Statement stmt = conn.createStatement()) {
-      String sql = "CREATE TABLE IF NOT EXISTS users ("
-                   + "userId TEXT PRIMARY KEY,"
-                   + "username TEXT UNIQUE,"
-                   + "hashedPassword TEXT,"
-                   + "sabotagePoints INTEGER,"
-                   +
-                   "joinedTeamIds TEXT," + // 追加: チームIDをカンマ区切りで保存
-                   "profileIconPath TEXT,"
-                   + "bio TEXT)";
-      stmt.execute(sql);
-    } catch (SQLException e) {
-      e.printStackTrace();
-    }
-  }
-
-  public User findById(String userId) {
-    try (Connection conn = DriverManager.getConnection(databaseUrl)) {
-      String sql = "SELECT * FROM users WHERE userId = ?";
-      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-        pstmt.setString(1, userId);
-        ResultSet rs = pstmt.executeQuery();
-        if (rs.next()) {
-          return mapRowToUser(rs);
-        }
-      }
-    } catch (SQLException e) {
-      e.printStackTrace();
-    }
-    return null;
-  }
-
-  public User findByUsername(String username) {
-    try (Connection conn = DriverManager.getConnection(databaseUrl)) {
-      String sql = "SELECT * FROM users WHERE username = ?";
-      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-        pstmt.setString(1, username);
-        ResultSet rs = pstmt.executeQuery();
-        if (rs.next()) {
-          return mapRowToUser(rs);
-        }
-      }
-    } catch (SQLException e) {
-      e.printStackTrace();
-    }
-    return null;
-  }
-
-  public void save(User user) {
-    try (Connection conn = DriverManager.getConnection(databaseUrl)) {
-      String sql = "INSERT OR REPLACE INTO users (userId, username, "
-                   + "hashedPassword, sabotagePoints, joinedTeamIds, "
-                   + "profileIconPath, bio) VALUES (?, ?, ?, ?, ?, ?, ?)";
-      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-        pstmt.setString(1, user.getUserId());
-        pstmt.setString(2, user.getUsername());
-        pstmt.setString(3, user.getPassword());
-        pstmt.setInt(4, user.getSabotagePoints());
-        // joinedTeamIdsをカンマ区切りで保存
-        pstmt.setString(5, String.join(",", user.getJoinedTeamIds()));
-        pstmt.setString(6, null); // profileIconPath未使用
-        pstmt.setString(7, null); // bio未使用
-        pstmt.executeUpdate();
-      }
-    } catch (SQLException e) {
-      e.printStackTrace();
-    }
-  }
-
-  public void updateSabotagePoints(String userId, int points) {
-    try (Connection conn = DriverManager.getConnection(databaseUrl)) {
-      String sql = "UPDATE users SET sabotagePoints = ? WHERE userId = ?";
-      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-        pstmt.setInt(1, points);
-        pstmt.setString(2, userId);
-        pstmt.executeUpdate();
-      }
-    } catch (SQLException e) {
-      e.printStackTrace();
-    }
-  }
-
-  private User mapRowToUser(ResultSet rs) throws SQLException {
-    User user = new User(rs.getString("userId"), rs.getString("username"),
-                         rs.getString("hashedPassword"));
-    user.setSabotagePoints(rs.getInt("sabotagePoints"));
-    // joinedTeamIdsを復元
-    String joined = rs.getString("joinedTeamIds");
-    if (joined != null && !joined.isEmpty()) {
-      for (String tid : joined.split(",")) {
-        user.addJoinedTeamId(tid);
-      }
-    }
-    return user;
-  }
+import java.util.Map;
+
+/**
+ * ユーザーの保存・検索。
+ *
+ * 実装は SqliteUserRepository（既定）と、テスト・ベンチマーク用の
+ * InMemoryUserRepository がある（AppContext.Engine で選択する）。
+ */
+public interface UserRepository {
+  /** ユーザーIDで検索する（見つからなければ null）。参加チームも含む。 */
+  User findById(String userId);
+
+  /** ユーザー名で検索する（見つからなければ null）。参加チームも含む。 */
+  User findByUsername(String username);
+
+  /**
+   * ユーザーを保存する。参加チームは未登録のものだけを追加する
+   * （既存の参加は削除しない）。
+   */
+  void save(User user);
+
+  /** サボりポイントを更新する。 */
+  void updateSabotagePoints(String userId, int points);
+
+  /**
+   * サボりポイントをユーザーごとの増減値だけまとめて加算する。
+   * 結果は User.addSabotagePoints と同じく 0〜50 に丸める。
+   * ユーザー行全体を読み書きしないため、同時の更新を失わない。
+   *
+   * @param deltas ユーザーID→増減値
+   * @return 更新したユーザー数（存在しないユーザーは数えない）
+   */
+  int incrementSabotagePoints(Map<String, Integer> deltas);
 }
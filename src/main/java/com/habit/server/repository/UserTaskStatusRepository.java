@@ -1,362 +1,75 @@
 package com.habit.server.repository;
 
 import com.habit.domain.UserTaskStatus;
-import java.util.*;
 import java.time.LocalDate;
-import java.sql.*;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 /**
- * UserTaskStatusのDB連携用リポジトリ
+ * ユーザーごとのタスク達成状況（UserTaskStatus）の保存・検索。
+ * 行は (userId, taskId, date) で一意になる。
+ *
+ * 実装は SqliteUserTaskStatusRepository（既定）と、テスト・ベンチマーク用の
+ * InMemoryUserTaskStatusRepository がある（AppContext.Engine で選択する）。
  */
-public class UserTaskStatusRepository {
-    private final String dbUrl;
-
-    public UserTaskStatusRepository() {
-        this("jdbc:sqlite:habit.db");
-    }
-
-    public UserTaskStatusRepository(String dbUrl) {
-        this.dbUrl = dbUrl;
-        // テーブル作成（なければ）
-        try (Connection conn = DriverManager.getConnection(dbUrl);
-             Statement stmt = conn.createStatement()) {
-            String sql = "CREATE TABLE IF NOT EXISTS user_task_statuses (" +
-                    "userId TEXT," +
-                    "taskId TEXT," +
-                    "teamId TEXT," +
-                    "date TEXT," +
-                    "isDone INTEGER," +
-                    "completionTimestamp TEXT," +
-                    "PRIMARY KEY(userId, taskId, date)" +
-                    ")";
-            stmt.execute(sql);
-            
-            // 既存テーブルにteamIdカラムを追加（存在しない場合）
-            ResultSet teamIdCheck = stmt.executeQuery("PRAGMA table_info(user_task_statuses)");
-            boolean hasTeamId = false;
-            while (teamIdCheck.next()) {
-                String col = teamIdCheck.getString("name");
-                if ("teamId".equalsIgnoreCase(col))
-                    hasTeamId = true;
-            }
-            if (!hasTeamId) {
-                stmt.execute("ALTER TABLE user_task_statuses ADD COLUMN teamId TEXT");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
+public interface UserTaskStatusRepository {
     // ユーザIDで検索
-    public List<UserTaskStatus> findByUserId(String userId) {
-        List<UserTaskStatus> result = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(dbUrl)) {
-            String sql = "SELECT * FROM user_task_statuses WHERE userId = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, userId);
-                ResultSet rs = pstmt.executeQuery();
-                while (rs.next()) {
-                    UserTaskStatus status = mapRowToStatus(rs);
-                    result.add(status);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return result;
-    }
+    List<UserTaskStatus> findByUserId(String userId);
+
     // ユーザID・チームIDで検索
-    public List<UserTaskStatus> findByUserIdAndTeamId(String userId, String teamId) {
-        List<UserTaskStatus> result = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(dbUrl)) {
-            String sql = "SELECT uts.* FROM user_task_statuses uts " +
-                         "JOIN tasks t ON uts.taskId = t.taskId " +
-                         "WHERE uts.userId = ? AND t.teamID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, userId);
-                pstmt.setString(2, teamId);
-                ResultSet rs = pstmt.executeQuery();
-                while (rs.next()) {
-                    UserTaskStatus status = mapRowToStatus(rs);
-                    result.add(status);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return result;
-    }
+    List<UserTaskStatus> findByUserIdAndTeamId(String userId, String teamId);
 
     // userIdとteamIdで、そのユーザーが担当するチーム内タスクID一覧を取得
-    public List<String> findTaskIdsByUserIdAndTeamId(String userId, String teamId) {
-        List<String> result = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(dbUrl)) {
-            String sql = "SELECT uts.taskId FROM user_task_statuses uts " +
-                         "JOIN tasks t ON uts.taskId = t.taskId " +
-                         "WHERE uts.userId = ? AND t.teamID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, userId);
-                pstmt.setString(2, teamId);
-                ResultSet rs = pstmt.executeQuery();
-                while (rs.next()) {
-                    result.add(rs.getString("taskId"));
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return result;
-    }
+    List<String> findTaskIdsByUserIdAndTeamId(String userId, String teamId);
 
     // タスクIDで検索
-    public List<UserTaskStatus> findByTaskId(String taskId) {
-        List<UserTaskStatus> result = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(dbUrl)) {
-            String sql = "SELECT * FROM user_task_statuses WHERE taskId = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, taskId);
-                ResultSet rs = pstmt.executeQuery();
-                while (rs.next()) {
-                    UserTaskStatus status = mapRowToStatus(rs);
-                    result.add(status);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return result;
-    }
+    List<UserTaskStatus> findByTaskId(String taskId);
 
     // ユーザID・タスクIDで検索
-    public Optional<UserTaskStatus> findByUserIdAndTaskId(String userId, String taskId) {
-        try (Connection conn = DriverManager.getConnection(dbUrl)) {
-            String sql = "SELECT * FROM user_task_statuses WHERE userId = ? AND taskId = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, userId);
-                pstmt.setString(2, taskId);
-                ResultSet rs = pstmt.executeQuery();
-                if (rs.next()) {
-                    return Optional.of(mapRowToStatus(rs));
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return Optional.empty();
-    }
+    Optional<UserTaskStatus> findByUserIdAndTaskId(String userId, String taskId);
 
     // タスクID・日付で検索
-    public List<UserTaskStatus> findByTaskIdAndDate(String taskId, LocalDate date) {
-        List<UserTaskStatus> result = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(dbUrl)) {
-            String sql = "SELECT * FROM user_task_statuses WHERE taskId = ? AND date = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, taskId);
-                pstmt.setString(2, date.toString());
-                ResultSet rs = pstmt.executeQuery();
-                while (rs.next()) {
-                    result.add(mapRowToStatus(rs));
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return result;
-    }
-
+    List<UserTaskStatus> findByTaskIdAndDate(String taskId, LocalDate date);
 
     // ユーザID・タスクID・日付で検索
-    public Optional<UserTaskStatus> findByUserIdAndTaskIdAndDate(String userId, String taskId, LocalDate date) {
-        try (Connection conn = DriverManager.getConnection(dbUrl)) {
-            String sql = "SELECT * FROM user_task_statuses WHERE userId = ? AND taskId = ? AND date = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, userId);
-                pstmt.setString(2, taskId);
-                pstmt.setString(3, date.toString());
-                ResultSet rs = pstmt.executeQuery();
-                if (rs.next()) {
-                    return Optional.of(mapRowToStatus(rs));
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return Optional.empty();
-    }
+    Optional<UserTaskStatus> findByUserIdAndTaskIdAndDate(String userId, String taskId, LocalDate date);
 
     // ユーザー・チーム・日付で一括取得
-    public List<UserTaskStatus> findByUserIdAndTeamIdAndDate(String userId, String teamId, LocalDate date) {
-        List<UserTaskStatus> result = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(dbUrl)) {
-            String sql = "SELECT uts.* FROM user_task_statuses uts " +
-                         "JOIN tasks t ON uts.taskId = t.taskId " +
-                         "WHERE uts.userId = ? AND t.teamID = ? AND uts.date = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, userId);
-                pstmt.setString(2, teamId);
-                pstmt.setString(3, date.toString());
-                ResultSet rs = pstmt.executeQuery();
-                while (rs.next()) {
-                    UserTaskStatus status = mapRowToStatus(rs);
-                    result.add(status);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return result;
-    }
+    List<UserTaskStatus> findByUserIdAndTeamIdAndDate(String userId, String teamId, LocalDate date);
 
     // チームID・日付で全メンバー分の進捗を取得
-    public List<UserTaskStatus> findByTeamIdAndDate(String teamId, LocalDate date) {
-        List<UserTaskStatus> result = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(dbUrl)) {
-            String sql = "SELECT uts.* FROM user_task_statuses uts " +
-                         "JOIN tasks t ON uts.taskId = t.taskId " +
-                         "WHERE t.teamID = ? AND uts.date = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, teamId);
-                pstmt.setString(2, date.toString());
-                ResultSet rs = pstmt.executeQuery();
-                while (rs.next()) {
-                    UserTaskStatus status = mapRowToStatus(rs);
-                    result.add(status);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return result;
-    }
-
-    // チームID・日付範囲で全メンバー分の進捗を取得
-    public List<UserTaskStatus> findByTeamIdAndDateRange(String teamId, LocalDate from, LocalDate to) {
-        List<UserTaskStatus> result = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(dbUrl)) {
-            String sql = "SELECT uts.* FROM user_task_statuses uts " +
-                         "JOIN tasks t ON uts.taskId = t.taskId " +
-                         "WHERE t.teamID = ? AND uts.date >= ? AND uts.date <= ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, teamId);
-                pstmt.setString(2, from.toString());
-                pstmt.setString(3, to.toString());
-                ResultSet rs = pstmt.executeQuery();
-                while (rs.next()) {
-                    UserTaskStatus status = mapRowToStatus(rs);
-                    result.add(status);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return result;
-    }
-
-    // 保存・更新
-    public void save(UserTaskStatus status) {
-        try (Connection conn = DriverManager.getConnection(dbUrl)) {
-            String sql = "INSERT OR REPLACE INTO user_task_statuses (userId, taskId, teamId, date, isDone, completionTimestamp) VALUES (?, ?, ?, ?, ?, ?)";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, status.getUserId());
-                pstmt.setString(2, status.getTaskId());
-                pstmt.setString(3, status.getTeamId());
-                pstmt.setString(4, status.getDate().toString());
-                pstmt.setInt(5, status.isDone() ? 1 : 0);
-                pstmt.setString(6, status.getCompletionTimestamp() != null ? status.getCompletionTimestamp().toString() : null);
-                pstmt.executeUpdate();
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
+    List<UserTaskStatus> findByTeamIdAndDate(String teamId, LocalDate date);
+
+    // チームID・日付範囲（両端を含む）で全メンバー分の進捗を取得
+    List<UserTaskStatus> findByTeamIdAndDateRange(String teamId, LocalDate from, LocalDate to);
+
+    /**
+     * 保存・更新する。teamId が指定されていない場合はタスクのチームIDを補う。
+     */
+    void save(UserTaskStatus status);
+
+    /**
+     * 複数のUserTaskStatusをまとめて保存・更新する。既存の行は save() と同じく置き換える。
+     *
+     * @return 書き込んだ件数
+     */
+    int saveAll(Collection<UserTaskStatus> statuses);
+
+    /**
+     * まだ存在しない（userId, taskId, date が一致する行がない）UserTaskStatusだけを
+     * まとめて追加する。既存の行（達成状況）は変更しない。
+     *
+     * @return 新しく追加した件数
+     */
+    int insertMissing(Collection<UserTaskStatus> statuses);
 
     // 全件取得
-    public List<UserTaskStatus> findAll() {
-        List<UserTaskStatus> result = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(dbUrl)) {
-            String sql = "SELECT * FROM user_task_statuses";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                ResultSet rs = pstmt.executeQuery();
-                while (rs.next()) {
-                    UserTaskStatus status = mapRowToStatus(rs);
-                    result.add(status);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return result;
-    }
-
-    // ResultSetからUserTaskStatusを生成
-    private UserTaskStatus mapRowToStatus(ResultSet rs) throws SQLException {
-        String teamId = rs.getString("teamId");
-        UserTaskStatus status;
-        
-        if (teamId != null) {
-            // チーム共通タスクの場合
-            status = new UserTaskStatus(
-                rs.getString("userId"),
-                rs.getString("taskId"),
-                teamId,
-                LocalDate.parse(rs.getString("date")),
-                rs.getInt("isDone") == 1
-            );
-        } else {
-            // 個人タスクの場合
-            status = new UserTaskStatus(
-                rs.getString("userId"),
-                rs.getString("taskId"),
-                LocalDate.parse(rs.getString("date")),
-                rs.getInt("isDone") == 1
-            );
-        }
-        
-        String ts = rs.getString("completionTimestamp");
-        if (ts != null) {
-            status.setDone(true); // completionTimestampはsetDoneで自動設定
-        }
-        return status;
-    }
+    List<UserTaskStatus> findAll();
 
     // ユーザID・タスクIDで、本日以降の未完了のUserTaskStatusを検索し、最も日付が近いものを返す
-    public Optional<UserTaskStatus> findUpcomingIncompleteByUserIdAndTaskId(String userId, String taskId) {
-        try (Connection conn = DriverManager.getConnection(dbUrl)) {
-            String sql = "SELECT * FROM user_task_statuses WHERE userId = ? AND taskId = ? AND date >= ? AND isDone = 0 ORDER BY date ASC LIMIT 1";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, userId);
-                pstmt.setString(2, taskId);
-                pstmt.setString(3, LocalDate.now().toString());
-                ResultSet rs = pstmt.executeQuery();
-                if (rs.next()) {
-                    return Optional.of(mapRowToStatus(rs));
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return Optional.empty();
-    }
+    Optional<UserTaskStatus> findUpcomingIncompleteByUserIdAndTaskId(String userId, String taskId);
 
     // teamIdがnullでないユーザーのタスク状況を取得（チーム共通タスクのみ）
-    public List<UserTaskStatus> findByUserIdAndDateAndTeamIdNotNull(String userId, LocalDate date) {
-        List<UserTaskStatus> result = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(dbUrl)) {
-            String sql = "SELECT uts.* FROM user_task_statuses uts " +
-                         "JOIN tasks t ON uts.taskId = t.taskId " +
-                         "WHERE uts.userId = ? AND uts.date = ? AND t.teamID IS NOT NULL";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, userId);
-                pstmt.setString(2, date.toString());
-                ResultSet rs = pstmt.executeQuery();
-                while (rs.next()) {
-                    UserTaskStatus status = mapRowToStatus(rs);
-                    result.add(status);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return result;
-    }
-}
\ No newline at end of file
+    List<UserTaskStatus> findByUserIdAndDateAndTeamIdNotNull(String userId, LocalDate date);
+}
@@ -0,0 +1,122 @@
+package com.habit.server.repository;
+
+import com.habit.domain.UserTaskStatus;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+
+/**
+ * user_task_statuses の行と UserTaskStatus の相互変換。
+ * UserTaskStatusRepository と TaskRepository で共有する。
+ *
+ * 日付は TEXT の date / completionTimestamp と、整数の day（エポック日）/
+ * completedAt（エポックミリ秒）の両方に書き込む。読み込みは整数のカラムを
+ * 使い、まだ埋まっていない古い行（NULL）だけ TEXT を解析する
+ * （EpochDayBackfill を参照）。
+ */
+final class UserTaskStatusRows {
+  /** SELECT する列。map() はこの順序で読む。 */
+  static final String COLUMNS = "userId, taskId, teamId, date, day, isDone, "
+                                + "completionTimestamp, completedAt";
+
+  /**
+   * "INSERT OR REPLACE" などに続ける INTO 句。teamId が指定されていない場合は
+   * タスクの teamID を補う（チームでの検索は teamId カラムだけで行うため）。
+   */
+  static final String INSERT =
+      " INTO user_task_statuses (userId, taskId, teamId, date, day, isDone, "
+      + "completionTimestamp, completedAt) VALUES (?, ?, "
+      + "COALESCE(?, (SELECT teamID FROM tasks WHERE taskId = ?)), ?, ?, ?, ?, "
+      + "?)";
+
+  /**
+   * 日付で絞り込む検索。SQL中の {date} を、移行完了前は TEXT の date、
+   * 完了後は整数の day に置き換えたものを使う。
+   */
+  record DateQuery(String byText, String byDay) {
+    static DateQuery of(String sql) {
+      return new DateQuery(sql.replace("{date}", "date"),
+                           sql.replace("{date}", "day"));
+    }
+
+    String sql(boolean epochDays) { return epochDays ? byDay : byText; }
+  }
+
+  private UserTaskStatusRows() {}
+
+  /** DateQuery の日付パラメータを設定する。 */
+  static void bindDate(PreparedStatement pstmt, int index, LocalDate date,
+                       boolean epochDays) throws SQLException {
+    if (epochDays) {
+      pstmt.setLong(index, date.toEpochDay());
+    } else {
+      pstmt.setString(index, date.toString());
+    }
+  }
+
+  /** INSERT のパラメータを設定する。 */
+  static void bindInsert(PreparedStatement pstmt, UserTaskStatus status)
+      throws SQLException {
+    LocalDateTime completed = status.getCompletionTimestamp();
+    pstmt.setString(1, status.getUserId());
+    pstmt.setString(2, status.getTaskId());
+    pstmt.setString(3, status.getTeamId());
+    pstmt.setString(4, status.getTaskId());
+    pstmt.setString(5, status.getDate().toString());
+    pstmt.setLong(6, status.getDate().toEpochDay());
+    pstmt.setInt(7, status.isDone() ? 1 : 0);
+    if (completed != null) {
+      pstmt.setString(8, completed.toString());
+      pstmt.setLong(9, toEpochMilli(completed));
+    } else {
+      pstmt.setNull(8, Types.VARCHAR);
+      pstmt.setNull(9, Types.BIGINT);
+    }
+  }
+
+  /** COLUMNS の順に SELECT した行を UserTaskStatus に変換する。 */
+  static UserTaskStatus map(ResultSet rs) throws SQLException {
+    String userId = rs.getString(1);
+    String taskId = rs.getString(2);
+    String teamId = rs.getString(3);
+    long day = rs.getLong(5);
+    LocalDate date = rs.wasNull() ? LocalDate.parse(rs.getString(4))
+                                  : LocalDate.ofEpochDay(day);
+    boolean isDone = rs.getInt(6) == 1;
+
+    UserTaskStatus status =
+        teamId != null
+            ? new UserTaskStatus(userId, taskId, teamId, date, isDone)
+            : new UserTaskStatus(userId, taskId, date, isDone);
+
+    long completedAt = rs.getLong(8);
+    if (!rs.wasNull()) {
+      status.setCompletionTimestamp(fromEpochMilli(completedAt));
+    } else {
+      String text = rs.getString(7);
+      if (text != null) {
+        try {
+          status.setCompletionTimestamp(LocalDateTime.parse(text));
+        } catch (DateTimeParseException e) {
+          status.setDone(true); // 解析できない古い値は達成済みとだけ扱う
+        }
+      }
+    }
+    return status;
+  }
+
+  static long toEpochMilli(LocalDateTime time) {
+    return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  static LocalDateTime fromEpochMilli(long millis) {
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis),
+                                   ZoneId.systemDefault());
+  }
+}
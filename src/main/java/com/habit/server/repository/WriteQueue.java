@@ -0,0 +1,304 @@
+package com.habit.server.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * データベースへの書き込みを1本の書き込みスレッドに集約するキュー。
+ *
+ * SQLiteは同時に1つの接続しか書き込めないため、各リクエストが個別に
+ * 自動コミットで書き込むと、そのたびに fsync が走り、SQLITE_BUSY で
+ * 待たされる。このキューでは書き込みスレッドがキューに溜まった書き込みを
+ * まとめて1つのトランザクションで実行し、1回のコミットで確定する
+ * （グループコミット）。書き込みスレッドはプールの上限に数えない専用の
+ * 接続を使うため、読み込みで接続が埋まっていても書き込みは待たされない。
+ *
+ * - 書き込みは1件ずつセーブポイントで囲むため、失敗した書き込みだけが
+ *   取り消され、同じトランザクションの他の書き込みには影響しない
+ * - 2件以上溜まっている（同時に書き込みがある）場合は、flushLatencyMicros
+ *   まで追加の書き込みを待ってからコミットする。単発の書き込みは待たない
+ * - execute() はコミットが完了するまで戻らないため、呼び出し元から見た
+ *   動作は従来の自動コミットと同じ（戻った時点で他の接続から読める）。
+ *   ただし RESULT_TIMEOUT_SECONDS を過ぎても完了しなければ失敗にする
+ */
+public class WriteQueue implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(WriteQueue.class);
+
+  // 書き込みの完了を待つ時間の上限
+  static final long RESULT_TIMEOUT_SECONDS = 60;
+
+  /**
+   * 書き込みスレッドで実行する処理。接続のトランザクションは操作しないこと。
+   */
+  public interface Work<T> {
+    T run(Connection conn) throws SQLException;
+  }
+
+  private static final class Job<T> {
+    final Work<T> work;
+    final CompletableFuture<T> result = new CompletableFuture<>();
+
+    Job(Work<T> work) { this.work = work; }
+  }
+
+  private final ConnectionPool pool;
+  private final long flushLatencyNanos;
+  private final int maxBatch;
+  private final BlockingQueue<Job<?>> queue = new LinkedBlockingQueue<>();
+  private final Thread writer;
+  // closed の確認とキューへの追加を、停止と同時に行わないためのロック
+  private final Object enqueueLock = new Object();
+  // 書き込みスレッド専用の接続と、開いたときのデータベースの世代
+  private Connection connection;
+  private int connectionGeneration;
+  // 書き込みスレッドが現在使っている接続（入れ子の書き込み用）
+  private volatile Connection current;
+  private volatile boolean closed;
+
+  private final LongAdder writes = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAccumulator maxBatchSize = new LongAccumulator(Math::max, 0);
+  private final LongAdder commitNanos = new LongAdder();
+  private final LongAccumulator maxCommitNanos =
+      new LongAccumulator(Math::max, 0);
+
+  /**
+   * @param pool 書き込み用の接続を開くプール
+   * @param flushLatencyMicros 同時書き込みがあるときに追加の書き込みを待つ時間
+   * @param maxBatch 1回のコミットにまとめる書き込みの最大数
+   */
+  public WriteQueue(ConnectionPool pool, long flushLatencyMicros,
+                    int maxBatch) {
+    this.pool = pool;
+    this.flushLatencyNanos = TimeUnit.MICROSECONDS.toNanos(flushLatencyMicros);
+    this.maxBatch = Math.max(1, maxBatch);
+    this.writer = Thread.ofPlatform()
+                      .daemon()
+                      .name("db-writer")
+                      .start(this::loop);
+  }
+
+  /**
+   * 書き込みを実行し、コミットされるまで待つ。
+   *
+   * @return work の戻り値
+   * @throws SQLException work またはコミットが失敗した場合
+   */
+  public <T> T execute(Work<T> work) throws SQLException {
+    if (Thread.currentThread() == writer) {
+      // 書き込み処理の中からの書き込みは同じトランザクションで実行する
+      return work.run(current);
+    }
+    Job<T> job = new Job<>(work);
+    // 停止後に追加すると書き込みスレッドが処理しないため、同じロックで確認する
+    synchronized (enqueueLock) {
+      if (closed) {
+        throw new SQLException("書き込みキューは停止しています");
+      }
+      queue.add(job);
+    }
+    try {
+      return job.result.get(RESULT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (TimeoutException e) {
+      throw new SQLTimeoutException("書き込みが" + RESULT_TIMEOUT_SECONDS +
+                                    "秒以内に完了しませんでした", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("書き込みの完了待ち中に割り込まれました", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof SQLException sql) {
+        throw sql;
+      }
+      if (cause instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new SQLException(cause);
+    }
+  }
+
+  private void loop() {
+    List<Job<?>> batch = new ArrayList<>();
+    while (!closed || !queue.isEmpty()) {
+      try {
+        Job<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        collect(batch);
+        commit(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      } catch (RuntimeException e) {
+        logger.error("書き込みスレッドでエラーが発生しました", e);
+        for (Job<?> job : batch) {
+          job.result.completeExceptionally(e);
+        }
+      }
+      batch.clear();
+    }
+    // 割り込みで抜けた場合に残った書き込みは失敗させる（待ち続けないように）
+    Job<?> job;
+    while ((job = queue.poll()) != null) {
+      job.result.completeExceptionally(
+          new SQLException("書き込みキューは停止しています"));
+    }
+    closeConnection();
+  }
+
+  // 専用の接続を返す。プールが reset() されていれば開き直す
+  private Connection connection() throws SQLException {
+    int generation = pool.generation();
+    if (connection != null &&
+        (connectionGeneration != generation || connection.isClosed())) {
+      closeConnection();
+    }
+    if (connection == null) {
+      connection = pool.openDedicated();
+      connectionGeneration = generation;
+    }
+    return connection;
+  }
+
+  private void closeConnection() {
+    if (connection == null) {
+      return;
+    }
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      logger.debug("書き込み用の接続の切断に失敗しました: {}", e.getMessage());
+    }
+    connection = null;
+  }
+
+  // 溜まっている書き込みをまとめて取り出す
+  private void collect(List<Job<?>> batch) throws InterruptedException {
+    queue.drainTo(batch, maxBatch - batch.size());
+    if (batch.size() < 2 || flushLatencyNanos <= 0) {
+      return;
+    }
+    long deadline = System.nanoTime() + flushLatencyNanos;
+    while (batch.size() < maxBatch) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        break;
+      }
+      Job<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        break;
+      }
+      batch.add(next);
+      queue.drainTo(batch, maxBatch - batch.size());
+    }
+  }
+
+  private void commit(List<Job<?>> batch) {
+    List<Runnable> completions = new ArrayList<>(batch.size());
+    long start = System.nanoTime();
+    try {
+      Connection conn = connection();
+      current = conn;
+      conn.setAutoCommit(false);
+      try {
+        for (Job<?> job : batch) {
+          completions.add(runInSavepoint(conn, job));
+        }
+        conn.commit();
+      } catch (SQLException | RuntimeException e) {
+        conn.rollback();
+        throw e;
+      } finally {
+        current = null;
+        conn.setAutoCommit(true);
+      }
+    } catch (SQLException | RuntimeException e) {
+      logger.error("書き込みのコミットに失敗しました（{}件）", batch.size(), e);
+      // 接続の状態が分からないため、次のコミットで開き直す
+      closeConnection();
+      failures.add(batch.size());
+      for (Job<?> job : batch) {
+        job.result.completeExceptionally(e);
+      }
+      return;
+    }
+    long elapsed = System.nanoTime() - start;
+    commitNanos.add(elapsed);
+    maxCommitNanos.accumulate(elapsed);
+    batches.increment();
+    writes.add(batch.size());
+    maxBatchSize.accumulate(batch.size());
+    // コミット後に結果を返す（呼び出し元はコミット済みのデータを読める）
+    completions.forEach(Runnable::run);
+  }
+
+  // 1件の書き込みをセーブポイントで囲んで実行し、結果を返す処理を返す
+  private <T> Runnable runInSavepoint(Connection conn, Job<T> job)
+      throws SQLException {
+    Savepoint savepoint = conn.setSavepoint();
+    try {
+      T value = job.work.run(conn);
+      conn.releaseSavepoint(savepoint);
+      return () -> job.result.complete(value);
+    } catch (SQLException | RuntimeException e) {
+      conn.rollback(savepoint);
+      conn.releaseSavepoint(savepoint);
+      failures.increment();
+      return () -> job.result.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * 残っている書き込みを処理してから書き込みスレッドを停止する。
+   */
+  @Override
+  public void close() {
+    synchronized (enqueueLock) {
+      closed = true;
+    }
+    try {
+      writer.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * 書き込みキューの統計情報をJSONで返す。
+   */
+  public JSONObject toJson() {
+    JSONObject json = new JSONObject();
+    long batchCount = batches.sum();
+    json.put("queued", queue.size());
+    json.put("writes", writes.sum());
+    json.put("failures", failures.sum());
+    json.put("batches", batchCount);
+    json.put("avgBatchSize",
+             batchCount == 0 ? 0.0 : (double)writes.sum() / batchCount);
+    json.put("maxBatchSize", maxBatchSize.get());
+    json.put("flushLatencyMicros",
+             TimeUnit.NANOSECONDS.toMicros(flushLatencyNanos));
+    json.put("commitMsAvg",
+             batchCount == 0 ? 0.0 : commitNanos.sum() / 1_000_000.0 / batchCount);
+    json.put("commitMsMax", maxCommitNanos.get() / 1_000_000.0);
+    return json;
+  }
+}
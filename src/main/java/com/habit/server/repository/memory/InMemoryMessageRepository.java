@@ -0,0 +1,59 @@
+package com.habit.server.repository.memory;
+
+import com.habit.domain.Message;
+import com.habit.server.repository.MessageRepository;
+import com.habit.server.repository.TeamVersions;
+import com.habit.server.repository.memory.InMemoryStore.MessageRow;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * MessageRepository のインメモリ実装。
+ */
+public class InMemoryMessageRepository implements MessageRepository {
+  private final InMemoryStore store;
+
+  public InMemoryMessageRepository(InMemoryStore store) { this.store = store; }
+
+  @Override
+  public void save(Message message) {
+    MessageEntry entry = new MessageEntry(
+        UUID.randomUUID().toString(), // メッセージIDをUUIDで生成
+        message.getSender().getUserId(), message.getTeamID(),
+        message.getContent(), message.getTimestamp());
+    store.write(() -> {
+      store.messages.put(entry.id,
+                         new MessageRow(entry, store.nextMessageSequence()));
+      InMemoryStore.index(store.messageIdsByTeam, entry.teamId).add(entry.id);
+      return null;
+    });
+    TeamVersions.bump(TeamVersions.Kind.CHAT, entry.teamId);
+  }
+
+  @Override
+  public List<MessageEntry> findMessagesByteamID(String teamID, int limit) {
+    List<MessageRow> rows = new ArrayList<>();
+    for (String messageId :
+         InMemoryStore.get(store.messageIdsByTeam, teamID)) {
+      MessageRow row = store.messages.get(messageId);
+      if (row != null) {
+        rows.add(row);
+      }
+    }
+    rows.sort(InMemoryStore.MESSAGE_ORDER);
+    List<MessageEntry> messages = new ArrayList<>();
+    for (MessageRow row : rows.subList(0, Math.min(limit, rows.size()))) {
+      messages.add(row.entry());
+    }
+    return messages;
+  }
+
+  @Override
+  public void delete(String messageId) {
+    MessageRow removed = store.write(() -> store.removeMessage(messageId));
+    if (removed != null) {
+      TeamVersions.bump(TeamVersions.Kind.CHAT, removed.entry().teamId);
+    }
+  }
+}
@@ -0,0 +1,265 @@
+package com.habit.server.repository.memory;
+
+import com.habit.domain.Task;
+import com.habit.domain.UserTaskStatus;
+import com.habit.server.repository.MessageRepository.MessageEntry;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * インメモリのリポジトリが共有するデータ。
+ *
+ * SQLite のテーブルに相当するマップと、検索に使うインデックス（キーの集合）を
+ * 持つ。チーム削除時の関連データの削除や、達成状況の teamId の補完など、
+ * 複数のリポジトリにまたがる操作もここで行う。
+ *
+ * - 読み込みはロックを取らずに ConcurrentHashMap から読む
+ * - 書き込みは write() で1つずつ実行する（SQLite の書き込みキューに相当）
+ * - 行は不変のレコードとして保持し、読み込みのたびにドメインオブジェクトを
+ *   作る（呼び出し側の変更が保存済みのデータに影響しないように）
+ */
+public final class InMemoryStore {
+  record UserRow(String userId, String username, String hashedPassword,
+                 int sabotagePoints) {}
+
+  record TeamRow(String id, String teamName, String passcode, int maxMembers,
+                 String editPermission, String creatorId) {}
+
+  record TaskRow(String taskId, String taskName, String description,
+                 String teamId, LocalDate dueDate, String cycleType) {
+    static TaskRow of(Task task, String teamId) {
+      return new TaskRow(task.getTaskId(), task.getTaskName(),
+                         task.getDescription(), teamId, task.getDueDate(),
+                         task.getCycleType());
+    }
+
+    Task toTask() {
+      return new Task(taskId, taskName, description, teamId, dueDate,
+                      cycleType);
+    }
+  }
+
+  record StatusKey(String userId, String taskId, LocalDate date) {}
+
+  record StatusRow(String userId, String taskId, String teamId,
+                   LocalDate date, boolean isDone,
+                   LocalDateTime completionTimestamp) {
+    StatusKey key() { return new StatusKey(userId, taskId, date); }
+
+    UserTaskStatus toStatus() {
+      UserTaskStatus status =
+          teamId != null
+              ? new UserTaskStatus(userId, taskId, teamId, date, isDone)
+              : new UserTaskStatus(userId, taskId, date, isDone);
+      status.setCompletionTimestamp(completionTimestamp);
+      return status;
+    }
+  }
+
+  record MessageRow(MessageEntry entry, long sequence) {}
+
+  // 日付順（同じ日付なら保存順）に並べる
+  static final Comparator<MessageRow> MESSAGE_ORDER =
+      Comparator.comparing((MessageRow row) -> row.entry().time)
+          .thenComparingLong(MessageRow::sequence);
+
+  final Map<String, UserRow> users = new ConcurrentHashMap<>();
+  final Map<String, String> userIdsByName = new ConcurrentHashMap<>();
+  final Map<String, TeamRow> teams = new ConcurrentHashMap<>();
+  // メンバー構成（チーム→メンバー、メンバー→チーム。どちらも追加順）
+  final Map<String, Set<String>> membersByTeam = new ConcurrentHashMap<>();
+  final Map<String, Set<String>> teamsByMember = new ConcurrentHashMap<>();
+  final Map<String, TaskRow> tasks = new ConcurrentHashMap<>();
+  final Map<String, Set<String>> taskIdsByTeam = new ConcurrentHashMap<>();
+  final Map<StatusKey, StatusRow> statuses = new ConcurrentHashMap<>();
+  final Map<String, Set<StatusKey>> statusesByUser = new ConcurrentHashMap<>();
+  final Map<String, Set<StatusKey>> statusesByTask = new ConcurrentHashMap<>();
+  final Map<String, Set<StatusKey>> statusesByTeam = new ConcurrentHashMap<>();
+  final Map<String, MessageRow> messages = new ConcurrentHashMap<>();
+  final Map<String, Set<String>> messageIdsByTeam = new ConcurrentHashMap<>();
+
+  private final Object writeLock = new Object();
+  private long messageSequence;
+
+  /** 書き込みを他の書き込みと排他的に実行する。 */
+  <T> T write(Supplier<T> work) {
+    synchronized (writeLock) {
+      return work.get();
+    }
+  }
+
+  long nextMessageSequence() { return ++messageSequence; }
+
+  // インデックスの集合（なければ作る）
+  static <K> Set<K> index(Map<String, Set<K>> index, String key) {
+    return index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+  }
+
+  // インデックスの集合（キーが null またはなければ空）
+  static <K> Set<K> get(Map<String, Set<K>> index, String key) {
+    Set<K> keys = key != null ? index.get(key) : null;
+    return keys != null ? keys : Set.of();
+  }
+
+  // 追加順を保つインデックスの集合（メンバー構成用。なければ作る）
+  static Set<String> ordered(Map<String, Set<String>> index, String key) {
+    return index.computeIfAbsent(key, k -> new CopyOnWriteArraySet<>());
+  }
+
+  static void unindex(Map<String, ? extends Set<?>> index, String key,
+                      Object value) {
+    if (key == null) {
+      return;
+    }
+    Set<?> keys = index.get(key);
+    if (keys != null) {
+      keys.remove(value);
+      if (keys.isEmpty()) {
+        index.remove(key, keys);
+      }
+    }
+  }
+
+  /** インデックスのキーのうち条件に合う達成状況を返す。 */
+  List<UserTaskStatus> findStatuses(Map<String, Set<StatusKey>> index,
+                                    String key, Predicate<StatusRow> filter) {
+    List<UserTaskStatus> result = new ArrayList<>();
+    for (StatusKey statusKey : get(index, key)) {
+      StatusRow row = statuses.get(statusKey);
+      if (row != null && filter.test(row)) {
+        result.add(row.toStatus());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 達成状況を保存する（write() の中で呼ぶ）。teamId がなければ
+   * タスクの teamId を補う。
+   *
+   * @param replace 既存の行を置き換えるか（false なら既存の行は残す）
+   * @return 書き込んだ場合 true
+   */
+  boolean putStatus(UserTaskStatus status, boolean replace) {
+    String teamId = status.getTeamId();
+    if (teamId == null) {
+      TaskRow task = tasks.get(status.getTaskId());
+      teamId = task != null ? task.teamId() : null;
+    }
+    StatusRow row = new StatusRow(status.getUserId(), status.getTaskId(),
+                                  teamId, status.getDate(), status.isDone(),
+                                  status.getCompletionTimestamp());
+    StatusKey key = row.key();
+    StatusRow previous = statuses.get(key);
+    if (previous != null && !replace) {
+      return false;
+    }
+    statuses.put(key, row);
+    if (previous != null && previous.teamId() != null &&
+        !previous.teamId().equals(teamId)) {
+      unindex(statusesByTeam, previous.teamId(), key);
+    }
+    index(statusesByUser, row.userId()).add(key);
+    index(statusesByTask, row.taskId()).add(key);
+    if (teamId != null) {
+      index(statusesByTeam, teamId).add(key);
+    }
+    return true;
+  }
+
+  /** 達成状況を削除する（write() の中で呼ぶ）。 */
+  void removeStatus(StatusKey key) {
+    StatusRow row = statuses.remove(key);
+    if (row != null) {
+      unindex(statusesByUser, row.userId(), key);
+      unindex(statusesByTask, row.taskId(), key);
+      unindex(statusesByTeam, row.teamId(), key);
+    }
+  }
+
+  /** タスクを保存する（write() の中で呼ぶ）。 */
+  void putTask(TaskRow row) {
+    TaskRow previous = tasks.put(row.taskId(), row);
+    if (previous != null && previous.teamId() != null &&
+        !previous.teamId().equals(row.teamId())) {
+      unindex(taskIdsByTeam, previous.teamId(), row.taskId());
+    }
+    if (row.teamId() != null) {
+      index(taskIdsByTeam, row.teamId()).add(row.taskId());
+    }
+  }
+
+  /**
+   * タスクと、その達成状況を削除する（write() の中で呼ぶ）。
+   *
+   * @return 削除したタスク（なければ null）
+   */
+  TaskRow removeTask(String taskId) {
+    for (StatusKey key : List.copyOf(get(statusesByTask, taskId))) {
+      removeStatus(key);
+    }
+    TaskRow row = tasks.remove(taskId);
+    if (row != null) {
+      unindex(taskIdsByTeam, row.teamId(), taskId);
+    }
+    return row;
+  }
+
+  /** メンバーを追加する（write() の中で呼ぶ）。追加した場合 true。 */
+  boolean addMember(String teamId, String memberId) {
+    if (!ordered(membersByTeam, teamId).add(memberId)) {
+      return false;
+    }
+    ordered(teamsByMember, memberId).add(teamId);
+    return true;
+  }
+
+  /** チームのメンバーを全員外す（write() の中で呼ぶ）。 */
+  void removeMembers(String teamId) {
+    Set<String> members = membersByTeam.remove(teamId);
+    if (members != null) {
+      for (String memberId : members) {
+        unindex(teamsByMember, memberId, teamId);
+      }
+    }
+  }
+
+  /** メッセージを削除する（write() の中で呼ぶ）。 */
+  MessageRow removeMessage(String messageId) {
+    MessageRow row = messages.remove(messageId);
+    if (row != null) {
+      unindex(messageIdsByTeam, row.entry().teamId, messageId);
+    }
+    return row;
+  }
+
+  /**
+   * チームと関連データを削除する（write() の中で呼ぶ）。
+   * SQLite の実装と同じく、チームIDを持つ達成状況・タスク・メッセージ・
+   * メンバー構成を削除する。
+   */
+  void removeTeam(String teamId) {
+    for (StatusKey key : List.copyOf(get(statusesByTeam, teamId))) {
+      removeStatus(key);
+    }
+    for (String taskId : List.copyOf(get(taskIdsByTeam, teamId))) {
+      tasks.remove(taskId);
+    }
+    taskIdsByTeam.remove(teamId);
+    for (String messageId : List.copyOf(get(messageIdsByTeam, teamId))) {
+      messages.remove(messageId);
+    }
+    messageIdsByTeam.remove(teamId);
+    removeMembers(teamId);
+    teams.remove(teamId);
+  }
+}
@@ -0,0 +1,97 @@
+package com.habit.server.repository.memory;
+
+import com.habit.domain.Task;
+import com.habit.domain.UserTaskStatus;
+import com.habit.server.repository.TaskRepository;
+import com.habit.server.repository.TeamVersions;
+import com.habit.server.repository.memory.InMemoryStore.StatusKey;
+import com.habit.server.repository.memory.InMemoryStore.StatusRow;
+import com.habit.server.repository.memory.InMemoryStore.TaskRow;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * TaskRepository のインメモリ実装。
+ */
+public class InMemoryTaskRepository implements TaskRepository {
+  private final InMemoryStore store;
+
+  public InMemoryTaskRepository(InMemoryStore store) { this.store = store; }
+
+  @Override
+  public UserTaskStatus findUserTaskStatus(String userId, String taskId,
+                                           LocalDate date) {
+    StatusRow row = store.statuses.get(new StatusKey(userId, taskId, date));
+    return row != null ? row.toStatus() : null;
+  }
+
+  @Override
+  public void saveUserTaskStatus(UserTaskStatus status) {
+    store.write(() -> store.putStatus(status, true));
+  }
+
+  @Override
+  public List<UserTaskStatus> findUserTaskStatusesForPeriod(String userId,
+                                                            LocalDate startDate,
+                                                            LocalDate endDate) {
+    return store.findStatuses(store.statusesByUser, userId,
+                              row -> !row.date().isBefore(startDate) &&
+                                     !row.date().isAfter(endDate));
+  }
+
+  @Override
+  public List<Task> findTeamTasksByTeamID(String teamID) {
+    return findByTeamId(teamID);
+  }
+
+  @Override
+  public void saveTask(Task task, String teamID) {
+    store.write(() -> {
+      store.putTask(TaskRow.of(task, teamID));
+      return null;
+    });
+    TeamVersions.bump(TeamVersions.Kind.TASKS, teamID);
+  }
+
+  @Override
+  public Task save(Task task) {
+    store.write(() -> {
+      store.putTask(TaskRow.of(task, task.getTeamId()));
+      return null;
+    });
+    TeamVersions.bump(TeamVersions.Kind.TASKS, task.getTeamId());
+    return task;
+  }
+
+  @Override
+  public List<Task> findByTeamId(String teamId) {
+    List<Task> list = new ArrayList<>();
+    Set<String> taskIds =
+        teamId != null ? store.taskIdsByTeam.get(teamId) : null;
+    if (taskIds != null) {
+      for (String taskId : taskIds) {
+        TaskRow row = store.tasks.get(taskId);
+        if (row != null) {
+          list.add(row.toTask());
+        }
+      }
+    }
+    return list;
+  }
+
+  @Override
+  public Task findById(String taskId) {
+    TaskRow row = taskId != null ? store.tasks.get(taskId) : null;
+    return row != null ? row.toTask() : null;
+  }
+
+  @Override
+  public void deleteById(String taskId) {
+    TaskRow removed = store.write(() -> store.removeTask(taskId));
+    if (removed != null) {
+      TeamVersions.bump(TeamVersions.Kind.TASKS, removed.teamId());
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package com.habit.server.repository.memory;
+
+import com.habit.domain.Team;
+import com.habit.server.repository.TeamRepository;
+import com.habit.server.repository.TeamVersions;
+import com.habit.server.repository.memory.InMemoryStore.TeamRow;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * TeamRepository のインメモリ実装。
+ */
+public class InMemoryTeamRepository implements TeamRepository {
+  private final InMemoryStore store;
+
+  public InMemoryTeamRepository(InMemoryStore store) { this.store = store; }
+
+  @Override
+  public String findTeamIdByName(String teamName) {
+    TeamRow row = findRow(team -> Objects.equals(team.teamName(), teamName));
+    return row != null ? row.id() : null;
+  }
+
+  @Override
+  public List<String> findAllPublicTeamNames() {
+    List<String> names = new ArrayList<>();
+    for (TeamRow row : store.teams.values()) {
+      names.add(row.teamName());
+    }
+    return names;
+  }
+
+  @Override
+  public String findTeamNameByPasscode(String passcode) {
+    TeamRow row = findRow(team -> Objects.equals(team.passcode(), passcode));
+    return row != null ? row.teamName() : null;
+  }
+
+  @Override
+  public String findTeamIdByPasscode(String passcode) {
+    TeamRow row = findRow(team -> Objects.equals(team.passcode(), passcode));
+    return row != null ? row.id() : null;
+  }
+
+  @Override
+  public String findTeamNameById(String teamID) {
+    TeamRow row = teamID != null ? store.teams.get(teamID) : null;
+    return row != null ? row.teamName() : null;
+  }
+
+  // メンバー追加の結果（SqliteTeamRepository と同じコード）
+  private record JoinResult(int code, String teamID) {}
+
+  @Override
+  public int addMemberByTeamName(String teamName, String memberId) {
+    // 人数の確認から追加までを1件の書き込みとして実行する
+    JoinResult result = store.write(() -> {
+      TeamRow row = findRow(team -> Objects.equals(team.teamName(), teamName));
+      if (row == null) {
+        return new JoinResult(-1, null); // チームが存在しない
+      }
+      Set<String> members =
+          InMemoryStore.get(store.membersByTeam, row.id());
+      if (members.contains(memberId)) {
+        return new JoinResult(2, row.id()); // 既にメンバー
+      }
+      if (members.size() >= row.maxMembers()) {
+        return new JoinResult(0, row.id()); // 上限到達
+      }
+      store.addMember(row.id(), memberId);
+      return new JoinResult(1, row.id()); // 参加成功
+    });
+    if (result.code() == 1) {
+      TeamVersions.bump(TeamVersions.Kind.MEMBERS, result.teamID());
+    }
+    return result.code();
+  }
+
+  @Override
+  public void save(Team team, String passcode, int maxMembers, String editPerm,
+                   List<String> members) {
+    TeamRow row = new TeamRow(team.getTeamID(), team.getteamName(), passcode,
+                              maxMembers, editPerm, team.getCreatorId());
+    store.write(() -> {
+      store.teams.put(row.id(), row);
+      // メンバーを置き換える（作成者も必ずメンバーに含める）
+      store.removeMembers(row.id());
+      if (row.creatorId() != null && !row.creatorId().isEmpty()) {
+        store.addMember(row.id(), row.creatorId());
+      }
+      for (String member : members) {
+        if (member != null && !member.isEmpty()) {
+          store.addMember(row.id(), member);
+        }
+      }
+      return null;
+    });
+    TeamVersions.bump(TeamVersions.Kind.MEMBERS, row.id());
+  }
+
+  @Override
+  public List<String> findAllTeamIds() {
+    return new ArrayList<>(store.teams.keySet());
+  }
+
+  @Override
+  public List<String> findMemberIdsByTeamId(String teamId) {
+    List<String> memberIds = new ArrayList<>(
+        InMemoryStore.get(store.membersByTeam, teamId));
+    TeamRow row = teamId != null ? store.teams.get(teamId) : null;
+    if (row != null && row.creatorId() != null &&
+        !row.creatorId().isEmpty() && !memberIds.contains(row.creatorId())) {
+      memberIds.add(0, row.creatorId());
+    }
+    return memberIds;
+  }
+
+  @Override
+  public Team findById(String teamId) {
+    TeamRow row = teamId != null ? store.teams.get(teamId) : null;
+    if (row == null) {
+      return null;
+    }
+    Team team = toTeam(row);
+    for (String memberId : findMemberIdsByTeamId(teamId)) {
+      team.addMember(memberId);
+    }
+    return team;
+  }
+
+  @Override
+  public List<Team> findJoinedTeams(String userId) {
+    List<Team> teams = new ArrayList<>();
+    for (String teamId : InMemoryStore.get(store.teamsByMember, userId)) {
+      TeamRow row = store.teams.get(teamId);
+      if (row != null) {
+        teams.add(toTeam(row));
+      }
+    }
+    return teams;
+  }
+
+  @Override
+  public void delete(String teamId) {
+    store.write(() -> {
+      store.removeTeam(teamId);
+      return null;
+    });
+    TeamVersions.bumpAll(teamId);
+  }
+
+  // インメモリでは関連データの削除も短時間で終わるため、その場で削除する
+  @Override
+  public void deleteInBackground(String teamId) {
+    delete(teamId);
+  }
+
+  private TeamRow findRow(Predicate<TeamRow> filter) {
+    for (TeamRow row : store.teams.values()) {
+      if (filter.test(row)) {
+        return row;
+      }
+    }
+    return null;
+  }
+
+  private static Team toTeam(TeamRow row) {
+    return new Team(row.id(), row.teamName(), row.creatorId(),
+                    row.editPermission());
+  }
+}
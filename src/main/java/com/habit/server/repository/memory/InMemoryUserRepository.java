@@ -0,0 +1,109 @@
+package com.habit.server.repository.memory;
+
+import com.habit.domain.User;
+import com.habit.server.repository.TeamVersions;
+import com.habit.server.repository.UserRepository;
+import com.habit.server.repository.memory.InMemoryStore.UserRow;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * UserRepository のインメモリ実装。参加チームは InMemoryStore の
+ * メンバー構成から引く。
+ */
+public class InMemoryUserRepository implements UserRepository {
+  private final InMemoryStore store;
+
+  public InMemoryUserRepository(InMemoryStore store) { this.store = store; }
+
+  @Override
+  public User findById(String userId) {
+    UserRow row = userId != null ? store.users.get(userId) : null;
+    return row != null ? toUser(row) : null;
+  }
+
+  @Override
+  public User findByUsername(String username) {
+    String userId = username != null ? store.userIdsByName.get(username) : null;
+    return userId != null ? findById(userId) : null;
+  }
+
+  @Override
+  public void save(User user) {
+    UserRow row = new UserRow(user.getUserId(), user.getUsername(),
+                              user.getPassword(), user.getSabotagePoints());
+    List<String> added = store.write(() -> {
+      // INSERT OR REPLACE と同じく、同じユーザー名の別のユーザーは置き換える
+      String other = row.username() != null
+                         ? store.userIdsByName.get(row.username())
+                         : null;
+      if (other != null && !other.equals(row.userId())) {
+        store.users.remove(other);
+      }
+      UserRow previous = store.users.put(row.userId(), row);
+      if (previous != null && previous.username() != null &&
+          !previous.username().equals(row.username())) {
+        store.userIdsByName.remove(previous.username(), row.userId());
+      }
+      if (row.username() != null) {
+        store.userIdsByName.put(row.username(), row.userId());
+      }
+      List<String> teamIds = new ArrayList<>();
+      for (String teamId : user.getJoinedTeamIds()) {
+        if (store.addMember(teamId, row.userId())) {
+          teamIds.add(teamId);
+        }
+      }
+      return teamIds;
+    });
+    TeamVersions.bumpUsers();
+    for (String teamId : added) {
+      TeamVersions.bump(TeamVersions.Kind.MEMBERS, teamId);
+    }
+  }
+
+  @Override
+  public void updateSabotagePoints(String userId, int points) {
+    store.write(() -> store.users.computeIfPresent(
+                    userId, (id, row) -> new UserRow(
+                                 id, row.username(), row.hashedPassword(),
+                                 points)));
+    TeamVersions.bumpUsers();
+  }
+
+  @Override
+  public int incrementSabotagePoints(Map<String, Integer> deltas) {
+    if (deltas.isEmpty()) {
+      return 0;
+    }
+    int updated = store.write(() -> {
+      int count = 0;
+      for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+        UserRow row = store.users.computeIfPresent(
+            delta.getKey(), (id, current) -> new UserRow(
+                                id, current.username(),
+                                current.hashedPassword(),
+                                Math.min(50, Math.max(0, current.sabotagePoints()
+                                                             + delta.getValue()))));
+        if (row != null) {
+          count++;
+        }
+      }
+      return count;
+    });
+    TeamVersions.bumpUsers();
+    return updated;
+  }
+
+  private User toUser(UserRow row) {
+    User user = new User(row.userId(), row.username(), row.hashedPassword());
+    user.setSabotagePoints(row.sabotagePoints());
+    for (String teamId :
+         InMemoryStore.get(store.teamsByMember, row.userId())) {
+      user.addJoinedTeamId(teamId);
+    }
+    return user;
+  }
+}
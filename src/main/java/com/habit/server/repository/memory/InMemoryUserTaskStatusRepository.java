@@ -0,0 +1,148 @@
+package com.habit.server.repository.memory;
+
+import com.habit.domain.UserTaskStatus;
+import com.habit.server.repository.UserTaskStatusRepository;
+import com.habit.server.repository.memory.InMemoryStore.StatusKey;
+import com.habit.server.repository.memory.InMemoryStore.StatusRow;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * UserTaskStatusRepository のインメモリ実装。
+ * ユーザー・タスク・チームごとのインデックスから行を引く。
+ */
+public class InMemoryUserTaskStatusRepository implements UserTaskStatusRepository {
+    private final InMemoryStore store;
+
+    public InMemoryUserTaskStatusRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<UserTaskStatus> findByUserId(String userId) {
+        return store.findStatuses(store.statusesByUser, userId, row -> true);
+    }
+
+    @Override
+    public List<UserTaskStatus> findByUserIdAndTeamId(String userId, String teamId) {
+        return store.findStatuses(store.statusesByUser, userId,
+                                  row -> Objects.equals(row.teamId(), teamId));
+    }
+
+    @Override
+    public List<String> findTaskIdsByUserIdAndTeamId(String userId, String teamId) {
+        List<String> result = new ArrayList<>();
+        for (UserTaskStatus status : findByUserIdAndTeamId(userId, teamId)) {
+            result.add(status.getTaskId());
+        }
+        return result;
+    }
+
+    @Override
+    public List<UserTaskStatus> findByTaskId(String taskId) {
+        return store.findStatuses(store.statusesByTask, taskId, row -> true);
+    }
+
+    @Override
+    public Optional<UserTaskStatus> findByUserIdAndTaskId(String userId, String taskId) {
+        // 主キー順（最も古い日付）の行を返す
+        return store.findStatuses(store.statusesByTask, taskId,
+                                  row -> Objects.equals(row.userId(), userId))
+            .stream()
+            .min(Comparator.comparing(UserTaskStatus::getDate));
+    }
+
+    @Override
+    public List<UserTaskStatus> findByTaskIdAndDate(String taskId, LocalDate date) {
+        return store.findStatuses(store.statusesByTask, taskId,
+                                  row -> row.date().equals(date));
+    }
+
+    @Override
+    public Optional<UserTaskStatus> findByUserIdAndTaskIdAndDate(String userId, String taskId, LocalDate date) {
+        StatusRow row = store.statuses.get(new StatusKey(userId, taskId, date));
+        return Optional.ofNullable(row).map(StatusRow::toStatus);
+    }
+
+    @Override
+    public List<UserTaskStatus> findByUserIdAndTeamIdAndDate(String userId, String teamId, LocalDate date) {
+        return store.findStatuses(store.statusesByUser, userId,
+                                  row -> Objects.equals(row.teamId(), teamId)
+                                         && row.date().equals(date));
+    }
+
+    @Override
+    public List<UserTaskStatus> findByTeamIdAndDate(String teamId, LocalDate date) {
+        return store.findStatuses(store.statusesByTeam, teamId,
+                                  row -> row.date().equals(date));
+    }
+
+    @Override
+    public List<UserTaskStatus> findByTeamIdAndDateRange(String teamId, LocalDate from, LocalDate to) {
+        return store.findStatuses(store.statusesByTeam, teamId,
+                                  row -> !row.date().isBefore(from)
+                                         && !row.date().isAfter(to));
+    }
+
+    @Override
+    public void save(UserTaskStatus status) {
+        store.write(() -> store.putStatus(status, true));
+    }
+
+    @Override
+    public int saveAll(Collection<UserTaskStatus> statuses) {
+        return writeAll(statuses, true);
+    }
+
+    @Override
+    public int insertMissing(Collection<UserTaskStatus> statuses) {
+        return writeAll(statuses, false);
+    }
+
+    private int writeAll(Collection<UserTaskStatus> statuses, boolean replace) {
+        if (statuses.isEmpty()) {
+            return 0;
+        }
+        return store.write(() -> {
+            int written = 0;
+            for (UserTaskStatus status : statuses) {
+                if (store.putStatus(status, replace)) {
+                    written++;
+                }
+            }
+            return written;
+        });
+    }
+
+    @Override
+    public List<UserTaskStatus> findAll() {
+        List<UserTaskStatus> result = new ArrayList<>();
+        for (StatusRow row : store.statuses.values()) {
+            result.add(row.toStatus());
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<UserTaskStatus> findUpcomingIncompleteByUserIdAndTaskId(String userId, String taskId) {
+        LocalDate today = LocalDate.now();
+        return store.findStatuses(store.statusesByTask, taskId,
+                                  row -> Objects.equals(row.userId(), userId)
+                                         && !row.date().isBefore(today)
+                                         && !row.isDone())
+            .stream()
+            .min(Comparator.comparing(UserTaskStatus::getDate));
+    }
+
+    @Override
+    public List<UserTaskStatus> findByUserIdAndDateAndTeamIdNotNull(String userId, LocalDate date) {
+        return store.findStatuses(store.statusesByUser, userId,
+                                  row -> row.teamId() != null
+                                         && row.date().equals(date));
+    }
+}
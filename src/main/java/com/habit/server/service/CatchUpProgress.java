@@ -0,0 +1,83 @@
+package com.habit.server.service;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONObject;
+
+/**
+ * サーバー起動時の未処理タスク更新（キャッチアップ）の進捗。
+ *
+ * キャッチアップはバックグラウンドで実行され、その間もサーバーは
+ * リクエストを受け付ける。完了するまでは isReady() が false を返し、
+ * /ready やリセット状態に依存するAPIはこれを参照する。
+ */
+public class CatchUpProgress {
+  public enum State { PENDING, RUNNING, READY, FAILED }
+
+  private volatile State state = State.PENDING;
+  private final AtomicInteger totalDays = new AtomicInteger();
+  private final AtomicInteger completedDays = new AtomicInteger();
+  private volatile LocalDate currentDate;
+  private volatile long startedAt;
+  private volatile long finishedAt;
+  private volatile String error;
+
+  /**
+   * キャッチアップ完了後（失敗時も含む）にtrueを返す。
+   * 失敗した場合も、未処理分は次回の定期実行・再起動で処理されるため
+   * リクエストの受け付けは再開する。
+   */
+  public boolean isReady() {
+    return state == State.READY || state == State.FAILED;
+  }
+
+  public State getState() { return state; }
+
+  public void start(int days) {
+    totalDays.set(days);
+    startedAt = System.currentTimeMillis();
+    state = State.RUNNING;
+  }
+
+  public void dayStarted(LocalDate date) {
+    currentDate = date;
+    // 処理中に日付をまたいだ場合は対象日数が増える
+    totalDays.accumulateAndGet(completedDays.get() + 1, Math::max);
+  }
+
+  public void dayCompleted() { completedDays.incrementAndGet(); }
+
+  public void finish() {
+    currentDate = null;
+    finishedAt = System.currentTimeMillis();
+    state = State.READY;
+  }
+
+  public void fail(Throwable cause) {
+    error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+    finishedAt = System.currentTimeMillis();
+    state = State.FAILED;
+  }
+
+  /**
+   * 進捗をJSONで返す。
+   */
+  public JSONObject toJson() {
+    JSONObject json = new JSONObject();
+    json.put("ready", isReady());
+    json.put("state", state.name());
+    json.put("totalDays", totalDays.get());
+    json.put("completedDays", completedDays.get());
+    if (currentDate != null) {
+      json.put("currentDate", currentDate.toString());
+    }
+    if (startedAt != 0) {
+      long end = finishedAt != 0 ? finishedAt : System.currentTimeMillis();
+      json.put("elapsedMs", end - startedAt);
+    }
+    if (error != null) {
+      json.put("error", error);
+    }
+    return json;
+  }
+}
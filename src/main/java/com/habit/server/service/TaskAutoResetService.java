@@ -6,6 +6,7 @@ import com.habit.domain.User;
 import com.habit.domain.UserTaskStatus;
 import com.habit.server.repository.MessageRepository;
 import com.habit.server.repository.TaskRepository;
+import com.habit.server.repository.TeamRepository;
 import com.habit.server.repository.UserRepository;
 import com.habit.server.repository.UserTaskStatusRepository;
 
@@ -20,9 +21,12 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * タスクの自動再設定サービス
@@ -36,12 +40,17 @@ public class TaskAutoResetService {
     private final UserTaskStatusRepository userTaskStatusRepository;
     private final UserRepository userRepository; // UserRepositoryを追加
     private final MessageRepository messageRepository; // MessageRepositoryを追加
+    private final TeamRepository teamRepository;
     private final Clock clock;
     private static final Path LAST_EXECUTION_FILE = Paths.get("last_execution.log");
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
     
-    // 重複実行防止用のフラグ
-    private volatile boolean isRunning = false;
+    // 重複実行防止用のフラグ（キャッチアップ中は全日数の処理が終わるまで保持する）
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    // 実行中に呼ばれた定期実行の日付。実行中の処理が終わった後に実行する
+    private final AtomicReference<LocalDate> deferredDate = new AtomicReference<>();
+    // このプロセスで処理を終えた最新の日付（後回しにした定期実行の重複を防ぐ）
+    private volatile LocalDate lastCompletedDate;
 
     // システムメッセージ用の固定ユーザー
     private static final User SERVER_USER = new User("system", "System", "");
@@ -49,8 +58,9 @@ public class TaskAutoResetService {
     /**
      * コンストラクタ
      */ 
-    public TaskAutoResetService(TaskRepository taskRepository, UserTaskStatusRepository userTaskStatusRepository, UserRepository userRepository, MessageRepository messageRepository, Clock clock) {
+    public TaskAutoResetService(TaskRepository taskRepository, UserTaskStatusRepository userTaskStatusRepository, UserRepository userRepository, MessageRepository messageRepository, TeamRepository teamRepository, Clock clock) {
         this.taskRepository = taskRepository;
+        this.teamRepository = teamRepository;
         this.userTaskStatusRepository = userTaskStatusRepository;
         this.userRepository = userRepository; // UserRepositoryを初期化
         this.messageRepository = messageRepository; // MessageRepositoryを初期化
@@ -58,23 +68,58 @@ public class TaskAutoResetService {
     }
 
     public void catchUpMissedExecutions() {
-        LocalDate lastExecutionDate = loadLastExecutionTime();
-        LocalDate today = LocalDate.now(clock);
+        catchUpMissedExecutions(new CatchUpProgress());
+    }
 
-        if (lastExecutionDate == null) {
-            lastExecutionDate = today.minusDays(1); //
+    /**
+     * サーバー停止期間中に実行されなかった日付分のタスク更新を行う。
+     *  起動時にバックグラウンドスレッドから呼び出され、進捗を progress に記録する。
+     *  重複実行防止のフラグは全日数の処理が終わるまで保持するため、その間に
+     *  午前0時の定期実行が呼ばれても同じ日付を二重に処理しない（定期実行は
+     *  キャッチアップの後に回し、キャッチアップで処理済みの日付なら何もしない）。
+     *  処理中に日付が変わった場合は、その日の分も続けて処理する。
+     *  いずれかの日付の処理に失敗した場合は、その日付で progress を失敗にする。
+     */
+    public void catchUpMissedExecutions(CatchUpProgress progress) {
+        try {
+            // 起動直後に定期実行や手動実行が動いていれば、終わるのを待つ
+            while (!running.compareAndSet(false, true)) {
+                Thread.sleep(50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.fail(e);
+            return;
         }
+        try {
+            LocalDate lastExecutionDate = loadLastExecutionTime();
+            LocalDate today = LocalDate.now(clock);
 
-        List<LocalDate> missedDates = lastExecutionDate.plusDays(1).datesUntil(today.plusDays(1))
-                                       .collect(Collectors.toList());
+            if (lastExecutionDate == null) {
+                lastExecutionDate = today.minusDays(1); //
+            }
 
-        if (!missedDates.isEmpty()) {
-            logger.info("サーバー停止期間中の未処理のタスク更新を開始します: " + missedDates.size() + "日分");
-            for (LocalDate date : missedDates) {
-                logger.info(date + " のタスクを更新します。");
-                runScheduledCheckForDate(date);
+            LocalDate first = lastExecutionDate.plusDays(1);
+            int missedDays = (int) Math.max(0, java.time.temporal.ChronoUnit.DAYS.between(first, today.plusDays(1)));
+            progress.start(missedDays);
+            if (missedDays > 0) {
+                logger.info("サーバー停止期間中の未処理のタスク更新を開始します: " + missedDays + "日分");
+                for (LocalDate date = first; !date.isAfter(LocalDate.now(clock)); date = date.plusDays(1)) {
+                    progress.dayStarted(date);
+                    logger.info(date + " のタスクを更新します。");
+                    if (!runForDate(date)) {
+                        throw new IllegalStateException(date + " のタスク更新に失敗しました");
+                    }
+                    progress.dayCompleted();
+                }
+                logger.info("未処理のタスク更新が完了しました。");
             }
-            logger.info("未処理のタスク更新が完了しました。");
+            progress.finish();
+        } catch (RuntimeException e) {
+            logger.error("未処理のタスク更新でエラー: " + e.getMessage(), e);
+            progress.fail(e);
+        } finally {
+            release();
         }
     }
     
@@ -94,17 +139,30 @@ public class TaskAutoResetService {
     }
 
     public void runScheduledCheckForDate(LocalDate date) {
-        // 重複実行防止（前回の処理がまだ終わっていない場合はスキップ）
-        if (isRunning) {
-            logger.info("自動再設定処理が実行中のため、今回はスキップします");
+        // 重複実行防止（前回の処理やキャッチアップがまだ終わっていない場合は、
+        // 終わった後に実行する）
+        if (!running.compareAndSet(false, true)) {
+            deferredDate.accumulateAndGet(date, (a, b) -> a == null || b.isAfter(a) ? b : a);
+            logger.info("自動再設定処理が実行中のため、終了後に実行します: " + date);
+            // 登録する間に実行中の処理が終わっていれば、ここで実行する
+            runDeferred();
             return;
         }
-        
-        isRunning = true;
+        try {
+            runForDate(date);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 指定日付の全チームの自動再設定を行う（呼び出し側で running を保持する）。
+     *
+     * @return 処理を最後まで終えた場合 true
+     */
+    private boolean runForDate(LocalDate date) {
         try {
             // TeamRepositoryから全チームIDを取得
-            com.habit.server.repository.TeamRepository teamRepository =
-                new com.habit.server.repository.TeamRepository();
             List<String> allTeamIds = teamRepository.findAllTeamIds();
             
             logger.info("自動再設定チェック開始: " + allTeamIds.size() + "チーム対象 at " +
@@ -129,12 +187,37 @@ public class TaskAutoResetService {
                 totalResets + "タスクを再設定 at " + java.time.LocalDateTime.now(clock));
             
             saveLastExecutionTime(date);
+            lastCompletedDate = date;
+            return true;
         } catch (Exception e) {
             logger.error("自動再設定の定期実行でエラー: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            // 必ず実行フラグをリセット
-            isRunning = false;
+            return false;
+        }
+    }
+
+    // 実行フラグを戻し、実行中に後回しにした定期実行があれば実行する
+    private void release() {
+        running.set(false);
+        runDeferred();
+    }
+
+    private void runDeferred() {
+        while (deferredDate.get() != null && running.compareAndSet(false, true)) {
+            try {
+                LocalDate date = deferredDate.getAndSet(null);
+                if (date == null) {
+                    continue;
+                }
+                LocalDate completed = lastCompletedDate;
+                if (completed != null && !date.isAfter(completed)) {
+                    logger.info(date + " のタスク更新は処理済みのため、後回しにした定期実行をスキップします");
+                } else {
+                    runForDate(date);
+                }
+            } finally {
+                running.set(false);
+            }
         }
     }
     
@@ -152,6 +235,8 @@ public class TaskAutoResetService {
     public int checkAndResetTasks(String teamId, LocalDate executionDate) { // private から public に変更
         List<Task> teamTasks = taskRepository.findTeamTasksByTeamID(teamId);
         int resetCount = 0;
+        // 未完了によるサボりポイントの加算（ユーザーID→加算値）。最後にまとめて反映する
+        Map<String, Integer> sabotageDeltas = new LinkedHashMap<>();
         
         logger.info("[DEBUG] チーム " + teamId + " のタスク数: " + teamTasks.size());
         logger.info("[DEBUG] 実行日: " + executionDate + ", チェック対象日(前日): " + executionDate.minusDays(1));
@@ -201,6 +286,7 @@ public class TaskAutoResetService {
             if (!statusesToCheck.isEmpty()) {
                 logger.info("[INFO] " + dateToCheck + " の未処理UserTaskStatus件数: " + statusesToCheck.size());
                 
+                List<UserTaskStatus> newStatuses = new ArrayList<>();
                 for (UserTaskStatus oldStatus : statusesToCheck) {
                     logger.info("[DEBUG] UserTaskStatus処理開始: userId=" + oldStatus.getUserId() +
                                      ", isDone=" + oldStatus.isDone() + ", teamId=" + oldStatus.getTeamId() +
@@ -213,7 +299,7 @@ public class TaskAutoResetService {
                             // ポイント処理は何もしない
                         } else {
                             // 未完了ならポイントを増やす
-                            user.addSabotagePoints(5);
+                            sabotageDeltas.merge(user.getUserId(), 5, Integer::sum);
                             logger.info("[INFO] タスク未完了により " + user.getUsername() + " のサボりポイントを増加 → サボり報告メッセージを送信");
 
                             // サボり報告メッセージを送信
@@ -240,14 +326,6 @@ public class TaskAutoResetService {
                                 messageException.printStackTrace();
                             }
                         }
-                        
-                        try {
-                            userRepository.save(user);
-                            logger.info("[SUCCESS] " + user.getUsername() + " のサボりポイントを更新: " + user.getSabotagePoints() + " Pt");
-                        } catch (Exception userSaveException) {
-                            logger.error("[ERROR] ユーザーのサボりポイント保存に失敗: " + user.getUsername() + ", エラー=" + userSaveException.getMessage());
-                            userSaveException.printStackTrace();
-                        }
                     } else {
                         logger.error("[ERROR] ユーザーが見つかりません: userId=" + oldStatus.getUserId());
                     }
@@ -261,26 +339,30 @@ public class TaskAutoResetService {
                         false // 初期状態は未完了
                     );
 
-                    // 重複チェック
-                    Optional<UserTaskStatus> existingStatus = userTaskStatusRepository.findByUserIdAndTaskIdAndDate(
-                        newStatus.getUserId(), newStatus.getTaskId(), newStatus.getDate());
-
-                    if (existingStatus.isEmpty()) {
-                        userTaskStatusRepository.save(newStatus);
-                        resetCount++;
-                        logger.info("新しいUserTaskStatusを生成: userId=" + newStatus.getUserId() +
-                            ", taskId=" + newStatus.getTaskId() +
-                            ", date=" + newStatus.getDate());
-                    } else {
-                        logger.info("UserTaskStatusは既に存在します。スキップ: userId=" + newStatus.getUserId() +
-                            ", taskId=" + newStatus.getTaskId() +
-                            ", date=" + newStatus.getDate());
-                    }
+                    newStatuses.add(newStatus);
                 }
+
+                // 新しいUserTaskStatusは1回のバッチでまとめて生成（既存のものはスキップ）
+                int created = userTaskStatusRepository.insertMissing(newStatuses);
+                resetCount += created;
+                logger.info("新しいUserTaskStatusを生成: taskId=" + task.getTaskId() +
+                    ", date=" + newDueDate + ", 生成=" + created +
+                    "件, 既存のためスキップ=" + (newStatuses.size() - created) + "件");
             } else {
                 logger.info("[DEBUG] " + dateToCheck + " の日付でUserTaskStatusが見つからないため、タスク「" + task.getTaskName() + "」をスキップ");
             }
         }
+
+        // サボりポイントはユーザー行を読み書きせず、1回のバッチでまとめて加算する
+        if (!sabotageDeltas.isEmpty()) {
+            try {
+                int updated = userRepository.incrementSabotagePoints(sabotageDeltas);
+                logger.info("[SUCCESS] サボりポイントを更新: チーム=" + teamId + ", 対象=" + updated + "人, 加算=" + sabotageDeltas);
+            } catch (Exception userSaveException) {
+                logger.error("[ERROR] サボりポイントの更新に失敗: チーム=" + teamId + ", エラー=" + userSaveException.getMessage());
+                userSaveException.printStackTrace();
+            }
+        }
         return resetCount;
     }
 
@@ -373,18 +455,14 @@ public class TaskAutoResetService {
      */
     public void runDebugSabotageReportForToday() {
         // 重複実行防止（前回の処理がまだ終わっていない場合はスキップ）
-        if (isRunning) {
+        if (!running.compareAndSet(false, true)) {
             logger.info("自動再設定処理が実行中のため、デバッグ処理をスキップします");
             return;
         }
-        
-        isRunning = true;
         try {
             LocalDate today = LocalDate.now(clock);
             
             // TeamRepositoryから全チームIDを取得
-            com.habit.server.repository.TeamRepository teamRepository =
-                new com.habit.server.repository.TeamRepository();
             List<String> allTeamIds = teamRepository.findAllTeamIds();
             
             logger.info("デバッグ用サボり報告チェック開始: " + allTeamIds.size() + "チーム対象 at " +
@@ -413,7 +491,7 @@ public class TaskAutoResetService {
             e.printStackTrace();
         } finally {
             // 必ず実行フラグをリセット
-            isRunning = false;
+            release();
         }
     }
 
@@ -8,6 +8,7 @@ import com.habit.server.repository.TeamRepository;
 import com.habit.server.repository.UserTaskStatusRepository;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -52,25 +53,18 @@ public class TeamTaskService {
             return;
         }
 
-        LocalDate today = LocalDate.now();
-        
-        // チームの全メンバーに対してUserTaskStatusを作成
+        // チームの全メンバー分のUserTaskStatusを1回のバッチで作成（既存のものはそのまま）
+        List<UserTaskStatus> newStatuses = new ArrayList<>();
         for (String memberId : team.getMemberIds()) {
-            // 既存のUserTaskStatusがないことを確認（taskIdでチェック）
-            boolean existsByTaskId = userTaskStatusRepository.findByUserIdAndTaskIdAndDate(
-                memberId, task.getTaskId(), today).isPresent();
-
-            if (!existsByTaskId) {
-                UserTaskStatus newStatus = new UserTaskStatus(
-                    memberId,
-                    task.getTaskId(),
-                    task.getTeamId(),
-                    task.getDueDate(), // タスクのdueDateをそのまま使用
-                    false
-                );
-                userTaskStatusRepository.save(newStatus);
-            }
+            newStatuses.add(new UserTaskStatus(
+                memberId,
+                task.getTaskId(),
+                task.getTeamId(),
+                task.getDueDate(), // タスクのdueDateをそのまま使用
+                false
+            ));
         }
+        userTaskStatusRepository.insertMissing(newStatuses);
     }
 
     /**
@@ -82,27 +76,19 @@ public class TeamTaskService {
     public void createUserTaskStatusForNewMember(String teamId, String newMemberId) {
         // チームの全タスクを取得
         List<Task> teamTasks = taskRepository.findByTeamId(teamId);
-        
-        LocalDate today = LocalDate.now();
-        
-        for (Task task : teamTasks) {
 
-            // 既存のUserTaskStatusがないことを確認（taskIdでチェック）
-            boolean existsByTaskId = userTaskStatusRepository.findByUserIdAndTaskIdAndDate(
-                newMemberId, task.getTaskId(), today).isPresent();
-
-            if (!existsByTaskId) {
-                UserTaskStatus newStatus = new UserTaskStatus(
-                    newMemberId,
-                    task.getTaskId(),
-                    teamId,
-                    task.getDueDate(), // タスクのdueDateをそのまま使用
-                    false
-                );
-                userTaskStatusRepository.save(newStatus);
-            }
-            
+        // 全タスク分のUserTaskStatusを1回のバッチで作成（既存のものはそのまま）
+        List<UserTaskStatus> newStatuses = new ArrayList<>();
+        for (Task task : teamTasks) {
+            newStatuses.add(new UserTaskStatus(
+                newMemberId,
+                task.getTaskId(),
+                teamId,
+                task.getDueDate(), // タスクのdueDateをそのまま使用
+                false
+            ));
         }
+        userTaskStatusRepository.insertMissing(newStatuses);
     }
 
     /**
@@ -0,0 +1,123 @@
+package com.habit.server;
+
+import com.habit.domain.Team;
+import com.habit.server.repository.ConnectionPool;
+import com.habit.server.repository.SqliteTaskRepository;
+import com.habit.server.repository.SqliteTeamRepository;
+import com.habit.server.repository.SqliteUserTaskStatusRepository;
+import com.habit.server.repository.TaskRepository;
+import com.habit.server.repository.TeamRepository;
+import com.habit.server.repository.UserTaskStatusRepository;
+import com.habit.server.service.TeamTaskService;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * リクエストごとにリポジトリを生成する場合と、AppContext で共有する場合の
+ * 1リクエストあたりのコスト比較ベンチマーク。
+ *
+ * 1リクエストを「TeamTaskController 相当の配線（リポジトリ3つ＋サービス）と
+ * チーム名の検索1回」として、次の3通りを計測する。
+ * - legacy: 以前のコンストラクタと同じDDL（CREATE TABLE / PRAGMA table_info）を
+ *   毎回実行してから検索する
+ * - per-request: リポジトリとサービスを毎回 new してから検索する
+ * - shared: AppContext のリポジトリで検索する
+ *
+ * 実行方法:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.habit.server.AppContextBenchmark
+ */
+public class AppContextBenchmark {
+  private static final int WARMUP = 2_000;
+  private static final int ITERATIONS = 20_000;
+
+  // 以前の TaskRepository / TeamRepository / UserTaskStatusRepository の
+  // コンストラクタが生成のたびに実行していた文
+  private static final List<String> LEGACY_DDL = List.of(
+      "CREATE TABLE IF NOT EXISTS tasks (taskId TEXT PRIMARY KEY, "
+          + "taskName TEXT, description TEXT, teamID TEXT, dueDate TEXT, "
+          + "cycleType TEXT)",
+      "PRAGMA table_info(tasks)", "PRAGMA table_info(tasks)",
+      "CREATE TABLE IF NOT EXISTS teams (id TEXT PRIMARY KEY, "
+          + "teamName TEXT, passcode TEXT, maxMembers INTEGER, "
+          + "editPermission TEXT, creatorId TEXT)",
+      "CREATE TABLE IF NOT EXISTS team_members (teamID TEXT, memberId TEXT)",
+      "PRAGMA table_info(teams)",
+      "CREATE TABLE IF NOT EXISTS user_task_statuses (userId TEXT, "
+          + "taskId TEXT, teamId TEXT, date TEXT, isDone INTEGER, "
+          + "completionTimestamp TEXT, PRIMARY KEY(userId, taskId, date))",
+      "PRAGMA table_info(user_task_statuses)");
+
+  public static void main(String[] args) throws Exception {
+    Path dir = Files.createTempDirectory("habit-bench");
+    String url = "jdbc:sqlite:" + dir.resolve("bench.db").toAbsolutePath();
+
+    try (AppContext context = new AppContext(url, Clock.systemDefaultZone())) {
+      context.getTeamRepository().save(
+          new Team("team-0", "bench", "creator", "public"), "0000", 10,
+          "everyone", List.of("creator"));
+      ConnectionPool pool = context.getConnectionPool();
+
+      run("legacy (DDL per request)", pool, () -> {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+          for (String sql : LEGACY_DDL) {
+            if (stmt.execute(sql)) {
+              try (ResultSet rs = stmt.getResultSet()) {
+                while (rs.next()) {
+                }
+              }
+            }
+          }
+        }
+        lookup(perRequest(url));
+      });
+      run("per-request (new repositories)", pool,
+          () -> lookup(perRequest(url)));
+      run("shared (AppContext)", pool,
+          () -> lookup(context.getTeamRepository()));
+    }
+  }
+
+  private static TeamRepository perRequest(String url) {
+    TaskRepository taskRepository = new SqliteTaskRepository(url);
+    TeamRepository teamRepository = new SqliteTeamRepository(url);
+    UserTaskStatusRepository statusRepository =
+        new SqliteUserTaskStatusRepository(url);
+    new TeamTaskService(taskRepository, teamRepository, statusRepository);
+    return teamRepository;
+  }
+
+  private static void lookup(TeamRepository teamRepository) {
+    if (teamRepository.findTeamNameById("team-0") == null) {
+      throw new IllegalStateException("team-0 not found");
+    }
+  }
+
+  private interface Request {
+    void run() throws Exception;
+  }
+
+  private static void run(String label, ConnectionPool pool, Request request)
+      throws Exception {
+    for (int i = 0; i < WARMUP; i++) {
+      request.run();
+    }
+    long borrows = pool.toJson().getLong("borrows");
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      request.run();
+    }
+    long elapsed = System.nanoTime() - start;
+    double borrowsPerRequest =
+        (pool.toJson().getLong("borrows") - borrows) / (double)ITERATIONS;
+    System.out.printf("%-34s %9.2f us/req  %9.0f req/s  borrows/req=%.1f%n",
+                      label, elapsed / 1e3 / ITERATIONS,
+                      ITERATIONS / (elapsed / 1e9), borrowsPerRequest);
+  }
+}
@@ -0,0 +1,104 @@
+package com.habit.server.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.habit.domain.Message;
+import com.habit.domain.MessageType;
+import com.habit.domain.Task;
+import com.habit.domain.Team;
+import com.habit.domain.User;
+import com.habit.domain.UserTaskStatus;
+import com.habit.server.repository.MessageRepository;
+import com.habit.server.repository.SqliteMessageRepository;
+import com.habit.server.repository.SqliteTaskRepository;
+import com.habit.server.repository.SqliteTeamRepository;
+import com.habit.server.repository.SqliteUserRepository;
+import com.habit.server.repository.SqliteUserTaskStatusRepository;
+import com.habit.server.repository.TaskRepository;
+import com.habit.server.repository.TeamRepository;
+import com.habit.server.repository.UserRepository;
+import com.habit.server.repository.UserTaskStatusRepository;
+import com.habit.server.service.AuthService;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import org.json.JSONObject;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class DashboardControllerTest {
+
+  private DashboardController controller;
+  private User alice;
+  private final LocalDate today = LocalDate.now();
+
+  @TempDir Path tempDir;
+
+  @BeforeEach
+  void setUp() {
+    String url = "jdbc:sqlite:" + tempDir.resolve("dashboard.db").toAbsolutePath();
+    UserRepository userRepository = new SqliteUserRepository(url);
+    TaskRepository taskRepository = new SqliteTaskRepository(url);
+    TeamRepository teamRepository = new SqliteTeamRepository(url);
+    UserTaskStatusRepository statusRepository = new SqliteUserTaskStatusRepository(url);
+    MessageRepository messageRepository = new SqliteMessageRepository(url);
+    controller = new DashboardController(
+        new AuthService(userRepository), taskRepository, teamRepository,
+        userRepository, statusRepository, messageRepository);
+
+    alice = new User("u1", "alice", "pwd");
+    User bob = new User("u2", "bob", "pwd");
+    bob.addSabotagePoints(3);
+    userRepository.save(alice);
+    userRepository.save(bob);
+    teamRepository.save(new Team("t1", "team", "u1", "all"), "pass", 5, "all",
+                        List.of("u2"));
+
+    taskRepository.saveTask(new Task("task1", "run", "", "t1", today, "daily"), "t1");
+    statusRepository.save(new UserTaskStatus("u1", "task1", "t1", today, false));
+    statusRepository.save(new UserTaskStatus("u2", "task1", "t1", today, true));
+    messageRepository.save(new Message("m1", bob, "t1", "hi", MessageType.NORMAL));
+  }
+
+  @Test
+  void testLoadDashboard() throws Exception {
+    System.out.println("[テスト開始] testLoadDashboard / ダッシュボード一括取得テスト");
+    JSONObject json = write(controller.load("t1", alice, today, 15, 50));
+    assertEquals("t1", json.getString("teamID"));
+    assertEquals(1, json.getJSONArray("tasks").length());
+    assertEquals("run", json.getJSONArray("tasks").getJSONObject(0).getString("taskName"));
+    assertEquals(2, json.getJSONArray("members").length());
+    // サボりポイントの多いbobが1位
+    JSONObject first = json.getJSONArray("ranking").getJSONObject(0);
+    assertEquals(1, first.getInt("rank"));
+    assertEquals("bob", first.getString("username"));
+    assertEquals(1, json.getJSONArray("chatLog").length());
+    assertEquals("bob", json.getJSONArray("chatLog").getJSONObject(0)
+                            .getJSONObject("sender").getString("username"));
+    assertEquals(1, json.getJSONArray("incompleteTasks").length());
+    assertEquals(2, json.getJSONArray("taskStatuses").length());
+    System.out.println("[成功] testLoadDashboard / ダッシュボード一括取得テスト完了");
+  }
+
+  @Test
+  void testLoadWithoutSession() throws Exception {
+    System.out.println("[テスト開始] testLoadWithoutSession / 未ログイン時のダッシュボード取得テスト");
+    JSONObject json = write(controller.load("t1", null, today, 15, 50));
+    assertEquals(2, json.getJSONArray("members").length());
+    assertEquals(0, json.getJSONArray("incompleteTasks").length());
+    assertEquals(0, json.getJSONArray("taskStatuses").length());
+    System.out.println("[成功] testLoadWithoutSession / 未ログイン時のダッシュボード取得テスト完了");
+  }
+
+  private static JSONObject write(DashboardController.Dashboard dashboard)
+      throws Exception {
+    StringWriter out = new StringWriter();
+    try (JsonGenerator json = new JsonFactory().createGenerator(out)) {
+      dashboard.writeTo(json);
+    }
+    return new JSONObject(out.toString());
+  }
+}
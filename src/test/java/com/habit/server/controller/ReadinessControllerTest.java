@@ -0,0 +1,96 @@
+package com.habit.server.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.habit.server.http.Router;
+import com.habit.server.service.CatchUpProgress;
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import org.json.JSONObject;
+import org.junit.jupiter.api.*;
+
+class ReadinessControllerTest {
+
+  private HttpServer server;
+  private String base;
+  private final CatchUpProgress progress = new CatchUpProgress();
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    ReadinessController readiness = new ReadinessController(progress);
+    Router router = new Router();
+    router.get("/ready", readiness.getReadyHandler());
+    router.get("/status", readiness.flagUntilReady(new HelloController()));
+    router.post("/complete", readiness.requireReady(new HelloController()));
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", router);
+    server.start();
+    base = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void testCatchingUp() throws Exception {
+    System.out.println("[テスト開始] testCatchingUp / キャッチアップ中の応答テスト");
+    progress.start(3);
+    progress.dayStarted(LocalDate.of(2025, 7, 1));
+    progress.dayCompleted();
+    progress.dayStarted(LocalDate.of(2025, 7, 2));
+
+    HttpResponse<String> ready = send("GET", "/ready");
+    assertEquals(503, ready.statusCode());
+    assertTrue(ready.headers().firstValue("Retry-After").isPresent());
+    JSONObject json = new JSONObject(ready.body());
+    assertFalse(json.getBoolean("ready"));
+    assertEquals(3, json.getInt("totalDays"));
+    assertEquals(1, json.getInt("completedDays"));
+    assertEquals("2025-07-02", json.getString("currentDate"));
+
+    // 参照系はフラグ付きで応答し、書き込み系は503
+    HttpResponse<String> status = send("GET", "/status");
+    assertEquals(200, status.statusCode());
+    assertEquals("RUNNING", status.headers()
+                                .firstValue(ReadinessController.CATCH_UP_HEADER)
+                                .orElse(null));
+    assertEquals(503, send("POST", "/complete").statusCode());
+    System.out.println("[成功] testCatchingUp / キャッチアップ中の応答テスト完了");
+  }
+
+  @Test
+  void testReady() throws Exception {
+    System.out.println("[テスト開始] testReady / キャッチアップ完了後の応答テスト");
+    progress.start(1);
+    progress.dayStarted(LocalDate.of(2025, 7, 1));
+    progress.dayCompleted();
+    progress.finish();
+
+    HttpResponse<String> ready = send("GET", "/ready");
+    assertEquals(200, ready.statusCode());
+    assertTrue(new JSONObject(ready.body()).getBoolean("ready"));
+    HttpResponse<String> status = send("GET", "/status");
+    assertTrue(status.headers()
+                   .firstValue(ReadinessController.CATCH_UP_HEADER)
+                   .isEmpty());
+    assertEquals(200, send("POST", "/complete").statusCode());
+    System.out.println("[成功] testReady / キャッチアップ完了後の応答テスト完了");
+  }
+
+  private HttpResponse<String> send(String method, String path)
+      throws Exception {
+    HttpRequest request = HttpRequest.newBuilder()
+                              .uri(URI.create(base + path))
+                              .method(method, HttpRequest.BodyPublishers.noBody())
+                              .build();
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+}
@@ -0,0 +1,181 @@
+package com.habit.server.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.json.JSONObject;
+import org.junit.jupiter.api.*;
+
+class AdmissionControlTest {
+
+  private HttpServer server;
+  private ExecutorService executor;
+  private String base;
+  private final HttpClient client = HttpClient.newHttpClient();
+  // 処理中のリクエストを止めておくラッチ
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final CountDownLatch entered = new CountDownLatch(2);
+
+  private AdmissionControl start(long queueTimeoutMillis) throws Exception {
+    AdmissionControl admission =
+        new AdmissionControl(queueTimeoutMillis, 3)
+            .addGroup(AdmissionControl.READ, 2, 1);
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/hold", admission.wrap("/hold", exchange -> {
+      entered.countDown();
+      try {
+        release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      byte[] bytes = "ok".getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, bytes.length);
+      exchange.getResponseBody().write(bytes);
+      exchange.close();
+    }));
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    server.setExecutor(executor);
+    server.start();
+    base = "http://localhost:" + server.getAddress().getPort();
+    return admission;
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    if (server != null) {
+      server.stop(0);
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testRejectWhenFull() throws Exception {
+    System.out.println("[テスト開始] testRejectWhenFull / 上限を超えたリクエストの拒否テスト");
+    AdmissionControl admission = start(300);
+    // 同時処理数の上限（2件）まで処理中にする
+    List<CompletableFuture<HttpResponse<String>>> holding = new ArrayList<>();
+    holding.add(send());
+    holding.add(send());
+    assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+    // 3件目は待ち行列（上限1件）に入る
+    CompletableFuture<HttpResponse<String>> queued = send();
+    await(() -> group(admission).getInt("queueDepth") == 1);
+    // 4件目は待ち行列も満杯のため、待たずに 503 で拒否される
+    HttpResponse<String> rejected = send().get(5, TimeUnit.SECONDS);
+    assertEquals(503, rejected.statusCode());
+    assertEquals("3", rejected.headers().firstValue("Retry-After").orElse(null));
+    // 3件目は待ち時間を過ぎても空かないため 503 になる
+    HttpResponse<String> timedOut = queued.get(5, TimeUnit.SECONDS);
+    assertEquals(503, timedOut.statusCode());
+    assertEquals("3", timedOut.headers().firstValue("Retry-After").orElse(null));
+
+    release.countDown();
+    for (CompletableFuture<HttpResponse<String>> response : holding) {
+      assertEquals(200, response.get(5, TimeUnit.SECONDS).statusCode());
+    }
+    await(() -> group(admission).getInt("inFlight") == 0);
+    JSONObject stats = group(admission);
+    assertEquals(2, stats.getLong("admitted"));
+    assertEquals(2, stats.getLong("rejected"));
+    assertEquals(0, stats.getInt("queueDepth"));
+    // 待ち行列が満杯で拒否した4件目は、待ち行列の深さに数えない
+    assertEquals(1, stats.getLong("maxQueueDepth"));
+    System.out.println("統計: " + stats);
+    System.out.println("[成功] testRejectWhenFull / 上限を超えたリクエストの拒否テスト完了");
+  }
+
+  @Test
+  void testQueuedRequestAdmitted() throws Exception {
+    System.out.println("[テスト開始] testQueuedRequestAdmitted / 待ち行列のリクエストの受け付けテスト");
+    AdmissionControl admission = start(5000);
+    List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+    responses.add(send());
+    responses.add(send());
+    assertTrue(entered.await(5, TimeUnit.SECONDS));
+    responses.add(send());
+    await(() -> group(admission).getInt("queueDepth") == 1);
+
+    // 処理中のリクエストが終われば、待っていたリクエストも処理される
+    release.countDown();
+    for (CompletableFuture<HttpResponse<String>> response : responses) {
+      assertEquals(200, response.get(5, TimeUnit.SECONDS).statusCode());
+    }
+    await(() -> group(admission).getInt("inFlight") == 0);
+    JSONObject stats = group(admission);
+    assertEquals(3, stats.getLong("admitted"));
+    assertEquals(0, stats.getLong("rejected"));
+    assertEquals(1, stats.getLong("maxQueueDepth"));
+    System.out.println("[成功] testQueuedRequestAdmitted / 待ち行列のリクエストの受け付けテスト完了");
+  }
+
+  @Test
+  void testMaxQueueDepthUnderContention() throws Exception {
+    System.out.println("[テスト開始] testMaxQueueDepthUnderContention / 同時に待つリクエストの最大数テスト");
+    int waiters = 64;
+    AdmissionControl.Group group =
+        new AdmissionControl.Group(AdmissionControl.READ, 1, waiters);
+    assertTrue(group.tryEnter(0));
+    CountDownLatch start = new CountDownLatch(1);
+    List<CompletableFuture<Boolean>> results = new ArrayList<>();
+    try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < waiters; i++) {
+        results.add(CompletableFuture.supplyAsync(() -> {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          boolean admitted = group.tryEnter(10_000);
+          if (admitted) {
+            group.exit();
+          }
+          return admitted;
+        }, threads));
+      }
+      start.countDown();
+      await(() -> group.toJson().getInt("queueDepth") == waiters);
+      // 同時に待ち行列に入ったリクエストの数を取りこぼさない
+      assertEquals(waiters, group.toJson().getLong("maxQueueDepth"));
+      group.exit();
+      for (CompletableFuture<Boolean> result : results) {
+        assertTrue(result.get(10, TimeUnit.SECONDS));
+      }
+    }
+    assertEquals(waiters + 1, group.toJson().getLong("admitted"));
+    System.out.println("[成功] testMaxQueueDepthUnderContention / 同時に待つリクエストの最大数テスト完了");
+  }
+
+  private CompletableFuture<HttpResponse<String>> send() {
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create(base + "/hold")).GET().build();
+    return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static JSONObject group(AdmissionControl admission) {
+    return admission.toJson().getJSONObject(AdmissionControl.READ);
+  }
+
+  private static void await(BooleanSupplier condition) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "状態が変わりませんでした");
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package com.habit.server.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.*;
+
+class BatchHandlerTest {
+
+  private HttpServer server;
+  private String base;
+  // 2件のサブリクエストが同時に実行されないと解放されないラッチ
+  private final CountDownLatch concurrent = new CountDownLatch(2);
+  private final AtomicInteger writes = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    Router router = new Router();
+    router.get("/slow", exchange -> {
+      concurrent.countDown();
+      try {
+        concurrent.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      JsonResponse.send(exchange, 200, json -> {
+        json.writeStartObject();
+        json.writeBooleanField("together", concurrent.getCount() == 0);
+        json.writeEndObject();
+      });
+    });
+    router.get("/users/{id}", exchange -> {
+      String session = exchange.getRequestHeaders().getFirst("SESSION_ID");
+      JsonResponse.send(exchange, 200, json -> {
+        json.writeStartObject();
+        json.writeStringField("id", Router.pathParam(exchange, "id"));
+        json.writeStringField("session", session);
+        json.writeStringField("q", Params.ofQuery(exchange).get("q"));
+        json.writeEndObject();
+      });
+    });
+    router.get("/text", exchange -> {
+      byte[] bytes = "42".getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", "text/plain");
+      exchange.sendResponseHeaders(200, bytes.length);
+      exchange.getResponseBody().write(bytes);
+      exchange.close();
+    });
+    // GETで登録された更新系のAPI（HabitServer の /joinTeam と同じ）
+    router.get("/joinTeam", exchange -> {
+      writes.incrementAndGet();
+      exchange.sendResponseHeaders(200, -1);
+      exchange.close();
+    });
+    router.post("/batch", new BatchHandler(router, 5, 5000));
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", router);
+    server.start();
+    base = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void testBatch() throws Exception {
+    System.out.println("[テスト開始] testBatch / 一括リクエストテスト");
+    JSONArray requests = new JSONArray()
+        .put(item("a", "/slow"))
+        .put(item("b", "/slow"))
+        .put(item("user", "/users/u1?q=x"))
+        .put(item("text", "/text"))
+        .put(item("missing", "/nothing"));
+    HttpResponse<String> response = post(requests);
+    assertEquals(200, response.statusCode());
+    JSONArray responses =
+        new JSONObject(response.body()).getJSONArray("responses");
+    assertEquals(5, responses.length());
+
+    // サブリクエストは並行に実行される
+    assertEquals("a", responses.getJSONObject(0).getString("id"));
+    assertTrue(responses.getJSONObject(0).getJSONObject("body")
+                   .getBoolean("together"));
+    assertTrue(responses.getJSONObject(1).getJSONObject("body")
+                   .getBoolean("together"));
+
+    // パスパラメータ・クエリ・ヘッダーが引き継がれる
+    JSONObject user = responses.getJSONObject(2).getJSONObject("body");
+    assertEquals("u1", user.getString("id"));
+    assertEquals("x", user.getString("q"));
+    assertEquals("s1", user.getString("session"));
+
+    // JSON以外の本文は文字列として埋め込まれる
+    assertEquals("42", responses.getJSONObject(3).getString("body"));
+    assertEquals(404, responses.getJSONObject(4).getInt("status"));
+    System.out.println("[成功] testBatch / 一括リクエストテスト完了");
+  }
+
+  @Test
+  void testInvalidSubRequests() throws Exception {
+    System.out.println("[テスト開始] testInvalidSubRequests / 不正なサブリクエストのテスト");
+    JSONArray requests = new JSONArray()
+        .put(item("post", "/text").put("method", "POST"))
+        .put(item("nested", "/batch"))
+        .put(item("relative", "text"));
+    JSONArray responses = new JSONObject(post(requests).body())
+                              .getJSONArray("responses");
+    assertEquals(405, responses.getJSONObject(0).getInt("status"));
+    assertEquals(400, responses.getJSONObject(1).getInt("status"));
+    assertEquals(400, responses.getJSONObject(2).getInt("status"));
+    System.out.println("[成功] testInvalidSubRequests / 不正なサブリクエストのテスト完了");
+  }
+
+  @Test
+  void testWriteRoutesRejected() throws Exception {
+    System.out.println("[テスト開始] testWriteRoutesRejected / 更新系のサブリクエストの拒否テスト");
+    // GETでも更新系・認証のパスは実行しない
+    JSONArray requests = new JSONArray()
+        .put(item("join", "/joinTeam?teamID=t1"))
+        .put(item("reset", "/manualTaskReset"))
+        .put(item("login", "/login"))
+        .put(item("text", "/text"));
+    JSONArray responses = new JSONObject(post(requests).body())
+                              .getJSONArray("responses");
+    assertEquals(405, responses.getJSONObject(0).getInt("status"));
+    assertEquals(405, responses.getJSONObject(1).getInt("status"));
+    assertEquals(405, responses.getJSONObject(2).getInt("status"));
+    assertEquals(200, responses.getJSONObject(3).getInt("status"));
+    assertEquals(0, writes.get());
+    System.out.println("[成功] testWriteRoutesRejected / 更新系のサブリクエストの拒否テスト完了");
+  }
+
+  @Test
+  void testTooManyRequests() throws Exception {
+    System.out.println("[テスト開始] testTooManyRequests / サブリクエスト数上限のテスト");
+    JSONArray requests = new JSONArray();
+    for (int i = 0; i < 6; i++) {
+      requests.put(item("t" + i, "/text"));
+    }
+    assertEquals(400, post(requests).statusCode());
+    System.out.println("[成功] testTooManyRequests / サブリクエスト数上限のテスト完了");
+  }
+
+  private static JSONObject item(String id, String path) {
+    return new JSONObject().put("id", id).put("path", path);
+  }
+
+  private HttpResponse<String> post(JSONArray requests) throws Exception {
+    HttpRequest request =
+        HttpRequest.newBuilder()
+            .uri(URI.create(base + "/batch"))
+            .header("SESSION_ID", "s1")
+            .POST(HttpRequest.BodyPublishers.ofString(
+                new JSONObject().put("requests", requests).toString()))
+            .build();
+    return HttpClient.newHttpClient().send(
+        request, HttpResponse.BodyHandlers.ofString());
+  }
+}
@@ -0,0 +1,97 @@
+package com.habit.server.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.habit.client.ConditionalGet;
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.*;
+
+class ETagsTest {
+
+  private HttpServer server;
+  private String base;
+  private final AtomicInteger version = new AtomicInteger();
+  private final AtomicInteger rendered = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/tasks", exchange -> {
+      int v = version.get();
+      if (ETags.notModified(exchange, "W/\"v" + v + "\"")) {
+        return;
+      }
+      rendered.incrementAndGet();
+      JsonResponse.send(exchange, 200, json -> {
+        json.writeStartArray();
+        json.writeString("task-v" + v);
+        json.writeEndArray();
+      });
+    });
+    server.start();
+    base = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void testMatches() {
+    System.out.println("[テスト開始] testMatches / If-None-Matchの比較テスト");
+    assertTrue(ETags.matches("W/\"a1\"", "W/\"a1\""));
+    assertTrue(ETags.matches("\"a1\"", "W/\"a1\""));
+    assertTrue(ETags.matches("\"x\", W/\"a1\"", "W/\"a1\""));
+    assertTrue(ETags.matches("*", "W/\"a1\""));
+    assertFalse(ETags.matches("W/\"a2\"", "W/\"a1\""));
+    assertFalse(ETags.matches(null, "W/\"a1\""));
+    System.out.println("[成功] testMatches / If-None-Matchの比較テスト完了");
+  }
+
+  @Test
+  void testNotModified() throws Exception {
+    System.out.println("[テスト開始] testNotModified / 304 Not Modifiedテスト");
+    HttpClient client = HttpClient.newHttpClient();
+    HttpResponse<String> first = client.send(
+        request().build(), HttpResponse.BodyHandlers.ofString());
+    assertEquals(200, first.statusCode());
+    String etag = first.headers().firstValue("ETag").orElseThrow();
+    assertEquals("W/\"v0\"", etag);
+
+    HttpResponse<String> second = client.send(
+        request().header("If-None-Match", etag).build(),
+        HttpResponse.BodyHandlers.ofString());
+    assertEquals(304, second.statusCode());
+    assertEquals("", second.body());
+    assertEquals(1, rendered.get());
+    System.out.println("[成功] testNotModified / 304 Not Modifiedテスト完了");
+  }
+
+  @Test
+  void testConditionalGetReusesBody() throws Exception {
+    System.out.println("[テスト開始] testConditionalGetReusesBody / クライアント側の本文再利用テスト");
+    HttpClient client = HttpClient.newHttpClient();
+    assertEquals("[\"task-v0\"]",
+                 ConditionalGet.getString(client, request().build()));
+    assertEquals("[\"task-v0\"]",
+                 ConditionalGet.getString(client, request().build()));
+    assertEquals(1, rendered.get());
+
+    version.incrementAndGet();
+    assertEquals("[\"task-v1\"]",
+                 ConditionalGet.getString(client, request().build()));
+    assertEquals(2, rendered.get());
+    System.out.println("[成功] testConditionalGetReusesBody / クライアント側の本文再利用テスト完了");
+  }
+
+  private HttpRequest.Builder request() {
+    return HttpRequest.newBuilder().uri(URI.create(base + "/tasks")).GET();
+  }
+}
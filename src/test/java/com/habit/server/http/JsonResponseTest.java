@@ -0,0 +1,78 @@
+package com.habit.server.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.*;
+
+class JsonResponseTest {
+
+  private static final String TRICKY = "say \"hi\"\\n\n\tこんにちは";
+
+  private HttpServer server;
+  private String base;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/list", exchange -> JsonResponse.send(exchange, 200, json -> {
+      json.writeStartArray();
+      for (int i = 0; i < 1000; i++) {
+        json.writeStartObject();
+        json.writeNumberField("index", i);
+        json.writeStringField("text", TRICKY);
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+    }));
+    server.createContext("/error", exchange
+                         -> JsonResponse.sendError(exchange, 500, "bad \"input\""));
+    server.start();
+    base = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void testStreamsEscapedJson() throws Exception {
+    System.out.println("[テスト開始] testStreamsEscapedJson / JSONストリーミング出力テスト");
+    HttpResponse<String> response = get("/list");
+    assertEquals(200, response.statusCode());
+    assertEquals("application/json; charset=UTF-8",
+                 response.headers().firstValue("Content-Type").orElse(null));
+    assertEquals("chunked",
+                 response.headers().firstValue("Transfer-Encoding").orElse(null));
+    JSONArray array = new JSONArray(response.body());
+    assertEquals(1000, array.length());
+    assertEquals(999, array.getJSONObject(999).getInt("index"));
+    assertEquals(TRICKY, array.getJSONObject(0).getString("text"));
+    System.out.println("[成功] testStreamsEscapedJson / JSONストリーミング出力テスト完了");
+  }
+
+  @Test
+  void testSendError() throws Exception {
+    System.out.println("[テスト開始] testSendError / エラーレスポンステスト");
+    HttpResponse<String> response = get("/error");
+    assertEquals(500, response.statusCode());
+    assertEquals("bad \"input\"",
+                 new JSONObject(response.body()).getString("error"));
+    System.out.println("[成功] testSendError / エラーレスポンステスト完了");
+  }
+
+  private HttpResponse<String> get(String path) throws Exception {
+    HttpClient client = HttpClient.newHttpClient();
+    HttpRequest request =
+        HttpRequest.newBuilder().uri(URI.create(base + path)).GET().build();
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+}
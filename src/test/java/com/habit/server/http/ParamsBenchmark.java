@@ -0,0 +1,85 @@
+package com.habit.server.http;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * パラメータ解析のマイクロベンチマーク。
+ *
+ * 従来の split("&") + startsWith + URLDecoder によるループと、
+ * Params による必要なキーのみの遅延デコードを比較する。
+ * /getTeamTaskStatusList 相当のクエリ（teamID, date, days）を使用する。
+ *
+ * 実行方法:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.habit.server.http.ParamsBenchmark
+ */
+public class ParamsBenchmark {
+  private static final String QUERY =
+      "teamID=8f14e45f-ceea-467f-a0e6-1f2a3b4c5d6e&date=2025-07-01&days=15";
+  private static final int WARMUP = 2_000_000;
+  private static final int ITERATIONS = 5_000_000;
+
+  private static long sink;
+
+  public static void main(String[] args) throws Exception {
+    for (int round = 0; round < 3; round++) {
+      run("split+URLDecoder", ParamsBenchmark::legacy, WARMUP);
+      run("Params", ParamsBenchmark::lazy, WARMUP);
+    }
+    run("split+URLDecoder", ParamsBenchmark::legacy, ITERATIONS);
+    run("Params", ParamsBenchmark::lazy, ITERATIONS);
+    System.out.println("(sink=" + sink + ")");
+  }
+
+  private static void run(String label, Runnable body, int iterations) {
+    long allocatedBefore = allocatedBytes();
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      body.run();
+    }
+    long elapsed = System.nanoTime() - start;
+    long allocated = allocatedBytes() - allocatedBefore;
+    if (iterations == ITERATIONS) {
+      System.out.printf("%-20s %8.1f ns/op  %6.1f B/op%n", label,
+                        (double)elapsed / iterations,
+                        (double)allocated / iterations);
+    }
+  }
+
+  // 従来のコントローラと同じ解析処理
+  private static void legacy() {
+    String teamID = null;
+    String dateStr = null;
+    int days = 1;
+    String[] params = QUERY.split("&");
+    for (String param : params) {
+      if (param.startsWith("teamID="))
+        teamID = URLDecoder.decode(param.substring(7), StandardCharsets.UTF_8);
+      if (param.startsWith("date="))
+        dateStr = URLDecoder.decode(param.substring(5), StandardCharsets.UTF_8);
+      if (param.startsWith("days="))
+        days = Integer.parseInt(param.substring(5));
+    }
+    sink += teamID.length() + dateStr.length() + days;
+  }
+
+  private static void lazy() {
+    Params params = Params.of(QUERY);
+    String teamID = params.get("teamID");
+    String dateStr = params.get("date");
+    int days = params.getInt("days", 1);
+    sink += teamID.length() + dateStr.length() + days;
+  }
+
+  private static long allocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean)bean)
+          .getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+    return 0;
+  }
+}
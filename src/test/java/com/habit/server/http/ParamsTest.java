@@ -0,0 +1,48 @@
+package com.habit.server.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.*;
+
+class ParamsTest {
+
+  @Test
+  void testGetAndDecode() {
+    System.out.println("[テスト開始] testGetAndDecode / パラメータ取得とデコードテスト");
+    Params params = Params.of(
+        "teamID=team-1&content=%E3%81%93%E3%82%93+%26+bye&limit=20&empty=");
+    assertEquals("team-1", params.get("teamID"));
+    assertEquals("こん & bye", params.get("content"));
+    assertEquals("", params.get("empty"));
+    assertNull(params.get("missing"));
+    assertEquals("def", params.get("missing", "def"));
+    assertTrue(params.has("limit"));
+    assertFalse(params.isEmpty());
+    assertTrue(Params.of(null).isEmpty());
+    System.out.println("[成功] testGetAndDecode / パラメータ取得とデコードテスト完了");
+  }
+
+  @Test
+  void testKeyBoundaries() {
+    System.out.println("[テスト開始] testKeyBoundaries / キーの境界判定テスト");
+    Params params = Params.of("xteamID=wrong&teamIDs=wrong2&teamID&teamID=ok");
+    // 前方・後方一致や "=" の無い項目には一致しない
+    assertEquals("ok", params.get("teamID"));
+    assertEquals("first", Params.of("a=first&a=second").get("a"));
+    System.out.println("[成功] testKeyBoundaries / キーの境界判定テスト完了");
+  }
+
+  @Test
+  void testTypedAccessors() {
+    System.out.println("[テスト開始] testTypedAccessors / 型付き取得テスト");
+    Params params = Params.of("days=7&bad=abc&date=2025-07-01&badDate=07/01");
+    assertEquals(7, params.getInt("days", 1));
+    assertEquals(1, params.getInt("bad", 1), "数値でない場合は既定値");
+    assertEquals(1, params.getInt("missing", 1));
+    assertEquals(LocalDate.of(2025, 7, 1), params.getDate("date", null));
+    assertNull(params.getDate("badDate", null), "形式不正の場合は既定値");
+    assertEquals("%zz", Params.of("v=%zz").get("v"), "不正なエスケープ");
+    System.out.println("[成功] testTypedAccessors / 型付き取得テスト完了");
+  }
+}
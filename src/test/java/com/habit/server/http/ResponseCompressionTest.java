@@ -0,0 +1,106 @@
+package com.habit.server.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.habit.client.HttpCompression;
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import org.json.JSONArray;
+import org.junit.jupiter.api.*;
+
+class ResponseCompressionTest {
+
+  private HttpServer server;
+  private String base;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    ResponseCompression.configure(true, 1024);
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/list", exchange -> JsonResponse.send(exchange, 200, json -> {
+      json.writeStartArray();
+      for (int i = 0; i < 1000; i++) {
+        json.writeString("task-" + i);
+      }
+      json.writeEndArray();
+    }));
+    server.createContext("/small", exchange -> JsonResponse.send(exchange, 200, json -> {
+      json.writeStartArray();
+      json.writeString("task");
+      json.writeEndArray();
+    }));
+    server.start();
+    base = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void testNegotiate() {
+    System.out.println("[テスト開始] testNegotiate / Accept-Encodingの選択テスト");
+    assertEquals("gzip", ResponseCompression.negotiate("gzip, deflate, br"));
+    assertEquals("deflate", ResponseCompression.negotiate("deflate"));
+    assertEquals("deflate", ResponseCompression.negotiate("gzip;q=0, deflate"));
+    assertEquals("gzip", ResponseCompression.negotiate("*"));
+    // 明示的な拒否・品質値は "*" より優先する
+    assertEquals("deflate", ResponseCompression.negotiate("gzip;q=0, *"));
+    assertNull(ResponseCompression.negotiate("gzip;q=0, deflate;q=0, *"));
+    assertEquals("deflate",
+                 ResponseCompression.negotiate("deflate;q=1, gzip;q=0.1"));
+    assertEquals("deflate",
+                 ResponseCompression.negotiate("deflate;q=1.0, gzip;q=0.1"));
+    assertEquals("gzip", ResponseCompression.negotiate("deflate;q=0.5, *"));
+    assertEquals("gzip", ResponseCompression.negotiate("deflate, gzip"));
+    assertNull(ResponseCompression.negotiate("*;q=0"));
+    assertNull(ResponseCompression.negotiate("br"));
+    assertNull(ResponseCompression.negotiate(null));
+    System.out.println("[成功] testNegotiate / Accept-Encodingの選択テスト完了");
+  }
+
+  @Test
+  void testCompressesLargeResponse() throws Exception {
+    System.out.println("[テスト開始] testCompressesLargeResponse / 大きなレスポンスの圧縮テスト");
+    for (String encoding : new String[] {"gzip", "deflate"}) {
+      HttpResponse<String> response = get("/list", encoding);
+      assertEquals(200, response.statusCode());
+      assertEquals(encoding,
+                   response.headers().firstValue("Content-Encoding").orElse(null));
+      assertEquals("Accept-Encoding",
+                   response.headers().firstValue("Vary").orElse(null));
+      JSONArray array = new JSONArray(response.body());
+      assertEquals(1000, array.length());
+      assertEquals("task-999", array.getString(999));
+    }
+    System.out.println("[成功] testCompressesLargeResponse / 大きなレスポンスの圧縮テスト完了");
+  }
+
+  @Test
+  void testSmallResponseIsNotCompressed() throws Exception {
+    System.out.println("[テスト開始] testSmallResponseIsNotCompressed / 小さなレスポンスの非圧縮テスト");
+    HttpResponse<String> response = get("/small", "gzip");
+    assertEquals(200, response.statusCode());
+    assertFalse(response.headers().firstValue("Content-Encoding").isPresent());
+    assertEquals(String.valueOf(response.body().length()),
+                 response.headers().firstValue("Content-Length").orElse(null));
+    assertEquals("[\"task\"]", response.body());
+    System.out.println("[成功] testSmallResponseIsNotCompressed / 小さなレスポンスの非圧縮テスト完了");
+  }
+
+  private HttpResponse<String> get(String path, String acceptEncoding)
+      throws Exception {
+    HttpClient client = HttpClient.newHttpClient();
+    HttpRequest request = HttpRequest.newBuilder()
+                              .uri(URI.create(base + path))
+                              .header("Accept-Encoding", acceptEncoding)
+                              .GET()
+                              .build();
+    return client.send(request, HttpCompression.ofString());
+  }
+}
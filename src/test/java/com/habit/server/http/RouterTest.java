@@ -0,0 +1,81 @@
+package com.habit.server.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.jupiter.api.*;
+
+class RouterTest {
+
+  private final HttpHandler handlerA = exchange -> {};
+  private final HttpHandler handlerB = exchange -> {};
+  private final HttpHandler handlerC = exchange -> {};
+
+  private Router router;
+
+  @BeforeEach
+  void setUp() {
+    router = new Router()
+                 .get("/getChatLog", handlerA)
+                 .post("/completeUserTask", handlerB)
+                 .get("/teams/{teamId}/tasks", handlerC)
+                 .get("/teams/active/tasks", handlerA)
+                 .any("/hello", handlerB);
+  }
+
+  @Test
+  void testStaticRoute() {
+    System.out.println("[テスト開始] testStaticRoute / 固定パスの検索テスト");
+    Router.Match match = router.find("GET", "/getChatLog");
+    assertNotNull(match);
+    assertSame(handlerA, match.route.handler);
+    assertTrue(match.params.isEmpty());
+    assertNull(router.find("GET", "/getChatLogs"), "前方一致はしない");
+    assertNull(router.find("GET", "/unknown"));
+    System.out.println("[成功] testStaticRoute / 固定パスの検索テスト完了");
+  }
+
+  @Test
+  void testPathParameter() {
+    System.out.println("[テスト開始] testPathParameter / パスパラメータの抽出テスト");
+    Router.Match match = router.find("GET", "/teams/team-1/tasks");
+    assertNotNull(match);
+    assertSame(handlerC, match.route.handler);
+    assertEquals("team-1", match.params.get("teamId"));
+
+    // 固定パスがパラメータより優先される
+    Router.Match active = router.find("GET", "/teams/active/tasks");
+    assertSame(handlerA, active.route.handler);
+    assertTrue(active.params.isEmpty());
+    System.out.println("[成功] testPathParameter / パスパラメータの抽出テスト完了");
+  }
+
+  @Test
+  void testMethodCheck() {
+    System.out.println("[テスト開始] testMethodCheck / HTTPメソッドの確認テスト");
+    Router.Match wrong = router.find("GET", "/completeUserTask");
+    assertNotNull(wrong);
+    assertNull(wrong.route, "メソッドが異なる場合はrouteがnull");
+    assertEquals("POST", wrong.allow);
+
+    assertSame(handlerB, router.find("DELETE", "/hello").route.handler);
+    assertThrows(IllegalStateException.class,
+                 () -> router.get("/getChatLog", handlerB));
+    System.out.println("[成功] testMethodCheck / HTTPメソッドの確認テスト完了");
+  }
+
+  @Test
+  void testLatencyHistogram() {
+    System.out.println("[テスト開始] testLatencyHistogram / 処理時間ヒストグラムテスト");
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 99; i++) {
+      histogram.record(1_000_000); // 1ms
+    }
+    histogram.record(100_000_000); // 100ms
+    assertEquals(100, histogram.count());
+    long p50 = histogram.percentileMicros(50);
+    assertTrue(p50 >= 1000 && p50 < 2048, "p50は1ms付近: " + p50);
+    assertEquals(100_000, histogram.percentileMicros(100));
+    System.out.println("[成功] testLatencyHistogram / 処理時間ヒストグラムテスト完了");
+  }
+}
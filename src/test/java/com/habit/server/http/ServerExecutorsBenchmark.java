@@ -0,0 +1,143 @@
+package com.habit.server.http;
+
+import com.habit.domain.Task;
+import com.habit.domain.UserTaskStatus;
+import com.habit.server.controller.AuthController;
+import com.habit.server.controller.UserTaskStatusController;
+import com.habit.server.repository.SqliteTaskRepository;
+import com.habit.server.repository.SqliteUserRepository;
+import com.habit.server.repository.SqliteUserTaskStatusRepository;
+import com.habit.server.repository.TaskRepository;
+import com.habit.server.repository.UserRepository;
+import com.habit.server.repository.UserTaskStatusRepository;
+import com.habit.server.service.AuthService;
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * リクエスト実行方式ごとのスループット比較ベンチマーク。
+ *
+ * /login（BCrypt検証）と /getTeamTaskStatusList（15日分のSQLite読み込み）へ
+ * 同時リクエストを送り、DISPATCHER / PLATFORM / VIRTUAL の各方式で
+ * スループットとレイテンシを計測する。
+ *
+ * 実行方法:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.habit.server.http.ServerExecutorsBenchmark
+ */
+public class ServerExecutorsBenchmark {
+  private static final int CONCURRENCY = 32;
+  private static final int REQUESTS = 256;
+  private static final int MEMBERS = 10;
+  private static final int TASKS = 5;
+  private static final int DAYS = 15;
+
+  public static void main(String[] args) throws Exception {
+    Path dir = Files.createTempDirectory("habit-bench");
+    String url = "jdbc:sqlite:" + dir.resolve("bench.db").toAbsolutePath();
+
+    UserRepository userRepository = new SqliteUserRepository(url);
+    TaskRepository taskRepository = new SqliteTaskRepository(url);
+    UserTaskStatusRepository statusRepository =
+        new SqliteUserTaskStatusRepository(url);
+    AuthService authService = new AuthService(userRepository);
+
+    String sessionId = authService.registerAndCreateSession("bench", "pw");
+    seed(taskRepository, statusRepository);
+
+    for (ServerExecutors.Mode mode : ServerExecutors.Mode.values()) {
+      HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+      AuthController authController = new AuthController(authService);
+      UserTaskStatusController statusController =
+          new UserTaskStatusController(authService, statusRepository,
+                                       taskRepository, userRepository);
+      server.createContext("/login", authController.getLoginHandler());
+      server.createContext("/getTeamTaskStatusList",
+                           statusController.getGetTeamTaskStatusListHandler());
+      ExecutorService executor = ServerExecutors.create(mode, CONCURRENCY);
+      server.setExecutor(executor);
+      server.start();
+      String base = "http://localhost:" + server.getAddress().getPort();
+      try {
+        HttpRequest login =
+            HttpRequest.newBuilder()
+                .uri(URI.create(base + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                    "username=bench&password=pw"))
+                .build();
+        HttpRequest status =
+            HttpRequest.newBuilder()
+                .uri(URI.create(base + "/getTeamTaskStatusList?teamID=team-0"
+                                + "&date=" + LocalDate.now() + "&days=" + DAYS))
+                .header("SESSION_ID", sessionId)
+                .GET()
+                .build();
+        run(mode + " /login", login, REQUESTS / 8);
+        run(mode + " /getTeamTaskStatusList", status, REQUESTS);
+      } finally {
+        server.stop(0);
+        if (executor != null) {
+          executor.shutdown();
+        }
+      }
+    }
+  }
+
+  private static void seed(TaskRepository taskRepository,
+                           UserTaskStatusRepository statusRepository) {
+    LocalDate today = LocalDate.now();
+    for (int t = 0; t < TASKS; t++) {
+      String taskId = "task-" + t;
+      taskRepository.save(new Task(taskId, "task" + t, "", "team-0", "daily"));
+      for (int m = 0; m < MEMBERS; m++) {
+        for (int d = 0; d < DAYS; d++) {
+          statusRepository.save(new UserTaskStatus(
+              "user-" + m, taskId, "team-0", today.minusDays(d), d % 2 == 0));
+        }
+      }
+    }
+  }
+
+  private static void run(String label, HttpRequest request, int total)
+      throws Exception {
+    ExecutorService clientPool = Executors.newFixedThreadPool(4);
+    HttpClient client = HttpClient.newBuilder().executor(clientPool).build();
+    ExecutorService callers = Executors.newFixedThreadPool(CONCURRENCY);
+    long[] latencies = new long[total];
+    List<Future<?>> futures = new ArrayList<>();
+    long start = System.nanoTime();
+    for (int i = 0; i < total; i++) {
+      final int index = i;
+      futures.add(callers.submit(() -> {
+        long t0 = System.nanoTime();
+        client.send(request, HttpResponse.BodyHandlers.discarding());
+        latencies[index] = System.nanoTime() - t0;
+        return null;
+      }));
+    }
+    for (Future<?> f : futures) {
+      f.get();
+    }
+    long elapsed = System.nanoTime() - start;
+    callers.shutdown();
+    clientPool.shutdown();
+    Arrays.sort(latencies);
+    System.out.printf("%-40s %8.1f req/s  p50=%6.1fms  p99=%6.1fms%n", label,
+                      total / (elapsed / 1e9), latencies[total / 2] / 1e6,
+                      latencies[(int)(total * 0.99)] / 1e6);
+  }
+}
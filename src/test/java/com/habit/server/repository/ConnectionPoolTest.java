@@ -0,0 +1,120 @@
+package com.habit.server.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import org.json.JSONObject;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConnectionPoolTest {
+
+  @TempDir Path tempDir;
+  private Path dbFile;
+  private ConnectionPool pool;
+
+  @BeforeEach
+  void setUp() {
+    dbFile = tempDir.resolve("pool.db");
+    pool = new ConnectionPool("jdbc:sqlite:" + dbFile, 2, 100, 30000,
+                              "busy_timeout=1234");
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.close();
+  }
+
+  @Test
+  void testReuseConnection() throws Exception {
+    System.out.println("[テスト開始] testReuseConnection / 接続の再利用テスト");
+    for (int i = 0; i < 5; i++) {
+      try (Connection conn = pool.getConnection();
+           Statement stmt = conn.createStatement();
+           ResultSet rs = stmt.executeQuery("PRAGMA busy_timeout")) {
+        assertTrue(rs.next());
+        assertEquals(1234, rs.getInt(1));
+      }
+    }
+    JSONObject stats = pool.toJson();
+    assertEquals(5, stats.getLong("borrows"));
+    assertEquals(1, stats.getLong("created"));
+    assertEquals(0, stats.getInt("active"));
+    assertEquals(1, stats.getInt("idle"));
+    System.out.println("[成功] testReuseConnection / 接続の再利用テスト完了");
+  }
+
+  @Test
+  void testBoundedPool() throws Exception {
+    System.out.println("[テスト開始] testBoundedPool / 接続数上限テスト");
+    Connection a = pool.getConnection();
+    Connection b = pool.getConnection();
+    assertEquals(2, pool.toJson().getInt("active"));
+    assertThrows(SQLTimeoutException.class, pool::getConnection);
+    a.close();
+    try (Connection c = pool.getConnection()) {
+      assertFalse(c.isClosed());
+    }
+    b.close();
+    JSONObject stats = pool.toJson();
+    assertEquals(1, stats.getLong("timeouts"));
+    assertEquals(1, stats.getLong("waits"));
+    assertTrue(stats.getDouble("waitMsMax") >= 50);
+    System.out.println("[成功] testBoundedPool / 接続数上限テスト完了");
+  }
+
+  @Test
+  void testRollbackOnReturn() throws Exception {
+    System.out.println("[テスト開始] testRollbackOnReturn / 返却時のロールバックテスト");
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE t (v INTEGER)");
+    }
+    Connection conn = pool.getConnection();
+    conn.setAutoCommit(false);
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("INSERT INTO t VALUES (1)");
+    }
+    conn.close(); // commitせずに返却
+    assertThrows(SQLException.class, conn::createStatement);
+
+    try (Connection again = pool.getConnection();
+         Statement stmt = again.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+      assertTrue(again.getAutoCommit());
+      assertTrue(rs.next());
+      assertEquals(0, rs.getInt(1));
+    }
+    System.out.println("[成功] testRollbackOnReturn / 返却時のロールバックテスト完了");
+  }
+
+  @Test
+  void testDatabaseFileReplaced() throws Exception {
+    System.out.println("[テスト開始] testDatabaseFileReplaced / DBファイル置き換え時のテスト");
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE old_table (v INTEGER)");
+    }
+    Files.delete(dbFile);
+    // 借りるたびにファイルは確認しないため、置き換えは reset() で知らせる
+    int generation = pool.generation();
+    pool.reset();
+    assertEquals(generation + 1, pool.generation());
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(
+             "SELECT COUNT(*) FROM sqlite_master WHERE name = 'old_table'")) {
+      assertTrue(rs.next());
+      assertEquals(0, rs.getInt(1));
+    }
+    assertTrue(Files.exists(dbFile));
+    assertEquals(2, pool.toJson().getLong("created"));
+    System.out.println("[成功] testDatabaseFileReplaced / DBファイル置き換え時のテスト完了");
+  }
+}
@@ -0,0 +1,225 @@
+package com.habit.server.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.habit.domain.UserTaskStatus;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class EpochDayBackfillTest {
+
+  private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+  private static final LocalDateTime COMPLETED =
+      LocalDateTime.of(2025, 1, 5, 21, 30, 15);
+
+  @TempDir Path tempDir;
+  private ConnectionPool pool;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    pool = new ConnectionPool(
+        "jdbc:sqlite:" + tempDir.resolve("epoch.db").toAbsolutePath(), 2,
+        1000, 30000, "journal_mode=WAL");
+    SchemaMigrations.migrate(pool);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.close();
+  }
+
+  @Test
+  void testBackfillLegacyRows() throws Exception {
+    System.out.println("[テスト開始] testBackfillLegacyRows / 既存の行の日付カラム移行テスト");
+    // 移行前の行（TEXT の日付だけを持つ）。複数のチャンクに分かれる件数
+    try (Connection conn = pool.getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(
+             "INSERT INTO user_task_statuses (userId, taskId, teamId, date, "
+             + "isDone, completionTimestamp) VALUES (?, 'task-1', 'team-1', "
+             + "?, ?, ?)")) {
+      for (int user = 0; user < 40; user++) {
+        for (int day = 0; day < 30; day++) {
+          boolean done = day == 4;
+          pstmt.setString(1, "u" + user);
+          pstmt.setString(2, FIRST_DAY.plusDays(day).toString());
+          pstmt.setInt(3, done ? 1 : 0);
+          pstmt.setString(4, done ? COMPLETED.toString() : null);
+          pstmt.addBatch();
+        }
+      }
+      pstmt.executeBatch();
+    }
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("INSERT INTO user_task_statuses (userId, taskId, teamId, "
+                   + "date, isDone) VALUES ('u0', 'task-2', 'team-2', "
+                   + "'broken', 0)");
+    }
+    UserTaskStatusRepository repo = new SqliteUserTaskStatusRepository(pool);
+
+    // 移行前は TEXT の date で検索し、行は date を解析して読む
+    assertFalse(EpochDayBackfill.isComplete(pool));
+    List<UserTaskStatus> before = repo.findByTeamIdAndDateRange(
+        "team-1", FIRST_DAY.plusDays(2), FIRST_DAY.plusDays(16));
+    assertEquals(40 * 15, before.size());
+    assertEquals(COMPLETED, repo.findByUserIdAndTaskIdAndDate(
+                                    "u1", "task-1", FIRST_DAY.plusDays(4))
+                                .orElseThrow()
+                                .getCompletionTimestamp());
+
+    try (EpochDayBackfill backfill = EpochDayBackfill.start(pool)) {
+      assertTrue(backfill.awaitCompletion(10_000));
+      assertTrue(EpochDayBackfill.isComplete(pool));
+      assertEquals(40 * 30, backfill.toJson().getLong("filled"));
+      assertEquals(1, backfill.toJson().getLong("quarantined"));
+
+      // 解析できない行は隔離用のテーブルへ移る
+      assertEquals(0, count("user_task_statuses WHERE day IS NULL"));
+      assertEquals(1, count(EpochDayBackfill.QUARANTINE_TABLE
+                            + " WHERE date = 'broken'"));
+      assertFalse(indexExists("idx_uts_team_date"));
+      assertTrue(indexExists("idx_uts_team_day"));
+
+      // 移行後は day で検索し、同じ結果になる
+      List<UserTaskStatus> after = repo.findByTeamIdAndDateRange(
+          "team-1", FIRST_DAY.plusDays(2), FIRST_DAY.plusDays(16));
+      assertEquals(before.size(), after.size());
+      assertEquals(40, repo.findByTeamIdAndDate("team-1", FIRST_DAY.plusDays(4))
+                           .stream()
+                           .filter(UserTaskStatus::isDone)
+                           .count());
+      assertEquals(COMPLETED, repo.findByUserIdAndTaskIdAndDate(
+                                      "u1", "task-1", FIRST_DAY.plusDays(4))
+                                  .orElseThrow()
+                                  .getCompletionTimestamp());
+    }
+    System.out.println("[成功] testBackfillLegacyRows / 既存の行の日付カラム移行テスト完了");
+  }
+
+  @Test
+  void testNewRowsWriteEpochColumns() throws Exception {
+    System.out.println("[テスト開始] testNewRowsWriteEpochColumns / 新しい行の整数カラム書き込みテスト");
+    try (EpochDayBackfill backfill = EpochDayBackfill.start(pool)) {
+      // 未移行の行がなければその場で完了する
+      assertTrue(backfill.isComplete());
+      UserTaskStatusRepository repo = new SqliteUserTaskStatusRepository(pool);
+      UserTaskStatus status =
+          new UserTaskStatus("u1", "task-1", "team-1", FIRST_DAY, false);
+      status.setDone(true);
+      repo.save(status);
+
+      try (Connection conn = pool.getConnection();
+           Statement stmt = conn.createStatement();
+           ResultSet rs = stmt.executeQuery(
+               "SELECT date, day, completedAt FROM user_task_statuses")) {
+        assertTrue(rs.next());
+        assertEquals(FIRST_DAY.toString(), rs.getString(1));
+        assertEquals(FIRST_DAY.toEpochDay(), rs.getLong(2));
+        assertEquals(UserTaskStatusRows.toEpochMilli(
+                         status.getCompletionTimestamp()),
+                     rs.getLong(3));
+      }
+      UserTaskStatus loaded =
+          repo.findByTeamIdAndDate("team-1", FIRST_DAY).get(0);
+      assertTrue(loaded.isDone());
+      // 保存した達成日時を（ミリ秒単位で）復元する
+      assertEquals(
+          status.getCompletionTimestamp().truncatedTo(ChronoUnit.MILLIS),
+          loaded.getCompletionTimestamp());
+    }
+    System.out.println("[成功] testNewRowsWriteEpochColumns / 新しい行の整数カラム書き込みテスト完了");
+  }
+
+  @Test
+  void testRestartAfterUnparseableRow() throws Exception {
+    System.out.println("[テスト開始] testRestartAfterUnparseableRow / 解析できない行がある場合の再起動テスト");
+    insertLegacyRow("u1", FIRST_DAY.toString());
+    insertLegacyRow("u2", "2025/01/01");
+    try (EpochDayBackfill backfill = EpochDayBackfill.start(pool)) {
+      assertTrue(backfill.awaitCompletion(10_000));
+    }
+
+    // 完了は記録されているため、再起動後は移行を再開せずにその場で完了する
+    try (EpochDayBackfill restarted = EpochDayBackfill.start(pool)) {
+      assertTrue(restarted.isComplete());
+      assertTrue(EpochDayBackfill.isComplete(pool));
+      assertEquals(0, restarted.toJson().getLong("filled"));
+      // TEXT の date で検索する行は残っていない
+      assertEquals(0, count("user_task_statuses WHERE day IS NULL"));
+      for (String index : EpochDayBackfill.TEXT_DATE_INDEXES) {
+        assertFalse(indexExists(index));
+      }
+      assertEquals(1, count(EpochDayBackfill.QUARANTINE_TABLE));
+      UserTaskStatusRepository repo = new SqliteUserTaskStatusRepository(pool);
+      assertEquals(1, repo.findByTeamIdAndDate("team-1", FIRST_DAY).size());
+      assertEquals(1, repo.findAll().size());
+    }
+    System.out.println("[成功] testRestartAfterUnparseableRow / 解析できない行がある場合の再起動テスト完了");
+  }
+
+  @Test
+  void testFinishedByEarlierVersion() throws Exception {
+    System.out.println("[テスト開始] testFinishedByEarlierVersion / 以前のバージョンで移行を終えたデータベースのテスト");
+    // 以前のバージョンは解析できない行を残したまま TEXT の日付の
+    // インデックスを削除し、完了を記録していなかった
+    insertLegacyRow("u1", "broken");
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement()) {
+      for (String index : EpochDayBackfill.TEXT_DATE_INDEXES) {
+        stmt.execute("DROP INDEX " + index);
+      }
+    }
+    try (EpochDayBackfill backfill = EpochDayBackfill.start(pool)) {
+      // 隔離を待たずに day で検索する
+      assertTrue(EpochDayBackfill.isComplete(pool));
+      assertTrue(backfill.awaitCompletion(10_000));
+      assertEquals(1, backfill.toJson().getLong("quarantined"));
+    }
+    assertEquals(0, count("user_task_statuses"));
+    try (EpochDayBackfill restarted = EpochDayBackfill.start(pool)) {
+      assertTrue(restarted.isComplete());
+    }
+    System.out.println("[成功] testFinishedByEarlierVersion / 以前のバージョンで移行を終えたデータベースのテスト完了");
+  }
+
+  // 移行前の行（TEXT の日付だけを持つ）を追加する
+  private void insertLegacyRow(String userId, String date) throws Exception {
+    try (Connection conn = pool.getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(
+             "INSERT INTO user_task_statuses (userId, taskId, teamId, date, "
+             + "isDone) VALUES (?, 'task-1', 'team-1', ?, 0)")) {
+      pstmt.setString(1, userId);
+      pstmt.setString(2, date);
+      pstmt.executeUpdate();
+    }
+  }
+
+  private int count(String from) throws Exception {
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + from)) {
+      assertTrue(rs.next());
+      return rs.getInt(1);
+    }
+  }
+
+  private boolean indexExists(String name) throws Exception {
+    try (Connection conn = pool.getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(
+             "SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = ?")) {
+      pstmt.setString(1, name);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        return rs.next();
+      }
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package com.habit.server.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * 各リポジトリのクエリが EXPLAIN QUERY PLAN でインデックスを使うことを確認する。
+ */
+class IndexMigrationTest {
+
+  private static final String UTS_PK = "sqlite_autoindex_user_task_statuses_1";
+  private static final String TEAM_MEMBERS_PK =
+      "sqlite_autoindex_team_members_1";
+
+  @TempDir Path tempDir;
+  private ConnectionPool pool;
+  private EpochDayBackfill backfill;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    pool = new ConnectionPool("jdbc:sqlite:" + tempDir.resolve("index.db"), 2,
+                              1000, 30000, "busy_timeout=5000");
+    SchemaMigrations.migrate(pool);
+    // 日付カラムの移行を済ませた状態（TEXT の日付のインデックスは削除済み）
+    backfill = EpochDayBackfill.start(pool);
+    assertTrue(backfill.isComplete());
+  }
+
+  @AfterEach
+  void tearDown() {
+    backfill.close();
+    pool.close();
+  }
+
+  @Test
+  void testIdempotent() throws Exception {
+    System.out.println("[テスト開始] testIdempotent / インデックス作成の再実行テスト");
+    assertEquals(0, SchemaMigrations.migrate(pool));
+    try (Connection conn = pool.getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(
+             "SELECT COUNT(*) FROM sqlite_master "
+             + "WHERE type = 'index' AND name LIKE 'idx_%'");
+         ResultSet rs = pstmt.executeQuery()) {
+      assertTrue(rs.next());
+      // v4 の1件・v5 の5件・v9 と v10 の1件ずつを加え、移行後に TEXT の日付の
+      // インデックスと v7 で主キーに置き換えた idx_team_members_team を除く
+      assertEquals(IndexMigration.STATEMENTS.size() + 1 + 5 + 1 + 1
+                       - EpochDayBackfill.TEXT_DATE_INDEXES.size() - 1,
+                   rs.getInt(1));
+    }
+    System.out.println("[成功] testIdempotent / インデックス作成の再実行テスト完了");
+  }
+
+  @Test
+  void testUserTaskStatusQueries() throws Exception {
+    System.out.println("[テスト開始] testUserTaskStatusQueries / user_task_statusesの検索テスト");
+    // findByUserId（userId 始まりのインデックスはどれでも引ける）
+    assertUsesAnyIndex("SELECT * FROM user_task_statuses WHERE userId = ?",
+                       UTS_PK, "idx_uts_user_day", "idx_uts_user_team_day");
+    // findByUserIdAndTaskId / findByUserIdAndTaskIdAndDate（主キーは TEXT の date）
+    assertUsesIndex(
+        "SELECT * FROM user_task_statuses WHERE userId = ? AND taskId = ?",
+        UTS_PK);
+    assertUsesIndex("SELECT * FROM user_task_statuses WHERE userId = ? AND "
+                        + "taskId = ? AND date = ?",
+                    UTS_PK);
+    // findByTaskId / findByTaskIdAndDate / TaskRepository.deleteById
+    assertUsesIndex("SELECT * FROM user_task_statuses WHERE taskId = ?",
+                    "idx_uts_task_day");
+    assertUsesIndex(
+        "SELECT * FROM user_task_statuses WHERE taskId = ? AND day = ?",
+        "idx_uts_task_day");
+    assertUsesIndex("DELETE FROM user_task_statuses WHERE taskId = ?",
+                    "idx_uts_task_day");
+    // TeamRepository.delete
+    assertUsesIndex("DELETE FROM user_task_statuses WHERE teamId = ?",
+                    "idx_uts_team_day");
+    // TaskRepository.findUserTaskStatusesForPeriod
+    assertUsesIndex("SELECT * FROM user_task_statuses WHERE userId = ? AND "
+                        + "day BETWEEN ? AND ?",
+                    "idx_uts_user_day");
+    // findUpcomingIncompleteByUserIdAndTaskId（主キー順なので並べ替え不要）
+    assertUsesIndex("SELECT * FROM user_task_statuses WHERE userId = ? AND "
+                        + "taskId = ? AND date >= ? AND isDone = 0 "
+                        + "ORDER BY date ASC LIMIT 1",
+                    UTS_PK);
+    // EpochDayBackfill の未移行の行の確認
+    assertUsesIndex(
+        "SELECT 1 FROM user_task_statuses WHERE day IS NULL LIMIT 1",
+        "idx_uts_day_missing");
+    System.out.println("[成功] testUserTaskStatusQueries / user_task_statusesの検索テスト完了");
+  }
+
+  @Test
+  void testTeamStatusQueries() throws Exception {
+    System.out.println("[テスト開始] testTeamStatusQueries / チームでの達成状況の検索テスト");
+    // findByTeamIdAndDate / findByTeamIdAndDateRange（tasks と JOIN しない）
+    assertUsesIndex(
+        "SELECT * FROM user_task_statuses WHERE teamId = ? AND day = ?",
+        "idx_uts_team_day");
+    assertUsesIndex("SELECT * FROM user_task_statuses WHERE teamId = ? AND "
+                        + "day >= ? AND day <= ?",
+                    "idx_uts_team_day");
+    // findByUserIdAndTeamId / findTaskIdsByUserIdAndTeamId /
+    // findByUserIdAndTeamIdAndDate
+    assertUsesIndex(
+        "SELECT * FROM user_task_statuses WHERE userId = ? AND teamId = ?",
+        "idx_uts_user_team_day");
+    assertUsesIndex("SELECT * FROM user_task_statuses WHERE userId = ? AND "
+                        + "teamId = ? AND day = ?",
+                    "idx_uts_user_team_day");
+    // findByUserIdAndDateAndTeamIdNotNull
+    assertNoFullScan("SELECT * FROM user_task_statuses WHERE userId = ? AND "
+                     + "day = ? AND teamId IS NOT NULL");
+    System.out.println("[成功] testTeamStatusQueries / チームでの達成状況の検索テスト完了");
+  }
+
+  @Test
+  void testTaskQueries() throws Exception {
+    System.out.println("[テスト開始] testTaskQueries / tasksの検索テスト");
+    assertUsesIndex("SELECT * FROM tasks WHERE teamID = ?", "idx_tasks_team");
+    assertUsesIndex("DELETE FROM tasks WHERE teamID = ?", "idx_tasks_team");
+    System.out.println("[成功] testTaskQueries / tasksの検索テスト完了");
+  }
+
+  @Test
+  void testTeamQueries() throws Exception {
+    System.out.println("[テスト開始] testTeamQueries / teams・team_membersの検索テスト");
+    assertUsesIndex("SELECT id FROM teams WHERE passcode = ?",
+                    "COVERING INDEX idx_teams_passcode");
+    assertUsesIndex("SELECT teamName FROM teams WHERE passcode = ?",
+                    "COVERING INDEX idx_teams_passcode");
+    assertUsesIndex("SELECT id FROM teams WHERE teamName = ?",
+                    "COVERING INDEX idx_teams_name");
+    assertUsesIndex("SELECT id, maxMembers FROM teams WHERE teamName = ?",
+                    "COVERING INDEX idx_teams_name");
+    // チーム→メンバーは主キー (teamID, memberId) の自動インデックスを使う
+    assertUsesIndex("SELECT memberId FROM team_members WHERE teamID = ?",
+                    "COVERING INDEX " + TEAM_MEMBERS_PK);
+    assertUsesIndex("SELECT COUNT(*) FROM team_members WHERE teamID = ?",
+                    "COVERING INDEX " + TEAM_MEMBERS_PK);
+    assertUsesAnyIndex(
+        "SELECT 1 FROM team_members WHERE teamID = ? AND memberId = ?",
+        "COVERING INDEX " + TEAM_MEMBERS_PK,
+        "COVERING INDEX idx_team_members_member");
+    assertUsesIndex("SELECT teamID FROM team_members WHERE memberId = ?",
+                    "COVERING INDEX idx_team_members_member");
+    assertUsesIndex("DELETE FROM team_members WHERE teamID = ?",
+                    TEAM_MEMBERS_PK);
+    // 参加チーム（UserRepository・TeamRepository.findJoinedTeams）
+    assertUsesIndex("SELECT teamID FROM team_members WHERE memberId = ? "
+                    + "ORDER BY rowid",
+                    "COVERING INDEX idx_team_members_member");
+    assertUsesIndex("SELECT t.id, t.teamName, t.creatorId, t.editPermission "
+                    + "FROM team_members m JOIN teams t ON t.id = m.teamID "
+                    + "WHERE m.memberId = ? ORDER BY m.rowid",
+                    "COVERING INDEX idx_team_members_member");
+    System.out.println("[成功] testTeamQueries / teams・team_membersの検索テスト完了");
+  }
+
+  @Test
+  void testMessageQueries() throws Exception {
+    System.out.println("[テスト開始] testMessageQueries / messagesの検索テスト");
+    String sql = "SELECT message_id, sender_id, team_id, content, timestamp "
+                 + "FROM messages WHERE team_id = ? ORDER BY timestamp LIMIT ?";
+    assertUsesIndex(sql, "idx_messages_team_time");
+    // インデックス順に読むため並べ替えは発生しない
+    assertFalse(plan(sql).stream().anyMatch(d -> d.contains("TEMP B-TREE")),
+                String.join("\n", plan(sql)));
+    assertUsesIndex("DELETE FROM messages WHERE team_id = ?",
+                    "idx_messages_team_time");
+    System.out.println("[成功] testMessageQueries / messagesの検索テスト完了");
+  }
+
+  @Test
+  void testTeamPurgeQueries() throws Exception {
+    System.out.println("[テスト開始] testTeamPurgeQueries / チームの関連データのチャンク削除テスト");
+    // チャンクごとの削除もチームIDのインデックスで対象の行を探す
+    assertUsesIndex(TeamPurge.CHUNK_DELETES.get(0), "idx_uts_team_day");
+    assertUsesIndex(TeamPurge.CHUNK_DELETES.get(1),
+                    "idx_uts_archive_team_day");
+    assertUsesIndex(TeamPurge.CHUNK_DELETES.get(2), "idx_tasks_team");
+    assertUsesIndex(TeamPurge.CHUNK_DELETES.get(3), "idx_messages_team_time");
+    System.out.println("[成功] testTeamPurgeQueries / チームの関連データのチャンク削除テスト完了");
+  }
+
+  @Test
+  void testArchiveQueries() throws Exception {
+    System.out.println("[テスト開始] testArchiveQueries / 達成状況のアーカイブの検索テスト");
+    assertUsesIndex(StatusArchiver.BY_TEAM_AND_DAY_RANGE,
+                    "idx_uts_archive_team_day");
+    // 最新の日付はインデックスだけを読んで求める（どちらのインデックスも day を含む）
+    assertUsesAnyIndex("SELECT MAX(day) FROM user_task_statuses_archive",
+                       "COVERING INDEX idx_uts_archive_team_day",
+                       "COVERING INDEX idx_uts_archive_user_team");
+    // findByUserId / findByUserIdAndTeamId に合わせたアーカイブの検索
+    assertUsesIndex("SELECT * FROM user_task_statuses_archive WHERE userId = ?",
+                    "idx_uts_archive_user_team");
+    assertUsesIndex("SELECT * FROM user_task_statuses_archive "
+                        + "WHERE userId = ? AND teamId = ?",
+                    "idx_uts_archive_user_team");
+    // findByTaskId とタスクの削除は主キー (taskId, userId, day) の先頭で探す
+    assertUsesIndex("DELETE FROM user_task_statuses_archive WHERE taskId = ?",
+                    "PRIMARY KEY");
+    System.out.println("[成功] testArchiveQueries / 達成状況のアーカイブの検索テスト完了");
+  }
+
+  private void assertUsesIndex(String sql, String... indexes)
+      throws Exception {
+    List<String> details = plan(sql);
+    for (String index : indexes) {
+      assertTrue(details.stream().anyMatch(d -> d.contains(index)),
+                 index + " が使われていません: " + sql + "\n" +
+                     String.join("\n", details));
+    }
+    assertNoFullScan(sql);
+  }
+
+  private void assertUsesAnyIndex(String sql, String... indexes)
+      throws Exception {
+    List<String> details = plan(sql);
+    assertTrue(details.stream().anyMatch(
+                   d -> List.of(indexes).stream().anyMatch(d::contains)),
+               String.join(" / ", indexes) + " が使われていません: " + sql +
+                   "\n" + String.join("\n", details));
+    assertNoFullScan(sql);
+  }
+
+  private void assertNoFullScan(String sql) throws Exception {
+    List<String> details = plan(sql);
+    for (String detail : details) {
+      assertFalse(detail.startsWith("SCAN") && !detail.contains("INDEX"),
+                  "全件走査しています: " + sql + "\n" +
+                      String.join("\n", details));
+    }
+  }
+
+  private List<String> plan(String sql) throws Exception {
+    List<String> details = new ArrayList<>();
+    try (Connection conn = pool.getConnection();
+         PreparedStatement pstmt =
+             conn.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+         ResultSet rs = pstmt.executeQuery()) {
+      while (rs.next()) {
+        details.add(rs.getString("detail"));
+      }
+    }
+    return details;
+  }
+}
@@ -22,7 +22,7 @@ class MessageRepositoryTest {
   void setUp() throws Exception {
     Path dbFile = tempDir.resolve("test-users.db");
     String url = "jdbc:sqlite:" + dbFile.toAbsolutePath();
-    repo = new MessageRepository(url);
+    repo = new SqliteMessageRepository(url);
   }
 
   @Test
@@ -95,4 +95,24 @@ class MessageRepositoryTest {
     assertTrue(none.isEmpty(), "No messages for unknown team");
     System.out.println("[成功] testFindNonexistentTeamReturnsEmpty / 存在しないチームのメッセージ取得テスト完了");
   }
+
+  @Test
+  void testSaveAndDeleteBumpChatVersion() {
+    System.out.println("[テスト開始] testSaveAndDeleteBumpChatVersion / チャット更新時のバージョン更新テスト");
+    long before = TeamVersions.get(TeamVersions.Kind.CHAT, "teamC");
+    String etag = TeamVersions.etag(TeamVersions.Kind.CHAT, "teamC");
+    repo.save(new Message("id1", new User("u1", "Alice", "pwd"), "teamC",
+                          "hello", MessageType.NORMAL));
+    assertEquals(before + 1, TeamVersions.get(TeamVersions.Kind.CHAT, "teamC"));
+    assertNotEquals(etag, TeamVersions.etag(TeamVersions.Kind.CHAT, "teamC"));
+
+    String messageId = repo.findMessagesByteamID("teamC", 1).get(0).id;
+    repo.delete(messageId);
+    assertEquals(before + 2, TeamVersions.get(TeamVersions.Kind.CHAT, "teamC"));
+
+    // 存在しないメッセージの削除ではバージョンは変わらない
+    repo.delete("no-such-message");
+    assertEquals(before + 2, TeamVersions.get(TeamVersions.Kind.CHAT, "teamC"));
+    System.out.println("[成功] testSaveAndDeleteBumpChatVersion / チャット更新時のバージョン更新テスト完了");
+  }
 }
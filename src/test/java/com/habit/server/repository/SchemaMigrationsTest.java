@@ -0,0 +1,225 @@
+package com.habit.server.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.habit.domain.Team;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class SchemaMigrationsTest {
+
+  @TempDir Path tempDir;
+  private ConnectionPool pool;
+
+  @BeforeEach
+  void setUp() {
+    pool = new ConnectionPool("jdbc:sqlite:" + tempDir.resolve("schema.db"), 2,
+                              1000, 30000, "busy_timeout=5000");
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.close();
+  }
+
+  @Test
+  void testFreshDatabase() throws Exception {
+    System.out.println("[テスト開始] testFreshDatabase / 新規DBのマイグレーションテスト");
+    assertEquals(SchemaMigrations.MIGRATIONS.size(),
+                 SchemaMigrations.migrate(pool));
+    assertEquals(SchemaMigrations.latestVersion(),
+                 SchemaMigrations.currentVersion(pool));
+    // 2回目は何も適用しない
+    assertEquals(0, SchemaMigrations.migrate(pool));
+    assertTrue(columns("user_task_statuses").contains("teamId"));
+    System.out.println("[成功] testFreshDatabase / 新規DBのマイグレーションテスト完了");
+  }
+
+  @Test
+  void testLegacyDatabase() throws Exception {
+    System.out.println("[テスト開始] testLegacyDatabase / 既存DBのマイグレーションテスト");
+    // schema_version がなく、カラムが不足している古いDB
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE teams (id TEXT PRIMARY KEY)");
+      stmt.execute("CREATE TABLE tasks (taskName TEXT, teamID TEXT)");
+      stmt.execute("CREATE TABLE user_task_statuses (userId TEXT, "
+                   + "taskId TEXT, date TEXT, isDone INTEGER, "
+                   + "completionTimestamp TEXT, "
+                   + "PRIMARY KEY(userId, taskId, date))");
+      stmt.execute("INSERT INTO teams (id) VALUES ('t1')");
+    }
+    SchemaMigrations.migrate(pool);
+    assertEquals(SchemaMigrations.latestVersion(),
+                 SchemaMigrations.currentVersion(pool));
+    assertTrue(columns("teams").containsAll(
+        Set.of("teamName", "passcode", "maxMembers", "editPermission",
+               "creatorId")));
+    assertTrue(columns("tasks").containsAll(
+        Set.of("taskId", "dueDate", "cycleType")));
+    assertTrue(columns("user_task_statuses").contains("teamId"));
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM teams")) {
+      assertTrue(rs.next());
+      assertEquals(1, rs.getInt(1));
+    }
+    System.out.println("[成功] testLegacyDatabase / 既存DBのマイグレーションテスト完了");
+  }
+
+  @Test
+  void testBackfillStatusTeamId() throws Exception {
+    System.out.println("[テスト開始] testBackfillStatusTeamId / 達成状況のteamId補完テスト");
+    // teamId カラムがなかった頃の達成状況の行
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE tasks (taskId TEXT PRIMARY KEY, "
+                   + "taskName TEXT, teamID TEXT)");
+      stmt.execute("CREATE TABLE user_task_statuses (userId TEXT, "
+                   + "taskId TEXT, date TEXT, isDone INTEGER, "
+                   + "completionTimestamp TEXT, "
+                   + "PRIMARY KEY(userId, taskId, date))");
+      stmt.execute("INSERT INTO tasks VALUES ('task-1', 'team', 't1'), "
+                   + "('task-2', 'personal', NULL)");
+      stmt.execute("INSERT INTO user_task_statuses VALUES "
+                   + "('u1', 'task-1', '2025-01-10', 0, NULL), "
+                   + "('u1', 'task-2', '2025-01-10', 0, NULL)");
+    }
+    SchemaMigrations.migrate(pool);
+    UserTaskStatusRepository repo = new SqliteUserTaskStatusRepository(pool);
+    assertEquals(1,
+                 repo.findByTeamIdAndDate("t1", LocalDate.of(2025, 1, 10))
+                     .size());
+    assertEquals(List.of("task-1"),
+                 repo.findTaskIdsByUserIdAndTeamId("u1", "t1"));
+    // 個人タスクの行は teamId のまま（NULL）
+    assertNull(repo.findByUserIdAndTaskId("u1", "task-2")
+                   .orElseThrow()
+                   .getTeamId());
+    System.out.println("[成功] testBackfillStatusTeamId / 達成状況のteamId補完テスト完了");
+  }
+
+  @Test
+  void testMoveJoinedTeamIds() throws Exception {
+    System.out.println("[テスト開始] testMoveJoinedTeamIds / 参加チームのteam_members移行テスト");
+    // 参加チームを users.joinedTeamIds（カンマ区切り）にも持っていた頃のDB
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE users (userId TEXT PRIMARY KEY, "
+                   + "username TEXT UNIQUE, hashedPassword TEXT, "
+                   + "sabotagePoints INTEGER, joinedTeamIds TEXT, "
+                   + "profileIconPath TEXT, bio TEXT)");
+      stmt.execute("CREATE TABLE teams (id TEXT PRIMARY KEY, "
+                   + "teamName TEXT, passcode TEXT, maxMembers INTEGER, "
+                   + "editPermission TEXT, creatorId TEXT)");
+      stmt.execute("CREATE TABLE team_members (teamID TEXT, memberId TEXT)");
+      stmt.execute("INSERT INTO users VALUES "
+                   + "('u1', 'alice', 'x', 0, 't2,t1,gone', NULL, NULL), "
+                   + "('u2', 'bob', 'x', 0, 't1', NULL, NULL)");
+      stmt.execute("INSERT INTO teams VALUES "
+                   + "('t1', 'one', 'p1', 5, 'all', 'u2'), "
+                   + "('t2', 'two', 'p2', 5, 'all', 'u3')");
+      // u2 の参加は両方にあり、u1 の t1 は joinedTeamIds にしかない
+      stmt.execute("INSERT INTO team_members VALUES ('t1', 'u2')");
+    }
+    SchemaMigrations.migrate(pool);
+
+    UserRepository users = new SqliteUserRepository(pool);
+    TeamRepository teams = new SqliteTeamRepository(pool);
+    // 存在しないチーム（gone）は移さない
+    assertEquals(List.of("t2", "t1"), users.findById("u1").getJoinedTeamIds());
+    assertEquals(List.of("t1"), users.findById("u2").getJoinedTeamIds());
+    // team_members にいなかった作成者も参加チームとして引ける
+    assertEquals(List.of("t2"), teams.findJoinedTeams("u3")
+                                    .stream()
+                                    .map(Team::getTeamID)
+                                    .toList());
+    assertEquals(Set.of("u1", "u2"),
+                 new HashSet<>(teams.findMemberIdsByTeamId("t1")));
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(
+             "SELECT COUNT(*) FROM users WHERE joinedTeamIds IS NOT NULL")) {
+      assertTrue(rs.next());
+      assertEquals(0, rs.getInt(1));
+    }
+    System.out.println("[成功] testMoveJoinedTeamIds / 参加チームのteam_members移行テスト完了");
+  }
+
+  @Test
+  void testTeamMembersPrimaryKey() throws Exception {
+    System.out.println("[テスト開始] testTeamMembersPrimaryKey / team_membersの主キー追加テスト");
+    // 一意制約がなかった頃のDB（同時参加による重複の行と NULL の行を含む）
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE team_members (teamID TEXT, memberId TEXT)");
+      stmt.execute("INSERT INTO team_members VALUES ('t2', 'u1'), "
+                   + "('t1', 'u1'), ('t2', 'u1'), ('t1', 'u2'), "
+                   + "('t1', NULL), ('t1', 'u2')");
+    }
+    SchemaMigrations.migrate(pool);
+
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement()) {
+      try (ResultSet rs =
+               stmt.executeQuery("SELECT COUNT(*) FROM team_members")) {
+        assertTrue(rs.next());
+        assertEquals(3, rs.getInt(1));
+      }
+      // 参加した順（最初の行の順）は保たれる
+      List<String> joined = new ArrayList<>();
+      try (ResultSet rs = stmt.executeQuery(
+               "SELECT teamID FROM team_members WHERE memberId = 'u1' "
+               + "ORDER BY rowid")) {
+        while (rs.next()) {
+          joined.add(rs.getString(1));
+        }
+      }
+      assertEquals(List.of("t2", "t1"), joined);
+      // 重複した参加は主キー違反になる
+      assertThrows(SQLException.class,
+                   () -> stmt.execute("INSERT INTO team_members "
+                                      + "VALUES ('t1', 'u1')"));
+    }
+    System.out.println("[成功] testTeamMembersPrimaryKey / team_membersの主キー追加テスト完了");
+  }
+
+  @Test
+  void testRepositoryConstructionIsFree() throws Exception {
+    System.out.println("[テスト開始] testRepositoryConstructionIsFree / リポジトリ生成時のDBアクセステスト");
+    new SqliteTeamRepository(pool);
+    assertEquals(SchemaMigrations.latestVersion(),
+                 SchemaMigrations.currentVersion(pool));
+    long borrows = pool.toJson().getLong("borrows");
+    for (int i = 0; i < 100; i++) {
+      new SqliteTeamRepository(pool);
+      new SqliteUserTaskStatusRepository(pool);
+      new SqliteTaskRepository(pool);
+    }
+    // マイグレーション済みのプールでは接続を借りない
+    assertEquals(borrows, pool.toJson().getLong("borrows"));
+    System.out.println("[成功] testRepositoryConstructionIsFree / リポジトリ生成時のDBアクセステスト完了");
+  }
+
+  private Set<String> columns(String table) throws Exception {
+    Set<String> names = new HashSet<>();
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+      while (rs.next()) {
+        names.add(rs.getString("name"));
+      }
+    }
+    return names;
+  }
+}
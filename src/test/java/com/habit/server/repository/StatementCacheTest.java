@@ -0,0 +1,142 @@
+package com.habit.server.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import org.json.JSONObject;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class StatementCacheTest {
+
+  private static final String SELECT = "SELECT v FROM t WHERE k = ?";
+
+  @TempDir Path tempDir;
+  private ConnectionPool pool;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    pool = new ConnectionPool("jdbc:sqlite:" + tempDir.resolve("cache.db"), 2,
+                              1000, 30000, "journal_mode=WAL", 2);
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE t (k TEXT PRIMARY KEY, v INTEGER)");
+      stmt.execute("INSERT INTO t VALUES ('a', 1), ('b', 2)");
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.close();
+  }
+
+  @Test
+  void testReuseStatement() throws Exception {
+    System.out.println("[テスト開始] testReuseStatement / 準備済み文の再利用テスト");
+    for (int i = 0; i < 10; i++) {
+      String key = i % 2 == 0 ? "a" : "b";
+      assertEquals(i % 2 == 0 ? 1 : 2, select(key));
+    }
+    JSONObject stats = cacheStats();
+    assertEquals(1, stats.getLong("misses"));
+    assertEquals(9, stats.getLong("hits"));
+    assertEquals(0.9, stats.getDouble("hitRate"), 1e-9);
+    System.out.println("[成功] testReuseStatement / 準備済み文の再利用テスト完了");
+  }
+
+  @Test
+  void testParametersCleared() throws Exception {
+    System.out.println("[テスト開始] testParametersCleared / 返却時のパラメータ消去テスト");
+    assertEquals(1, select("a"));
+    try (Connection conn = pool.getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(SELECT)) {
+      // 前回のパラメータが残っていれば 'a' の行が返ってしまう（未設定はNULL）
+      try (ResultSet rs = pstmt.executeQuery()) {
+        assertFalse(rs.next());
+      }
+    }
+    System.out.println("[成功] testParametersCleared / 返却時のパラメータ消去テスト完了");
+  }
+
+  @Test
+  void testNestedSameSql() throws Exception {
+    System.out.println("[テスト開始] testNestedSameSql / 同じSQLの入れ子利用テスト");
+    try (Connection conn = pool.getConnection();
+         PreparedStatement outer = conn.prepareStatement(SELECT);
+         PreparedStatement inner = conn.prepareStatement(SELECT)) {
+      assertNotSame(outer, inner);
+      outer.setString(1, "a");
+      inner.setString(1, "b");
+      try (ResultSet a = outer.executeQuery(); ResultSet b = inner.executeQuery()) {
+        assertTrue(a.next());
+        assertTrue(b.next());
+        assertEquals(1, a.getInt(1));
+        assertEquals(2, b.getInt(1));
+      }
+    }
+    System.out.println("[成功] testNestedSameSql / 同じSQLの入れ子利用テスト完了");
+  }
+
+  @Test
+  void testEviction() throws Exception {
+    System.out.println("[テスト開始] testEviction / キャッシュ上限のテスト");
+    try (Connection conn = pool.getConnection()) {
+      for (String sql : new String[] {"SELECT 1", "SELECT 2", "SELECT 3",
+                                      "SELECT 1"}) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+          assertTrue(rs.next());
+        }
+      }
+    }
+    JSONObject stats = cacheStats();
+    // 上限2件のため "SELECT 1" は追い出されてから再度準備される
+    assertEquals(4, stats.getLong("misses"));
+    assertEquals(2, stats.getLong("evictions"));
+    System.out.println("[成功] testEviction / キャッシュ上限のテスト完了");
+  }
+
+  @Test
+  void testSeesOtherConnectionsWrites() throws Exception {
+    System.out.println("[テスト開始] testSeesOtherConnectionsWrites / 他の接続の書き込みの反映テスト");
+    try (Connection reader = pool.getConnection();
+         Connection writer = pool.getConnection()) {
+      assertEquals(1, select(reader, "a"));
+      try (Statement stmt = writer.createStatement()) {
+        assertEquals(1,
+                     stmt.executeUpdate("UPDATE t SET v = 10 WHERE k = 'a'"));
+      }
+      // キャッシュに戻した文が読み取りスナップショットを保持していないこと
+      // （保持していると、同じ接続の別の文からも古い値が見える）
+      try (Statement stmt = reader.createStatement();
+           ResultSet rs = stmt.executeQuery("SELECT v FROM t WHERE k = 'a'")) {
+        assertTrue(rs.next());
+        assertEquals(10, rs.getInt(1));
+      }
+    }
+    System.out.println("[成功] testSeesOtherConnectionsWrites / 他の接続の書き込みの反映テスト完了");
+  }
+
+  private int select(String key) throws Exception {
+    try (Connection conn = pool.getConnection()) {
+      return select(conn, key);
+    }
+  }
+
+  private int select(Connection conn, String key) throws Exception {
+    try (PreparedStatement pstmt = conn.prepareStatement(SELECT)) {
+      pstmt.setString(1, key);
+      ResultSet rs = pstmt.executeQuery();
+      assertTrue(rs.next());
+      return rs.getInt(1);
+    }
+  }
+
+  private JSONObject cacheStats() {
+    return pool.toJson().getJSONObject("statementCache");
+  }
+}
@@ -0,0 +1,208 @@
+package com.habit.server.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.habit.domain.Task;
+import com.habit.domain.UserTaskStatus;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.json.JSONObject;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class StatusArchiverTest {
+  // 2025-07-01 00:01 JST
+  private static final Clock CLOCK =
+      Clock.fixed(Instant.parse("2025-06-30T15:01:00Z"),
+                  ZoneId.of("Asia/Tokyo"));
+  private static final LocalDate TODAY = LocalDate.now(CLOCK);
+  private static final int DAYS = 400;
+  private static final int HORIZON_DAYS = 90;
+
+  @TempDir Path tempDir;
+  private String url;
+  private ConnectionPool pool;
+  private EpochDayBackfill backfill;
+  private UserTaskStatusRepository repo;
+  private StatusArchiver archiver;
+
+  @BeforeEach
+  void setUp() {
+    url = "jdbc:sqlite:" + tempDir.resolve("archive.db").toAbsolutePath();
+    pool = newPool();
+    backfill = EpochDayBackfill.start(pool);
+    repo = new SqliteUserTaskStatusRepository(pool);
+    TaskRepository tasks = new SqliteTaskRepository(pool);
+    List<UserTaskStatus> statuses = new ArrayList<>();
+    for (String teamId : List.of("t1", "t2")) {
+      for (String userId : List.of("u1", "u2")) {
+        String taskId = teamId + "-task";
+        tasks.save(new Task(taskId, "walk", "", teamId, "daily"));
+        for (int i = 0; i < DAYS; i++) {
+          UserTaskStatus status = new UserTaskStatus(
+              userId, taskId, teamId, TODAY.minusDays(i), i % 3 == 0);
+          if (status.isDone()) {
+            status.setCompletionTimestamp(
+                TODAY.minusDays(i).atTime(21, 30, 15));
+          }
+          statuses.add(status);
+        }
+      }
+    }
+    repo.saveAll(statuses);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (archiver != null) {
+      archiver.close();
+    }
+    backfill.close();
+    pool.close();
+  }
+
+  @Test
+  void testArchiveAndTransparentRead() throws Exception {
+    System.out.println("[テスト開始] testArchiveAndTransparentRead / 古い達成状況のアーカイブと読み込みテスト");
+    LocalDate from = TODAY.minusDays(DAYS - 1);
+    Set<String> before = snapshot(repo.findByTeamIdAndDateRange("t1", from,
+                                                                 TODAY));
+    assertEquals(2 * DAYS, before.size());
+
+    archiver = StatusArchiver.start(pool, CLOCK, 0, 1440); // 自動では移さない
+    long moved = archiver.archiveBefore(TODAY.minusDays(HORIZON_DAYS));
+
+    // 2チーム×2人×（DAYS - 保存期間）行を移す
+    int archivedPerMember = DAYS - HORIZON_DAYS - 1;
+    assertEquals(4L * archivedPerMember, moved);
+    assertEquals(4L * (DAYS - archivedPerMember), countRows("user_task_statuses"));
+    assertEquals(moved, countRows(StatusArchiver.TABLE));
+    JSONObject stats = archiver.toJson();
+    assertEquals(4L * (DAYS - archivedPerMember), stats.getLong("hotRows"));
+    assertEquals(moved, stats.getLong("archiveRows"));
+    System.out.println("アーカイブの統計: " + stats);
+
+    // アーカイブにまたがる範囲も、移す前と同じ内容を返す
+    assertEquals(before, snapshot(repo.findByTeamIdAndDateRange("t1", from,
+                                                                TODAY)));
+    List<UserTaskStatus> old = repo.findByTeamIdAndDateRange(
+        "t1", TODAY.minusDays(200), TODAY.minusDays(150));
+    assertEquals(2 * 51, old.size());
+    // 保存期間の境界をまたぐ範囲
+    assertEquals(2 * 11, repo.findByTeamIdAndDateRange(
+                                 "t1", TODAY.minusDays(95),
+                                 TODAY.minusDays(85))
+                             .size());
+    // 最近の範囲は user_task_statuses の行だけを返す
+    assertEquals(2 * 7, repo.findByTeamIdAndDateRange(
+                                "t1", TODAY.minusDays(6), TODAY)
+                            .size());
+    // 2回目は移す行がない
+    assertEquals(0, archiver.archiveBefore(TODAY.minusDays(HORIZON_DAYS)));
+    System.out.println("[成功] testArchiveAndTransparentRead / 古い達成状況のアーカイブと読み込みテスト完了");
+  }
+
+  @Test
+  void testHotRowWinsAndRestart() throws Exception {
+    System.out.println("[テスト開始] testHotRowWinsAndRestart / アーカイブ後の書き込みと再起動後の読み込みテスト");
+    archiver = StatusArchiver.start(pool, CLOCK, 0, 1440);
+    archiver.archiveBefore(TODAY.minusDays(HORIZON_DAYS));
+
+    // アーカイブ済みの日付に書き込まれた行は user_task_statuses の方を使う
+    LocalDate oldDay = TODAY.minusDays(200); // 200 % 3 != 0 のため未完了
+    repo.save(new UserTaskStatus("u1", "t1-task", "t1", oldDay, true));
+    List<UserTaskStatus> day = repo.findByTeamIdAndDateRange("t1", oldDay,
+                                                             oldDay);
+    assertEquals(2, day.size());
+    assertTrue(day.stream()
+                   .filter(s -> s.getUserId().equals("u1"))
+                   .allMatch(UserTaskStatus::isDone));
+
+    // 別のプール（再起動後）でもアーカイブの最新の日付から読み込む範囲を決める
+    try (ConnectionPool restarted = newPool()) {
+      List<UserTaskStatus> found =
+          new SqliteUserTaskStatusRepository(restarted)
+              .findByTeamIdAndDateRange("t2", TODAY.minusDays(DAYS - 1),
+                                        TODAY);
+      assertEquals(2 * DAYS, found.size());
+    }
+
+    // タスクを削除するとアーカイブの行も削除される
+    new SqliteTaskRepository(pool).deleteById("t2-task");
+    assertTrue(repo.findByTeamIdAndDateRange("t2", TODAY.minusDays(DAYS - 1),
+                                             TODAY)
+                   .isEmpty());
+    System.out.println("[成功] testHotRowWinsAndRestart / アーカイブ後の書き込みと再起動後の読み込みテスト完了");
+  }
+
+  @Test
+  void testUnboundedReadsIncludeArchive() throws Exception {
+    System.out.println("[テスト開始] testUnboundedReadsIncludeArchive / 期間を指定しない検索のアーカイブ読み込みテスト");
+    // 古い日付にしか行がないタスク（u1 だけが担当）
+    LocalDate oldDay = TODAY.minusDays(300);
+    repo.save(new UserTaskStatus("u1", "t1-old", "t1", oldDay, true));
+    Set<String> byUser = snapshot(repo.findByUserId("u1"));
+    Set<String> byUserTeam = snapshot(repo.findByUserIdAndTeamId("u1", "t1"));
+    Set<String> byTask = snapshot(repo.findByTaskId("t1-task"));
+    Set<String> all = snapshot(repo.findAll());
+
+    archiver = StatusArchiver.start(pool, CLOCK, 0, 1440);
+    archiver.archiveBefore(TODAY.minusDays(HORIZON_DAYS));
+
+    // 移す前と同じ内容を返す
+    assertEquals(byUser, snapshot(repo.findByUserId("u1")));
+    assertEquals(byUserTeam, snapshot(repo.findByUserIdAndTeamId("u1", "t1")));
+    assertEquals(byTask, snapshot(repo.findByTaskId("t1-task")));
+    assertEquals(all, snapshot(repo.findAll()));
+    // アーカイブにしか行がないタスクも /getUserTaskIds などから見える
+    assertTrue(repo.findTaskIdsByUserIdAndTeamId("u1", "t1").contains("t1-old"));
+    assertFalse(repo.findTaskIdsByUserIdAndTeamId("u2", "t1").contains("t1-old"));
+    assertTrue(repo.findByUserIdAndTaskId("u1", "t1-old").isPresent());
+    // アーカイブ済みの日付を指定する検索
+    assertTrue(repo.findByUserIdAndTaskIdAndDate("u1", "t1-old", oldDay)
+                   .orElseThrow()
+                   .isDone());
+    assertEquals(2, repo.findByTeamIdAndDate("t1", TODAY.minusDays(200)).size());
+    assertEquals(2, repo.findByTaskIdAndDate("t1-task", TODAY.minusDays(200)).size());
+    assertEquals(2, repo.findByUserIdAndTeamIdAndDate("u1", "t1", oldDay).size());
+    assertEquals(3, repo.findByUserIdAndDateAndTeamIdNotNull("u1", oldDay).size());
+    System.out.println("[成功] testUnboundedReadsIncludeArchive / 期間を指定しない検索のアーカイブ読み込みテスト完了");
+  }
+
+  private ConnectionPool newPool() {
+    return new ConnectionPool(url, 2, 1000, 30000,
+                              "journal_mode=WAL;busy_timeout=5000");
+  }
+
+  // 比較用に、行の内容を文字列の集合にする
+  private static Set<String> snapshot(List<UserTaskStatus> statuses) {
+    Set<String> rows = new HashSet<>();
+    for (UserTaskStatus status : statuses) {
+      LocalDateTime completed = status.getCompletionTimestamp();
+      rows.add(status.getUserId() + "|" + status.getTaskId() + "|" +
+               status.getTeamId() + "|" + status.getDate() + "|" +
+               status.isDone() + "|" + completed);
+    }
+    return rows;
+  }
+
+  private long countRows(String table) throws Exception {
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+      assertTrue(rs.next());
+      return rs.getLong(1);
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.habit.server.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.habit.domain.Team;
+import com.habit.server.AppContext;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * 同時に大量のチーム参加が来ても、上限人数を超えず重複も作らないことを
+ * 確認する負荷テスト（処理件数/秒も表示する）。
+ */
+class TeamJoinConcurrencyTest {
+  private static final int MAX_MEMBERS = 100;
+  private static final int USERS = 400;
+  // 最初の RETRIES 人は同じ参加を2回送る
+  private static final int RETRIES = 100;
+
+  @TempDir Path tempDir;
+
+  @Test
+  void testConcurrentJoinsOnSqlite() throws Exception {
+    System.out.println("[テスト開始] testConcurrentJoinsOnSqlite / SQLiteでの同時参加テスト");
+    String url = "jdbc:sqlite:" + tempDir.resolve("join.db").toAbsolutePath();
+    try (AppContext context = new AppContext(AppContext.Engine.SQLITE, url,
+                                             Clock.systemDefaultZone())) {
+      runJoins(context.getTeamRepository(), "sqlite");
+    }
+    System.out.println("[成功] testConcurrentJoinsOnSqlite / SQLiteでの同時参加テスト完了");
+  }
+
+  @Test
+  void testConcurrentJoinsOnMemory() throws Exception {
+    System.out.println("[テスト開始] testConcurrentJoinsOnMemory / インメモリでの同時参加テスト");
+    try (AppContext context = new AppContext(AppContext.Engine.MEMORY, null,
+                                             Clock.systemDefaultZone())) {
+      runJoins(context.getTeamRepository(), "memory");
+    }
+    System.out.println("[成功] testConcurrentJoinsOnMemory / インメモリでの同時参加テスト完了");
+  }
+
+  private void runJoins(TeamRepository teams, String engine)
+      throws Exception {
+    teams.save(new Team("t1", "crowd", "creator", "all"), "p1", MAX_MEMBERS,
+               "all", List.of());
+
+    List<String> joiners = new ArrayList<>();
+    for (int i = 0; i < USERS; i++) {
+      joiners.add("user-" + i);
+    }
+    for (int i = 0; i < RETRIES; i++) {
+      joiners.add("user-" + i);
+    }
+
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Integer>> results = new ArrayList<>();
+    long elapsed;
+    try (ExecutorService executor =
+             Executors.newVirtualThreadPerTaskExecutor()) {
+      for (String userId : joiners) {
+        results.add(executor.submit(() -> {
+          start.await();
+          return teams.addMemberByTeamName("crowd", userId);
+        }));
+      }
+      long begin = System.nanoTime();
+      start.countDown();
+      for (Future<Integer> result : results) {
+        result.get();
+      }
+      elapsed = System.nanoTime() - begin;
+    }
+
+    int[] counts = new int[3];
+    for (Future<Integer> result : results) {
+      int code = result.get();
+      assertTrue(code >= 0 && code <= 2, "想定外の結果: " + code);
+      counts[code]++;
+    }
+    List<String> members = teams.findMemberIdsByTeamId("t1");
+    System.out.printf("%s: %d件の参加を %.1f ms で処理（%.0f件/秒）"
+                          + " 成功=%d 上限=%d 既にメンバー=%d%n",
+                      engine, joiners.size(), elapsed / 1e6,
+                      joiners.size() / (elapsed / 1e9), counts[1], counts[0],
+                      counts[2]);
+
+    // 作成者を含めてちょうど上限人数で、重複はない
+    assertEquals(MAX_MEMBERS, members.size());
+    assertEquals(MAX_MEMBERS, new HashSet<>(members).size());
+    assertEquals(MAX_MEMBERS - 1, counts[1]);
+    assertEquals(joiners.size(), counts[0] + counts[1] + counts[2]);
+    // 参加に成功したユーザーの参加チームに含まれる
+    for (String memberId : members) {
+      assertEquals(List.of("t1"), teams.findJoinedTeams(memberId)
+                                      .stream()
+                                      .map(Team::getTeamID)
+                                      .toList());
+    }
+  }
+}
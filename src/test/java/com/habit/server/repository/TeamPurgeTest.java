@@ -0,0 +1,150 @@
+package com.habit.server.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.habit.domain.Message;
+import com.habit.domain.Task;
+import com.habit.domain.Team;
+import com.habit.domain.User;
+import com.habit.domain.UserTaskStatus;
+import com.habit.server.AppContext;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class TeamPurgeTest {
+  private static final LocalDate FIRST_DAY = LocalDate.of(2024, 7, 1);
+  // 複数のチャンクに分かれる日数（1人×1タスク×DAYS 行）
+  private static final int DAYS = TeamPurge.CHUNK_SIZE * 2 + 100;
+
+  @TempDir Path tempDir;
+  private String url;
+  private AppContext context;
+
+  @BeforeEach
+  void setUp() {
+    url = "jdbc:sqlite:" + tempDir.resolve("purge.db").toAbsolutePath();
+    context = new AppContext(url, Clock.systemDefaultZone());
+  }
+
+  @AfterEach
+  void tearDown() {
+    context.close();
+  }
+
+  @Test
+  void testDeleteInBackground() throws Exception {
+    System.out.println("[テスト開始] testDeleteInBackground / チームのバックグラウンド削除テスト");
+    populate("t1");
+    populate("t2");
+
+    context.getTeamRepository().deleteInBackground("t1");
+    // チームとメンバー構成はすぐに削除される
+    assertNull(context.getTeamRepository().findById("t1"));
+    assertEquals(List.of("t2"),
+                 context.getTeamRepository().findJoinedTeams("t2-user")
+                     .stream().map(Team::getTeamID).toList());
+    assertTrue(context.getTeamRepository().findJoinedTeams("t1-user")
+                   .isEmpty());
+
+    assertTrue(context.getTeamPurge().awaitIdle(10_000));
+    assertEquals(0, count("user_task_statuses", "teamId", "t1"));
+    assertEquals(0, count("tasks", "teamID", "t1"));
+    assertEquals(0, count("messages", "team_id", "t1"));
+    // ほかのチームのデータは残る
+    assertEquals(DAYS, count("user_task_statuses", "teamId", "t2"));
+    assertEquals(1, count("tasks", "teamID", "t2"));
+    assertEquals(3, count("messages", "team_id", "t2"));
+
+    var stats = context.getTeamPurge().toJson();
+    assertEquals(1, stats.getLong("teams"));
+    assertEquals(DAYS + 1 + 3, stats.getLong("rows"));
+    // 達成状況は3チャンク、アーカイブ（空）・タスク・チャットは1チャンクずつ
+    assertEquals(6, stats.getLong("chunks"));
+    System.out.println("削除の統計: " + stats);
+    System.out.println("[成功] testDeleteInBackground / チームのバックグラウンド削除テスト完了");
+  }
+
+  @Test
+  void testResumeAfterRestart() throws Exception {
+    System.out.println("[テスト開始] testResumeAfterRestart / 再起動後の削除再開テスト");
+    populate("t1");
+    // 関連データの削除前にサーバーが止まった状態（削除待ちだけが残る）
+    context.getTeamPurge().close();
+    context.getConnectionPool().write(conn -> {
+      try (Statement stmt = conn.createStatement()) {
+        stmt.executeUpdate("DELETE FROM teams WHERE id = 't1'");
+        stmt.executeUpdate("DELETE FROM team_members WHERE teamID = 't1'");
+      }
+      TeamPurge.enqueue(conn, "t1");
+      return null;
+    });
+    assertEquals(DAYS, count("user_task_statuses", "teamId", "t1"));
+
+    TeamPurge purge = TeamPurge.start(context.getConnectionPool());
+    try {
+      assertTrue(purge.awaitIdle(10_000));
+    } finally {
+      purge.close();
+    }
+    assertEquals(0, count("user_task_statuses", "teamId", "t1"));
+    assertEquals(0, count("messages", "team_id", "t1"));
+    System.out.println("[成功] testResumeAfterRestart / 再起動後の削除再開テスト完了");
+  }
+
+  @Test
+  void testWithoutPurgeThread() throws Exception {
+    System.out.println("[テスト開始] testWithoutPurgeThread / 削除スレッドなしでの削除テスト");
+    populate("t1");
+    context.getTeamPurge().close();
+    // 削除スレッドがなければ呼び出したスレッドでチャンクごとに削除する
+    new SqliteTeamRepository(context.getConnectionPool())
+        .deleteInBackground("t1");
+    assertEquals(0, count("user_task_statuses", "teamId", "t1"));
+    assertEquals(0, count("team_deletions", "teamId", "t1"));
+    System.out.println("[成功] testWithoutPurgeThread / 削除スレッドなしでの削除テスト完了");
+  }
+
+  private void populate(String teamId) {
+    String userId = teamId + "-user";
+    String taskId = teamId + "-task";
+    context.getUserRepository().save(new User(userId, userId, "x"));
+    context.getTeamRepository().save(new Team(teamId, teamId, userId, "all"),
+                                     teamId, 5, "all", List.of());
+    context.getTaskRepository().save(
+        new Task(taskId, "walk", "", teamId, "daily"));
+    List<UserTaskStatus> statuses = new ArrayList<>();
+    for (int i = 0; i < DAYS; i++) {
+      statuses.add(new UserTaskStatus(userId, taskId, teamId,
+                                      FIRST_DAY.plusDays(i), i % 2 == 0));
+    }
+    context.getUserTaskStatusRepository().saveAll(statuses);
+    User sender = new User(userId, userId, "x");
+    for (int i = 0; i < 3; i++) {
+      context.getMessageRepository().save(new Message(
+          sender, teamId, "message " + i, LocalDateTime.of(2024, 7, 1, 9, i)));
+    }
+  }
+
+  private int count(String table, String column, String value)
+      throws Exception {
+    try (Connection conn = context.getConnectionPool().getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(
+             "SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?")) {
+      pstmt.setString(1, value);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        assertTrue(rs.next());
+        return rs.getInt(1);
+      }
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package com.habit.server.repository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * チームの15日分の達成状況（/getTeamTaskStatusRange?days=15 と
+ * ダッシュボードの表）を取得する範囲検索のベンチマーク。
+ *
+ * 大きめの合成データ（チーム×メンバー×タスク×日数）に対して次を計測する。
+ * - join: 以前のクエリ（tasks と JOIN して t.teamID で絞り込む）
+ * - teamId: user_task_statuses の teamId と idx_uts_team_date だけで引くクエリ
+ * - findByTeamIdAndDateRange: 上のクエリに UserTaskStatus への変換を含めたもの
+ * - day: 整数の day と idx_uts_team_day で引くクエリ（日付カラムの移行後）
+ *
+ * 実行方法:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.habit.server.repository.TeamStatusRangeBenchmark
+ */
+public class TeamStatusRangeBenchmark {
+  private static final int TEAMS = 200;
+  private static final int MEMBERS = 10;
+  private static final int TASKS = 5;
+  private static final int DAYS = 60;
+  private static final int RANGE_DAYS = 15;
+  private static final int WARMUP = 500;
+  private static final int ITERATIONS = 3_000;
+  private static final LocalDate LAST_DAY = LocalDate.of(2025, 6, 30);
+
+  private static final String JOIN_SQL =
+      "SELECT uts.* FROM user_task_statuses uts "
+      + "JOIN tasks t ON uts.taskId = t.taskId "
+      + "WHERE t.teamID = ? AND uts.date >= ? AND uts.date <= ?";
+  private static final String TEAM_ID_SQL =
+      "SELECT * FROM user_task_statuses "
+      + "WHERE teamId = ? AND date >= ? AND date <= ?";
+  private static final String DAY_SQL =
+      "SELECT * FROM user_task_statuses "
+      + "WHERE teamId = ? AND day >= ? AND day <= ?";
+
+  public static void main(String[] args) throws Exception {
+    Path dir = Files.createTempDirectory("habit-bench");
+    String url = "jdbc:sqlite:" + dir.resolve("bench.db").toAbsolutePath();
+    ConnectionPool pool =
+        new ConnectionPool(url, 4, 5000, 30000, "journal_mode=WAL");
+    try {
+      UserTaskStatusRepository repository = new SqliteUserTaskStatusRepository(pool);
+      long start = System.nanoTime();
+      populate(pool);
+      System.out.printf("rows=%d  (populated in %d ms)%n",
+                        (long)TEAMS * MEMBERS * TASKS * DAYS,
+                        (System.nanoTime() - start) / 1_000_000);
+
+      explain(pool, JOIN_SQL);
+      explain(pool, TEAM_ID_SQL);
+
+      LocalDate from = LAST_DAY.minusDays(RANGE_DAYS - 1);
+      Random random = new Random(42);
+      run("join (tasks JOIN)", random,
+          teamId -> select(pool, JOIN_SQL, false, teamId, from));
+      run("teamId (idx_uts_team_date)", random,
+          teamId -> select(pool, TEAM_ID_SQL, false, teamId, from));
+      run("findByTeamIdAndDateRange (date)", random,
+          teamId
+          -> repository.findByTeamIdAndDateRange(teamId, from, LAST_DAY)
+                 .size());
+
+      // day は投入時に埋めてあるので、移行はその場で完了する
+      try (EpochDayBackfill backfill = EpochDayBackfill.start(pool)) {
+        explain(pool, DAY_SQL);
+        run("day (idx_uts_team_day)", random,
+            teamId -> select(pool, DAY_SQL, true, teamId, from));
+        run("findByTeamIdAndDateRange (day)", random,
+            teamId
+            -> repository.findByTeamIdAndDateRange(teamId, from, LAST_DAY)
+                   .size());
+      }
+    } finally {
+      pool.close();
+    }
+  }
+
+  private static void populate(ConnectionPool pool) throws Exception {
+    pool.write(conn -> {
+      try (PreparedStatement task = conn.prepareStatement(
+               "INSERT INTO tasks (taskId, taskName, teamID, cycleType) "
+               + "VALUES (?, ?, ?, 'daily')");
+           PreparedStatement status = conn.prepareStatement(
+               "INSERT INTO user_task_statuses (userId, taskId, teamId, "
+               + "date, day, isDone) VALUES (?, ?, ?, ?, ?, ?)")) {
+        for (int t = 0; t < TEAMS; t++) {
+          String teamId = "team-" + t;
+          for (int k = 0; k < TASKS; k++) {
+            String taskId = teamId + "-task-" + k;
+            task.setString(1, taskId);
+            task.setString(2, "task " + k);
+            task.setString(3, teamId);
+            task.executeUpdate();
+            for (int m = 0; m < MEMBERS; m++) {
+              for (int d = 0; d < DAYS; d++) {
+                status.setString(1, teamId + "-user-" + m);
+                status.setString(2, taskId);
+                status.setString(3, teamId);
+                LocalDate date = LAST_DAY.minusDays(d);
+                status.setString(4, date.toString());
+                status.setLong(5, date.toEpochDay());
+                status.setInt(6, (m + d) % 3 == 0 ? 1 : 0);
+                status.addBatch();
+              }
+            }
+          }
+          status.executeBatch();
+        }
+      }
+      return null;
+    });
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("ANALYZE");
+      stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+    }
+  }
+
+  private static void explain(ConnectionPool pool, String sql)
+      throws Exception {
+    try (Connection conn = pool.getConnection();
+         PreparedStatement pstmt =
+             conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+      for (int i = 1; i <= 3; i++) {
+        pstmt.setString(i, "x");
+      }
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          System.out.println("  plan: " + rs.getString("detail"));
+        }
+      }
+    }
+  }
+
+  // 行の読み取りまでを計測する（ドメインオブジェクトへの変換は含まない）
+  private static int select(ConnectionPool pool, String sql,
+                            boolean epochDays, String teamId, LocalDate from)
+      throws Exception {
+    int rows = 0;
+    try (Connection conn = pool.getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setString(1, teamId);
+      UserTaskStatusRows.bindDate(pstmt, 2, from, epochDays);
+      UserTaskStatusRows.bindDate(pstmt, 3, LAST_DAY, epochDays);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          // 列名での取得は遅いため列番号で読む（どちらも user_task_statuses の列順）
+          rs.getString(1);
+          rs.getString(2);
+          rs.getString(3);
+          rs.getString(4);
+          rs.getInt(5);
+          rows++;
+        }
+      }
+    }
+    return rows;
+  }
+
+  private interface Query {
+    int run(String teamId) throws Exception;
+  }
+
+  private static void run(String label, Random random, Query query)
+      throws Exception {
+    for (int i = 0; i < WARMUP; i++) {
+      query.run("team-" + random.nextInt(TEAMS));
+    }
+    long rows = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      rows += query.run("team-" + random.nextInt(TEAMS));
+    }
+    long elapsed = System.nanoTime() - start;
+    System.out.printf("%-34s %9.1f us/query  rows/query=%d%n", label,
+                      elapsed / 1e3 / ITERATIONS, rows / ITERATIONS);
+  }
+}
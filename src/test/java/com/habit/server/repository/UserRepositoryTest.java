@@ -5,6 +5,9 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import com.habit.domain.User;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -19,7 +22,7 @@ class UserRepositoryTest {
     // use a file-backed DB in a temp directory so all connections share state
     Path dbFile = tempDir.resolve("test-users.db");
     String url = "jdbc:sqlite:" + dbFile.toAbsolutePath();
-    repo = new UserRepository(url);
+    repo = new SqliteUserRepository(url);
   }
 
   @Test
@@ -76,6 +79,36 @@ class UserRepositoryTest {
     System.out.println("[成功] testUpdateSabotagePoints / サボタージュポイント更新テスト完了");
   }
 
+  @Test
+  void testIncrementSabotagePoints() {
+    System.out.println("[テスト開始] testIncrementSabotagePoints / サボタージュポイント一括加算テスト");
+    User u = new User("u4", "dave", "x");
+    u.setSabotagePoints(48);
+    u.addJoinedTeamId("teamA");
+    repo.save(u);
+    User erin = new User("u5", "erin", "x");
+    erin.setSabotagePoints(0);
+    repo.save(erin);
+
+    Map<String, Integer> deltas = new LinkedHashMap<>();
+    deltas.put("u4", 5);
+    deltas.put("u5", -1);
+    deltas.put("missing", 5);
+    int updated = repo.incrementSabotagePoints(deltas);
+    System.out.println("一括加算: " + deltas + " → 更新 " + updated + "人");
+
+    assertEquals(2, updated, "存在しないユーザーは数えない");
+    User dave = repo.findById("u4");
+    assertEquals(50, dave.getSabotagePoints(), "上限50に丸める");
+    assertEquals(0, repo.findById("u5").getSabotagePoints(), "下限0に丸める");
+    // ポイント以外の列と参加チームは変わらない
+    assertEquals("dave", dave.getUsername());
+    assertEquals(List.of("teamA"), dave.getJoinedTeamIds());
+    assertNull(repo.findById("missing"));
+    assertEquals(0, repo.incrementSabotagePoints(Map.of()));
+    System.out.println("[成功] testIncrementSabotagePoints / サボタージュポイント一括加算テスト完了");
+  }
+
   @Test
   void testNonexistentReturnsNull() {
     System.out.println("[テスト開始] testNonexistentReturnsNull / 存在しないユーザー検索テスト");
@@ -0,0 +1,85 @@
+package com.habit.server.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.habit.domain.UserTaskStatus;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class UserTaskStatusRepositoryTest {
+
+  private static final LocalDate DATE = LocalDate.of(2025, 1, 10);
+
+  @TempDir Path tempDir;
+  private ConnectionPool pool;
+  private UserTaskStatusRepository repo;
+
+  @BeforeEach
+  void setUp() {
+    pool = new ConnectionPool(
+        "jdbc:sqlite:" + tempDir.resolve("statuses.db").toAbsolutePath(), 2,
+        1000, 30000, "journal_mode=WAL");
+    repo = new SqliteUserTaskStatusRepository(pool);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.close();
+  }
+
+  @Test
+  void testInsertMissingKeepsExisting() {
+    System.out.println("[テスト開始] testInsertMissingKeepsExisting / 未作成分のみのバッチ追加テスト");
+    UserTaskStatus done = status("u0", DATE);
+    done.setDone(true);
+    repo.save(done);
+
+    List<UserTaskStatus> statuses = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      statuses.add(status("u" + i, DATE));
+    }
+    long writes = writes();
+    assertEquals(49, repo.insertMissing(statuses));
+    // 50件を1回の書き込みで追加する
+    assertEquals(1, writes() - writes);
+
+    assertEquals(50, repo.findByTaskIdAndDate("task-1", DATE).size());
+    // 既存の達成状況は上書きしない
+    assertTrue(repo.findByUserIdAndTaskIdAndDate("u0", "task-1", DATE)
+                   .orElseThrow()
+                   .isDone());
+    assertEquals(0, repo.insertMissing(statuses));
+    assertEquals(0, repo.insertMissing(List.of()));
+    System.out.println("[成功] testInsertMissingKeepsExisting / 未作成分のみのバッチ追加テスト完了");
+  }
+
+  @Test
+  void testSaveAllReplaces() {
+    System.out.println("[テスト開始] testSaveAllReplaces / バッチでの保存・更新テスト");
+    repo.insertMissing(List.of(status("u1", DATE), status("u2", DATE)));
+
+    UserTaskStatus done = status("u1", DATE);
+    done.setDone(true);
+    long writes = writes();
+    assertEquals(2, repo.saveAll(List.of(done, status("u3", DATE))));
+    assertEquals(1, writes() - writes);
+
+    assertTrue(repo.findByUserIdAndTaskIdAndDate("u1", "task-1", DATE)
+                   .orElseThrow()
+                   .isDone());
+    assertEquals(3, repo.findByTaskIdAndDate("task-1", DATE).size());
+    System.out.println("[成功] testSaveAllReplaces / バッチでの保存・更新テスト完了");
+  }
+
+  private static UserTaskStatus status(String userId, LocalDate date) {
+    return new UserTaskStatus(userId, "task-1", "team-1", date, false);
+  }
+
+  private long writes() {
+    return pool.writer().toJson().getLong("writes");
+  }
+}
@@ -0,0 +1,187 @@
+package com.habit.server.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONObject;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteQueueTest {
+
+  @TempDir Path tempDir;
+  private ConnectionPool pool;
+  private WriteQueue queue;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    pool = new ConnectionPool("jdbc:sqlite:" + tempDir.resolve("write.db"), 4,
+                              1000, 30000,
+                              "journal_mode=WAL;synchronous=NORMAL");
+    queue = new WriteQueue(pool, 2000, 128);
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE t (v INTEGER PRIMARY KEY)");
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    queue.close();
+    pool.close();
+  }
+
+  @Test
+  void testWalMode() throws Exception {
+    System.out.println("[テスト開始] testWalMode / WALモードのテスト");
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("PRAGMA journal_mode")) {
+      assertTrue(rs.next());
+      assertEquals("wal", rs.getString(1));
+    }
+    System.out.println("[成功] testWalMode / WALモードのテスト完了");
+  }
+
+  @Test
+  void testGroupCommit() throws Exception {
+    System.out.println("[テスト開始] testGroupCommit / グループコミットのテスト");
+    int count = 200;
+    List<Future<Integer>> results = new ArrayList<>();
+    try (ExecutorService executor =
+             Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < count; i++) {
+        int value = i;
+        results.add(executor.submit(() -> queue.execute(conn -> insert(conn, value))));
+      }
+      for (Future<Integer> result : results) {
+        assertEquals(1, result.get());
+      }
+    }
+    assertEquals(count, countRows());
+    JSONObject stats = queue.toJson();
+    assertEquals(count, stats.getLong("writes"));
+    assertTrue(stats.getLong("batches") < count);
+    assertTrue(stats.getLong("maxBatchSize") > 1);
+    System.out.println("[成功] testGroupCommit / グループコミットのテスト完了");
+  }
+
+  @Test
+  void testFailureIsolated() throws Exception {
+    System.out.println("[テスト開始] testFailureIsolated / 失敗した書き込みの分離テスト");
+    queue.execute(conn -> insert(conn, 1));
+    // 主キー重複で失敗する書き込みと、成功する書き込みを同時に積む
+    try (ExecutorService executor =
+             Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<Integer> failing = executor.submit(() -> queue.execute(conn -> {
+        insert(conn, 2);
+        return insert(conn, 1);
+      }));
+      Future<Integer> ok = executor.submit(() -> queue.execute(conn -> insert(conn, 3)));
+      Exception e = assertThrows(Exception.class, failing::get);
+      assertInstanceOf(SQLException.class, e.getCause());
+      assertEquals(1, ok.get());
+    }
+    // 失敗した書き込みの途中までの変更（2）は取り消される
+    assertEquals(2, countRows());
+    assertEquals(1, queue.toJson().getLong("failures"));
+    System.out.println("[成功] testFailureIsolated / 失敗した書き込みの分離テスト完了");
+  }
+
+  @Test
+  void testNestedWrite() throws Exception {
+    System.out.println("[テスト開始] testNestedWrite / 入れ子の書き込みテスト");
+    int inserted = queue.execute(conn -> {
+      insert(conn, 1);
+      return queue.execute(inner -> insert(inner, 2));
+    });
+    assertEquals(1, inserted);
+    assertEquals(2, countRows());
+    System.out.println("[成功] testNestedWrite / 入れ子の書き込みテスト完了");
+  }
+
+  @Test
+  void testWriteWhilePoolExhausted() throws Exception {
+    System.out.println("[テスト開始] testWriteWhilePoolExhausted / 接続がすべて貸し出し中の書き込みテスト");
+    List<Connection> borrowed = new ArrayList<>();
+    try {
+      for (int i = 0; i < 4; i++) {
+        borrowed.add(pool.getConnection());
+      }
+      // 書き込みスレッドは専用の接続を使うため、プールの空きを待たない
+      long start = System.nanoTime();
+      int inserted = queue.execute(conn -> insert(conn, 1));
+      assertEquals(1, inserted);
+      assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1000));
+    } finally {
+      for (Connection conn : borrowed) {
+        conn.close();
+      }
+    }
+    assertEquals(1, countRows());
+    assertEquals(0, pool.toJson().getLong("timeouts"));
+    System.out.println("[成功] testWriteWhilePoolExhausted / 接続がすべて貸し出し中の書き込みテスト完了");
+  }
+
+  @Test
+  void testWritesRacingClose() throws Exception {
+    System.out.println("[テスト開始] testWritesRacingClose / 停止と同時の書き込みテスト");
+    int count = 200;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Integer>> results = new ArrayList<>();
+    try (ExecutorService executor =
+             Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < count; i++) {
+        int value = i;
+        results.add(executor.submit(() -> {
+          start.await();
+          return queue.execute(conn -> insert(conn, value));
+        }));
+      }
+      start.countDown();
+      queue.close();
+      // すべての書き込みが、コミットされるか停止済みで失敗する（待ち続けない）
+      int committed = 0;
+      for (Future<Integer> result : results) {
+        try {
+          committed += result.get(15, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+          assertInstanceOf(SQLException.class, e.getCause());
+        }
+      }
+      assertEquals(committed, countRows());
+    }
+    assertThrows(SQLException.class, () -> queue.execute(conn -> insert(conn, -1)));
+    System.out.println("[成功] testWritesRacingClose / 停止と同時の書き込みテスト完了");
+  }
+
+  private static int insert(Connection conn, int value) throws SQLException {
+    try (PreparedStatement pstmt =
+             conn.prepareStatement("INSERT INTO t (v) VALUES (?)")) {
+      pstmt.setInt(1, value);
+      return pstmt.executeUpdate();
+    }
+  }
+
+  private int countRows() throws SQLException {
+    try (Connection conn = pool.getConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+      rs.next();
+      return rs.getInt(1);
+    }
+  }
+}
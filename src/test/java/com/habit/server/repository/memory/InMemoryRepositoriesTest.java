@@ -0,0 +1,147 @@
+package com.habit.server.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.habit.domain.Message;
+import com.habit.domain.Task;
+import com.habit.domain.Team;
+import com.habit.domain.User;
+import com.habit.domain.UserTaskStatus;
+import com.habit.server.AppContext;
+import com.habit.server.repository.MessageRepository;
+import com.habit.server.repository.TaskRepository;
+import com.habit.server.repository.TeamRepository;
+import com.habit.server.repository.UserRepository;
+import com.habit.server.repository.UserTaskStatusRepository;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.*;
+
+class InMemoryRepositoriesTest {
+
+  // 2025-07-05 00:01 JST
+  private static final Clock CLOCK =
+      Clock.fixed(Instant.parse("2025-07-04T15:01:00Z"),
+                  ZoneId.of("Asia/Tokyo"));
+
+  private AppContext context;
+  private UserRepository users;
+  private TeamRepository teams;
+  private TaskRepository tasks;
+  private UserTaskStatusRepository statuses;
+  private MessageRepository messages;
+
+  @BeforeEach
+  void setUp() {
+    context = new AppContext(AppContext.Engine.MEMORY, null, CLOCK);
+    users = context.getUserRepository();
+    teams = context.getTeamRepository();
+    tasks = context.getTaskRepository();
+    statuses = context.getUserTaskStatusRepository();
+    messages = context.getMessageRepository();
+  }
+
+  @AfterEach
+  void tearDown() {
+    context.close();
+  }
+
+  @Test
+  void testEngineSelection() {
+    System.out.println("[テスト開始] testEngineSelection / ストレージエンジンの選択テスト");
+    assertInstanceOf(InMemoryUserRepository.class, users);
+    assertNull(context.getConnectionPool());
+    assertEquals(AppContext.Engine.MEMORY, AppContext.Engine.parse("memory"));
+    assertEquals(AppContext.Engine.SQLITE, AppContext.Engine.parse("sqlite"));
+    assertEquals(AppContext.Engine.SQLITE, AppContext.Engine.parse("unknown"));
+    System.out.println("[成功] testEngineSelection / ストレージエンジンの選択テスト完了");
+  }
+
+  @Test
+  void testMembership() {
+    System.out.println("[テスト開始] testMembership / メンバー構成と参加チームのテスト");
+    users.save(new User("u1", "alice", "x"));
+    users.save(new User("u2", "bob", "x"));
+    assertEquals(1, users.incrementSabotagePoints(Map.of("u2", 55, "u9", 5)));
+    assertEquals(50, users.findById("u2").getSabotagePoints()); // 上限50
+    teams.save(new Team("t1", "one", "u1", "all"), "p1", 2, "all", List.of());
+    teams.save(new Team("t2", "two", "u2", "all"), "p2", 5, "all", List.of());
+
+    assertEquals(1, teams.addMemberByTeamName("one", "u2"));
+    assertEquals(2, teams.addMemberByTeamName("one", "u2"));
+    assertEquals(0, teams.addMemberByTeamName("one", "u3")); // 上限2人
+    assertEquals(-1, teams.addMemberByTeamName("none", "u3"));
+
+    assertEquals(List.of("t2", "t1"), users.findById("u2").getJoinedTeamIds());
+    assertEquals(List.of("t2", "t1"),
+                 teams.findJoinedTeams("u2").stream().map(Team::getTeamID)
+                     .toList());
+    assertEquals(List.of("u1", "u2"), teams.findById("t1").getMemberIds());
+    assertEquals("t1", teams.findTeamIdByPasscode("p1"));
+    assertEquals("alice", users.findByUsername("alice").getUsername());
+    System.out.println("[成功] testMembership / メンバー構成と参加チームのテスト完了");
+  }
+
+  @Test
+  void testStatusesAndCascadeDelete() {
+    System.out.println("[テスト開始] testStatusesAndCascadeDelete / 達成状況とチーム削除のテスト");
+    LocalDate day = LocalDate.of(2025, 7, 1);
+    teams.save(new Team("t1", "one", "u1", "all"), "p1", 5, "all", List.of());
+    tasks.save(new Task("task-1", "walk", "", "t1", "daily"));
+    // teamId のない達成状況にはタスクの teamId を補う
+    statuses.save(new UserTaskStatus("u1", "task-1", day, false));
+    assertEquals(1, statuses.findByTeamIdAndDate("t1", day).size());
+
+    assertEquals(1, statuses.insertMissing(List.of(
+                        new UserTaskStatus("u1", "task-1", "t1", day, true),
+                        new UserTaskStatus("u1", "task-1", "t1",
+                                           day.plusDays(1), false))));
+    UserTaskStatus stored =
+        statuses.findByUserIdAndTaskIdAndDate("u1", "task-1", day)
+            .orElseThrow();
+    assertFalse(stored.isDone()); // 既存の行は変更しない
+    // 取得したオブジェクトを変更しても保存済みの行は変わらない
+    stored.setDone(true);
+    assertFalse(tasks.findUserTaskStatus("u1", "task-1", day).isDone());
+    assertEquals(2, statuses.findByTeamIdAndDateRange("t1", day,
+                                                      day.plusDays(6))
+                        .size());
+
+    messages.save(new Message(new User("u1", "alice", "x"), "t1", "hello",
+                              LocalDateTime.of(2025, 7, 1, 9, 0)));
+    assertEquals(1, messages.findMessagesByteamID("t1", 10).size());
+
+    teams.delete("t1");
+    assertNull(teams.findById("t1"));
+    assertTrue(tasks.findByTeamId("t1").isEmpty());
+    assertTrue(statuses.findByUserId("u1").isEmpty());
+    assertTrue(messages.findMessagesByteamID("t1", 10).isEmpty());
+    assertTrue(teams.findJoinedTeams("u1").isEmpty());
+    System.out.println("[成功] testStatusesAndCascadeDelete / 達成状況とチーム削除のテスト完了");
+  }
+
+  @Test
+  void testTaskAutoResetOnMemoryEngine() {
+    System.out.println("[テスト開始] testTaskAutoResetOnMemoryEngine / インメモリでのタスク自動再設定テスト");
+    LocalDate today = LocalDate.now(CLOCK);
+    tasks.save(new Task("task-daily", "walk", "", "team-a", "DAILY"));
+    statuses.save(new UserTaskStatus("user-1", "task-daily", "team-a",
+                                     today.minusDays(1), true));
+
+    int reset =
+        context.getTaskAutoResetService().checkAndResetTasks("team-a", today);
+
+    assertEquals(1, reset);
+    UserTaskStatus created =
+        statuses.findByUserIdAndTaskIdAndDate("user-1", "task-daily", today)
+            .orElseThrow();
+    assertFalse(created.isDone());
+    assertEquals("team-a", created.getTeamId());
+    System.out.println("[成功] testTaskAutoResetOnMemoryEngine / インメモリでのタスク自動再設定テスト完了");
+  }
+}
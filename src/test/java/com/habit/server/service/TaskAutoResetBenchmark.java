@@ -0,0 +1,95 @@
+package com.habit.server.service;
+
+import com.habit.domain.Task;
+import com.habit.domain.Team;
+import com.habit.domain.User;
+import com.habit.domain.UserTaskStatus;
+import com.habit.server.AppContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * タスク自動再設定（TaskAutoResetService.checkAndResetTasks）の
+ * ストレージエンジンごとの処理時間ベンチマーク。
+ *
+ * 同じデータ（チーム×メンバー×タスク）を SQLite とインメモリの
+ * リポジトリに投入し、1日ずつ全チームの再設定を実行する。インメモリの
+ * 結果はサービス自身の処理時間（ディスクI/Oを含まない）の目安になる。
+ *
+ * 実行方法:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.habit.server.service.TaskAutoResetBenchmark
+ */
+public class TaskAutoResetBenchmark {
+  private static final int TEAMS = 50;
+  private static final int MEMBERS = 10;
+  private static final int TASKS = 5;
+  private static final int WARMUP_DAYS = 3;
+  private static final int DAYS = 10;
+  private static final LocalDate FIRST_DAY = LocalDate.of(2025, 7, 1);
+
+  public static void main(String[] args) throws Exception {
+    Path dir = Files.createTempDirectory("habit-bench");
+    String url = "jdbc:sqlite:" + dir.resolve("bench.db").toAbsolutePath();
+    run(AppContext.Engine.SQLITE, url);
+    run(AppContext.Engine.MEMORY, null);
+  }
+
+  private static void run(AppContext.Engine engine, String url) {
+    try (AppContext context =
+             new AppContext(engine, url, Clock.systemDefaultZone())) {
+      populate(context);
+      TaskAutoResetService service = context.getTaskAutoResetService();
+      LocalDate day = FIRST_DAY;
+      for (int i = 0; i < WARMUP_DAYS; i++, day = day.plusDays(1)) {
+        resetAll(service, day);
+      }
+      long created = 0;
+      long start = System.nanoTime();
+      for (int i = 0; i < DAYS; i++, day = day.plusDays(1)) {
+        created += resetAll(service, day);
+      }
+      long elapsed = System.nanoTime() - start;
+      System.out.printf("%-8s %9.1f ms/day  created/day=%d%n", engine,
+                        elapsed / 1e6 / DAYS, created / DAYS);
+    }
+  }
+
+  private static int resetAll(TaskAutoResetService service, LocalDate day) {
+    int created = 0;
+    for (int t = 0; t < TEAMS; t++) {
+      created += service.checkAndResetTasks("team-" + t, day);
+    }
+    return created;
+  }
+
+  private static void populate(AppContext context) {
+    for (int t = 0; t < TEAMS; t++) {
+      String teamId = "team-" + t;
+      List<String> members = new ArrayList<>();
+      for (int m = 0; m < MEMBERS; m++) {
+        String userId = teamId + "-user-" + m;
+        context.getUserRepository().save(new User(userId, userId, "x"));
+        members.add(userId);
+      }
+      context.getTeamRepository().save(
+          new Team(teamId, teamId, members.get(0), "everyone"), teamId,
+          MEMBERS, "everyone", members);
+      List<UserTaskStatus> statuses = new ArrayList<>();
+      for (int k = 0; k < TASKS; k++) {
+        String taskId = teamId + "-task-" + k;
+        context.getTaskRepository().save(
+            new Task(taskId, "task " + k, "", teamId, "daily"));
+        for (String userId : members) {
+          statuses.add(new UserTaskStatus(userId, taskId, teamId,
+                                          FIRST_DAY.minusDays(1), true));
+        }
+      }
+      context.getUserTaskStatusRepository().saveAll(statuses);
+    }
+  }
+}
@@ -8,17 +8,27 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.habit.domain.Message;
 import com.habit.domain.Task;
 import com.habit.domain.UserTaskStatus;
+import com.habit.server.repository.ConnectionPool;
 import com.habit.server.repository.MessageRepository;
+import com.habit.server.repository.SqliteMessageRepository;
+import com.habit.server.repository.SqliteTaskRepository;
+import com.habit.server.repository.SqliteTeamRepository;
+import com.habit.server.repository.SqliteUserTaskStatusRepository;
 import com.habit.server.repository.TaskRepository;
+import com.habit.server.repository.TeamRepository;
 import com.habit.server.repository.UserTaskStatusRepository;
 
 import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * このテストコードは、以下の3つのシナリオを検証します。
@@ -50,15 +60,17 @@ class TaskAutoResetServiceTest {
     void setUp() {
         // 各テストの前にテスト用DBファイルを削除してクリーンな状態にする
         new File(TEST_DB_PATH).delete();
+        // 共有の接続プールに、ファイルを作り直したことを知らせる
+        ConnectionPool.shared(TEST_DB_URL).reset();
 
         // テスト用のリポジトリを初期化
-        taskRepository = new TaskRepository(TEST_DB_URL);
-        userTaskStatusRepository = new UserTaskStatusRepository(TEST_DB_URL);
-        userRepository = new com.habit.server.repository.UserRepository(TEST_DB_URL);
-        messageRepository = new MessageRepository(TEST_DB_URL); // 追加
+        taskRepository = new SqliteTaskRepository(TEST_DB_URL);
+        userTaskStatusRepository = new SqliteUserTaskStatusRepository(TEST_DB_URL);
+        userRepository = new com.habit.server.repository.SqliteUserRepository(TEST_DB_URL);
+        messageRepository = new SqliteMessageRepository(TEST_DB_URL); // 追加
 
         // テスト対象のサービスに、テスト用リポジトリと「固定した時計」を注入
-        taskAutoResetService = new TaskAutoResetService(taskRepository, userTaskStatusRepository, userRepository, messageRepository, fixedClock);
+        taskAutoResetService = new TaskAutoResetService(taskRepository, userTaskStatusRepository, userRepository, messageRepository, new SqliteTeamRepository(TEST_DB_URL), fixedClock);
     }
 
     @AfterEach
@@ -239,4 +251,55 @@ class TaskAutoResetServiceTest {
         // --- Then (検証) ---
         // checkAndResetTasksは完了済みタスクのサボりポイントを変動させないため、ここでは検証しない
     }
-}
\ No newline at end of file
+
+    @Test
+    void testScheduledRunDuringCatchUpIsNotDoubled() throws Exception {
+        System.out.println("[テスト開始] testScheduledRunDuringCatchUpIsNotDoubled / キャッチアップ中の定期実行テスト");
+        final String teamId = "team-g";
+        final String userId = "user-7";
+        final String taskId = "task-catch-up";
+        final LocalDate today = LocalDate.now(fixedClock);
+        final Path lastExecution = Path.of("last_execution.log");
+
+        com.habit.domain.User user = new com.habit.domain.User(userId, "testuser7", "hashedpass");
+        user.setSabotagePoints(0);
+        userRepository.save(user);
+        taskRepository.save(new Task(taskId, "キャッチアップタスク", "", teamId, "DAILY"));
+        userTaskStatusRepository.save(new UserTaskStatus(userId, taskId, teamId, today.minusDays(2), false));
+
+        // キャッチアップの最初の日付の処理中に、午前0時の定期実行（今日の分）が別スレッドから呼ばれる
+        AtomicInteger calls = new AtomicInteger();
+        TeamRepository teams = (TeamRepository) Proxy.newProxyInstance(
+            TeamRepository.class.getClassLoader(), new Class<?>[] {TeamRepository.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("findAllTeamIds")) {
+                    if (calls.incrementAndGet() == 1) {
+                        Thread scheduled = new Thread(() -> taskAutoResetService.runScheduledCheckForDate(today));
+                        scheduled.start();
+                        scheduled.join(5000);
+                        assertFalse(scheduled.isAlive(), "定期実行はキャッチアップを待たずに戻るはず");
+                    }
+                    return List.of(teamId);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        taskAutoResetService = new TaskAutoResetService(taskRepository, userTaskStatusRepository, userRepository, messageRepository, teams, fixedClock);
+
+        Files.writeString(lastExecution, today.minusDays(2).toString());
+        try {
+            CatchUpProgress progress = new CatchUpProgress();
+            taskAutoResetService.catchUpMissedExecutions(progress);
+
+            assertEquals(CatchUpProgress.State.READY, progress.getState());
+            assertEquals(2, progress.toJson().getInt("completedDays"));
+            // 昨日・今日の2日分を1回ずつ処理する（定期実行の分は処理済みのためスキップ）
+            assertEquals(2, calls.get());
+            assertEquals(10, userRepository.findById(userId).getSabotagePoints());
+            assertEquals(2, messageRepository.findMessagesByteamID(teamId, 10).size());
+            assertEquals(today.toString(), Files.readString(lastExecution));
+        } finally {
+            Files.deleteIfExists(lastExecution);
+        }
+        System.out.println("[成功] testScheduledRunDuringCatchUpIsNotDoubled / キャッチアップ中の定期実行テスト完了");
+    }
+}